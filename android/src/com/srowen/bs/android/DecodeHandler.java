@@ -33,6 +33,7 @@ import com.google.zxing.ResultPoint;
 import com.google.zxing.ResultPointCallback;
 import com.google.zxing.ScalingResultPointCallback;
 import com.google.zxing.common.advanced.rowedge.RowEdgeDetectorBinarizer;
+import com.google.zxing.common.BinarizerWorkspace;
 import com.google.zxing.common.HybridBinarizer;
 
 import android.os.Bundle;
@@ -63,6 +64,7 @@ final class DecodeHandler extends Handler {
   private final Map<DecodeHintType,?> hints;
   private boolean running;
   private final MultiFormatReader multiFormatReader;
+  private final BinarizerWorkspace binarizerWorkspace;
   private boolean enableEnhanced;
   private final ExecutorService enhancedDecodeExecutor;
   private final AtomicBoolean isEnhancedRunning;
@@ -74,6 +76,7 @@ final class DecodeHandler extends Handler {
     running = true;
     multiFormatReader = new MultiFormatReader();
     multiFormatReader.setHints(hints);
+    binarizerWorkspace = new BinarizerWorkspace();
     enableEnhanced = true;
     enhancedDecodeExecutor = Executors.newSingleThreadExecutor();
     isEnhancedRunning = new AtomicBoolean(false);
@@ -144,7 +147,8 @@ final class DecodeHandler extends Handler {
       enhancedDecodeExecutor.submit(new EnhancedDecodeRunnable(source));
     }
 
-    BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(source));
+    // Preview frames are all the same size, so reuse the binarizer's buffers from frame to frame
+    BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(source, binarizerWorkspace));
     Result rawResult = null;
     try {
       try {
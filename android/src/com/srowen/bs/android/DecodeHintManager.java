@@ -132,6 +132,9 @@ final class DecodeHintManager {
           hintType == DecodeHintType.POSSIBLE_FORMATS) {
         continue; // This hint is specified in another way
       }
+      if (hintType == DecodeHintType.FORK_JOIN_POOL) {
+        continue; // A thread pool can't be passed in from outside the app
+      }
 
       String parameterName = hintType.name();
       String parameterText = parameters.get(parameterName);
@@ -212,6 +215,9 @@ final class DecodeHintManager {
           hintType == DecodeHintType.POSSIBLE_FORMATS) {
         continue; // This hint is specified in another way
       }
+      if (hintType == DecodeHintType.FORK_JOIN_POOL) {
+        continue; // A thread pool can't be passed in from outside the app
+      }
 
       String hintName = hintType.name();
       if (extras.containsKey(hintName)) {
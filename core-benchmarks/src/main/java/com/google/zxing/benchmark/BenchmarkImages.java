@@ -0,0 +1,121 @@
+/*
+ * Copyright 2016 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.benchmark;
+
+import com.google.zxing.Binarizer;
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.RGBLuminanceSource;
+import com.google.zxing.common.GlobalHistogramBinarizer;
+import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.common.IntegralImageBinarizer;
+import com.google.zxing.common.advanced.rowedge.RowEdgeDetectorBinarizer;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Loads the benchmark and blackbox image corpora shipped with the core module's tests.
+ * Images are converted to luminance once, up front, so that benchmarks measure only the
+ * library code.
+ */
+final class BenchmarkImages {
+
+  /**
+   * System property which may point to the directory containing {@code benchmark/} and
+   * {@code blackbox/}. By default these are found under {@code core/src/test/resources}.
+   */
+  static final String BASE_PROPERTY = "zxing.benchmark.base";
+
+  private static final String DEFAULT_BASE = "core/src/test/resources";
+
+  // Shared by benchmarks that spread work on one image over several threads
+  static final ForkJoinPool POOL = new ForkJoinPool();
+
+  private BenchmarkImages() {
+  }
+
+  static LuminanceSource[] load(String imageDir) throws IOException {
+    Path dir = resolve(imageDir);
+    List<Path> paths = new ArrayList<>();
+    try (DirectoryStream<Path> pathIt = Files.newDirectoryStream(dir, "*.{jpg,jpeg,gif,png,JPG,JPEG,GIF,PNG}")) {
+      for (Path path : pathIt) {
+        paths.add(path);
+      }
+    }
+    if (paths.isEmpty()) {
+      throw new IOException("No images in " + dir);
+    }
+    // Directory iteration order is not defined; keep runs comparable
+    Collections.sort(paths);
+    LuminanceSource[] sources = new LuminanceSource[paths.size()];
+    for (int i = 0; i < sources.length; i++) {
+      sources[i] = toLuminanceSource(ImageIO.read(paths.get(i).toFile()));
+    }
+    return sources;
+  }
+
+  static Binarizer newBinarizer(String type, LuminanceSource source, boolean tryHarder) {
+    switch (type) {
+      case "hybrid":
+        return new HybridBinarizer(source);
+      case "hybrid-parallel":
+        return new HybridBinarizer(source, null, POOL);
+      case "global":
+        return new GlobalHistogramBinarizer(source);
+      case "integral":
+        return new IntegralImageBinarizer(source);
+      case "rowedge":
+        RowEdgeDetectorBinarizer binarizer = new RowEdgeDetectorBinarizer(source);
+        binarizer.setTryHarder(tryHarder);
+        return binarizer;
+      default:
+        throw new IllegalArgumentException("Unknown binarizer: " + type);
+    }
+  }
+
+  private static Path resolve(String imageDir) throws IOException {
+    String base = System.getProperty(BASE_PROPERTY);
+    if (base != null) {
+      return Paths.get(base).resolve(imageDir);
+    }
+    // Work whether run from the project root or from a module directory
+    for (Path candidate : new Path[] { Paths.get(DEFAULT_BASE), Paths.get("..").resolve(DEFAULT_BASE) }) {
+      Path dir = candidate.resolve(imageDir);
+      if (Files.isDirectory(dir)) {
+        return dir;
+      }
+    }
+    throw new IOException("Can't find " + imageDir + "; set -D" + BASE_PROPERTY);
+  }
+
+  private static LuminanceSource toLuminanceSource(BufferedImage image) {
+    int width = image.getWidth();
+    int height = image.getHeight();
+    int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+    return new RGBLuminanceSource(width, height, pixels);
+  }
+
+}
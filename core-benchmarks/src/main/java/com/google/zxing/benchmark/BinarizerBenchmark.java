@@ -0,0 +1,80 @@
+/*
+ * Copyright 2016 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.benchmark;
+
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.common.BitMatrix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link com.google.zxing.Binarizer#getBlackMatrix()} for each binarizer. A new binarizer
+ * is created for every operation since implementations cache their result, which is also what
+ * a scanning loop does per frame. {@code tryHarder} selects the larger zoom of
+ * {@link com.google.zxing.common.advanced.rowedge.RowEdgeDetectorBinarizer} and is ignored by the others.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BinarizerBenchmark {
+
+  @Param({"hybrid", "hybrid-parallel", "global", "integral", "rowedge"})
+  public String binarizer;
+
+  @Param({"benchmark/android-1", "benchmark/android-2", "blackbox/qrcode-2", "blackbox/pdf417-1",
+          "blackbox/ean13-1"})
+  public String imageDir;
+
+  @Param({"false", "true"})
+  public boolean tryHarder;
+
+  private LuminanceSource[] sources;
+  private int next;
+
+  @Setup
+  public void setUp() throws IOException {
+    sources = BenchmarkImages.load(imageDir);
+  }
+
+  @Benchmark
+  public BitMatrix getBlackMatrix() {
+    LuminanceSource source = sources[next];
+    next = (next + 1) % sources.length;
+    try {
+      return BenchmarkImages.newBinarizer(binarizer, source, tryHarder).getBlackMatrix();
+    } catch (NotFoundException nfe) {
+      return null;
+    }
+  }
+
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2016 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.benchmark;
+
+import com.google.zxing.common.BitArray;
+import com.google.zxing.common.BitMatrix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the word-at-a-time operations of {@link BitArray} and {@link BitMatrix} that the
+ * readers lean on, over rows like those of a binarized camera frame: runs of random length, or
+ * mostly white with a single barcode-like stretch in the middle.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BitArrayBenchmark {
+
+  private static final int WIDTH = 2000;
+  private static final int HEIGHT = 1000;
+
+  @Param({"1", "20"})
+  public int maxRunLength;
+
+  private BitArray row;
+  private BitArray other;
+  private BitArray sparseRow;
+  private BitMatrix matrix;
+  private BitArray rowBuffer;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(0xDEADBEEF);
+    row = randomRow(random, maxRunLength);
+    other = randomRow(random, maxRunLength);
+    sparseRow = new BitArray(WIDTH);
+    sparseRow.setRange(WIDTH * 2 / 5, WIDTH * 3 / 5);
+    matrix = new BitMatrix(WIDTH, HEIGHT);
+    for (int y = 0; y < HEIGHT; y++) {
+      matrix.setRow(y, randomRow(random, maxRunLength));
+    }
+    rowBuffer = new BitArray(WIDTH);
+  }
+
+  private static BitArray randomRow(Random random, int maxRunLength) {
+    BitArray row = new BitArray(WIDTH);
+    boolean black = false;
+    int x = 0;
+    while (x < WIDTH) {
+      int end = Math.min(WIDTH, x + 1 + random.nextInt(maxRunLength));
+      if (black) {
+        row.setRange(x, end);
+      }
+      black = !black;
+      x = end;
+    }
+    return row;
+  }
+
+  /**
+   * Walks every transition in the row, as the 1D readers do when counting runs.
+   */
+  @Benchmark
+  public int nextSetUnset() {
+    int transitions = 0;
+    int x = row.getNextSet(0);
+    while (x < WIDTH) {
+      x = row.getNextUnset(x);
+      x = row.getNextSet(x);
+      transitions++;
+    }
+    return transitions;
+  }
+
+  /**
+   * Skips the white margin of a mostly white row.
+   */
+  @Benchmark
+  public int nextSetSparse() {
+    return sparseRow.getNextSet(0) + sparseRow.getNextUnset(WIDTH * 2 / 5);
+  }
+
+  /**
+   * Checks a white quiet zone half as wide as the row.
+   */
+  @Benchmark
+  public boolean isRange() {
+    return sparseRow.isRange(0, WIDTH * 2 / 5, false);
+  }
+
+  @Benchmark
+  public BitArray reverse() {
+    row.reverse();
+    return row;
+  }
+
+  @Benchmark
+  public BitArray xor() {
+    row.xor(other);
+    return row;
+  }
+
+  @Benchmark
+  public BitArray getRow() {
+    for (int y = 0; y < HEIGHT; y++) {
+      rowBuffer = matrix.getRow(y, rowBuffer);
+    }
+    return rowBuffer;
+  }
+
+  @Benchmark
+  public BitMatrix rotate180() {
+    matrix.rotate180();
+    return matrix;
+  }
+
+  @Benchmark
+  public BitMatrix transpose() {
+    return matrix.transpose();
+  }
+
+}
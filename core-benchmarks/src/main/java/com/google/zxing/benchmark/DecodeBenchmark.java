@@ -0,0 +1,93 @@
+/*
+ * Copyright 2016 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.benchmark;
+
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.MultiFormatReader;
+import com.google.zxing.ReaderException;
+import com.google.zxing.Result;
+import com.google.zxing.common.HybridBinarizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link MultiFormatReader#decodeWithState(BinaryBitmap)} over each image in a corpus
+ * directory, as a continuous scan client would call it. Each operation decodes the next image in
+ * the directory, including binarization, so sampled latencies cover the whole corpus.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DecodeBenchmark {
+
+  @Param({"benchmark/android-1", "benchmark/android-2",
+          "blackbox/qrcode-2", "blackbox/datamatrix-1", "blackbox/aztec-1", "blackbox/pdf417-1",
+          "blackbox/ean13-1", "blackbox/upca-2", "blackbox/code128-1", "blackbox/rss14-2",
+          "blackbox/falsepositives"})
+  public String imageDir;
+
+  @Param({"false", "true"})
+  public boolean tryHarder;
+
+  private LuminanceSource[] sources;
+  private MultiFormatReader reader;
+  private int next;
+
+  @Setup
+  public void setUp() throws IOException {
+    sources = BenchmarkImages.load(imageDir);
+    Map<DecodeHintType,Object> hints = new EnumMap<>(DecodeHintType.class);
+    if (tryHarder) {
+      hints.put(DecodeHintType.TRY_HARDER, Boolean.TRUE);
+    }
+    reader = new MultiFormatReader();
+    reader.setHints(hints);
+  }
+
+  @Benchmark
+  public Result decodeWithState() {
+    LuminanceSource source = sources[next];
+    next = (next + 1) % sources.length;
+    try {
+      return reader.decodeWithState(new BinaryBitmap(new HybridBinarizer(source)));
+    } catch (ReaderException re) {
+      return null;
+    } finally {
+      reader.reset();
+    }
+  }
+
+}
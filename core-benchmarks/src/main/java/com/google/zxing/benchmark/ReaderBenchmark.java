@@ -0,0 +1,172 @@
+/*
+ * Copyright 2016 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.benchmark;
+
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.Reader;
+import com.google.zxing.ReaderException;
+import com.google.zxing.Result;
+import com.google.zxing.aztec.AztecReader;
+import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.datamatrix.DataMatrixReader;
+import com.google.zxing.maxicode.MaxiCodeReader;
+import com.google.zxing.oned.CodaBarReader;
+import com.google.zxing.oned.Code128Reader;
+import com.google.zxing.oned.Code39Reader;
+import com.google.zxing.oned.Code93Reader;
+import com.google.zxing.oned.EAN13Reader;
+import com.google.zxing.oned.EAN8Reader;
+import com.google.zxing.oned.ITFReader;
+import com.google.zxing.oned.UPCAReader;
+import com.google.zxing.oned.UPCEReader;
+import com.google.zxing.oned.rss.RSS14Reader;
+import com.google.zxing.oned.rss.expanded.RSSExpandedReader;
+import com.google.zxing.pdf417.PDF417Reader;
+import com.google.zxing.qrcode.QRCodeReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures each format's {@link Reader} alone, against the blackbox directory for that format.
+ * The reader is chosen from the directory name, so that e.g. {@code blackbox/qrcode-3} is decoded
+ * with {@link QRCodeReader}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReaderBenchmark {
+
+  @Param({"blackbox/qrcode-1", "blackbox/qrcode-2", "blackbox/qrcode-3", "blackbox/qrcode-4",
+          "blackbox/qrcode-5", "blackbox/qrcode-6",
+          "blackbox/datamatrix-1", "blackbox/datamatrix-2",
+          "blackbox/aztec-1", "blackbox/aztec-2",
+          "blackbox/pdf417-1", "blackbox/pdf417-2", "blackbox/pdf417-3",
+          "blackbox/maxicode-1",
+          "blackbox/codabar-1", "blackbox/code39-1", "blackbox/code93-1",
+          "blackbox/code128-1", "blackbox/code128-2", "blackbox/code128-3",
+          "blackbox/ean8-1", "blackbox/ean13-1", "blackbox/ean13-2", "blackbox/ean13-3",
+          "blackbox/upca-1", "blackbox/upca-2", "blackbox/upca-3", "blackbox/upce-1", "blackbox/upce-2",
+          "blackbox/itf-1", "blackbox/itf-2",
+          "blackbox/rss14-1", "blackbox/rss14-2",
+          "blackbox/rssexpanded-1", "blackbox/rssexpandedstacked-1"})
+  public String imageDir;
+
+  @Param({"false", "true"})
+  public boolean tryHarder;
+
+  // Whether readers may spread work on one image over several threads, as the QR Code finder
+  // pattern search and, when trying harder, the 1D readers do
+  @Param({"false", "true"})
+  public boolean forkJoinPool;
+
+  private LuminanceSource[] sources;
+  private Reader reader;
+  private Map<DecodeHintType,Object> hints;
+  private int next;
+
+  @Setup
+  public void setUp() throws IOException {
+    sources = BenchmarkImages.load(imageDir);
+    reader = readerFor(imageDir);
+    hints = new EnumMap<>(DecodeHintType.class);
+    if (tryHarder) {
+      hints.put(DecodeHintType.TRY_HARDER, Boolean.TRUE);
+    }
+    if (forkJoinPool) {
+      hints.put(DecodeHintType.FORK_JOIN_POOL, BenchmarkImages.POOL);
+    }
+    if (reader instanceof MaxiCodeReader) {
+      // It only reads pure barcodes, and finds nothing without this
+      hints.put(DecodeHintType.PURE_BARCODE, Boolean.TRUE);
+    }
+  }
+
+  @Benchmark
+  public Result decode() {
+    LuminanceSource source = sources[next];
+    next = (next + 1) % sources.length;
+    try {
+      return reader.decode(new BinaryBitmap(new HybridBinarizer(source)), hints);
+    } catch (ReaderException re) {
+      return null;
+    } finally {
+      reader.reset();
+    }
+  }
+
+  private static Reader readerFor(String imageDir) {
+    String name = imageDir.substring(imageDir.lastIndexOf('/') + 1);
+    String format = name.substring(0, name.lastIndexOf('-'));
+    switch (format) {
+      case "qrcode":
+        return new QRCodeReader();
+      case "datamatrix":
+        return new DataMatrixReader();
+      case "aztec":
+        return new AztecReader();
+      case "pdf417":
+        return new PDF417Reader();
+      case "maxicode":
+        return new MaxiCodeReader();
+      case "codabar":
+        return new CodaBarReader();
+      case "code39":
+        return new Code39Reader();
+      case "code93":
+        return new Code93Reader();
+      case "code128":
+        return new Code128Reader();
+      case "ean8":
+        return new EAN8Reader();
+      case "ean13":
+        return new EAN13Reader();
+      case "upca":
+        return new UPCAReader();
+      case "upce":
+        return new UPCEReader();
+      case "itf":
+        return new ITFReader();
+      case "rss14":
+        return new RSS14Reader();
+      case "rssexpanded":
+      case "rssexpandedstacked":
+        return new RSSExpandedReader();
+      default:
+        throw new IllegalArgumentException("No reader for " + imageDir);
+    }
+  }
+
+}
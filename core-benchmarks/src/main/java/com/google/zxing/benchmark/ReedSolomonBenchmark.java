@@ -0,0 +1,87 @@
+/*
+ * Copyright 2016 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.benchmark;
+
+import com.google.zxing.common.reedsolomon.GenericGF;
+import com.google.zxing.common.reedsolomon.ReedSolomonDecoder;
+import com.google.zxing.common.reedsolomon.ReedSolomonEncoder;
+import com.google.zxing.common.reedsolomon.ReedSolomonException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link ReedSolomonDecoder#decode(int[], int)} on a block of codewords the size of a
+ * QR Code version 10-H block, with no errors and with as many as can be corrected.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReedSolomonBenchmark {
+
+  private static final int NUM_DATA_CODEWORDS = 15;
+  private static final int NUM_EC_CODEWORDS = 28;
+
+  @Param({"QR_CODE_FIELD_256", "AZTEC_DATA_10"})
+  public String field;
+
+  @Param({"0", "14"})
+  public int numErrors;
+
+  private ReedSolomonDecoder decoder;
+  private int[] received;
+  private int[] codewords;
+
+  @Setup
+  public void setUp() throws ReflectiveOperationException {
+    GenericGF gf = (GenericGF) GenericGF.class.getField(field).get(null);
+    Random random = new Random(0xDEADBEEF);
+    received = new int[NUM_DATA_CODEWORDS + NUM_EC_CODEWORDS];
+    for (int i = 0; i < NUM_DATA_CODEWORDS; i++) {
+      received[i] = random.nextInt(gf.getSize());
+    }
+    new ReedSolomonEncoder(gf).encode(received, NUM_EC_CODEWORDS);
+    for (int i = 0; i < numErrors; i++) {
+      // Every third codeword, from the start
+      received[3 * i] ^= 1 + random.nextInt(gf.getSize() - 1);
+    }
+    decoder = new ReedSolomonDecoder(gf);
+    codewords = new int[received.length];
+  }
+
+  @Benchmark
+  public int[] decode() throws ReedSolomonException {
+    System.arraycopy(received, 0, codewords, 0, received.length);
+    decoder.decode(codewords, NUM_EC_CODEWORDS);
+    return codewords;
+  }
+
+}
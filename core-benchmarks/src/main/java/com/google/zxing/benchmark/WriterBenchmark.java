@@ -0,0 +1,93 @@
+/*
+ * Copyright 2016 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.benchmark;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.MultiFormatWriter;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link MultiFormatWriter#encode(String, BarcodeFormat, int, int)} for each format
+ * with typical contents for that format.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WriterBenchmark {
+
+  private static final String TEXT = "http://www.example.com/some/fairly/long/path?and=query&string=123456";
+
+  @Param({"QR_CODE", "DATA_MATRIX", "AZTEC", "PDF_417",
+          "CODE_128", "CODE_39", "CODE_93", "CODABAR", "ITF", "EAN_13", "EAN_8", "UPC_A", "UPC_E"})
+  public BarcodeFormat format;
+
+  private MultiFormatWriter writer;
+  private String contents;
+
+  @Setup
+  public void setUp() {
+    writer = new MultiFormatWriter();
+    contents = contentsFor(format);
+  }
+
+  @Benchmark
+  public BitMatrix encode() throws WriterException {
+    return writer.encode(contents, format, 0, 0);
+  }
+
+  private static String contentsFor(BarcodeFormat format) {
+    switch (format) {
+      case CODE_128:
+        return "SHIP-0123456789-ABCDEF";
+      case CODE_39:
+      case CODE_93:
+        return "ZXING-12345";
+      case CODABAR:
+        return "A0123456789B";
+      case ITF:
+        return "00012345678905";
+      case EAN_13:
+        return "5901234123457";
+      case EAN_8:
+        return "96385074";
+      case UPC_A:
+        return "485963095124";
+      case UPC_E:
+        return "05096893";
+      default:
+        return TEXT;
+    }
+  }
+
+}
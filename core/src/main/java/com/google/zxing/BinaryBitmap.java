@@ -18,23 +18,51 @@ package com.google.zxing;
 
 import com.google.zxing.common.BitArray;
 import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.DecodeTimer;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * This class is the core bitmap class used by ZXing to represent 1 bit data. Reader objects
  * accept a BinaryBitmap and attempt to decode it.
  *
+ * <p>Instances may be shared by readers running on several threads. The {@link Binarizer} is
+ * only ever called by one thread at a time, and the black matrix is computed once and shared.
+ * Optionally, rows returned by {@link #getBlackRow(int, BitArray)} are also computed once per
+ * row and then copied out to each caller.</p>
+ *
  * @author dswitkin@google.com (Daniel Switkin)
  */
 public final class BinaryBitmap {
 
+  // Marks a row the binarizer could not binarize
+  private static final BitArray NO_ROW = new BitArray();
+
   private final Binarizer binarizer;
-  private BitMatrix matrix;
+  private final AtomicReferenceArray<BitArray> rows;
+  private volatile BitMatrix matrix;
 
   public BinaryBitmap(Binarizer binarizer) {
+    this(binarizer, false);
+  }
+
+  /**
+   * @param binarizer binarizer to get 1 bit data from
+   * @param memoizeRows if true, remember each row from {@link #getBlackRow(int, BitArray)} so that
+   *  callers asking for it again, on any thread, get a copy instead of binarizing it again. Worth it
+   *  when several 1D decodes run over one image, at the cost of memory for one bit per pixel
+   */
+  public BinaryBitmap(Binarizer binarizer, boolean memoizeRows) {
     if (binarizer == null) {
       throw new IllegalArgumentException("Binarizer must be non-null.");
     }
     this.binarizer = binarizer;
+    rows = memoizeRows ? new AtomicReferenceArray<BitArray>(binarizer.getHeight()) : null;
+  }
+
+  private BinaryBitmap(Binarizer binarizer, AtomicReferenceArray<BitArray> rows) {
+    this.binarizer = binarizer;
+    this.rows = rows;
   }
 
   /**
@@ -63,7 +91,53 @@ public final class BinaryBitmap {
    * @throws NotFoundException if row can't be binarized
    */
   public BitArray getBlackRow(int y, BitArray row) throws NotFoundException {
-    return binarizer.getBlackRow(y, row);
+    return getBlackRow(y, row, null);
+  }
+
+  /**
+   * As {@link #getBlackRow(int, BitArray)}, but reports the time taken as
+   * {@link DecodePhase#BINARIZATION} to a listener, whenever the row is actually binarized.
+   *
+   * @param y The row to fetch, which must be in [0, bitmap height)
+   * @param row An optional preallocated array, as above
+   * @param listener listener to report to, or {@code null}
+   * @return The array of bits for this row (true means black).
+   * @throws NotFoundException if row can't be binarized
+   */
+  public BitArray getBlackRow(int y, BitArray row, DecodeListener listener) throws NotFoundException {
+    if (rows == null || y < 0 || y >= rows.length()) {
+      synchronized (binarizer) {
+        return binarizeRow(y, row, listener);
+      }
+    }
+    BitArray blackRow = rows.get(y);
+    if (blackRow == null) {
+      synchronized (binarizer) {
+        blackRow = rows.get(y);
+        if (blackRow == null) {
+          try {
+            blackRow = binarizeRow(y, null, listener);
+          } catch (NotFoundException nfe) {
+            blackRow = NO_ROW;
+          }
+          rows.set(y, blackRow);
+        }
+      }
+    }
+    if (blackRow == NO_ROW) {
+      throw NotFoundException.getNotFoundInstance();
+    }
+    // Callers may modify what they get back, as with BitArray.reverse(), so hand out a copy
+    if (row == null || row.getSize() < blackRow.getSize()) {
+      return blackRow.clone();
+    }
+    long[] from = blackRow.getBitArray();
+    long[] to = row.getBitArray();
+    System.arraycopy(from, 0, to, 0, from.length);
+    for (int i = from.length; i < to.length; i++) {
+      to[i] = 0;
+    }
+    return row;
   }
 
   /**
@@ -76,15 +150,67 @@ public final class BinaryBitmap {
    * @throws NotFoundException if image can't be binarized to make a matrix
    */
   public BitMatrix getBlackMatrix() throws NotFoundException {
+    return getBlackMatrix(null);
+  }
+
+  /**
+   * As {@link #getBlackMatrix()}, but reports the time taken as {@link DecodePhase#BINARIZATION}
+   * to a listener, if the matrix is actually computed by this call rather than already cached.
+   *
+   * @param listener listener to report to, or {@code null}
+   * @return The 2D array of bits for the image (true means black).
+   * @throws NotFoundException if image can't be binarized to make a matrix
+   */
+  public BitMatrix getBlackMatrix(DecodeListener listener) throws NotFoundException {
     // The matrix is created on demand the first time it is requested, then cached. There are two
     // reasons for this:
     // 1. This work will never be done if the caller only installs 1D Reader objects, or if a
     //    1D Reader finds a barcode before the 2D Readers run.
     // 2. This work will only be done once even if the caller installs multiple 2D Readers.
-    if (matrix == null) {
-      matrix = binarizer.getBlackMatrix();
+    // Readers on other threads wait for and share the one result.
+    BitMatrix result = matrix;
+    if (result == null) {
+      synchronized (binarizer) {
+        result = matrix;
+        if (result == null) {
+          long start = DecodeTimer.start(listener);
+          try {
+            result = binarizer.getBlackMatrix();
+          } catch (NotFoundException nfe) {
+            DecodeTimer.finish(listener, null, DecodePhase.BINARIZATION, start, nfe);
+            throw nfe;
+          }
+          DecodeTimer.finish(listener, null, DecodePhase.BINARIZATION, start, null);
+          matrix = result;
+        }
+      }
     }
-    return matrix;
+    return result;
+  }
+
+  // Callers hold the binarizer's lock
+  private BitArray binarizeRow(int y, BitArray row, DecodeListener listener) throws NotFoundException {
+    long start = DecodeTimer.start(listener);
+    BitArray result;
+    try {
+      result = binarizer.getBlackRow(y, row);
+    } catch (NotFoundException nfe) {
+      DecodeTimer.finish(listener, null, DecodePhase.BINARIZATION, start, nfe);
+      throw nfe;
+    }
+    DecodeTimer.finish(listener, null, DecodePhase.BINARIZATION, start, null);
+    return result;
+  }
+
+  /**
+   * Returns a new object over the same image data, but with a binarizer of its own, so that rows
+   * can be binarized on another thread at the same time as rows of this one, rather than each
+   * waiting for the other. Any rows remembered are shared with this one. The black matrix isn't.
+   *
+   * @return A copy of this object with its own binarizer.
+   */
+  public BinaryBitmap copyWithOwnBinarizer() {
+    return new BinaryBitmap(binarizer.createBinarizer(binarizer.getLuminanceSource()), rows);
   }
 
   /**
@@ -106,7 +232,7 @@ public final class BinaryBitmap {
    */
   public BinaryBitmap crop(int left, int top, int width, int height) {
     LuminanceSource newSource = binarizer.getLuminanceSource().crop(left, top, width, height);
-    return new BinaryBitmap(binarizer.createBinarizer(newSource));
+    return new BinaryBitmap(binarizer.createBinarizer(newSource), rows != null);
   }
 
   /**
@@ -124,7 +250,7 @@ public final class BinaryBitmap {
    */
   public BinaryBitmap rotateCounterClockwise() {
     LuminanceSource newSource = binarizer.getLuminanceSource().rotateCounterClockwise();
-    return new BinaryBitmap(binarizer.createBinarizer(newSource));
+    return new BinaryBitmap(binarizer.createBinarizer(newSource), rows != null);
   }
 
   /**
@@ -135,7 +261,7 @@ public final class BinaryBitmap {
    */
   public BinaryBitmap rotateCounterClockwise45() {
     LuminanceSource newSource = binarizer.getLuminanceSource().rotateCounterClockwise45();
-    return new BinaryBitmap(binarizer.createBinarizer(newSource));
+    return new BinaryBitmap(binarizer.createBinarizer(newSource), rows != null);
   }
 
   @Override
@@ -16,7 +16,10 @@
 
 package com.google.zxing;
 
+import com.google.zxing.common.GridSampler;
+
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Encapsulates a type of hint that a caller may pass to a barcode reader to help it
@@ -88,6 +91,23 @@ public enum DecodeHintType {
    */
   NEED_RESULT_POINT_CALLBACK(ResultPointCallback.class),
 
+  /**
+   * Pool on which a reader may spread its work on one image over several threads, such as the
+   * search for QR Code finder patterns in a large image, or, when trying harder, the decoding of
+   * rows by a 1D reader. Maps to a {@link java.util.concurrent.ForkJoinPool}, though it is declared
+   * as an {@link Object} since that class is not available on every platform this library supports.
+   * Searching in parallel, the QR Code finder pattern search can't stop early as it may serially,
+   * so it may now and then settle on different finder patterns. RSS readers combine rows, so a 1D
+   * reader only decodes rows in parallel if {@link #POSSIBLE_FORMATS} excludes RSS formats.
+   */
+  FORK_JOIN_POOL(Object.class),
+
+  /**
+   * The caller wants to know how long each phase of decoding takes, and why any failed.
+   * Maps to a {@link DecodeListener}.
+   */
+  DECODE_LISTENER(DecodeListener.class),
+
 
   /**
    * Allowed extension lengths for EAN or UPC barcodes. Other formats will ignore this.
@@ -98,6 +118,44 @@ public enum DecodeHintType {
    */
   ALLOWED_EAN_EXTENSIONS(int[].class),
 
+  /**
+   * Side length, in pixels, of the square neighborhood over which
+   * {@link com.google.zxing.common.IntegralImageBinarizer} averages luminance to pick each pixel's
+   * threshold. Larger windows suit larger, more unevenly lit barcodes. The neighborhood is centered on
+   * the pixel, so an even size is rounded up to the next odd one. Maps to an {@link Integer}.
+   */
+  BINARIZER_WINDOW_SIZE(Integer.class),
+
+  /**
+   * Highest QR Code version expected. Without {@link #TRY_HARDER}, the search for finder patterns
+   * otherwise only reliably finds codes up to version 10 that are at least a quarter as tall as
+   * the image; given a higher version, it looks again more closely wherever it saw something
+   * like a finder pattern too small for that. Maps to an {@link Integer}.
+   */
+  QR_CODE_MAX_VERSION(Integer.class),
+
+  /**
+   * The {@link GridSampler} with which to sample QR Code, Data Matrix and Aztec codes, in place of
+   * the one set for the whole library, such as a
+   * {@link com.google.zxing.common.SupersamplingGridSampler}. Maps to a {@link GridSampler}.
+   */
+  GRID_SAMPLER(GridSampler.class),
+
+  /**
+   * Where no one row of a UPC/EAN or Code 128 barcode passes its checksum, decode what most rows
+   * agree each symbol is, if that does. Readers then remember what they read from rows until reset.
+   * Doesn't matter what it maps to; use {@link Boolean#TRUE}.
+   */
+  VOTE_ACROSS_ROWS(Void.class),
+
+  /**
+   * Lets another thread stop a decode in progress, once it is set to true. Readers check it before
+   * each candidate barcode, before sampling and before error correction, and fail with a
+   * {@link NotFoundException} if it is set. A parallel {@link MultiFormatReader} sets its own on the
+   * readers it runs. Maps to an {@link java.util.concurrent.atomic.AtomicBoolean}.
+   */
+  CANCELLED(AtomicBoolean.class),
+
   // End of enumeration values.
   ;
 
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2016 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing;
+
+/**
+ * <p>Callback which is told how long each phase of decoding takes, and why it failed if it did,
+ * so that slow or failing decodes can be diagnosed. A phase may be reported many times per
+ * decode, for example once for each candidate barcode that a detector tries. Calls are made on
+ * the decoding thread, so implementations should be quick, and thread-safe if readers run on
+ * several threads.</p>
+ *
+ * <p>Binarization is reported by {@link BinaryBitmap} when, and only when, a reader makes it convert
+ * the image or a row of it; cached results cost nothing and aren't reported. Every reader reports
+ * the other phases that it goes through. With no listener, no timing is done at all.</p>
+ *
+ * @see DecodeHintType#DECODE_LISTENER
+ */
+public interface DecodeListener {
+
+  /**
+   * @param format format being decoded, or {@code null} if the phase isn't specific to one
+   * @param phase phase which finished
+   * @param nanos time the phase took, in nanoseconds
+   * @param failure why the phase failed, or {@code null} if it succeeded
+   */
+  void phaseFinished(BarcodeFormat format, DecodePhase phase, long nanos, ReaderException failure);
+
+  /**
+   * @param format format being decoded
+   * @param numErrors number of codewords which error correction changed, in a successful
+   *  {@link DecodePhase#ERROR_CORRECTION} phase
+   */
+  void errorsCorrected(BarcodeFormat format, int numErrors);
+
+}
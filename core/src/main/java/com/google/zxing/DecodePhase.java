@@ -0,0 +1,41 @@
+/*
+ * Copyright 2016 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing;
+
+/**
+ * Phases of decoding a barcode which are reported to a {@link DecodeListener}.
+ */
+public enum DecodePhase {
+
+  /** Converting the image to black and white, as a whole or, for 1D barcodes, one row at a time. */
+  BINARIZATION,
+  /** Locating the barcode in the image, such as by finding a QR code's finder patterns. */
+  DETECTION,
+  /** Reading modules off of the located barcode into a grid. */
+  SAMPLING,
+  /** Reed-Solomon error correction of codewords. */
+  ERROR_CORRECTION,
+  /** Interpreting corrected codewords as text and bytes. */
+  BITSTREAM_PARSING,
+  /**
+   * Finding and decoding a 1D barcode in one row of the image, either way round. 1D barcodes are
+   * read a row at a time and have no separate detection or error correction, so this is reported
+   * for every row tried, with the format found or {@code null} if none was.
+   */
+  ROW_DECODING
+
+}
@@ -17,6 +17,7 @@
 package com.google.zxing;
 
 import com.google.zxing.aztec.AztecReader;
+import com.google.zxing.common.DecodeTimer;
 import com.google.zxing.datamatrix.DataMatrixReader;
 import com.google.zxing.maxicode.MaxiCodeReader;
 import com.google.zxing.oned.MultiFormatOneDReader;
@@ -25,7 +26,14 @@ import com.google.zxing.qrcode.QRCodeReader;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * MultiFormatReader is a convenience class and the main entry point into the library for most uses.
@@ -39,6 +47,8 @@ public final class MultiFormatReader implements Reader {
 
   private Map<DecodeHintType,?> hints;
   private Reader[] readers;
+  private ExecutorService executor;
+  private List<DecodeTask> pending;
 
   /**
    * This version of decode honors the intent of Reader.decode(BinaryBitmap) in that it
@@ -152,11 +162,33 @@ public final class MultiFormatReader implements Reader {
         readers.add(new MultiFormatOneDReader(hints));
       }
     }
+    // Readers still running from a previous parallel decode are left to finish with the old ones
+    pending = null;
     this.readers = readers.toArray(new Reader[readers.size()]);
   }
 
+  /**
+   * Enables parallel decoding: the readers chosen by {@link #setHints(Map)} are run concurrently
+   * on the given executor instead of one after the other. The image is binarized once, up front,
+   * and shared by all readers. The result is the same one sequential decoding would return --
+   * that of the first reader, in the usual order, that succeeds -- but it is returned as soon as
+   * all readers ahead of it have failed, and readers behind it are cancelled. Those that had
+   * already started stop at their next check of {@link DecodeHintType#CANCELLED}, in the
+   * background; rather than wait for them, the next decode or {@link #reset()} replaces just those
+   * readers still running with new ones.
+   *
+   * <p>The executor is not shut down by this class. An instance remains usable from only one
+   * thread at a time; any {@link ResultPointCallback} may however be called from several threads.</p>
+   *
+   * @param executor executor to run readers on, or {@code null} to decode sequentially (the default)
+   */
+  public void setExecutor(ExecutorService executor) {
+    this.executor = executor;
+  }
+
   @Override
   public void reset() {
+    replacePendingReaders();
     if (readers != null) {
       for (Reader reader : readers) {
         reader.reset();
@@ -165,6 +197,21 @@ public final class MultiFormatReader implements Reader {
   }
 
   private Result decodeInternal(BinaryBitmap image) throws NotFoundException {
+    replacePendingReaders();
+    if (executor != null && readers != null && readers.length > 1) {
+      try {
+        // Compute and cache the matrix up front rather than have readers queue up for it
+        image.getBlackMatrix(DecodeTimer.getListener(hints));
+      } catch (NotFoundException nfe) {
+        // Let the readers each find this, one at a time
+        return decodeSequentially(image);
+      }
+      return decodeInParallel(image);
+    }
+    return decodeSequentially(image);
+  }
+
+  private Result decodeSequentially(BinaryBitmap image) throws NotFoundException {
     if (readers != null) {
       for (Reader reader : readers) {
         try {
@@ -177,4 +224,137 @@ public final class MultiFormatReader implements Reader {
     throw NotFoundException.getNotFoundInstance();
   }
 
+  private Result decodeInParallel(BinaryBitmap image) throws NotFoundException {
+    List<DecodeTask> tasks = new ArrayList<>(readers.length);
+    // Readers may still be running after this returns; they mustn't be used again until they finish
+    pending = tasks;
+    AtomicBoolean cancelled = new AtomicBoolean();
+    Map<DecodeHintType,Object> taskHints = new EnumMap<>(DecodeHintType.class);
+    if (hints != null) {
+      taskHints.putAll(hints);
+    }
+    taskHints.put(DecodeHintType.CANCELLED, cancelled);
+    try {
+      for (Reader reader : readers) {
+        DecodeTask task = new DecodeTask(reader, image, taskHints);
+        tasks.add(task);
+        task.future = executor.submit(task);
+      }
+      for (DecodeTask task : tasks) {
+        try {
+          return task.future.get();
+        } catch (ExecutionException ee) {
+          Throwable cause = ee.getCause();
+          if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+          }
+          if (cause instanceof Error) {
+            throw (Error) cause;
+          }
+          // else a ReaderException; continue
+        }
+      }
+    } catch (InterruptedException ie) {
+      Thread.currentThread().interrupt();
+    } finally {
+      // Stops readers behind the one that succeeded, if any; no-op for those already finished
+      cancelled.set(true);
+      cancel(tasks);
+    }
+    throw NotFoundException.getNotFoundInstance();
+  }
+
+  private static void cancel(Iterable<DecodeTask> tasks) {
+    for (DecodeTask task : tasks) {
+      task.cancel();
+    }
+  }
+
+  /**
+   * Readers still running from a previous parallel decode can't be used until they finish, since
+   * they aren't thread-safe. Rather than wait for them, this leaves them to finish on their own and
+   * makes new readers in their place. The others, and any state they keep, such as rows that a
+   * 1D reader has seen, are kept.
+   */
+  private void replacePendingReaders() {
+    List<DecodeTask> pending = this.pending;
+    if (pending == null) {
+      return;
+    }
+    for (int i = 0; i < pending.size(); i++) {
+      if (!pending.get(i).finished) {
+        readers[i] = newReaderLike(readers[i]);
+      }
+    }
+    this.pending = null;
+  }
+
+  private Reader newReaderLike(Reader reader) {
+    if (reader instanceof MultiFormatOneDReader) {
+      return new MultiFormatOneDReader(hints);
+    }
+    if (reader instanceof QRCodeReader) {
+      return new QRCodeReader();
+    }
+    if (reader instanceof DataMatrixReader) {
+      return new DataMatrixReader();
+    }
+    if (reader instanceof AztecReader) {
+      return new AztecReader();
+    }
+    if (reader instanceof PDF417Reader) {
+      return new PDF417Reader();
+    }
+    if (reader instanceof MaxiCodeReader) {
+      return new MaxiCodeReader();
+    }
+    throw new IllegalStateException(reader.getClass().getName());
+  }
+
+  /**
+   * Runs one {@link Reader} as part of a parallel decode. Unlike {@link Future#isDone()},
+   * {@link #finished} is only set once the reader is really no longer in use.
+   */
+  private static final class DecodeTask implements Callable<Result> {
+
+    private final Reader reader;
+    private final BinaryBitmap image;
+    private final Map<DecodeHintType,?> hints;
+    private final AtomicBoolean claimed;
+    private volatile boolean finished;
+    private Future<Result> future;
+
+    DecodeTask(Reader reader, BinaryBitmap image, Map<DecodeHintType,?> hints) {
+      this.reader = reader;
+      this.image = image;
+      this.hints = hints;
+      claimed = new AtomicBoolean();
+    }
+
+    @Override
+    public Result call() throws ReaderException {
+      if (!claimed.compareAndSet(false, true)) {
+        // Cancelled before it started
+        throw NotFoundException.getNotFoundInstance();
+      }
+      try {
+        return reader.decode(image, hints);
+      } finally {
+        finished = true;
+      }
+    }
+
+    void cancel() {
+      if (claimed.compareAndSet(false, true)) {
+        // Never started, and now never will
+        finished = true;
+      }
+      if (future != null) {
+        // Readers which have started stop when they next check the cancelled hint, not when interrupted
+        future.cancel(false);
+      }
+    }
+
+  }
+
 }
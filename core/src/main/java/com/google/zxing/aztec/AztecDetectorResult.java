@@ -37,7 +37,16 @@ public final class AztecDetectorResult extends DetectorResult {
                              boolean compact,
                              int nbDatablocks,
                              int nbLayers) {
-    super(bits, points);
+    this(bits, points, null, compact, nbDatablocks, nbLayers);
+  }
+
+  public AztecDetectorResult(BitMatrix bits,
+                             ResultPoint[] points,
+                             BitMatrix uncertainBits,
+                             boolean compact,
+                             int nbDatablocks,
+                             int nbLayers) {
+    super(bits, points, uncertainBits);
     this.compact = compact;
     this.nbDatablocks = nbDatablocks;
     this.nbLayers = nbLayers;
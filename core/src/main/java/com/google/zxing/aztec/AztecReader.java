@@ -28,7 +28,10 @@ import com.google.zxing.ResultPoint;
 import com.google.zxing.ResultPointCallback;
 import com.google.zxing.aztec.decoder.Decoder;
 import com.google.zxing.aztec.detector.Detector;
+import com.google.zxing.common.Cancellation;
+import com.google.zxing.common.DecodeTimer;
 import com.google.zxing.common.DecoderResult;
+import com.google.zxing.common.reedsolomon.ReedSolomonWorkspace;
 
 import java.util.List;
 import java.util.Map;
@@ -40,6 +43,8 @@ import java.util.Map;
  */
 public final class AztecReader implements Reader {
 
+  private final ReedSolomonWorkspace rsWorkspace = new ReedSolomonWorkspace();
+
   /**
    * Locates and decodes a Data Matrix code in an image.
    *
@@ -56,26 +61,33 @@ public final class AztecReader implements Reader {
   public Result decode(BinaryBitmap image, Map<DecodeHintType,?> hints)
       throws NotFoundException, FormatException {
 
+    DecodeTimer timer = DecodeTimer.forFormat(hints, BarcodeFormat.AZTEC);
+    hints = timer.addTo(hints);
     NotFoundException notFoundException = null;
     FormatException formatException = null;
-    Detector detector = new Detector(image.getBlackMatrix());
+    Detector detector = new Detector(image.getBlackMatrix(DecodeTimer.getListener(hints)), rsWorkspace);
     ResultPoint[] points = null;
     DecoderResult decoderResult = null;
     try {
-      AztecDetectorResult detectorResult = detector.detect(false);
+      AztecDetectorResult detectorResult = detector.detect(false, hints);
       points = detectorResult.getPoints();
-      decoderResult = new Decoder().decode(detectorResult);
+      Cancellation.check(hints);
+      decoderResult = new Decoder(rsWorkspace).decode(detectorResult, hints);
     } catch (NotFoundException e) {
       notFoundException = e;
+      timer.failed(e);
     } catch (FormatException e) {
       formatException = e;
+      timer.failed(e);
     }
     if (decoderResult == null) {
       try {
-        AztecDetectorResult detectorResult = detector.detect(true);
+        AztecDetectorResult detectorResult = detector.detect(true, hints);
         points = detectorResult.getPoints();
-        decoderResult = new Decoder().decode(detectorResult);
+        Cancellation.check(hints);
+        decoderResult = new Decoder(rsWorkspace).decode(detectorResult, hints);
       } catch (NotFoundException | FormatException e) {
+        timer.failed(e);
         if (notFoundException != null) {
           throw notFoundException;
         }
@@ -85,6 +97,7 @@ public final class AztecReader implements Reader {
         throw e;
       }
     }
+    timer.succeeded();
 
     if (hints != null) {
       ResultPointCallback rpcb = (ResultPointCallback) hints.get(DecodeHintType.NEED_RESULT_POINT_CALLBACK);
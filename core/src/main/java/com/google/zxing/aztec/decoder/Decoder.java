@@ -16,15 +16,21 @@
 
 package com.google.zxing.aztec.decoder;
 
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.DecodePhase;
 import com.google.zxing.FormatException;
 import com.google.zxing.aztec.AztecDetectorResult;
 import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.DecodeTimer;
 import com.google.zxing.common.DecoderResult;
 import com.google.zxing.common.reedsolomon.GenericGF;
 import com.google.zxing.common.reedsolomon.ReedSolomonDecoder;
 import com.google.zxing.common.reedsolomon.ReedSolomonException;
+import com.google.zxing.common.reedsolomon.ReedSolomonWorkspace;
 
 import java.util.Arrays;
+import java.util.Map;
 
 /**
  * <p>The main class which implements Aztec Code decoding -- as opposed to locating and extracting
@@ -68,13 +74,49 @@ public final class Decoder {
       "CTRL_PS", " ", "0", "1", "2", "3", "4", "5", "6", "7", "8", "9", ",", ".", "CTRL_UL", "CTRL_US"
   };
 
+  private final ReedSolomonWorkspace rsWorkspace;
   private AztecDetectorResult ddata;
+  private int numErrorsCorrected;
+
+  public Decoder() {
+    this(new ReedSolomonWorkspace());
+  }
+
+  /**
+   * @param rsWorkspace working memory for error correction, which may be shared with other decoders
+   *  used from the same thread
+   */
+  public Decoder(ReedSolomonWorkspace rsWorkspace) {
+    this.rsWorkspace = rsWorkspace;
+  }
 
   public DecoderResult decode(AztecDetectorResult detectorResult) throws FormatException {
+    return decode(detectorResult, null);
+  }
+
+  /**
+   * <p>Decodes an Aztec Code given its detected modules.</p>
+   *
+   * @param detectorResult modules of the Aztec Code, and its parameters
+   * @param hints decoding hints that should be used to influence decoding
+   * @return text and bytes encoded within the Aztec Code
+   * @throws FormatException if the Aztec Code cannot be decoded
+   */
+  public DecoderResult decode(AztecDetectorResult detectorResult, Map<DecodeHintType,?> hints)
+      throws FormatException {
     ddata = detectorResult;
     BitMatrix matrix = detectorResult.getBits();
     boolean[] rawbits = extractBits(matrix);
-    boolean[] correctedBits = correctBits(rawbits);
+    BitMatrix uncertainMatrix = detectorResult.getUncertainBits();
+    // Bits are read from uncertain modules the same way, to find which codewords they affect
+    boolean[] uncertainRawbits = uncertainMatrix == null ? null : extractBits(uncertainMatrix);
+
+    DecodeTimer timer = DecodeTimer.get(hints);
+    timer.begin(DecodePhase.ERROR_CORRECTION);
+    boolean[] correctedBits = correctBits(rawbits, uncertainRawbits);
+    timer.errorsCorrected(BarcodeFormat.AZTEC, numErrorsCorrected);
+
+    timer.begin(DecodePhase.BITSTREAM_PARSING);
     byte[] rawBytes = convertBoolArrayToByteArray(correctedBits);
     String result = getEncodedData(correctedBits);
     DecoderResult decoderResult = new DecoderResult(rawBytes, result, null, null);
@@ -199,10 +241,13 @@ public final class Decoder {
   /**
    * <p>Performs RS error correction on an array of bits.</p>
    *
+   * @param rawbits bits read from the symbol
+   * @param uncertainRawbits which of those bits are in doubt, or {@code null}; codewords with any are
+   *  treated as erasures
    * @return the corrected array
    * @throws FormatException if the input contains too many errors
    */
-  private boolean[] correctBits(boolean[] rawbits) throws FormatException {
+  private boolean[] correctBits(boolean[] rawbits, boolean[] uncertainRawbits) throws FormatException {
     GenericGF gf;
     int codewordSize;
 
@@ -228,13 +273,18 @@ public final class Decoder {
     int offset = rawbits.length % codewordSize;
 
     int[] dataWords = new int[numCodewords];
+    boolean[] inDoubt = uncertainRawbits == null ? null : new boolean[numCodewords];
     for (int i = 0; i < numCodewords; i++, offset += codewordSize) {
       dataWords[i] = readCode(rawbits, offset, codewordSize);
+      if (inDoubt != null) {
+        inDoubt[i] = readCode(uncertainRawbits, offset, codewordSize) != 0;
+      }
     }
+    int numECCodewords = numCodewords - numDataCodewords;
 
     try {
-      ReedSolomonDecoder rsDecoder = new ReedSolomonDecoder(gf);
-      rsDecoder.decode(dataWords, numCodewords - numDataCodewords);
+      ReedSolomonDecoder rsDecoder = new ReedSolomonDecoder(gf, rsWorkspace);
+      numErrorsCorrected = rsDecoder.decodeWithECCountInDoubt(dataWords, numECCodewords, inDoubt);
     } catch (ReedSolomonException ex) {
       throw FormatException.getFormatInstance(ex);
     }
@@ -16,16 +16,24 @@
 
 package com.google.zxing.aztec.detector;
 
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.DecodePhase;
 import com.google.zxing.NotFoundException;
 import com.google.zxing.ResultPoint;
 import com.google.zxing.aztec.AztecDetectorResult;
 import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.Cancellation;
+import com.google.zxing.common.DecodeTimer;
 import com.google.zxing.common.GridSampler;
+import com.google.zxing.common.PerspectiveTransform;
 import com.google.zxing.common.detector.MathUtils;
 import com.google.zxing.common.detector.WhiteRectangleDetector;
 import com.google.zxing.common.reedsolomon.GenericGF;
 import com.google.zxing.common.reedsolomon.ReedSolomonDecoder;
 import com.google.zxing.common.reedsolomon.ReedSolomonException;
+import com.google.zxing.common.reedsolomon.ReedSolomonWorkspace;
+
+import java.util.Map;
 
 /**
  * Encapsulates logic that can detect an Aztec Code in an image, even if the Aztec Code
@@ -37,6 +45,7 @@ import com.google.zxing.common.reedsolomon.ReedSolomonException;
 public final class Detector {
 
   private final BitMatrix image;
+  private final ReedSolomonWorkspace rsWorkspace;
 
   private boolean compact;
   private int nbLayers;
@@ -45,7 +54,17 @@ public final class Detector {
   private int shift;
 
   public Detector(BitMatrix image) {
+    this(image, null);
+  }
+
+  /**
+   * @param image image to search
+   * @param rsWorkspace working memory for error correction of the mode message, or {@code null}
+   *  to use new memory as needed
+   */
+  public Detector(BitMatrix image, ReedSolomonWorkspace rsWorkspace) {
     this.image = image;
+    this.rsWorkspace = rsWorkspace;
   }
 
   public AztecDetectorResult detect() throws NotFoundException {
@@ -60,6 +79,21 @@ public final class Detector {
    * @throws NotFoundException if no Aztec Code can be found
    */
    public AztecDetectorResult detect(boolean isMirror) throws NotFoundException {
+    return detect(isMirror, null);
+  }
+
+  /**
+   * Detects an Aztec Code in an image.
+   *
+   * @param isMirror if true, image is a mirror-image of original
+   * @param hints optional hints to detector
+   * @return {@link AztecDetectorResult} encapsulating results of detecting an Aztec Code
+   * @throws NotFoundException if no Aztec Code can be found
+   */
+  public AztecDetectorResult detect(boolean isMirror, Map<DecodeHintType,?> hints) throws NotFoundException {
+
+    DecodeTimer timer = DecodeTimer.get(hints);
+    timer.begin(DecodePhase.DETECTION);
 
     // 1. Get the center of the aztec matrix
     Point pCenter = getMatrixCenter();
@@ -78,16 +112,25 @@ public final class Detector {
     extractParameters(bullsEyeCorners);
     
     // 4. Sample the grid
-    BitMatrix bits = sampleGrid(image,
+    Cancellation.check(hints);
+    timer.begin(DecodePhase.SAMPLING);
+    GridSampler sampler = GridSampler.getInstance(hints);
+    BitMatrix uncertainBits = sampler.reportsUncertainModules() ? new BitMatrix(getDimension()) : null;
+    BitMatrix bits = sampleGrid(sampler,
+                                image,
                                 bullsEyeCorners[shift % 4], 
                                 bullsEyeCorners[(shift + 1) % 4],
                                 bullsEyeCorners[(shift + 2) % 4], 
-                                bullsEyeCorners[(shift + 3) % 4]);
+                                bullsEyeCorners[(shift + 3) % 4],
+                                uncertainBits);
 
     // 5. Get the corners of the matrix.
     ResultPoint[] corners = getMatrixCornerPoints(bullsEyeCorners);
     
-    return new AztecDetectorResult(bits, corners, compact, nbDataBlocks, nbLayers);
+    if (uncertainBits != null && uncertainBits.getTopLeftOnBit() == null) {
+      uncertainBits = null;
+    }
+    return new AztecDetectorResult(bits, corners, uncertainBits, compact, nbDataBlocks, nbLayers);
   }
 
   /**
@@ -191,7 +234,7 @@ public final class Detector {
    * @param compact true if this is a compact Aztec code
    * @throws NotFoundException if the array contains too many errors
    */
-  private static int getCorrectedParameterData(long parameterData, boolean compact) throws NotFoundException {
+  private int getCorrectedParameterData(long parameterData, boolean compact) throws NotFoundException {
     int numCodewords;
     int numDataCodewords;
 
@@ -210,7 +253,7 @@ public final class Detector {
       parameterData >>= 4;
     }
     try {
-      ReedSolomonDecoder rsDecoder = new ReedSolomonDecoder(GenericGF.AZTEC_PARAM);
+      ReedSolomonDecoder rsDecoder = new ReedSolomonDecoder(GenericGF.AZTEC_PARAM, rsWorkspace);
       rsDecoder.decode(parameterWords, numECCodewords);
     } catch (ReedSolomonException ignored) {
       throw NotFoundException.getNotFoundInstance();
@@ -364,29 +407,30 @@ public final class Detector {
    * topLeft, topRight, bottomRight, and bottomLeft are the centers of the squares on the
    * diagonal just outside the bull's eye.
    */
-  private BitMatrix sampleGrid(BitMatrix image,
+  private BitMatrix sampleGrid(GridSampler sampler,
+                               BitMatrix image,
                                ResultPoint topLeft,
                                ResultPoint topRight,
                                ResultPoint bottomRight,
-                               ResultPoint bottomLeft) throws NotFoundException {
+                               ResultPoint bottomLeft,
+                               BitMatrix uncertainBits) throws NotFoundException {
       
-    GridSampler sampler = GridSampler.getInstance();
     int dimension = getDimension();
 
     float low = dimension / 2.0f - nbCenterLayers;
     float high = dimension / 2.0f + nbCenterLayers;
 
-    return sampler.sampleGrid(image,
-                              dimension,
-                              dimension,
-                              low, low,   // topleft
-                              high, low,  // topright
-                              high, high, // bottomright
-                              low, high,  // bottomleft
-                              topLeft.getX(), topLeft.getY(),
-                              topRight.getX(), topRight.getY(),
-                              bottomRight.getX(), bottomRight.getY(),
-                              bottomLeft.getX(), bottomLeft.getY());
+    PerspectiveTransform transform = PerspectiveTransform.quadrilateralToQuadrilateral(
+        low, low,   // topleft
+        high, low,  // topright
+        high, high, // bottomright
+        low, high,  // bottomleft
+        topLeft.getX(), topLeft.getY(),
+        topRight.getX(), topRight.getY(),
+        bottomRight.getX(), bottomRight.getY(),
+        bottomLeft.getX(), bottomLeft.getY());
+
+    return sampler.sampleGrid(image, dimension, dimension, transform, uncertainBits);
   }
 
   /**
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2016 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.common;
+
+/**
+ * <p>Working memory for {@link HybridBinarizer} which can be kept and reused from one image to the
+ * next, as in a continuous scan loop, so that binarizing frames of the same size allocates nothing
+ * more after the first frame. It holds the grid of per-block black points and the output
+ * {@link BitMatrix}.</p>
+ *
+ * <p>Because the output matrix is recycled, a matrix returned by a binarizer using a workspace is only
+ * valid until the next binarizer using the same workspace computes its matrix. A workspace must not
+ * be used by more than one thread at a time.</p>
+ */
+public final class BinarizerWorkspace {
+
+  private int[] blackPoints;
+  private BitMatrix matrix;
+
+  public BinarizerWorkspace() {
+    blackPoints = new int[0];
+  }
+
+  /**
+   * @param size number of blocks needed
+   * @return an array of at least this size, with undefined contents
+   */
+  int[] getBlackPoints(int size) {
+    if (blackPoints.length < size) {
+      blackPoints = new int[size];
+    }
+    return blackPoints;
+  }
+
+  /**
+   * @param width matrix width
+   * @param height matrix height
+   * @return a cleared matrix of the given dimensions, the same one as last time if they match
+   */
+  BitMatrix getMatrix(int width, int height) {
+    BitMatrix result = matrix;
+    if (result == null || result.getWidth() != width || result.getHeight() != height) {
+      result = new BitMatrix(width, height);
+      matrix = result;
+    } else {
+      result.clear();
+    }
+    return result;
+  }
+
+}
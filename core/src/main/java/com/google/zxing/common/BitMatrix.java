@@ -23,11 +23,11 @@ import java.util.Arrays;
  * module, x is the column position, and y is the row position. The ordering is always x, y.
  * The origin is at the top-left.</p>
  *
- * <p>Internally the bits are represented in a 1-D array of 32-bit ints. However, each row begins
- * with a new int. This is done intentionally so that we can copy out a row into a BitArray very
+ * <p>Internally the bits are represented in a 1-D array of 64-bit longs. However, each row begins
+ * with a new long. This is done intentionally so that we can copy out a row into a BitArray very
  * efficiently.</p>
  *
- * <p>The ordering of bits is row-major. Within each int, the least significant bits are used first,
+ * <p>The ordering of bits is row-major. Within each long, the least significant bits are used first,
  * meaning they represent lower x values. This is compatible with BitArray's implementation.</p>
  *
  * @author Sean Owen
@@ -35,10 +35,15 @@ import java.util.Arrays;
  */
 public final class BitMatrix implements Cloneable {
 
+  private static final int COPY = 0;
+  private static final int OR = 1;
+  private static final int AND = 2;
+  private static final int XOR = 3;
+
   private final int width;
   private final int height;
   private final int rowSize;
-  private final int[] bits;
+  private final long[] bits;
 
   // A helper to construct a square matrix.
   public BitMatrix(int dimension) {
@@ -51,11 +56,11 @@ public final class BitMatrix implements Cloneable {
     }
     this.width = width;
     this.height = height;
-    this.rowSize = (width + 31) / 32;
-    bits = new int[rowSize * height];
+    this.rowSize = (width + 63) / 64;
+    bits = new long[rowSize * height];
   }
 
-  private BitMatrix(int width, int height, int rowSize, int[] bits) {
+  private BitMatrix(int width, int height, int rowSize, long[] bits) {
     this.width = width;
     this.height = height;
     this.rowSize = rowSize;
@@ -127,8 +132,8 @@ public final class BitMatrix implements Cloneable {
    * @return value of given bit in matrix
    */
   public boolean get(int x, int y) {
-    int offset = y * rowSize + (x / 32);
-    return ((bits[offset] >>> (x & 0x1f)) & 1) != 0;
+    int offset = y * rowSize + (x / 64);
+    return ((bits[offset] >>> (x & 0x3f)) & 1) != 0;
   }
 
   /**
@@ -138,13 +143,37 @@ public final class BitMatrix implements Cloneable {
    * @param y The vertical component (i.e. which row)
    */
   public void set(int x, int y) {
-    int offset = y * rowSize + (x / 32);
-    bits[offset] |= 1 << (x & 0x1f);
+    int offset = y * rowSize + (x / 64);
+    bits[offset] |= 1L << (x & 0x3f);
+  }
+
+  /**
+   * <p>Sets several bits in one row at once: each bit set in {@code newBits} is set in the matrix,
+   * and others are left alone. The least-significant bit corresponds to column x, the next to x+1,
+   * and so on. The bits may span two longs of the underlying storage.</p>
+   *
+   * @param x The first column
+   * @param y The row
+   * @param newBits bits to set, least-significant first
+   * @param numBits how many of the low bits of {@code newBits} to use, from 1 to 32; these must fall
+   *  within the row
+   */
+  public void orBits(int x, int y, int newBits, int numBits) {
+    long longBits = newBits & 0xFFFFFFFFL;
+    if (numBits < 32) {
+      longBits &= (1L << numBits) - 1;
+    }
+    int offset = y * rowSize + (x / 64);
+    int shift = x & 0x3f;
+    bits[offset] |= longBits << shift;
+    if (shift + numBits > 64) {
+      bits[offset + 1] |= longBits >>> (64 - shift);
+    }
   }
 
   public void unset(int x, int y) {
-    int offset = y * rowSize + (x / 32);
-    bits[offset] &= ~(1 << (x & 0x1f));
+    int offset = y * rowSize + (x / 64);
+    bits[offset] &= ~(1L << (x & 0x3f));
   }
 
   /**
@@ -154,8 +183,8 @@ public final class BitMatrix implements Cloneable {
    * @param y The vertical component (i.e. which row)
    */
   public void flip(int x, int y) {
-    int offset = y * rowSize + (x / 32);
-    bits[offset] ^= 1 << (x & 0x1f);
+    int offset = y * rowSize + (x / 64);
+    bits[offset] ^= 1L << (x & 0x3f);
   }
 
   /**
@@ -169,14 +198,214 @@ public final class BitMatrix implements Cloneable {
         || rowSize != mask.getRowSize()) {
       throw new IllegalArgumentException("input matrix dimensions do not match");
     }
-    BitArray rowArray = new BitArray(width / 32 + 1);
-    for (int y = 0; y < height; y++) {
+    long[] maskBits = mask.bits;
+    for (int i = 0; i < bits.length; i++) {
+      bits[i] ^= maskBits[i];
+    }
+  }
+
+  /**
+   * <p>Copies a region of another matrix, or of this one, into this matrix. Bits outside the
+   * destination region are left alone.</p>
+   *
+   * @param source matrix to copy from; may be this one, even if the regions overlap
+   * @param sourceLeft The horizontal position of the region in {@code source}
+   * @param sourceTop The vertical position of the region in {@code source}
+   * @param width The width of the region
+   * @param height The height of the region
+   * @param left The horizontal position to copy the region to in this matrix
+   * @param top The vertical position to copy the region to in this matrix
+   */
+  public void copyRegion(BitMatrix source, int sourceLeft, int sourceTop, int width, int height,
+                         int left, int top) {
+    combineRegion(source, sourceLeft, sourceTop, width, height, left, top, COPY);
+  }
+
+  /**
+   * <p>Sets each bit in a region of this matrix that is set in the corresponding region of
+   * {@code source}. Arguments are as for {@link #copyRegion(BitMatrix, int, int, int, int, int, int)}.</p>
+   */
+  public void orRegion(BitMatrix source, int sourceLeft, int sourceTop, int width, int height,
+                       int left, int top) {
+    combineRegion(source, sourceLeft, sourceTop, width, height, left, top, OR);
+  }
+
+  /**
+   * <p>Clears each bit in a region of this matrix that is not set in the corresponding region of
+   * {@code source}. Arguments are as for {@link #copyRegion(BitMatrix, int, int, int, int, int, int)}.</p>
+   */
+  public void andRegion(BitMatrix source, int sourceLeft, int sourceTop, int width, int height,
+                        int left, int top) {
+    combineRegion(source, sourceLeft, sourceTop, width, height, left, top, AND);
+  }
+
+  /**
+   * <p>Flips each bit in a region of this matrix that is set in the corresponding region of
+   * {@code source}. Arguments are as for {@link #copyRegion(BitMatrix, int, int, int, int, int, int)}.</p>
+   */
+  public void xorRegion(BitMatrix source, int sourceLeft, int sourceTop, int width, int height,
+                        int left, int top) {
+    combineRegion(source, sourceLeft, sourceTop, width, height, left, top, XOR);
+  }
+
+  /**
+   * @param left The horizontal position of the region
+   * @param top The vertical position of the region
+   * @param width The width of the region
+   * @param height The height of the region
+   * @return a new matrix holding a copy of the region
+   */
+  public BitMatrix getRegion(int left, int top, int width, int height) {
+    BitMatrix region = new BitMatrix(width, height);
+    region.copyRegion(this, left, top, width, height, 0, 0);
+    return region;
+  }
+
+  private void combineRegion(BitMatrix source, int sourceLeft, int sourceTop, int width, int height,
+                             int left, int top, int operation) {
+    source.checkRegion(sourceLeft, sourceTop, width, height);
+    checkRegion(left, top, width, height);
+    if (source == this &&
+        left < sourceLeft + width && sourceLeft < left + width &&
+        top < sourceTop + height && sourceTop < top + height) {
+      // Overlapping regions would be changed as they're read
+      source = getRegion(sourceLeft, sourceTop, width, height);
+      sourceLeft = 0;
+      sourceTop = 0;
+    }
+    int right = left + width;
+    int firstWord = left / 64;
+    int lastWord = (right - 1) / 64;
+    for (int i = 0; i < height; i++) {
+      int offset = (top + i) * rowSize;
+      int sourceOffset = (sourceTop + i) * source.rowSize;
+      for (int word = firstWord; word <= lastWord; word++) {
+        long mask = -1L;
+        if (word == firstWord) {
+          mask <<= left & 0x3f;
+        }
+        if (word == lastWord && (right & 0x3f) != 0) {
+          mask &= -1L >>> (64 - (right & 0x3f));
+        }
+        long sourceBits = readBits(source.bits, sourceOffset, source.rowSize, word * 64 - left + sourceLeft);
+        switch (operation) {
+          case COPY:
+            bits[offset + word] = (bits[offset + word] & ~mask) | (sourceBits & mask);
+            break;
+          case OR:
+            bits[offset + word] |= sourceBits & mask;
+            break;
+          case AND:
+            bits[offset + word] &= sourceBits | ~mask;
+            break;
+          default:
+            bits[offset + word] ^= sourceBits & mask;
+            break;
+        }
+      }
+    }
+  }
+
+  /**
+   * @return the 64 bits of a row starting at column x, least-significant first, where columns
+   *  outside the row read as 0
+   */
+  private static long readBits(long[] bits, int offset, int rowSize, int x) {
+    int word = x >> 6;
+    int shift = x & 0x3f;
+    long low = word >= 0 && word < rowSize ? bits[offset + word] : 0L;
+    if (shift == 0) {
+      return low;
+    }
+    long high = word + 1 >= 0 && word + 1 < rowSize ? bits[offset + word + 1] : 0L;
+    return (low >>> shift) | (high << (64 - shift));
+  }
+
+  private void checkRegion(int left, int top, int width, int height) {
+    if (top < 0 || left < 0) {
+      throw new IllegalArgumentException("Left and top must be nonnegative");
+    }
+    if (height < 1 || width < 1) {
+      throw new IllegalArgumentException("Height and width must be at least 1");
+    }
+    if (top + height > this.height || left + width > this.width) {
+      throw new IllegalArgumentException("The region must fit inside the matrix");
+    }
+  }
+
+  /**
+   * @param y The row
+   * @return number of bits set in the row
+   */
+  public int getRowCardinality(int y) {
+    return getRegionCardinality(0, y, width, 1);
+  }
+
+  /**
+   * @param left The horizontal position of the region
+   * @param top The vertical position of the region
+   * @param width The width of the region
+   * @param height The height of the region
+   * @return number of bits set in the region
+   */
+  public int getRegionCardinality(int left, int top, int width, int height) {
+    checkRegion(left, top, width, height);
+    int right = left + width;
+    int firstWord = left / 64;
+    int lastWord = (right - 1) / 64;
+    long firstMask = -1L << (left & 0x3f);
+    long lastMask = (right & 0x3f) == 0 ? -1L : -1L >>> (64 - (right & 0x3f));
+    int count = 0;
+    for (int y = top; y < top + height; y++) {
       int offset = y * rowSize;
-      int[] row = mask.getRow(y, rowArray).getBitArray();
-      for (int x = 0; x < rowSize; x++) {
-        bits[offset + x] ^= row[x];
+      if (firstWord == lastWord) {
+        count += Long.bitCount(bits[offset + firstWord] & firstMask & lastMask);
+      } else {
+        count += Long.bitCount(bits[offset + firstWord] & firstMask);
+        for (int word = firstWord + 1; word < lastWord; word++) {
+          count += Long.bitCount(bits[offset + word]);
+        }
+        count += Long.bitCount(bits[offset + lastWord] & lastMask);
+      }
+    }
+    return count;
+  }
+
+  /**
+   * @param from first column to check
+   * @param y The row
+   * @return index of first column at or after {@code from} whose bit is set, or the width if none is
+   * @see BitArray#getNextSet(int)
+   */
+  public int getNextSet(int from, int y) {
+    return getNext(from, y, 0);
+  }
+
+  /**
+   * @param from first column to check
+   * @param y The row
+   * @return index of first column at or after {@code from} whose bit is not set, or the width if none is
+   * @see BitArray#getNextUnset(int)
+   */
+  public int getNextUnset(int from, int y) {
+    return getNext(from, y, -1L);
+  }
+
+  private int getNext(int from, int y, long invert) {
+    if (from >= width) {
+      return width;
+    }
+    int offset = y * rowSize;
+    int word = from / 64;
+    long currentBits = (bits[offset + word] ^ invert) & (-1L << (from & 0x3f));
+    while (currentBits == 0) {
+      if (++word == rowSize) {
+        return width;
       }
+      currentBits = bits[offset + word] ^ invert;
     }
+    int result = word * 64 + Long.numberOfTrailingZeros(currentBits);
+    return result > width ? width : result;
   }
 
   /**
@@ -212,7 +441,7 @@ public final class BitMatrix implements Cloneable {
     for (int y = top; y < bottom; y++) {
       int offset = y * rowSize;
       for (int x = left; x < right; x++) {
-        bits[offset + (x / 32)] |= 1 << (x & 0x1f);
+        bits[offset + (x / 64)] |= 1L << (x & 0x3f);
       }
     }
   }
@@ -231,10 +460,7 @@ public final class BitMatrix implements Cloneable {
     } else {
       row.clear();
     }
-    int offset = y * rowSize;
-    for (int x = 0; x < rowSize; x++) {
-      row.setBulk(x * 32, bits[offset + x]);
-    }
+    System.arraycopy(bits, y * rowSize, row.getBitArray(), 0, rowSize);
     return row;
   }
 
@@ -264,6 +490,69 @@ public final class BitMatrix implements Cloneable {
     }
   }
 
+  /**
+   * @return a new {@code BitMatrix} representing this one rotated 90 degrees counterclockwise, with
+   *  width and height swapped
+   */
+  public BitMatrix rotate90() {
+    BitMatrix rotated = transpose();
+    int rowSize = rotated.rowSize;
+    long[] bits = rotated.bits;
+    long[] temp = new long[rowSize];
+    for (int top = 0, bottom = rotated.height - 1; top < bottom; top++, bottom--) {
+      System.arraycopy(bits, top * rowSize, temp, 0, rowSize);
+      System.arraycopy(bits, bottom * rowSize, bits, top * rowSize, rowSize);
+      System.arraycopy(temp, 0, bits, bottom * rowSize, rowSize);
+    }
+    return rotated;
+  }
+
+  /**
+   * @return a new {@code BitMatrix} representing this one reflected in its main diagonal, so that
+   *  the bit at (x,y) moves to (y,x), with width and height swapped
+   */
+  public BitMatrix transpose() {
+    int newRowSize = (height + 63) / 64;
+    long[] newBits = new long[newRowSize * width];
+    long[] block = new long[64];
+    // One 64x64 block at a time
+    for (int top = 0; top < height; top += 64) {
+      int blockHeight = Math.min(64, height - top);
+      for (int word = 0; word < rowSize; word++) {
+        long any = 0L;
+        for (int i = 0; i < blockHeight; i++) {
+          block[i] = bits[(top + i) * rowSize + word];
+          any |= block[i];
+        }
+        if (any == 0L) {
+          continue;
+        }
+        Arrays.fill(block, blockHeight, 64, 0L);
+        transpose64(block);
+        int blockWidth = Math.min(64, width - word * 64);
+        for (int i = 0; i < blockWidth; i++) {
+          newBits[(word * 64 + i) * newRowSize + top / 64] = block[i];
+        }
+      }
+    }
+    return new BitMatrix(height, width, newRowSize, newBits);
+  }
+
+  /**
+   * Transposes a 64x64 block of bits in place, so that bit j of {@code block[i]} becomes bit i of
+   * {@code block[j]}, by swapping ever smaller off-diagonal sub-blocks.
+   */
+  private static void transpose64(long[] block) {
+    long mask = 0x00000000FFFFFFFFL;
+    for (int j = 32; j != 0; j >>>= 1, mask ^= mask << j) {
+      for (int k = 0; k < 64; k = ((k | j) + 1) & ~j) {
+        long t = ((block[k] >>> j) ^ block[k | j]) & mask;
+        block[k] ^= t << j;
+        block[k | j] ^= t;
+      }
+    }
+  }
+
   /**
    * This is useful in detecting the enclosing rectangle of a 'pure' barcode.
    *
@@ -276,8 +565,8 @@ public final class BitMatrix implements Cloneable {
     int bottom = -1;
 
     for (int y = 0; y < height; y++) {
-      for (int x32 = 0; x32 < rowSize; x32++) {
-        int theBits = bits[y * rowSize + x32];
+      for (int x64 = 0; x64 < rowSize; x64++) {
+        long theBits = bits[y * rowSize + x64];
         if (theBits != 0) {
           if (y < top) {
             top = y;
@@ -285,22 +574,16 @@ public final class BitMatrix implements Cloneable {
           if (y > bottom) {
             bottom = y;
           }
-          if (x32 * 32 < left) {
-            int bit = 0;
-            while ((theBits << (31 - bit)) == 0) {
-              bit++;
-            }
-            if ((x32 * 32 + bit) < left) {
-              left = x32 * 32 + bit;
+          if (x64 * 64 < left) {
+            int bit = Long.numberOfTrailingZeros(theBits);
+            if ((x64 * 64 + bit) < left) {
+              left = x64 * 64 + bit;
             }
           }
-          if (x32 * 32 + 31 > right) {
-            int bit = 31;
-            while ((theBits >>> bit) == 0) {
-              bit--;
-            }
-            if ((x32 * 32 + bit) > right) {
-              right = x32 * 32 + bit;
+          if (x64 * 64 + 63 > right) {
+            int bit = 63 - Long.numberOfLeadingZeros(theBits);
+            if ((x64 * 64 + bit) > right) {
+              right = x64 * 64 + bit;
             }
           }
         }
@@ -328,14 +611,10 @@ public final class BitMatrix implements Cloneable {
       return null;
     }
     int y = bitsOffset / rowSize;
-    int x = (bitsOffset % rowSize) * 32;
+    int x = (bitsOffset % rowSize) * 64;
 
-    int theBits = bits[bitsOffset];
-    int bit = 0;
-    while ((theBits << (31 - bit)) == 0) {
-      bit++;
-    }
-    x += bit;
+    long theBits = bits[bitsOffset];
+    x += Long.numberOfTrailingZeros(theBits);
     return new int[] {x, y};
   }
 
@@ -349,14 +628,10 @@ public final class BitMatrix implements Cloneable {
     }
 
     int y = bitsOffset / rowSize;
-    int x = (bitsOffset % rowSize) * 32;
+    int x = (bitsOffset % rowSize) * 64;
 
-    int theBits = bits[bitsOffset];
-    int bit = 31;
-    while ((theBits >>> bit) == 0) {
-      bit--;
-    }
-    x += bit;
+    long theBits = bits[bitsOffset];
+    x += 63 - Long.numberOfLeadingZeros(theBits);
 
     return new int[] {x, y};
   }
@@ -376,7 +651,7 @@ public final class BitMatrix implements Cloneable {
   }
 
   /**
-   * @return The row size of the matrix
+   * @return The row size of the matrix, in 64-bit words
    */
   public int getRowSize() {
     return rowSize;
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2016 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.common;
+
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.NotFoundException;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Checks the {@link DecodeHintType#CANCELLED} hint, at the points where readers may stop early.
+ */
+public final class Cancellation {
+
+  private Cancellation() {
+  }
+
+  /**
+   * @param hints decode hints, or {@code null}
+   * @return true if the {@link DecodeHintType#CANCELLED} hint is present and set
+   */
+  public static boolean isCancelled(Map<DecodeHintType,?> hints) {
+    if (hints == null) {
+      return false;
+    }
+    AtomicBoolean cancelled = (AtomicBoolean) hints.get(DecodeHintType.CANCELLED);
+    return cancelled != null && cancelled.get();
+  }
+
+  /**
+   * @param hints decode hints, or {@code null}
+   * @throws NotFoundException if the {@link DecodeHintType#CANCELLED} hint is present and set
+   */
+  public static void check(Map<DecodeHintType,?> hints) throws NotFoundException {
+    if (isCancelled(hints)) {
+      throw NotFoundException.getNotFoundInstance();
+    }
+  }
+
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2016 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.common;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.DecodeListener;
+import com.google.zxing.DecodePhase;
+import com.google.zxing.ReaderException;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * <p>Times phases of decoding for a {@link DecodeListener}. The static methods time one step for a
+ * listener which may be {@code null}, in which case they do nothing and don't read the clock.</p>
+ *
+ * <p>An instance times one decode of one format. The {@link com.google.zxing.Reader} gets one from
+ * {@link #forFormat(Map, BarcodeFormat)}, passes {@link #addTo(Map)} on to its detector and decoder,
+ * and reports how the decode ended with {@link #succeeded()} or {@link #failed(ReaderException)}.
+ * Those only mark where each phase begins, with {@link #begin(DecodePhase)} on the instance that
+ * {@link #get(Map)} finds in their hints; a phase ends when the next begins or the decode ends.
+ * Called without such hints, they report nothing. Without a listener, nothing is timed.</p>
+ */
+public final class DecodeTimer implements DecodeListener {
+
+  private static final DecodeTimer NONE = new DecodeTimer(null, null);
+
+  private final DecodeListener listener;
+  private final BarcodeFormat format;
+  private DecodePhase phase;
+  private long phaseStart;
+
+  private DecodeTimer(DecodeListener listener, BarcodeFormat format) {
+    this.listener = listener;
+    this.format = format;
+  }
+
+  /**
+   * @param hints decode hints, or {@code null}
+   * @return the {@link DecodeHintType#DECODE_LISTENER} hint, or {@code null} if absent
+   */
+  public static DecodeListener getListener(Map<DecodeHintType,?> hints) {
+    return hints == null ? null : (DecodeListener) hints.get(DecodeHintType.DECODE_LISTENER);
+  }
+
+  /**
+   * @param listener listener, or {@code null}
+   * @return start time of a phase to pass to {@link #finish}
+   */
+  public static long start(DecodeListener listener) {
+    return listener == null ? 0L : System.nanoTime();
+  }
+
+  /**
+   * @param listener listener, or {@code null}
+   * @param format format being decoded, or {@code null} if the phase isn't specific to one
+   * @param phase phase which finished
+   * @param start value from {@link #start(DecodeListener)} when the phase started
+   * @param failure why the phase failed, or {@code null} if it succeeded
+   */
+  public static void finish(DecodeListener listener,
+                            BarcodeFormat format,
+                            DecodePhase phase,
+                            long start,
+                            ReaderException failure) {
+    if (listener != null) {
+      listener.phaseFinished(format, phase, System.nanoTime() - start, failure);
+    }
+  }
+
+  /**
+   * @param hints decode hints, or {@code null}
+   * @param format format a reader is about to decode
+   * @return a new timer for the {@link DecodeHintType#DECODE_LISTENER} hint, or one which does nothing
+   *  if there is none
+   */
+  public static DecodeTimer forFormat(Map<DecodeHintType,?> hints, BarcodeFormat format) {
+    DecodeListener listener = getListener(hints);
+    return listener == null ? NONE : new DecodeTimer(listener, format);
+  }
+
+  /**
+   * @param hints decode hints, or {@code null}
+   * @return the timer which {@link #addTo(Map)} put in the hints, or one which does nothing
+   */
+  public static DecodeTimer get(Map<DecodeHintType,?> hints) {
+    DecodeListener listener = getListener(hints);
+    return listener instanceof DecodeTimer ? (DecodeTimer) listener : NONE;
+  }
+
+  /**
+   * @param hints decode hints, or {@code null}
+   * @return hints as given, but with this in place of the listener, which it reports to
+   */
+  public Map<DecodeHintType,?> addTo(Map<DecodeHintType,?> hints) {
+    if (listener == null) {
+      return hints;
+    }
+    Map<DecodeHintType,Object> timedHints = new EnumMap<>(DecodeHintType.class);
+    timedHints.putAll(hints);
+    timedHints.put(DecodeHintType.DECODE_LISTENER, this);
+    return timedHints;
+  }
+
+  /**
+   * Ends the current phase, if any, as a success, and starts timing another.
+   *
+   * @param phase phase which starts now
+   */
+  public void begin(DecodePhase phase) {
+    if (listener != null) {
+      long now = System.nanoTime();
+      if (this.phase != null) {
+        listener.phaseFinished(format, this.phase, now - phaseStart, null);
+      }
+      this.phase = phase;
+      phaseStart = now;
+    }
+  }
+
+  /**
+   * Ends the current phase, if any, as a success.
+   */
+  public void succeeded() {
+    end(null);
+  }
+
+  /**
+   * Ends the current phase, if any, as a failure. A decoder which recovers, say by trying again
+   * another way, calls this before it does so.
+   *
+   * @param failure why the phase failed
+   */
+  public void failed(ReaderException failure) {
+    end(failure);
+  }
+
+  private void end(ReaderException failure) {
+    if (listener != null && phase != null) {
+      listener.phaseFinished(format, phase, System.nanoTime() - phaseStart, failure);
+      phase = null;
+    }
+  }
+
+  @Override
+  public void phaseFinished(BarcodeFormat format, DecodePhase phase, long nanos, ReaderException failure) {
+    if (listener != null) {
+      listener.phaseFinished(format, phase, nanos, failure);
+    }
+  }
+
+  @Override
+  public void errorsCorrected(BarcodeFormat format, int numErrors) {
+    if (listener != null) {
+      listener.errorsCorrected(format, numErrors);
+    }
+  }
+
+}
@@ -54,21 +54,20 @@ public final class DefaultGridSampler extends GridSampler {
     BitMatrix bits = new BitMatrix(dimensionX, dimensionY);
     float[] points = new float[2 * dimensionX];
     for (int y = 0; y < dimensionY; y++) {
-      int max = points.length;
-      float iValue = y + 0.5f;
-      for (int x = 0; x < max; x += 2) {
-        points[x] = (float) (x / 2) + 0.5f;
-        points[x + 1] = iValue;
-      }
-      transform.transformPoints(points);
+      transform.transformRow(points, 0.5f, y + 0.5f);
       // Quick check to see if points transformed to something inside the image;
       // sufficient to check the endpoints
       checkAndNudgePoints(image, points);
       try {
-        for (int x = 0; x < max; x += 2) {
-          if (image.get((int) points[x], (int) points[x + 1])) {
-            // Black(-ish) pixel
-            bits.set(x / 2, y);
+        // Collect up to 32 modules at a time and set them in one go. Black(-ish) pixels are or'ed
+        // in without branching, since whether the next module is black can't be predicted.
+        int moduleBits = 0;
+        for (int x = 0; x < dimensionX; x++) {
+          int black = image.get((int) points[2 * x], (int) points[2 * x + 1]) ? 1 : 0;
+          moduleBits |= black << (x & 0x1f);
+          if (((x & 0x1f) == 0x1f || x == dimensionX - 1) && moduleBits != 0) {
+            bits.orBits(x & ~0x1f, y, moduleBits, (x & 0x1f) + 1);
+            moduleBits = 0;
           }
         }
       } catch (ArrayIndexOutOfBoundsException aioobe) {
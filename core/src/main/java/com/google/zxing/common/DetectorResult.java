@@ -29,16 +29,36 @@ public class DetectorResult {
 
   private final BitMatrix bits;
   private final ResultPoint[] points;
+  private final BitMatrix uncertainBits;
 
   public DetectorResult(BitMatrix bits, ResultPoint[] points) {
+    this(bits, points, null);
+  }
+
+  /**
+   * @param bits sampled modules of the barcode
+   * @param points points of interest in the image
+   * @param uncertainBits modules, set, whose color in {@code bits} is in doubt, or {@code null}
+   */
+  public DetectorResult(BitMatrix bits, ResultPoint[] points, BitMatrix uncertainBits) {
     this.bits = bits;
     this.points = points;
+    this.uncertainBits = uncertainBits;
   }
 
   public final BitMatrix getBits() {
     return bits;
   }
 
+  /**
+   * @return modules, set, whose color in {@link #getBits()} is in doubt, as when sampled near the
+   *  threshold between black and white, or {@code null} if not known. Decoders may treat codewords
+   *  with such modules as erasures.
+   */
+  public final BitMatrix getUncertainBits() {
+    return uncertainBits;
+  }
+
   public final ResultPoint[] getPoints() {
     return points;
   }
@@ -16,8 +16,11 @@
 
 package com.google.zxing.common;
 
+import com.google.zxing.DecodeHintType;
 import com.google.zxing.NotFoundException;
 
+import java.util.Map;
+
 /**
  * Implementations of this class can, given locations of finder patterns for a QR code in an
  * image, sample the right points in the image to reconstruct the QR code, accounting for
@@ -27,7 +30,8 @@ import com.google.zxing.NotFoundException;
  * versa.
  *
  * The implementation used can be controlled by calling {@link #setGridSampler(GridSampler)}
- * with an instance of a class which implements this interface.
+ * with an instance of a class which implements this interface, or for one decode by the hint
+ * {@link DecodeHintType#GRID_SAMPLER}.
  *
  * @author Sean Owen
  */
@@ -55,6 +59,21 @@ public abstract class GridSampler {
     return gridSampler;
   }
 
+  /**
+   * @param hints decode hints, which may be {@code null}
+   * @return the implementation of GridSampler given by {@link DecodeHintType#GRID_SAMPLER}, or else
+   *  the current one
+   */
+  public static GridSampler getInstance(Map<DecodeHintType,?> hints) {
+    if (hints != null) {
+      GridSampler hinted = (GridSampler) hints.get(DecodeHintType.GRID_SAMPLER);
+      if (hinted != null) {
+        return hinted;
+      }
+    }
+    return gridSampler;
+  }
+
   /**
    * Samples an image for a rectangular matrix of bits of the given dimension. The sampling
    * transformation is determined by the coordinates of 4 points, in the original and transformed
@@ -101,6 +120,36 @@ public abstract class GridSampler {
                                        int dimensionY,
                                        PerspectiveTransform transform) throws NotFoundException;
 
+  /**
+   * Samples as {@link #sampleGrid(BitMatrix, int, int, PerspectiveTransform)} does, and also
+   * reports modules whose color is in doubt, so that decoders can treat them as erasures.
+   * By default no module is.
+   *
+   * @param image image to sample
+   * @param dimensionX width of {@link BitMatrix} to sample from image
+   * @param dimensionY height of {@link BitMatrix} to sample from image
+   * @param transform transformation from grid to image coordinates
+   * @param uncertainBits matrix of the same dimensions, in which to set modules in doubt, or
+   *  {@code null} if they aren't wanted
+   * @return {@link BitMatrix} representing a grid of points sampled from the image
+   * @throws NotFoundException if image can't be sampled
+   */
+  public BitMatrix sampleGrid(BitMatrix image,
+                              int dimensionX,
+                              int dimensionY,
+                              PerspectiveTransform transform,
+                              BitMatrix uncertainBits) throws NotFoundException {
+    return sampleGrid(image, dimensionX, dimensionY, transform);
+  }
+
+  /**
+   * @return true if this sampler may report modules in doubt, so that callers need a matrix for
+   *  them at all. By default it doesn't.
+   */
+  public boolean reportsUncertainModules() {
+    return false;
+  }
+
   /**
    * <p>Checks a set of points that have been transformed to sample points on an image against
    * the image's dimensions to see if the point are even within the image.</p>
@@ -20,6 +20,9 @@ import com.google.zxing.Binarizer;
 import com.google.zxing.LuminanceSource;
 import com.google.zxing.NotFoundException;
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 /**
  * This class implements a local thresholding algorithm, which while slower than the
  * GlobalHistogramBinarizer, is fairly efficient for what it does. It is designed for
@@ -35,6 +38,9 @@ import com.google.zxing.NotFoundException;
  *
  * This Binarizer is the default for the unit tests and the recommended class for library users.
  *
+ * Large images may optionally be binarized in parallel, in bands of rows, on a {@link ForkJoinPool}.
+ * The result is the same as binarizing serially.
+ *
  * @author dswitkin@google.com (Daniel Switkin)
  */
 public final class HybridBinarizer extends GlobalHistogramBinarizer {
@@ -46,11 +52,36 @@ public final class HybridBinarizer extends GlobalHistogramBinarizer {
   private static final int BLOCK_SIZE_MASK = BLOCK_SIZE - 1;   // ...0011...11
   private static final int MINIMUM_DIMENSION = BLOCK_SIZE * 5;
   private static final int MIN_DYNAMIC_RANGE = 24;
+  // Smallest band of block rows worth handing to another thread
+  private static final int MIN_PARALLEL_BAND_HEIGHT = 32;
 
+  private final BinarizerWorkspace workspace;
+  private final ForkJoinPool pool;
   private BitMatrix matrix;
 
   public HybridBinarizer(LuminanceSource source) {
+    this(source, null, null);
+  }
+
+  /**
+   * @param source luminance data to binarize
+   * @param workspace buffers to reuse, typically across frames of a continuous scan, or {@code null}
+   *  to allocate new ones. See {@link BinarizerWorkspace} for restrictions on the resulting matrix.
+   */
+  public HybridBinarizer(LuminanceSource source, BinarizerWorkspace workspace) {
+    this(source, workspace, null);
+  }
+
+  /**
+   * @param source luminance data to binarize
+   * @param workspace buffers to reuse, or {@code null} to allocate new ones
+   * @param pool pool on which to binarize bands of a large image in parallel, or {@code null} to
+   *  binarize in the calling thread only
+   */
+  public HybridBinarizer(LuminanceSource source, BinarizerWorkspace workspace, ForkJoinPool pool) {
     super(source);
+    this.workspace = workspace;
+    this.pool = pool;
   }
 
   /**
@@ -76,10 +107,27 @@ public final class HybridBinarizer extends GlobalHistogramBinarizer {
       if ((height & BLOCK_SIZE_MASK) != 0) {
         subHeight++;
       }
-      int[][] blackPoints = calculateBlackPoints(luminances, subWidth, subHeight, width, height);
-
-      BitMatrix newMatrix = new BitMatrix(width, height);
-      calculateThresholdForBlock(luminances, subWidth, subHeight, width, height, blackPoints, newMatrix);
+      int[] blackPoints;
+      BitMatrix newMatrix;
+      if (workspace == null) {
+        blackPoints = new int[subWidth * subHeight];
+        newMatrix = new BitMatrix(width, height);
+      } else {
+        blackPoints = workspace.getBlackPoints(subWidth * subHeight);
+        newMatrix = workspace.getMatrix(width, height);
+      }
+      if (pool == null || subHeight < 2 * MIN_PARALLEL_BAND_HEIGHT) {
+        calculateBlackPoints(luminances, subWidth, 0, subHeight, width, height, blackPoints);
+        resolveLowContrastBlackPoints(subWidth, subHeight, blackPoints);
+        calculateThresholdForBlock(luminances, subWidth, subHeight, 0, subHeight, width, height, blackPoints,
+                                   newMatrix);
+      } else {
+        pool.invoke(new BandTask(false, luminances, subWidth, subHeight, 0, subHeight, width, height,
+                                 blackPoints, newMatrix));
+        resolveLowContrastBlackPoints(subWidth, subHeight, blackPoints);
+        pool.invoke(new BandTask(true, luminances, subWidth, subHeight, 0, subHeight, width, height,
+                                 blackPoints, newMatrix));
+      }
       matrix = newMatrix;
     } else {
       // If the image is too small, fall back to the global histogram approach.
@@ -88,24 +136,28 @@ public final class HybridBinarizer extends GlobalHistogramBinarizer {
     return matrix;
   }
 
+  // Deliberately doesn't share the workspace, whose matrix is still in use by this binarizer's caller
   @Override
   public Binarizer createBinarizer(LuminanceSource source) {
-    return new HybridBinarizer(source);
+    return new HybridBinarizer(source, null, pool);
   }
 
   /**
    * For each block in the image, calculate the average black point using a 5x5 grid
    * of the blocks around it. Also handles the corner cases (fractional blocks are computed based
-   * on the last pixels in the row/column which are also used in the previous block).
+   * on the last pixels in the row/column which are also used in the previous block). Only blocks in
+   * rows fromY (inclusive) to toY (exclusive) are thresholded.
    */
   private static void calculateThresholdForBlock(byte[] luminances,
                                                  int subWidth,
                                                  int subHeight,
+                                                 int fromY,
+                                                 int toY,
                                                  int width,
                                                  int height,
-                                                 int[][] blackPoints,
+                                                 int[] blackPoints,
                                                  BitMatrix matrix) {
-    for (int y = 0; y < subHeight; y++) {
+    for (int y = fromY; y < toY; y++) {
       int yoffset = y << BLOCK_SIZE_POWER;
       int maxYOffset = height - BLOCK_SIZE;
       if (yoffset > maxYOffset) {
@@ -120,9 +172,9 @@ public final class HybridBinarizer extends GlobalHistogramBinarizer {
         int left = cap(x, 2, subWidth - 3);
         int top = cap(y, 2, subHeight - 3);
         int sum = 0;
-        for (int z = -2; z <= 2; z++) {
-          int[] blackRow = blackPoints[top + z];
-          sum += blackRow[left - 2] + blackRow[left - 1] + blackRow[left] + blackRow[left + 1] + blackRow[left + 2];
+        for (int z = -2, offset = (top - 2) * subWidth + left; z <= 2; z++, offset += subWidth) {
+          sum += blackPoints[offset - 2] + blackPoints[offset - 1] + blackPoints[offset] +
+              blackPoints[offset + 1] + blackPoints[offset + 2];
         }
         int average = sum / 25;
         thresholdBlock(luminances, xoffset, yoffset, average, width, matrix);
@@ -144,27 +196,35 @@ public final class HybridBinarizer extends GlobalHistogramBinarizer {
                                      int stride,
                                      BitMatrix matrix) {
     for (int y = 0, offset = yoffset * stride + xoffset; y < BLOCK_SIZE; y++, offset += stride) {
+      // Build up the block's row of bits and set them all at once
+      int rowBits = 0;
       for (int x = 0; x < BLOCK_SIZE; x++) {
         // Comparison needs to be <= so that black == 0 pixels are black even if the threshold is 0.
-        if ((luminances[offset + x] & 0xFF) <= threshold) {
-          matrix.set(xoffset + x, yoffset + y);
-        }
+        // That's the case exactly when threshold - pixel is not negative, i.e. its sign bit is 0.
+        rowBits |= (~(threshold - (luminances[offset + x] & 0xFF)) >>> 31) << x;
+      }
+      if (rowBits != 0) {
+        matrix.orBits(xoffset, yoffset + y, rowBits, BLOCK_SIZE);
       }
     }
   }
 
   /**
-   * Calculates a single black point for each block of pixels and saves it away.
+   * Calculates a single black point for each block of pixels in rows fromY (inclusive) to toY
+   * (exclusive) and saves it away, in row-major order, in blackPoints. Blocks with low contrast
+   * depend on their neighbors' black points, so are only marked, with the bitwise complement of
+   * their minimum, to be finished by {@link #resolveLowContrastBlackPoints(int, int, int[])}.
    * See the following thread for a discussion of this algorithm:
    *  http://groups.google.com/group/zxing/browse_thread/thread/d06efa2c35a7ddc0
    */
-  private static int[][] calculateBlackPoints(byte[] luminances,
-                                              int subWidth,
-                                              int subHeight,
-                                              int width,
-                                              int height) {
-    int[][] blackPoints = new int[subHeight][subWidth];
-    for (int y = 0; y < subHeight; y++) {
+  private static void calculateBlackPoints(byte[] luminances,
+                                           int subWidth,
+                                           int fromY,
+                                           int toY,
+                                           int width,
+                                           int height,
+                                           int[] blackPoints) {
+    for (int y = fromY; y < toY; y++) {
       int yoffset = y << BLOCK_SIZE_POWER;
       int maxYOffset = height - BLOCK_SIZE;
       if (yoffset > maxYOffset) {
@@ -202,36 +262,114 @@ public final class HybridBinarizer extends GlobalHistogramBinarizer {
           }
         }
 
-        // The default estimate is the average of the values in the block.
-        int average = sum >> (BLOCK_SIZE_POWER * 2);
         if (max - min <= MIN_DYNAMIC_RANGE) {
-          // If variation within the block is low, assume this is a block with only light or only
-          // dark pixels. In that case we do not want to use the average, as it would divide this
-          // low contrast area into black and white pixels, essentially creating data out of noise.
-          //
-          // The default assumption is that the block is light/background. Since no estimate for
-          // the level of dark pixels exists locally, use half the min for the block.
-          average = min / 2;
-
-          if (y > 0 && x > 0) {
-            // Correct the "white background" assumption for blocks that have neighbors by comparing
-            // the pixels in this block to the previously calculated black points. This is based on
-            // the fact that dark barcode symbology is always surrounded by some amount of light
-            // background for which reasonable black point estimates were made. The bp estimated at
-            // the boundaries is used for the interior.
-
-            // The (min < bp) is arbitrary but works better than other heuristics that were tried.
-            int averageNeighborBlackPoint =
-                (blackPoints[y - 1][x] + (2 * blackPoints[y][x - 1]) + blackPoints[y - 1][x - 1]) / 4;
-            if (min < averageNeighborBlackPoint) {
-              average = averageNeighborBlackPoint;
-            }
+          blackPoints[y * subWidth + x] = ~min;
+        } else {
+          // The default estimate is the average of the values in the block.
+          blackPoints[y * subWidth + x] = sum >> (BLOCK_SIZE_POWER * 2);
+        }
+      }
+    }
+  }
+
+  /**
+   * Finishes the black points of blocks marked as having low contrast by
+   * {@link #calculateBlackPoints(byte[], int, int, int, int, int, int[])}, in row-major order,
+   * since each depends on the final black points above and to the left of it.
+   */
+  private static void resolveLowContrastBlackPoints(int subWidth, int subHeight, int[] blackPoints) {
+    for (int y = 0; y < subHeight; y++) {
+      for (int x = 0; x < subWidth; x++) {
+        int index = y * subWidth + x;
+        if (blackPoints[index] >= 0) {
+          continue;
+        }
+        int min = ~blackPoints[index];
+        // If variation within the block is low, assume this is a block with only light or only
+        // dark pixels. In that case we do not want to use the average, as it would divide this
+        // low contrast area into black and white pixels, essentially creating data out of noise.
+        //
+        // The default assumption is that the block is light/background. Since no estimate for
+        // the level of dark pixels exists locally, use half the min for the block.
+        int average = min / 2;
+
+        if (y > 0 && x > 0) {
+          // Correct the "white background" assumption for blocks that have neighbors by comparing
+          // the pixels in this block to the previously calculated black points. This is based on
+          // the fact that dark barcode symbology is always surrounded by some amount of light
+          // background for which reasonable black point estimates were made. The bp estimated at
+          // the boundaries is used for the interior.
+
+          // The (min < bp) is arbitrary but works better than other heuristics that were tried.
+          int averageNeighborBlackPoint =
+              (blackPoints[index - subWidth] + (2 * blackPoints[index - 1]) + blackPoints[index - subWidth - 1]) / 4;
+          if (min < averageNeighborBlackPoint) {
+            average = averageNeighborBlackPoint;
           }
         }
-        blackPoints[y][x] = average;
+        blackPoints[index] = average;
+      }
+    }
+  }
+
+  /**
+   * Calculates black points, or thresholds blocks, for a band of block rows, splitting the band in
+   * two to work on in parallel while it is large enough.
+   */
+  private static final class BandTask extends RecursiveAction {
+
+    private final boolean threshold;
+    private final byte[] luminances;
+    private final int subWidth;
+    private final int subHeight;
+    private final int fromY;
+    private final int toY;
+    private final int width;
+    private final int height;
+    private final int[] blackPoints;
+    private final BitMatrix matrix;
+
+    BandTask(boolean threshold,
+             byte[] luminances,
+             int subWidth,
+             int subHeight,
+             int fromY,
+             int toY,
+             int width,
+             int height,
+             int[] blackPoints,
+             BitMatrix matrix) {
+      this.threshold = threshold;
+      this.luminances = luminances;
+      this.subWidth = subWidth;
+      this.subHeight = subHeight;
+      this.fromY = fromY;
+      this.toY = toY;
+      this.width = width;
+      this.height = height;
+      this.blackPoints = blackPoints;
+      this.matrix = matrix;
+    }
+
+    @Override
+    protected void compute() {
+      if (toY - fromY >= 2 * MIN_PARALLEL_BAND_HEIGHT) {
+        // The last block row overlaps the pixel rows of the one before it, and rows of the matrix
+        // must not be written by two threads. Each half has at least two block rows, so the last two
+        // always stay together.
+        int middle = (fromY + toY) / 2;
+        invokeAll(new BandTask(threshold, luminances, subWidth, subHeight, fromY, middle, width, height,
+                               blackPoints, matrix),
+                  new BandTask(threshold, luminances, subWidth, subHeight, middle, toY, width, height,
+                               blackPoints, matrix));
+      } else if (threshold) {
+        calculateThresholdForBlock(luminances, subWidth, subHeight, fromY, toY, width, height, blackPoints,
+                                   matrix);
+      } else {
+        calculateBlackPoints(luminances, subWidth, fromY, toY, width, height, blackPoints);
       }
     }
-    return blackPoints;
+
   }
 
 }
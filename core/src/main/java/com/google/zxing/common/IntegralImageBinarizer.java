@@ -0,0 +1,158 @@
+/*
+ * Copyright 2016 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.common;
+
+import com.google.zxing.Binarizer;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.LuminanceSource;
+
+import java.util.Map;
+
+/**
+ * <p>This class implements Bradley and Roth's adaptive thresholding: each pixel is black if it is
+ * sufficiently darker than the average luminance of the square window centered on it. Window
+ * averages come from a summed-area table (integral image) computed once, so each pixel costs the
+ * same regardless of the window size.</p>
+ *
+ * <p>Unlike {@link HybridBinarizer}, whose neighborhood is fixed at 40x40 pixels, the window can be
+ * sized to the barcode, which helps with large barcodes lit unevenly across their area. The window
+ * should be comfortably larger than the largest solid dark area in the barcode, such as the center
+ * of a QR code finder pattern, since the interior of a dark area larger than the window is not
+ * darker than its own average. By default it is 1/8 of the image's smaller dimension, but at least
+ * 40 pixels. It may be set with {@link DecodeHintType#BINARIZER_WINDOW_SIZE}. The window is centered
+ * on the pixel, so its size is odd: an even size, including the default, is rounded up by one.</p>
+ *
+ * <p>Like {@link HybridBinarizer}, this uses the global histogram approach for 1D readers.</p>
+ */
+public final class IntegralImageBinarizer extends GlobalHistogramBinarizer {
+
+  private static final int MIN_DEFAULT_WINDOW_SIZE = 40;
+  // Keeps any window's sum of luminance, at most 255 * 2047 * 2047, within an int
+  private static final int MAX_WINDOW_SIZE = 2047;
+  // A pixel is black when it is at least this many percent darker than its window's average
+  private static final int THRESHOLD_PERCENT = 15;
+
+  private final int windowSize;
+  private BitMatrix matrix;
+
+  public IntegralImageBinarizer(LuminanceSource source) {
+    this(source, 0);
+  }
+
+  /**
+   * @param source luminance data to binarize
+   * @param hints decode hints, from which {@link DecodeHintType#BINARIZER_WINDOW_SIZE} is read if present
+   */
+  public IntegralImageBinarizer(LuminanceSource source, Map<DecodeHintType,?> hints) {
+    this(source, hints == null || !hints.containsKey(DecodeHintType.BINARIZER_WINDOW_SIZE) ? 0 :
+        ((Number) hints.get(DecodeHintType.BINARIZER_WINDOW_SIZE)).intValue());
+  }
+
+  /**
+   * @param source luminance data to binarize
+   * @param windowSize side length in pixels of the window around each pixel to average, or 0 to
+   *  choose one based on the image size. An even size is rounded up to the next odd one.
+   */
+  public IntegralImageBinarizer(LuminanceSource source, int windowSize) {
+    super(source);
+    if (windowSize < 0) {
+      throw new IllegalArgumentException("Window size must not be negative");
+    }
+    this.windowSize = windowSize;
+  }
+
+  @Override
+  public BitMatrix getBlackMatrix() {
+    if (matrix != null) {
+      return matrix;
+    }
+    LuminanceSource source = getLuminanceSource();
+    int width = source.getWidth();
+    int height = source.getHeight();
+    byte[] luminances = source.getMatrix();
+
+    int window = windowSize > 0 ? windowSize :
+        Math.max(MIN_DEFAULT_WINDOW_SIZE, Math.min(width, height) / 8);
+    // Round even sizes up, so that the window has as many pixels on each side of its center
+    window = Math.min(window | 1, MAX_WINDOW_SIZE);
+    int radius = window / 2;
+
+    int[] integral = calculateIntegralImage(luminances, width, height);
+
+    BitMatrix newMatrix = new BitMatrix(width, height);
+    int stride = width + 1;
+    for (int y = 0; y < height; y++) {
+      int top = Math.max(0, y - radius);
+      int bottom = Math.min(height, y + radius + 1);
+      int topOffset = top * stride;
+      int bottomOffset = bottom * stride;
+      int windowHeight = bottom - top;
+      int offset = y * width;
+      for (int x = 0; x < width; x += 32) {
+        int numBits = Math.min(32, width - x);
+        int bits = 0;
+        for (int i = 0; i < numBits; i++) {
+          int xx = x + i;
+          int left = Math.max(0, xx - radius);
+          int right = Math.min(width, xx + radius + 1);
+          // Entries may have overflowed, but the window's sum is small enough that the difference is exact
+          int sum = integral[bottomOffset + right] - integral[bottomOffset + left] -
+              integral[topOffset + right] + integral[topOffset + left];
+          int count = windowHeight * (right - left);
+          int pixel = luminances[offset + xx] & 0xFF;
+          // pixel <= average * (100 - THRESHOLD_PERCENT) / 100, without division. Comparison needs to be
+          // <= so that black == 0 pixels are black even if the window is all black.
+          if ((long) pixel * count * 100 <= (long) sum * (100 - THRESHOLD_PERCENT)) {
+            bits |= 1 << i;
+          }
+        }
+        if (bits != 0) {
+          newMatrix.orBits(x, y, bits, numBits);
+        }
+      }
+    }
+    matrix = newMatrix;
+    return matrix;
+  }
+
+  @Override
+  public Binarizer createBinarizer(LuminanceSource source) {
+    return new IntegralImageBinarizer(source, windowSize);
+  }
+
+  /**
+   * @return summed-area table with a leading row and column of zeroes: entry (x, y), at
+   *  {@code y * (width + 1) + x}, is the sum of luminance above and to the left of pixel (x, y).
+   *  Entries wrap around on overflow.
+   */
+  private static int[] calculateIntegralImage(byte[] luminances, int width, int height) {
+    int stride = width + 1;
+    int[] integral = new int[stride * (height + 1)];
+    for (int y = 0; y < height; y++) {
+      int rowSum = 0;
+      int offset = y * width;
+      int above = y * stride + 1;
+      int current = above + stride;
+      for (int x = 0; x < width; x++) {
+        rowSum += luminances[offset + x] & 0xFF;
+        integral[current + x] = integral[above + x] + rowSum;
+      }
+    }
+    return integral;
+  }
+
+}
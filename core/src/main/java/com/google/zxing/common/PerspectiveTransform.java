@@ -94,6 +94,31 @@ public final class PerspectiveTransform {
     }
   }
 
+  /**
+   * Transforms the points (x, y), (x + 1, y), (x + 2, y), ... along one row, as many as fit in
+   * {@code points}. Rather than evaluate the transform afresh for each point, this steps each of its
+   * numerators and its denominator forward by one addition per point, leaving one division.
+   *
+   * @param points array to write the transformed points into, in x1,y1,...,xn,yn form
+   * @param x x coordinate of the first point
+   * @param y y coordinate shared by all points
+   */
+  public void transformRow(float[] points, float x, float y) {
+    // Sums are kept as doubles so that rounding doesn't build up over a long row
+    double numeratorX = a11 * x + a21 * y + a31;
+    double numeratorY = a12 * x + a22 * y + a32;
+    double denominator = a13 * x + a23 * y + a33;
+    int max = points.length;
+    for (int i = 0; i < max; i += 2) {
+      double scale = 1.0 / denominator;
+      points[i] = (float) (numeratorX * scale);
+      points[i + 1] = (float) (numeratorY * scale);
+      numeratorX += a11;
+      numeratorY += a12;
+      denominator += a13;
+    }
+  }
+
   public static PerspectiveTransform squareToQuadrilateral(float x0, float y0,
                                                            float x1, float y1,
                                                            float x2, float y2,
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2016 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.common;
+
+import com.google.zxing.NotFoundException;
+
+import java.util.Arrays;
+
+/**
+ * <p>A {@link GridSampler} that looks at a small grid of points across the middle of each module,
+ * rather than only its center, and takes the color most of them have. A stray pixel of the wrong
+ * color then no longer flips a module by itself.</p>
+ *
+ * <p>How far the points agree serves as the module's confidence: where at least a third of them
+ * disagree with the rest, the module is reported as in doubt by
+ * {@link #sampleGrid(BitMatrix, int, int, PerspectiveTransform, BitMatrix)}, and decoders treat the
+ * codewords it's part of as erasures, which cost half as much error correction as errors.</p>
+ *
+ * <p>It's slower than {@link DefaultGridSampler} by about the number of points per module, so it
+ * may best be used for retrying a decode, via {@link com.google.zxing.DecodeHintType#GRID_SAMPLER}.
+ * It keeps no state and may be shared by threads.</p>
+ */
+public final class SupersamplingGridSampler extends GridSampler {
+
+  private final int samplesPerSide;
+
+  /**
+   * Samples 3x3 points per module.
+   */
+  public SupersamplingGridSampler() {
+    this(3);
+  }
+
+  /**
+   * @param samplesPerSide points to sample along each side of a module; the points are spread evenly
+   *  over the middle of the module, keeping clear of its edges
+   */
+  public SupersamplingGridSampler(int samplesPerSide) {
+    if (samplesPerSide < 1) {
+      throw new IllegalArgumentException("Must sample at least one point per module");
+    }
+    this.samplesPerSide = samplesPerSide;
+  }
+
+  @Override
+  public BitMatrix sampleGrid(BitMatrix image,
+                              int dimensionX,
+                              int dimensionY,
+                              float p1ToX, float p1ToY,
+                              float p2ToX, float p2ToY,
+                              float p3ToX, float p3ToY,
+                              float p4ToX, float p4ToY,
+                              float p1FromX, float p1FromY,
+                              float p2FromX, float p2FromY,
+                              float p3FromX, float p3FromY,
+                              float p4FromX, float p4FromY) throws NotFoundException {
+    PerspectiveTransform transform = PerspectiveTransform.quadrilateralToQuadrilateral(
+        p1ToX, p1ToY, p2ToX, p2ToY, p3ToX, p3ToY, p4ToX, p4ToY,
+        p1FromX, p1FromY, p2FromX, p2FromY, p3FromX, p3FromY, p4FromX, p4FromY);
+    return sampleGrid(image, dimensionX, dimensionY, transform, null);
+  }
+
+  @Override
+  public BitMatrix sampleGrid(BitMatrix image,
+                              int dimensionX,
+                              int dimensionY,
+                              PerspectiveTransform transform) throws NotFoundException {
+    return sampleGrid(image, dimensionX, dimensionY, transform, null);
+  }
+
+  @Override
+  public boolean reportsUncertainModules() {
+    return true;
+  }
+
+  @Override
+  public BitMatrix sampleGrid(BitMatrix image,
+                              int dimensionX,
+                              int dimensionY,
+                              PerspectiveTransform transform,
+                              BitMatrix uncertainBits) throws NotFoundException {
+    if (dimensionX <= 0 || dimensionY <= 0) {
+      throw NotFoundException.getNotFoundInstance();
+    }
+    int width = image.getWidth();
+    int height = image.getHeight();
+    int totalSamples = samplesPerSide * samplesPerSide;
+    BitMatrix bits = new BitMatrix(dimensionX, dimensionY);
+    float[] points = new float[2 * dimensionX];
+    int[] blackCounts = new int[dimensionX];
+    for (int y = 0; y < dimensionY; y++) {
+      // Module centers must map into the image, as for DefaultGridSampler; the other points are
+      // kept inside it
+      transform.transformRow(points, 0.5f, y + 0.5f);
+      checkAndNudgePoints(image, points);
+      Arrays.fill(blackCounts, 0);
+      for (int j = 0; j < samplesPerSide; j++) {
+        float sampleY = y + (j + 1.0f) / (samplesPerSide + 1);
+        for (int i = 0; i < samplesPerSide; i++) {
+          transform.transformRow(points, (i + 1.0f) / (samplesPerSide + 1), sampleY);
+          for (int x = 0; x < dimensionX; x++) {
+            int imageX = Math.min(Math.max((int) points[2 * x], 0), width - 1);
+            int imageY = Math.min(Math.max((int) points[2 * x + 1], 0), height - 1);
+            blackCounts[x] += image.get(imageX, imageY) ? 1 : 0;
+          }
+        }
+      }
+      for (int x = 0; x < dimensionX; x++) {
+        int black = blackCounts[x];
+        if (2 * black > totalSamples) {
+          bits.set(x, y);
+        }
+        if (uncertainBits != null && 3 * Math.min(black, totalSamples - black) >= totalSamples) {
+          uncertainBits.set(x, y);
+        }
+      }
+    }
+    return bits;
+  }
+
+}
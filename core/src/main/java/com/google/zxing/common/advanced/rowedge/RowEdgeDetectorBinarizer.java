@@ -19,6 +19,8 @@ public final class RowEdgeDetectorBinarizer extends Binarizer {
   private static final int MIN_TRANSITIONS = 40;
   private static final int MIN_TRANSITION_SIZE = 4;
   private static final int MAX_TRANSITIONS = 300;
+  // Differences over a run of like-signed differences telescope, so can't exceed the range of luminance
+  private static final int MAX_TRANSITION_SUM = 255;
 
   public static final int DEFAULT_SCALE = 2;
   public static final int TRY_HARDER_SCALE = 4;
@@ -26,7 +28,10 @@ public final class RowEdgeDetectorBinarizer extends Binarizer {
   private int zoomFactor;
   private final byte[] luminance;
   private final int[] diffs;
-  private final Transition[] transitions;
+  // Transitions in order of position: center, and total difference, whose sign is its direction
+  private final float[] transitionCenters;
+  private final int[] transitionSums;
+  private final int[] sumCounts;
 
   public RowEdgeDetectorBinarizer(LuminanceSource source) {
     super(source);
@@ -34,7 +39,9 @@ public final class RowEdgeDetectorBinarizer extends Binarizer {
     luminance = new byte[sourceWidth];
     diffs = new int[sourceWidth];
     zoomFactor = 2;
-    transitions = new Transition[MAX_TRANSITIONS];
+    transitionCenters = new float[MAX_TRANSITIONS];
+    transitionSums = new int[MAX_TRANSITIONS];
+    sumCounts = new int[MAX_TRANSITION_SUM + 1];
   }
 
   public void setTryHarder(boolean tryHarder) {
@@ -69,19 +76,30 @@ public final class RowEdgeDetectorBinarizer extends Binarizer {
       return row;
     }
 
-    byte[] luminance = this.luminance;
-    int zoomFactor = this.zoomFactor;
-
-    getLuminanceSource().getRow(y / zoomFactor, luminance);
+    byte[] luminance = getLuminanceSource().getRow(y / zoomFactor, this.luminance);
+    detectEdges(luminance, 0, row);
+    return row;
+  }
 
+  /**
+   * Sets black the pixels of a zoomed row between the edges detected in a row of source luminance.
+   *
+   * @param luminance source luminance
+   * @param offset offset of the row in {@code luminance}
+   * @param row cleared row to set pixels in, at least as wide as {@link #getWidth()}
+   */
+  private void detectEdges(byte[] luminance, int offset, BitArray row) {
+    int width = getWidth();
+    int zoomFactor = this.zoomFactor;
     int rawWidth = width / zoomFactor;
 
     int[] diffs = this.diffs;
     for (int i = 1; i < rawWidth; i++) {
-      diffs[i] = (luminance[i] & 0xFF) - (luminance[i - 1] & 0xFF);
+      diffs[i] = (luminance[offset + i] & 0xFF) - (luminance[offset + i - 1] & 0xFF);
     }
 
-    Transition[] transitions = this.transitions;
+    float[] transitionCenters = this.transitionCenters;
+    int[] transitionSums = this.transitionSums;
 
     int numTransitions = 0;
     int runStart = 0;
@@ -101,90 +119,121 @@ public final class RowEdgeDetectorBinarizer extends Binarizer {
           break;
         }
       }
-      int absDiffTotal;
-      boolean positive;
-      if (diffTotal < 0) {
-        absDiffTotal = -diffTotal;
-        positive = false;
-      } else {
-        absDiffTotal = diffTotal;
-        positive = true;
-      }
-
-      if (absDiffTotal >= MIN_TRANSITION_SIZE && numTransitions < MAX_TRANSITIONS) {
-        Transition t = transitions[numTransitions];
-        if (t == null) {
-          t = new Transition();
-          transitions[numTransitions] = t;
-        }
-        t.center = weightedDiffTotal / diffTotal;
-        t.absDiffSum = absDiffTotal;
-        t.positive = positive;
+      if (Math.abs(diffTotal) >= MIN_TRANSITION_SIZE && numTransitions < MAX_TRANSITIONS) {
+        transitionCenters[numTransitions] = weightedDiffTotal / diffTotal;
+        transitionSums[numTransitions] = diffTotal;
         numTransitions++;
       }
       runStart = runEnd;
     }
 
     if (numTransitions == 0) {
-      return row;
+      return;
     }
 
-    Arrays.sort(transitions, 0, numTransitions, ByAbsDiffSumComparator.INSTANCE);
-
-    int maxOccursAt = MIN_TRANSITIONS;
-    if (maxOccursAt < numTransitions) {
-      int lastSum = transitions[maxOccursAt - 1].absDiffSum;
-      int maxScore = 0;
-      for (int i = maxOccursAt; i < numTransitions; i++) {
-        int sum = transitions[i].absDiffSum;
-        int score = Math.abs(sum - lastSum);
-        lastSum = sum;
-        if (score > maxScore) {
-          maxScore = score;
-          maxOccursAt = i;
-        }
-      }
-      if (maxOccursAt < numTransitions) {
-        numTransitions = maxOccursAt;
-      }
-    }
-
-    if (numTransitions == 0) {
-      return row;
+    if (numTransitions > MIN_TRANSITIONS) {
+      numTransitions = selectStrongestTransitions(numTransitions);
     }
 
-    Arrays.sort(transitions, 0, numTransitions, ByPositionComparator.INSTANCE);
-
-    boolean inBlack = transitions[0].positive;
+    boolean inBlack = transitionSums[0] > 0;
     int start = 0;
     for (int i = 0; i < numTransitions; i++) {
-      Transition transition = transitions[i];
-      int end = (int) (zoomFactor * transition.center + 0.5f);
+      int end = (int) (zoomFactor * transitionCenters[i] + 0.5f);
       if (inBlack) {
         row.setRange(start, end);
       }
-      inBlack = !transition.positive;
+      inBlack = transitionSums[i] < 0;
       start = end;
     }
     if (inBlack) {
       row.setRange(start, width);
     }
-
-    return row;
   }
 
   @Override
   public BitMatrix getBlackMatrix() {
+    LuminanceSource source = getLuminanceSource();
+    int sourceWidth = source.getWidth();
+    int sourceHeight = source.getHeight();
+    byte[] luminance = source.getMatrix();
+    int zoomFactor = this.zoomFactor;
     int width = getWidth();
-    int height = getHeight();
-    BitMatrix result = new BitMatrix(width, height);
+    BitMatrix result = new BitMatrix(width, getHeight());
     BitArray row = new BitArray(width);
-    for (int y = 0; y < height; y++) {
-      result.setRow(y, getBlackRow(y, row));
+    // Zoomed rows from the same source row are identical, so compute each once
+    for (int sourceY = 0; sourceY < sourceHeight; sourceY++) {
+      row.clear();
+      detectEdges(luminance, sourceY * sourceWidth, row);
+      int y = sourceY * zoomFactor;
+      for (int i = 0; i < zoomFactor; i++) {
+        result.setRow(y + i, row);
+      }
     }
     return result;
   }
 
+  /**
+   * Keeps only the strongest transitions: ranked by absolute sum, those before the largest drop in
+   * sum that comes after the first {@link #MIN_TRANSITIONS}, or just the first
+   * {@link #MIN_TRANSITIONS} if there is no such drop. Among equal sums, those further left rank
+   * higher. Sums are small, so they are ranked by counting rather than sorting. Kept transitions
+   * are moved to the front of the arrays, still in order of position.
+   *
+   * @param numTransitions number of transitions found, more than {@link #MIN_TRANSITIONS}
+   * @return number of transitions kept
+   */
+  private int selectStrongestTransitions(int numTransitions) {
+    int[] transitionSums = this.transitionSums;
+    int[] sumCounts = this.sumCounts;
+    Arrays.fill(sumCounts, 0);
+    for (int i = 0; i < numTransitions; i++) {
+      sumCounts[Math.abs(transitionSums[i])]++;
+    }
+
+    int numToKeep = MIN_TRANSITIONS;
+    int maxDrop = 0;
+    int numAbove = 0;
+    int lastSum = 0;
+    for (int sum = MAX_TRANSITION_SUM; sum >= MIN_TRANSITION_SIZE; sum--) {
+      int count = sumCounts[sum];
+      if (count > 0) {
+        // In ranked order, transitions with this sum start at index numAbove
+        if (numAbove >= MIN_TRANSITIONS && lastSum - sum > maxDrop) {
+          maxDrop = lastSum - sum;
+          numToKeep = numAbove;
+        }
+        lastSum = sum;
+        numAbove += count;
+      }
+    }
+
+    // Keep all with a sum above cutoffSum, and the leftmost numAtCutoff with sum equal to it
+    int cutoffSum = MAX_TRANSITION_SUM;
+    numAbove = 0;
+    while (numAbove + sumCounts[cutoffSum] < numToKeep) {
+      numAbove += sumCounts[cutoffSum];
+      cutoffSum--;
+    }
+    int numAtCutoff = numToKeep - numAbove;
+
+    float[] transitionCenters = this.transitionCenters;
+    int numKept = 0;
+    for (int i = 0; i < numTransitions; i++) {
+      int sum = Math.abs(transitionSums[i]);
+      boolean keep = sum > cutoffSum;
+      if (sum == cutoffSum && numAtCutoff > 0) {
+        numAtCutoff--;
+        keep = true;
+      }
+      if (keep) {
+        transitionCenters[numKept] = transitionCenters[i];
+        transitionSums[numKept] = transitionSums[i];
+        numKept++;
+      }
+    }
+    return numKept;
+  }
+
   @Override
   public Binarizer createBinarizer(LuminanceSource source) {
     return new RowEdgeDetectorBinarizer(source);
@@ -38,8 +38,13 @@ public final class GenericGF {
   public static final GenericGF AZTEC_DATA_8 = DATA_MATRIX_FIELD_256;
   public static final GenericGF MAXICODE_FIELD_64 = AZTEC_DATA_6;
 
+  // Largest field for which to keep a full multiplication table: 64KB for 256 elements
+  private static final int MAX_MULTIPLICATION_TABLE_SIZE = 256;
+
   private final int[] expTable;
   private final int[] logTable;
+  // Built on first use, by getMultiplicationTable()
+  private volatile byte[] multiplicationTable;
   private final GenericGFPoly zero;
   private final GenericGFPoly one;
   private final int size;
@@ -81,6 +86,17 @@ public final class GenericGF {
     one = new GenericGFPoly(this, new int[]{1});
   }
 
+  private byte[] buildMultiplicationTable() {
+    byte[] table = new byte[size * size];
+    for (int a = 1; a < size; a++) {
+      int logA = logTable[a];
+      for (int b = 1; b < size; b++) {
+        table[a * size + b] = (byte) expTable[(logA + logTable[b]) % (size - 1)];
+      }
+    }
+    return table;
+  }
+
   GenericGFPoly getZero() {
     return zero;
   }
@@ -144,12 +160,34 @@ public final class GenericGF {
    * @return product of a and b in GF(size)
    */
   int multiply(int a, int b) {
+    byte[] table = multiplicationTable;
+    if (table != null) {
+      return table[a * size + b] & 0xFF;
+    }
     if (a == 0 || b == 0) {
       return 0;
     }
     return expTable[(logTable[a] + logTable[b]) % (size - 1)];
   }
 
+  /**
+   * @return table of all products, that of a and b at index {@code a * size + b}, or {@code null}
+   *  if the field is too large to keep one. It's built the first time this is called, so that
+   *  fields that are never decoded with take no space for it.
+   */
+  byte[] getMultiplicationTable() {
+    if (size > MAX_MULTIPLICATION_TABLE_SIZE) {
+      return null;
+    }
+    byte[] table = multiplicationTable;
+    if (table == null) {
+      // Threads that get here at once each build the same table; any of them may be kept
+      table = buildMultiplicationTable();
+      multiplicationTable = table;
+    }
+    return table;
+  }
+
   public int getSize() {
     return size;
   }
@@ -16,6 +16,8 @@
 
 package com.google.zxing.common.reedsolomon;
 
+import java.util.Arrays;
+
 /**
  * <p>Implements Reed-Solomon decoding, as the name implies.</p>
  *
@@ -26,11 +28,15 @@ package com.google.zxing.common.reedsolomon;
  * <li>Bruce Maggs.
  * <a href="http://www.cs.cmu.edu/afs/cs.cmu.edu/project/pscico-guyb/realworld/www/rs_decode.ps">
  * "Decoding Reed-Solomon Codes"</a> (see discussion of Forney's Formula)</li>
- * <li>J.I. Hall. <a href="www.mth.msu.edu/~jhall/classes/codenotes/GRS.pdf">
- * "Chapter 5. Generalized Reed-Solomon Codes"</a>
- * (see discussion of Euclidean algorithm)</li>
+ * <li>J.L. Massey. "Shift-Register Synthesis and BCH Decoding", IEEE Transactions on Information
+ * Theory 15(1), 1969 (the Berlekamp-Massey algorithm)</li>
  * </ul>
  *
+ * <p>Polynomials are worked on in place, in the arrays of a {@link ReedSolomonWorkspace}. A decoder
+ * given a workspace allocates nothing once that is large enough, but like the workspace, must then
+ * not be used by more than one thread at a time. A decoder created without one makes a new
+ * workspace for each call that finds errors, and so may be shared between threads.</p>
+ *
  * <p>Much credit is due to William Rucklidge since portions of this code are an indirect
  * port of his C++ Reed-Solomon implementation.</p>
  *
@@ -41,9 +47,23 @@ package com.google.zxing.common.reedsolomon;
 public final class ReedSolomonDecoder {
 
   private final GenericGF field;
+  private final ReedSolomonWorkspace workspace;
 
+  /**
+   * @param field field over which codewords are defined
+   */
   public ReedSolomonDecoder(GenericGF field) {
+    this(field, null);
+  }
+
+  /**
+   * @param field field over which codewords are defined
+   * @param workspace working memory to use, which may be shared with other decoders used from the
+   *  same thread, or {@code null} to use new memory for each call
+   */
+  public ReedSolomonDecoder(GenericGF field, ReedSolomonWorkspace workspace) {
     this.field = field;
+    this.workspace = workspace;
   }
 
   /**
@@ -56,135 +76,385 @@ public final class ReedSolomonDecoder {
    * @throws ReedSolomonException if decoding fails for any reason
    */
   public void decode(int[] received, int twoS) throws ReedSolomonException {
-    GenericGFPoly poly = new GenericGFPoly(field, received);
-    int[] syndromeCoefficients = new int[twoS];
-    boolean noError = true;
-    for (int i = 0; i < twoS; i++) {
-      int eval = poly.evaluateAt(field.exp(i + field.getGeneratorBase()));
-      syndromeCoefficients[syndromeCoefficients.length - 1 - i] = eval;
-      if (eval != 0) {
-        noError = false;
+    decodeWithECCount(received, twoS, null);
+  }
+
+  /**
+   * <p>Like {@link #decode(int[], int)}, but also given codewords known or suspected to be wrong.
+   * Correcting such an erasure takes one error-correction codeword, where correcting an error
+   * otherwise takes two, so up to {@code twoS} erasures may be corrected, less two for each
+   * other error.</p>
+   *
+   * @param received data and error-correction codewords
+   * @param twoS number of error-correction codewords available
+   * @param erasures distinct indices of codewords in {@code received} that are erased, or {@code null}
+   * @throws ReedSolomonException if decoding fails for any reason
+   */
+  public void decode(int[] received, int twoS, int[] erasures) throws ReedSolomonException {
+    decodeWithECCount(received, twoS, erasures);
+  }
+
+  /**
+   * <p>Collects the codewords in doubt as erasures for {@link #decode(int[], int, int[])}.
+   * Treating more than {@code twoS} codewords as erasures would leave no way to correct them, so
+   * then they are treated as ordinary codewords instead.</p>
+   *
+   * @param inDoubt whether each codeword is in doubt, or {@code null} if none are
+   * @param twoS number of error-correction codewords available
+   * @return indices of codewords in doubt, or {@code null} if there are none or too many
+   */
+  public static int[] getErasures(boolean[] inDoubt, int twoS) {
+    if (inDoubt == null) {
+      return null;
+    }
+    int numErasures = 0;
+    for (boolean doubt : inDoubt) {
+      if (doubt) {
+        numErasures++;
       }
     }
-    if (noError) {
-      return;
+    if (numErasures == 0 || numErasures > twoS) {
+      return null;
     }
-    GenericGFPoly syndrome = new GenericGFPoly(field, syndromeCoefficients);
-    GenericGFPoly[] sigmaOmega =
-        runEuclideanAlgorithm(field.buildMonomial(twoS, 1), syndrome, twoS);
-    GenericGFPoly sigma = sigmaOmega[0];
-    GenericGFPoly omega = sigmaOmega[1];
-    int[] errorLocations = findErrorLocations(sigma);
-    int[] errorMagnitudes = findErrorMagnitudes(omega, errorLocations);
-    for (int i = 0; i < errorLocations.length; i++) {
-      int position = received.length - 1 - field.log(errorLocations[i]);
-      if (position < 0) {
-        throw new ReedSolomonException("Bad error location");
+    int[] erasures = new int[numErasures];
+    int e = 0;
+    for (int i = 0; i < inDoubt.length; i++) {
+      if (inDoubt[i]) {
+        erasures[e] = i;
+        e++;
       }
-      received[position] = GenericGF.addOrSubtract(received[position], errorMagnitudes[i]);
     }
+    return erasures;
   }
 
-  private GenericGFPoly[] runEuclideanAlgorithm(GenericGFPoly a, GenericGFPoly b, int R)
-      throws ReedSolomonException {
-    // Assume a's degree is >= b's
-    if (a.getDegree() < b.getDegree()) {
-      GenericGFPoly temp = a;
-      a = b;
-      b = temp;
+  /**
+   * <p>Like {@link #decodeWithECCount(int[], int, int[])}, with the codewords in doubt as erasures, as
+   * collected by {@link #getErasures(boolean[], int)}. A codeword in doubt may well have been read
+   * right, yet as an erasure it still takes up an error-correction codeword, which may leave too few
+   * to correct errors elsewhere. So if decoding with erasures fails, this tries again without.</p>
+   *
+   * @param received data and error-correction codewords
+   * @param twoS number of error-correction codewords available
+   * @param inDoubt whether each codeword is in doubt, or {@code null} if none are
+   * @return number of errors corrected
+   * @throws ReedSolomonException if decoding fails both with and without erasures
+   */
+  public int decodeWithECCountInDoubt(int[] received, int twoS, boolean[] inDoubt) throws ReedSolomonException {
+    int[] erasures = getErasures(inDoubt, twoS);
+    if (erasures == null) {
+      return decodeWithECCount(received, twoS, null);
     }
+    // A failed decode may have corrected some codewords already
+    int[] original = received.clone();
+    try {
+      return decodeWithECCount(received, twoS, erasures);
+    } catch (ReedSolomonException ignored) {
+      System.arraycopy(original, 0, received, 0, received.length);
+      return decodeWithECCount(received, twoS, null);
+    }
+  }
+
+  /**
+   * <p>Like {@link #decode(int[], int)}, but also reports how many codewords were corrected.</p>
+   *
+   * @param received data and error-correction codewords
+   * @param twoS number of error-correction codewords available
+   * @return number of errors corrected
+   * @throws ReedSolomonException if decoding fails for any reason
+   */
+  public int decodeWithECCount(int[] received, int twoS) throws ReedSolomonException {
+    return decodeWithECCount(received, twoS, null);
+  }
+
+  /**
+   * <p>Like {@link #decode(int[], int, int[])}, but also reports how many codewords were corrected.
+   * Erased codewords which turn out to be right are not counted.</p>
+   *
+   * @param received data and error-correction codewords
+   * @param twoS number of error-correction codewords available
+   * @param erasures distinct indices of codewords in {@code received} that are erased, or {@code null}
+   * @return number of errors corrected
+   * @throws ReedSolomonException if decoding fails for any reason
+   */
+  public int decodeWithECCount(int[] received, int twoS, int[] erasures) throws ReedSolomonException {
+    ReedSolomonWorkspace workspace = this.workspace;
+    if (workspace == null) {
+      // Most blocks have no errors, so make sure of that before making a workspace
+      if (!hasErrors(received, twoS)) {
+        return 0;
+      }
+      workspace = new ReedSolomonWorkspace();
+    }
+    workspace.ensureCapacity(twoS);
+    int[] syndromes = workspace.syndromes;
+    if (!calculateSyndromes(received, twoS, syndromes, workspace)) {
+      return 0;
+    }
+    int numErrata = runBerlekampMassey(syndromes, twoS, erasures, received.length, workspace);
+    int[] errorPositions = workspace.errorPositions;
+    findErrorPositions(numErrata, received.length, errorPositions, workspace);
+    calculateErrorEvaluator(syndromes, numErrata, workspace);
+    int numErrors = 0;
+    for (int i = 0; i < numErrata; i++) {
+      int position = errorPositions[i];
+      int magnitude = findErrorMagnitude(received.length - 1 - position, numErrata, workspace);
+      if (magnitude != 0) {
+        received[position] = GenericGF.addOrSubtract(received[position], magnitude);
+        numErrors++;
+      }
+    }
+    return numErrors;
+  }
 
-    GenericGFPoly rLast = a;
-    GenericGFPoly r = b;
-    GenericGFPoly tLast = field.getZero();
-    GenericGFPoly t = field.getOne();
+  /**
+   * Evaluates the received polynomial at each root of the generator polynomial, by Horner's
+   * method, all at once in one pass over the codewords.
+   *
+   * @return false iff all syndromes are zero, meaning there are no errors
+   */
+  private boolean calculateSyndromes(int[] received, int twoS, int[] syndromes, ReedSolomonWorkspace workspace) {
+    Arrays.fill(syndromes, 0, twoS, 0);
+    int generatorBase = field.getGeneratorBase();
+    byte[] table = field.getMultiplicationTable();
+    if (table != null) {
+      // Offset of the row of products with each root in the table
+      int[] rows = workspace.scratch;
+      int size = field.getSize();
+      for (int i = 0; i < twoS; i++) {
+        rows[i] = field.exp(i + generatorBase) * size;
+      }
+      for (int codeword : received) {
+        for (int i = 0; i < twoS; i++) {
+          syndromes[i] = (table[rows[i] + syndromes[i]] & 0xFF) ^ codeword;
+        }
+      }
+    } else {
+      for (int codeword : received) {
+        for (int i = 0; i < twoS; i++) {
+          int product = field.multiply(field.exp(i + generatorBase), syndromes[i]);
+          syndromes[i] = GenericGF.addOrSubtract(product, codeword);
+        }
+      }
+    }
+    for (int i = 0; i < twoS; i++) {
+      if (syndromes[i] != 0) {
+        return true;
+      }
+    }
+    return false;
+  }
 
-    // Run Euclidean algorithm until r's degree is less than R/2
-    while (r.getDegree() >= R / 2) {
-      GenericGFPoly rLastLast = rLast;
-      GenericGFPoly tLastLast = tLast;
-      rLast = r;
-      tLast = t;
+  /**
+   * Evaluates the received polynomial at each root of the generator polynomial in turn, without
+   * any working memory, until one is not zero.
+   *
+   * @return true iff some syndrome is not zero, meaning there are errors
+   */
+  private boolean hasErrors(int[] received, int twoS) {
+    int generatorBase = field.getGeneratorBase();
+    byte[] table = field.getMultiplicationTable();
+    for (int i = 0; i < twoS; i++) {
+      int root = field.exp(i + generatorBase);
+      int syndrome = 0;
+      if (table != null) {
+        int row = root * field.getSize();
+        for (int codeword : received) {
+          syndrome = (table[row + syndrome] & 0xFF) ^ codeword;
+        }
+      } else {
+        for (int codeword : received) {
+          syndrome = GenericGF.addOrSubtract(field.multiply(root, syndrome), codeword);
+        }
+      }
+      if (syndrome != 0) {
+        return true;
+      }
+    }
+    return false;
+  }
 
-      // Divide rLastLast by rLast, with quotient in q and remainder in r
-      if (rLast.isZero()) {
-        // Oops, Euclidean algorithm already terminated?
-        throw new ReedSolomonException("r_{i-1} was zero");
+  /**
+   * Finds the errata locator polynomial sigma, the shortest linear recurrence generating the
+   * syndromes that has the erasure locations among its roots, into the workspace. This starts from
+   * the erasure locator, and from there goes on like the Berlekamp-Massey algorithm without erasures.
+   *
+   * @return number of errata, errors and erasures, which is the degree of sigma
+   */
+  private int runBerlekampMassey(int[] syndromes,
+                                 int twoS,
+                                 int[] erasures,
+                                 int numCodewords,
+                                 ReedSolomonWorkspace workspace) throws ReedSolomonException {
+    int numErasures = erasures == null ? 0 : erasures.length;
+    if (numErasures > twoS) {
+      throw new ReedSolomonException("Too many erasures");
+    }
+    int[] sigma = workspace.errorLocator;
+    int[] previousSigma = workspace.previousErrorLocator;
+    int[] scratch = workspace.scratch;
+    Arrays.fill(sigma, 0, twoS + 1, 0);
+    sigma[0] = 1;
+    for (int e = 0; e < numErasures; e++) {
+      int position = erasures[e];
+      if (position < 0 || position >= numCodewords) {
+        throw new IllegalArgumentException("Bad erasure position " + position);
       }
-      r = rLastLast;
-      GenericGFPoly q = field.getZero();
-      int denominatorLeadingTerm = rLast.getCoefficient(rLast.getDegree());
-      int dltInverse = field.inverse(denominatorLeadingTerm);
-      while (r.getDegree() >= rLast.getDegree() && !r.isZero()) {
-        int degreeDiff = r.getDegree() - rLast.getDegree();
-        int scale = field.multiply(r.getCoefficient(r.getDegree()), dltInverse);
-        q = q.addOrSubtract(field.buildMonomial(degreeDiff, scale));
-        r = r.addOrSubtract(rLast.multiplyByMonomial(degreeDiff, scale));
+      // Multiply by (1 + location * x)
+      int location = field.exp(numCodewords - 1 - position);
+      for (int i = e + 1; i > 0; i--) {
+        sigma[i] = GenericGF.addOrSubtract(sigma[i], field.multiply(location, sigma[i - 1]));
       }
+    }
+    System.arraycopy(sigma, 0, previousSigma, 0, twoS + 1);
+    int numErrata = numErasures;
+    // Steps since previousSigma was last updated, and its discrepancy then
+    int shift = 1;
+    int previousDiscrepancy = 1;
 
-      t = q.multiply(tLast).addOrSubtract(tLastLast);
-      
-      if (r.getDegree() >= rLast.getDegree()) {
-        throw new IllegalStateException("Division algorithm failed to reduce polynomial?");
+    for (int n = numErasures; n < twoS; n++) {
+      int discrepancy = syndromes[n];
+      for (int i = 1; i <= numErrata; i++) {
+        discrepancy = GenericGF.addOrSubtract(discrepancy, field.multiply(sigma[i], syndromes[n - i]));
+      }
+      if (discrepancy == 0) {
+        shift++;
+        continue;
+      }
+      int scale = field.multiply(discrepancy, field.inverse(previousDiscrepancy));
+      if (2 * numErrata <= n + numErasures) {
+        System.arraycopy(sigma, 0, scratch, 0, twoS + 1);
+        subtractShifted(sigma, previousSigma, scale, shift, twoS);
+        System.arraycopy(scratch, 0, previousSigma, 0, twoS + 1);
+        numErrata = n + 1 + numErasures - numErrata;
+        previousDiscrepancy = discrepancy;
+        shift = 1;
+      } else {
+        subtractShifted(sigma, previousSigma, scale, shift, twoS);
+        shift++;
       }
     }
 
-    int sigmaTildeAtZero = t.getCoefficient(0);
-    if (sigmaTildeAtZero == 0) {
-      throw new ReedSolomonException("sigmaTilde(0) was zero");
+    if (2 * numErrata - numErasures > twoS || sigma[numErrata] == 0) {
+      throw new ReedSolomonException("Too many errors");
     }
+    return numErrata;
+  }
 
-    int inverse = field.inverse(sigmaTildeAtZero);
-    GenericGFPoly sigma = t.multiply(inverse);
-    GenericGFPoly omega = r.multiply(inverse);
-    return new GenericGFPoly[]{sigma, omega};
+  /**
+   * Subtracts {@code scale * x^shift * other} from {@code poly}, up to degree {@code maxDegree}.
+   */
+  private void subtractShifted(int[] poly, int[] other, int scale, int shift, int maxDegree) {
+    for (int i = 0; i + shift <= maxDegree; i++) {
+      if (other[i] != 0) {
+        poly[i + shift] = GenericGF.addOrSubtract(poly[i + shift], field.multiply(scale, other[i]));
+      }
+    }
   }
 
-  private int[] findErrorLocations(GenericGFPoly errorLocator) throws ReedSolomonException {
-    // This is a direct application of Chien's search
-    int numErrors = errorLocator.getDegree();
-    if (numErrors == 1) { // shortcut
-      return new int[] { errorLocator.getCoefficient(1) };
+  /**
+   * Finds the roots of the error locator among the inverses of the error locations possible for
+   * this many codewords, which are the powers of alpha, by Chien's search: each term of sigma is
+   * carried from one power to the next, multiplied by a power of alpha particular to that term.
+   * Where the field keeps a multiplication table, that multiplication is a lookup in the row of the
+   * table for that power. Otherwise each term is kept as a logarithm, and stepped by subtraction,
+   * since the larger Aztec fields are too big to keep a table for.
+   */
+  private void findErrorPositions(int numErrata,
+                                  int numCodewords,
+                                  int[] errorPositions,
+                                  ReedSolomonWorkspace workspace) throws ReedSolomonException {
+    int[] sigma = workspace.errorLocator;
+    int[] terms = workspace.scratch;
+    int order = field.getSize() - 1;
+    byte[] table = field.getMultiplicationTable();
+    // Offset in the table of the row of products with alpha^-j, for each term j
+    int[] rows = workspace.previousErrorLocator;
+    for (int j = 1; j <= numErrata; j++) {
+      if (table != null) {
+        terms[j] = sigma[j];
+        rows[j] = field.exp((order - j % order) % order) * field.getSize();
+      } else {
+        terms[j] = sigma[j] == 0 ? -1 : field.log(sigma[j]);
+      }
     }
-    int[] result = new int[numErrors];
     int e = 0;
-    for (int i = 1; i < field.getSize() && e < numErrors; i++) {
-      if (errorLocator.evaluateAt(i) == 0) {
-        result[e] = field.inverse(i);
+    int maxLocation = Math.min(numCodewords, order);
+    // Evaluate sigma at alpha^-k for error location alpha^k, which is codeword numCodewords - 1 - k
+    for (int k = 0; k < maxLocation && e < numErrata; k++) {
+      int eval = sigma[0];
+      if (table != null) {
+        for (int j = 1; j <= numErrata; j++) {
+          int term = terms[j];
+          eval = GenericGF.addOrSubtract(eval, term);
+          terms[j] = table[rows[j] + term] & 0xFF;
+        }
+      } else {
+        for (int j = 1; j <= numErrata; j++) {
+          int termLog = terms[j];
+          if (termLog >= 0) {
+            eval = GenericGF.addOrSubtract(eval, field.exp(termLog));
+            termLog -= j;
+            terms[j] = termLog < 0 ? termLog + order : termLog;
+          }
+        }
+      }
+      if (eval == 0) {
+        errorPositions[e] = numCodewords - 1 - k;
         e++;
       }
     }
-    if (e != numErrors) {
+    if (e != numErrata) {
       throw new ReedSolomonException("Error locator degree does not match number of roots");
     }
-    return result;
   }
 
-  private int[] findErrorMagnitudes(GenericGFPoly errorEvaluator, int[] errorLocations) {
-    // This is directly applying Forney's Formula
-    int s = errorLocations.length;
-    int[] result = new int[s];
-    for (int i = 0; i < s; i++) {
-      int xiInverse = field.inverse(errorLocations[i]);
-      int denominator = 1;
-      for (int j = 0; j < s; j++) {
-        if (i != j) {
-          //denominator = field.multiply(denominator,
-          //    GenericGF.addOrSubtract(1, field.multiply(errorLocations[j], xiInverse)));
-          // Above should work but fails on some Apple and Linux JDKs due to a Hotspot bug.
-          // Below is a funny-looking workaround from Steven Parkes
-          int term = field.multiply(errorLocations[j], xiInverse);
-          int termPlus1 = (term & 0x1) == 0 ? term | 1 : term & ~1;
-          denominator = field.multiply(denominator, termPlus1);
-        }
-      }
-      result[i] = field.multiply(errorEvaluator.evaluateAt(xiInverse),
-          field.inverse(denominator));
-      if (field.getGeneratorBase() != 0) {
-        result[i] = field.multiply(result[i], xiInverse);
+  /**
+   * Calculates the error evaluator polynomial omega = syndromes * sigma mod x^numErrata into the workspace.
+   */
+  private void calculateErrorEvaluator(int[] syndromes, int numErrata, ReedSolomonWorkspace workspace) {
+    int[] sigma = workspace.errorLocator;
+    int[] omega = workspace.errorEvaluator;
+    for (int i = 0; i < numErrata; i++) {
+      int sum = 0;
+      for (int j = 0; j <= i; j++) {
+        sum = GenericGF.addOrSubtract(sum, field.multiply(sigma[j], syndromes[i - j]));
       }
+      omega[i] = sum;
+    }
+  }
+
+  /**
+   * This is directly applying Forney's Formula, with the formal derivative of sigma.
+   *
+   * @param location log of the error location
+   * @return error magnitude at that location
+   */
+  private int findErrorMagnitude(int location, int numErrata, ReedSolomonWorkspace workspace)
+      throws ReedSolomonException {
+    int[] sigma = workspace.errorLocator;
+    int[] omega = workspace.errorEvaluator;
+    int order = field.getSize() - 1;
+    int xiInverse = field.exp((order - location) % order);
+
+    int numerator = 0;
+    for (int i = numErrata - 1; i >= 0; i--) {
+      numerator = GenericGF.addOrSubtract(field.multiply(numerator, xiInverse), omega[i]);
+    }
+    // Only odd powers survive differentiation in characteristic 2
+    int denominator = 0;
+    int xiInverseSquared = field.multiply(xiInverse, xiInverse);
+    int power = 1;
+    for (int j = 1; j <= numErrata; j += 2) {
+      denominator = GenericGF.addOrSubtract(denominator, field.multiply(sigma[j], power));
+      power = field.multiply(power, xiInverseSquared);
+    }
+    if (denominator == 0) {
+      throw new ReedSolomonException("Repeated root of error locator");
     }
-    return result;
+    int magnitude = field.multiply(numerator, field.inverse(denominator));
+    // Scale by xi^(1 - generatorBase)
+    int exponent = (1 - field.getGeneratorBase()) * location % order;
+    return field.multiply(magnitude, field.exp(exponent < 0 ? exponent + order : exponent));
   }
 
 }
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2016 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.common.reedsolomon;
+
+/**
+ * <p>Working memory for {@link ReedSolomonDecoder}, which can be kept and reused from one decode to
+ * the next so that decoding, even of badly damaged codewords, allocates nothing more once it has
+ * grown to fit the largest number of error-correction codewords seen. A workspace doesn't depend on
+ * the field, so one may be shared by decoders over different fields.</p>
+ *
+ * <p>A workspace must not be used by more than one thread at a time.</p>
+ */
+public final class ReedSolomonWorkspace {
+
+  // Polynomials, indexed by power of x, lowest first
+  int[] syndromes;
+  int[] errorLocator;
+  int[] previousErrorLocator;
+  int[] scratch;
+  int[] errorEvaluator;
+  // Indices of codewords found to be in error
+  int[] errorPositions;
+
+  public ReedSolomonWorkspace() {
+    ensureCapacity(0);
+  }
+
+  /**
+   * Makes sure arrays are large enough for the given number of error-correction codewords. Their
+   * contents are then undefined.
+   */
+  void ensureCapacity(int twoS) {
+    if (syndromes == null || syndromes.length < twoS) {
+      syndromes = new int[twoS];
+      errorLocator = new int[twoS + 1];
+      previousErrorLocator = new int[twoS + 1];
+      scratch = new int[twoS + 1];
+      errorEvaluator = new int[twoS];
+      errorPositions = new int[twoS];
+    }
+  }
+
+}
@@ -20,13 +20,17 @@ import com.google.zxing.BarcodeFormat;
 import com.google.zxing.BinaryBitmap;
 import com.google.zxing.ChecksumException;
 import com.google.zxing.DecodeHintType;
+import com.google.zxing.DecodePhase;
 import com.google.zxing.FormatException;
 import com.google.zxing.NotFoundException;
 import com.google.zxing.Reader;
+import com.google.zxing.ReaderException;
 import com.google.zxing.Result;
 import com.google.zxing.ResultMetadataType;
 import com.google.zxing.ResultPoint;
 import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.Cancellation;
+import com.google.zxing.common.DecodeTimer;
 import com.google.zxing.common.DecoderResult;
 import com.google.zxing.common.DetectorResult;
 import com.google.zxing.datamatrix.decoder.Decoder;
@@ -62,17 +66,31 @@ public final class DataMatrixReader implements Reader {
   @Override
   public Result decode(BinaryBitmap image, Map<DecodeHintType,?> hints)
       throws NotFoundException, ChecksumException, FormatException {
+    DecodeTimer timer = DecodeTimer.forFormat(hints, BarcodeFormat.DATA_MATRIX);
+    hints = timer.addTo(hints);
     DecoderResult decoderResult;
     ResultPoint[] points;
-    if (hints != null && hints.containsKey(DecodeHintType.PURE_BARCODE)) {
-      BitMatrix bits = extractPureBits(image.getBlackMatrix());
-      decoderResult = decoder.decode(bits);
-      points = NO_POINTS;
-    } else {
-      DetectorResult detectorResult = new Detector(image.getBlackMatrix()).detect();
-      decoderResult = decoder.decode(detectorResult.getBits());
-      points = detectorResult.getPoints();
+    try {
+      if (hints != null && hints.containsKey(DecodeHintType.PURE_BARCODE)) {
+        BitMatrix blackMatrix = image.getBlackMatrix(DecodeTimer.getListener(hints));
+        // Detection and sampling aren't separable here, so both are reported as detection
+        timer.begin(DecodePhase.DETECTION);
+        BitMatrix bits = extractPureBits(blackMatrix);
+        Cancellation.check(hints);
+        decoderResult = decoder.decode(bits, hints);
+        points = NO_POINTS;
+      } else {
+        DetectorResult detectorResult =
+            new Detector(image.getBlackMatrix(DecodeTimer.getListener(hints))).detect(hints);
+        Cancellation.check(hints);
+        decoderResult = decoder.decode(detectorResult.getBits(), detectorResult.getUncertainBits(), hints);
+        points = detectorResult.getPoints();
+      }
+    } catch (ReaderException re) {
+      timer.failed(re);
+      throw re;
     }
+    timer.succeeded();
     Result result = new Result(decoderResult.getText(), decoderResult.getRawBytes(), points,
         BarcodeFormat.DATA_MATRIX);
     List<byte[]> byteSegments = decoderResult.getByteSegments();
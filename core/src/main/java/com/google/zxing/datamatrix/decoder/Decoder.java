@@ -16,13 +16,20 @@
 
 package com.google.zxing.datamatrix.decoder;
 
+import com.google.zxing.BarcodeFormat;
 import com.google.zxing.ChecksumException;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.DecodePhase;
 import com.google.zxing.FormatException;
 import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.DecodeTimer;
 import com.google.zxing.common.DecoderResult;
 import com.google.zxing.common.reedsolomon.GenericGF;
 import com.google.zxing.common.reedsolomon.ReedSolomonDecoder;
 import com.google.zxing.common.reedsolomon.ReedSolomonException;
+import com.google.zxing.common.reedsolomon.ReedSolomonWorkspace;
+
+import java.util.Map;
 
 /**
  * <p>The main class which implements Data Matrix Code decoding -- as opposed to locating and extracting
@@ -35,7 +42,7 @@ public final class Decoder {
   private final ReedSolomonDecoder rsDecoder;
 
   public Decoder() {
-    rsDecoder = new ReedSolomonDecoder(GenericGF.DATA_MATRIX_FIELD_256);
+    rsDecoder = new ReedSolomonDecoder(GenericGF.DATA_MATRIX_FIELD_256, new ReedSolomonWorkspace());
   }
 
   /**
@@ -70,6 +77,38 @@ public final class Decoder {
    * @throws ChecksumException if error correction fails
    */
   public DecoderResult decode(BitMatrix bits) throws FormatException, ChecksumException {
+    return decode(bits, null);
+  }
+
+  /**
+   * <p>Decodes a Data Matrix Code represented as a {@link BitMatrix}. A 1 or "true" is taken
+   * to mean a black module.</p>
+   *
+   * @param bits booleans representing white/black Data Matrix Code modules
+   * @param hints decoding hints that should be used to influence decoding
+   * @return text and bytes encoded within the Data Matrix Code
+   * @throws FormatException if the Data Matrix Code cannot be decoded
+   * @throws ChecksumException if error correction fails
+   */
+  public DecoderResult decode(BitMatrix bits, Map<DecodeHintType,?> hints)
+      throws FormatException, ChecksumException {
+    return decode(bits, null, hints);
+  }
+
+  /**
+   * <p>Decodes a Data Matrix Code represented as a {@link BitMatrix}. A 1 or "true" is taken
+   * to mean a black module. Codewords with any module in doubt are treated as erasures by error
+   * correction.</p>
+   *
+   * @param bits booleans representing white/black Data Matrix Code modules
+   * @param uncertainBits modules, set, whose color in {@code bits} is in doubt, or {@code null}
+   * @param hints decoding hints that should be used to influence decoding
+   * @return text and bytes encoded within the Data Matrix Code
+   * @throws FormatException if the Data Matrix Code cannot be decoded
+   * @throws ChecksumException if error correction fails
+   */
+  public DecoderResult decode(BitMatrix bits, BitMatrix uncertainBits, Map<DecodeHintType,?> hints)
+      throws FormatException, ChecksumException {
 
     // Construct a parser and read version, error-correction level
     BitMatrixParser parser = new BitMatrixParser(bits);
@@ -79,6 +118,14 @@ public final class Decoder {
     byte[] codewords = parser.readCodewords();
     // Separate into data blocks
     DataBlock[] dataBlocks = DataBlock.getDataBlocks(codewords, version);
+    DataBlock[] uncertainBlocks = null;
+    if (uncertainBits != null) {
+      // Reading which bits are in doubt the same way puts them in the same places
+      if (uncertainBits.getWidth() != bits.getWidth() || uncertainBits.getHeight() != bits.getHeight()) {
+        throw FormatException.getFormatInstance();
+      }
+      uncertainBlocks = DataBlock.getDataBlocks(new BitMatrixParser(uncertainBits).readCodewords(), version);
+    }
 
     // Count total number of data bytes
     int totalBytes = 0;
@@ -87,20 +134,26 @@ public final class Decoder {
     }
     byte[] resultBytes = new byte[totalBytes];
 
+    DecodeTimer timer = DecodeTimer.get(hints);
+    timer.begin(DecodePhase.ERROR_CORRECTION);
+    int numErrors = 0;
     int dataBlocksCount = dataBlocks.length;
     // Error-correct and copy data blocks together into a stream of bytes
     for (int j = 0; j < dataBlocksCount; j++) {
       DataBlock dataBlock = dataBlocks[j];
       byte[] codewordBytes = dataBlock.getCodewords();
       int numDataCodewords = dataBlock.getNumDataCodewords();
-      correctErrors(codewordBytes, numDataCodewords);
+      byte[] uncertainBytes = uncertainBlocks == null ? null : uncertainBlocks[j].getCodewords();
+      numErrors += correctErrors(codewordBytes, uncertainBytes, numDataCodewords);
       for (int i = 0; i < numDataCodewords; i++) {
         // De-interlace data blocks.
         resultBytes[i * dataBlocksCount + j] = codewordBytes[i];
       }
     }
+    timer.errorsCorrected(BarcodeFormat.DATA_MATRIX, numErrors);
 
     // Decode the contents of that stream of bytes
+    timer.begin(DecodePhase.BITSTREAM_PARSING);
     return DecodedBitStreamParser.decode(resultBytes);
   }
 
@@ -109,18 +162,27 @@ public final class Decoder {
    * correct the errors in-place using Reed-Solomon error correction.</p>
    *
    * @param codewordBytes data and error correction codewords
+   * @param uncertainBytes bits of each codeword that are in doubt, making it an erasure, or {@code null}
    * @param numDataCodewords number of codewords that are data bytes
+   * @return number of codewords corrected
    * @throws ChecksumException if error correction fails
    */
-  private void correctErrors(byte[] codewordBytes, int numDataCodewords) throws ChecksumException {
+  private int correctErrors(byte[] codewordBytes, byte[] uncertainBytes, int numDataCodewords)
+      throws ChecksumException {
     int numCodewords = codewordBytes.length;
+    int numECCodewords = numCodewords - numDataCodewords;
     // First read into an array of ints
     int[] codewordsInts = new int[numCodewords];
+    boolean[] inDoubt = uncertainBytes == null ? null : new boolean[numCodewords];
     for (int i = 0; i < numCodewords; i++) {
       codewordsInts[i] = codewordBytes[i] & 0xFF;
+      if (inDoubt != null) {
+        inDoubt[i] = uncertainBytes[i] != 0;
+      }
     }
+    int numErrors;
     try {
-      rsDecoder.decode(codewordsInts, codewordBytes.length - numDataCodewords);
+      numErrors = rsDecoder.decodeWithECCountInDoubt(codewordsInts, numECCodewords, inDoubt);
     } catch (ReedSolomonException ignored) {
       throw ChecksumException.getChecksumInstance();
     }
@@ -129,6 +191,7 @@ public final class Decoder {
     for (int i = 0; i < numDataCodewords; i++) {
       codewordBytes[i] = (byte) codewordsInts[i];
     }
+    return numErrors;
   }
 
 }
@@ -16,11 +16,16 @@
 
 package com.google.zxing.datamatrix.detector;
 
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.DecodePhase;
 import com.google.zxing.NotFoundException;
 import com.google.zxing.ResultPoint;
 import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.Cancellation;
+import com.google.zxing.common.DecodeTimer;
 import com.google.zxing.common.DetectorResult;
 import com.google.zxing.common.GridSampler;
+import com.google.zxing.common.PerspectiveTransform;
 import com.google.zxing.common.detector.MathUtils;
 import com.google.zxing.common.detector.WhiteRectangleDetector;
 
@@ -55,7 +60,44 @@ public final class Detector {
    * @throws NotFoundException if no Data Matrix Code can be found
    */
   public DetectorResult detect() throws NotFoundException {
+    return detect(null);
+  }
 
+  /**
+   * <p>Detects a Data Matrix Code in an image.</p>
+   *
+   * @param hints optional hints to detector
+   * @return {@link DetectorResult} encapsulating results of detecting a Data Matrix Code
+   * @throws NotFoundException if no Data Matrix Code can be found
+   */
+  public DetectorResult detect(Map<DecodeHintType,?> hints) throws NotFoundException {
+    DecodeTimer timer = DecodeTimer.get(hints);
+    timer.begin(DecodePhase.DETECTION);
+    int[] dimensions = new int[2];
+    ResultPoint[] corners = locate(dimensions);
+
+    Cancellation.check(hints);
+    timer.begin(DecodePhase.SAMPLING);
+    GridSampler sampler = GridSampler.getInstance(hints);
+    BitMatrix uncertainBits =
+        sampler.reportsUncertainModules() ? new BitMatrix(dimensions[0], dimensions[1]) : null;
+    BitMatrix bits = sampleGrid(sampler, image, corners[0], corners[1], corners[2], corners[3],
+                                dimensions[0], dimensions[1], uncertainBits);
+
+    if (uncertainBits != null && uncertainBits.getTopLeftOnBit() == null) {
+      uncertainBits = null;
+    }
+    return new DetectorResult(bits, corners, uncertainBits);
+  }
+
+  /**
+   * Finds the corners and dimensions of a Data Matrix Code in the image.
+   *
+   * @param dimensions receives the code's width and height, in modules
+   * @return the top left, bottom left, bottom right and top right corners
+   * @throws NotFoundException if no Data Matrix Code can be found
+   */
+  private ResultPoint[] locate(int[] dimensions) throws NotFoundException {
     ResultPoint[] cornerPoints = rectangleDetector.detect();
     ResultPoint pointA = cornerPoints[0];
     ResultPoint pointB = cornerPoints[1];
@@ -153,7 +195,6 @@ public final class Detector {
     }
     dimensionRight += 2;
 
-    BitMatrix bits;
     ResultPoint correctedTopRight;
 
     // Rectanguar symbols are 6x16, 6x28, 10x24, 10x32, 14x32, or 14x44. If one dimension is more
@@ -181,7 +222,11 @@ public final class Detector {
         dimensionRight++;
       }
 
-      bits = sampleGrid(image, topLeft, bottomLeft, bottomRight, correctedTopRight, dimensionTop, dimensionRight);
+      if (dimensionTop <= 0 || dimensionRight <= 0) {
+        throw NotFoundException.getNotFoundInstance();
+      }
+      dimensions[0] = dimensionTop;
+      dimensions[1] = dimensionRight;
           
     } else {
       // The matrix is square
@@ -201,16 +246,11 @@ public final class Detector {
         dimensionCorrected++;
       }
 
-      bits = sampleGrid(image,
-                        topLeft,
-                        bottomLeft,
-                        bottomRight,
-                        correctedTopRight,
-                        dimensionCorrected,
-                        dimensionCorrected);
+      dimensions[0] = dimensionCorrected;
+      dimensions[1] = dimensionCorrected;
     }
 
-    return new DetectorResult(bits, new ResultPoint[]{topLeft, bottomLeft, bottomRight, correctedTopRight});
+    return new ResultPoint[] {topLeft, bottomLeft, bottomRight, correctedTopRight};
   }
 
   /**
@@ -318,35 +358,35 @@ public final class Detector {
     table.put(key, value == null ? 1 : value + 1);
   }
 
-  private static BitMatrix sampleGrid(BitMatrix image,
+  private static BitMatrix sampleGrid(GridSampler sampler,
+                                      BitMatrix image,
                                       ResultPoint topLeft,
                                       ResultPoint bottomLeft,
                                       ResultPoint bottomRight,
                                       ResultPoint topRight,
                                       int dimensionX,
-                                      int dimensionY) throws NotFoundException {
-
-    GridSampler sampler = GridSampler.getInstance();
-
-    return sampler.sampleGrid(image,
-                              dimensionX,
-                              dimensionY,
-                              0.5f,
-                              0.5f,
-                              dimensionX - 0.5f,
-                              0.5f,
-                              dimensionX - 0.5f,
-                              dimensionY - 0.5f,
-                              0.5f,
-                              dimensionY - 0.5f,
-                              topLeft.getX(),
-                              topLeft.getY(),
-                              topRight.getX(),
-                              topRight.getY(),
-                              bottomRight.getX(),
-                              bottomRight.getY(),
-                              bottomLeft.getX(),
-                              bottomLeft.getY());
+                                      int dimensionY,
+                                      BitMatrix uncertainBits) throws NotFoundException {
+
+    PerspectiveTransform transform = PerspectiveTransform.quadrilateralToQuadrilateral(
+        0.5f,
+        0.5f,
+        dimensionX - 0.5f,
+        0.5f,
+        dimensionX - 0.5f,
+        dimensionY - 0.5f,
+        0.5f,
+        dimensionY - 0.5f,
+        topLeft.getX(),
+        topLeft.getY(),
+        topRight.getX(),
+        topRight.getY(),
+        bottomRight.getX(),
+        bottomRight.getY(),
+        bottomLeft.getX(),
+        bottomLeft.getY());
+
+    return sampler.sampleGrid(image, dimensionX, dimensionY, transform, uncertainBits);
   }
 
   /**
@@ -20,13 +20,17 @@ import com.google.zxing.BarcodeFormat;
 import com.google.zxing.BinaryBitmap;
 import com.google.zxing.ChecksumException;
 import com.google.zxing.DecodeHintType;
+import com.google.zxing.DecodePhase;
 import com.google.zxing.FormatException;
 import com.google.zxing.NotFoundException;
 import com.google.zxing.Reader;
+import com.google.zxing.ReaderException;
 import com.google.zxing.Result;
 import com.google.zxing.ResultMetadataType;
 import com.google.zxing.ResultPoint;
 import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.Cancellation;
+import com.google.zxing.common.DecodeTimer;
 import com.google.zxing.common.DecoderResult;
 import com.google.zxing.maxicode.decoder.Decoder;
 
@@ -67,8 +71,20 @@ public final class MaxiCodeReader implements Reader {
       throws NotFoundException, ChecksumException, FormatException {
     DecoderResult decoderResult;
     if (hints != null && hints.containsKey(DecodeHintType.PURE_BARCODE)) {
-      BitMatrix bits = extractPureBits(image.getBlackMatrix());
-      decoderResult = decoder.decode(bits, hints);
+      DecodeTimer timer = DecodeTimer.forFormat(hints, BarcodeFormat.MAXICODE);
+      hints = timer.addTo(hints);
+      try {
+        BitMatrix blackMatrix = image.getBlackMatrix(DecodeTimer.getListener(hints));
+        // Detection and sampling aren't separable here, so both are reported as detection
+        timer.begin(DecodePhase.DETECTION);
+        BitMatrix bits = extractPureBits(blackMatrix);
+        Cancellation.check(hints);
+        decoderResult = decoder.decode(bits, hints);
+      } catch (ReaderException re) {
+        timer.failed(re);
+        throw re;
+      }
+      timer.succeeded();
     } else {
       throw NotFoundException.getNotFoundInstance();
     }
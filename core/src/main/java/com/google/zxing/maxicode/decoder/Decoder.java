@@ -16,14 +16,18 @@
 
 package com.google.zxing.maxicode.decoder;
 
+import com.google.zxing.BarcodeFormat;
 import com.google.zxing.ChecksumException;
 import com.google.zxing.DecodeHintType;
+import com.google.zxing.DecodePhase;
 import com.google.zxing.FormatException;
 import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.DecodeTimer;
 import com.google.zxing.common.DecoderResult;
 import com.google.zxing.common.reedsolomon.GenericGF;
 import com.google.zxing.common.reedsolomon.ReedSolomonDecoder;
 import com.google.zxing.common.reedsolomon.ReedSolomonException;
+import com.google.zxing.common.reedsolomon.ReedSolomonWorkspace;
 
 import java.util.Map;
 
@@ -42,7 +46,7 @@ public final class Decoder {
   private final ReedSolomonDecoder rsDecoder;
 
   public Decoder() {
-    rsDecoder = new ReedSolomonDecoder(GenericGF.MAXICODE_FIELD_64);
+    rsDecoder = new ReedSolomonDecoder(GenericGF.MAXICODE_FIELD_64, new ReedSolomonWorkspace());
   }
 
   public DecoderResult decode(BitMatrix bits) throws ChecksumException, FormatException {
@@ -54,33 +58,41 @@ public final class Decoder {
     BitMatrixParser parser = new BitMatrixParser(bits);
     byte[] codewords = parser.readCodewords();
 
-    correctErrors(codewords, 0, 10, 10, ALL);
+    DecodeTimer timer = DecodeTimer.get(hints);
+    timer.begin(DecodePhase.ERROR_CORRECTION);
+    int numErrors = correctErrors(codewords, 0, 10, 10, ALL);
     int mode = codewords[0] & 0x0F;
     byte[] datawords;
     switch (mode) {
       case 2:
       case 3:
       case 4:
-        correctErrors(codewords, 20, 84, 40, EVEN);
-        correctErrors(codewords, 20, 84, 40, ODD);
+        numErrors += correctErrors(codewords, 20, 84, 40, EVEN);
+        numErrors += correctErrors(codewords, 20, 84, 40, ODD);
         datawords = new byte[94];
         break;
       case 5:
-        correctErrors(codewords, 20, 68, 56, EVEN);
-        correctErrors(codewords, 20, 68, 56, ODD);
+        numErrors += correctErrors(codewords, 20, 68, 56, EVEN);
+        numErrors += correctErrors(codewords, 20, 68, 56, ODD);
         datawords = new byte[78];
         break;
       default:
-        throw FormatException.getFormatInstance();
+        // Reported as a parsing failure below
+        datawords = null;
     }
+    timer.errorsCorrected(BarcodeFormat.MAXICODE, numErrors);
 
+    timer.begin(DecodePhase.BITSTREAM_PARSING);
+    if (datawords == null) {
+      throw FormatException.getFormatInstance();
+    }
     System.arraycopy(codewords, 0, datawords, 0, 10);
     System.arraycopy(codewords, 20, datawords, 10, datawords.length - 10);
 
     return DecodedBitStreamParser.decode(datawords, mode);
   }
 
-  private void correctErrors(byte[] codewordBytes,
+  private int correctErrors(byte[] codewordBytes,
                              int start,
                              int dataCodewords,
                              int ecCodewords,
@@ -97,8 +109,9 @@ public final class Decoder {
         codewordsInts[i / divisor] = codewordBytes[i + start] & 0xFF;
       }
     }
+    int errorsCorrected;
     try {
-      rsDecoder.decode(codewordsInts, ecCodewords / divisor);
+      errorsCorrected = rsDecoder.decodeWithECCount(codewordsInts, ecCodewords / divisor);
     } catch (ReedSolomonException ignored) {
       throw ChecksumException.getChecksumInstance();
     }
@@ -109,6 +122,7 @@ public final class Decoder {
         codewordBytes[i + start] = (byte) codewordsInts[i / divisor];
       }
     }
+    return errorsCorrected;
   }
 
 }
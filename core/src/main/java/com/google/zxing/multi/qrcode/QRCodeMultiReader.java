@@ -24,6 +24,8 @@ import com.google.zxing.ReaderException;
 import com.google.zxing.Result;
 import com.google.zxing.ResultMetadataType;
 import com.google.zxing.ResultPoint;
+import com.google.zxing.common.Cancellation;
+import com.google.zxing.common.DecodeTimer;
 import com.google.zxing.common.DecoderResult;
 import com.google.zxing.common.DetectorResult;
 import com.google.zxing.multi.MultipleBarcodeReader;
@@ -57,11 +59,21 @@ public final class QRCodeMultiReader extends QRCodeReader implements MultipleBar
 
   @Override
   public Result[] decodeMultiple(BinaryBitmap image, Map<DecodeHintType,?> hints) throws NotFoundException {
+    DecodeTimer timer = DecodeTimer.forFormat(hints, BarcodeFormat.QR_CODE);
+    hints = timer.addTo(hints);
     List<Result> results = new ArrayList<>();
-    DetectorResult[] detectorResults = new MultiDetector(image.getBlackMatrix()).detectMulti(hints);
+    DetectorResult[] detectorResults;
+    try {
+      detectorResults = new MultiDetector(image.getBlackMatrix(DecodeTimer.getListener(hints))).detectMulti(hints);
+    } catch (NotFoundException nfe) {
+      timer.failed(nfe);
+      throw nfe;
+    }
     for (DetectorResult detectorResult : detectorResults) {
+      Cancellation.check(hints);
       try {
-        DecoderResult decoderResult = getDecoder().decode(detectorResult.getBits(), hints);
+        DecoderResult decoderResult =
+            getDecoder().decode(detectorResult.getBits(), detectorResult.getUncertainBits(), hints);
         ResultPoint[] points = detectorResult.getPoints();
         // If the code was mirrored: swap the bottom-left and the top-right points.
         if (decoderResult.getOther() instanceof QRCodeDecoderMetaData) {
@@ -84,8 +96,9 @@ public final class QRCodeMultiReader extends QRCodeReader implements MultipleBar
                              decoderResult.getStructuredAppendParity());
         }
         results.add(result);
+        timer.succeeded();
       } catch (ReaderException re) {
-        // ignore and continue 
+        timer.failed(re);
       }
     }
     if (results.isEmpty()) {
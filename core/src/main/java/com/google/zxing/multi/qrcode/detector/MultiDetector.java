@@ -17,10 +17,11 @@
 package com.google.zxing.multi.qrcode.detector;
 
 import com.google.zxing.DecodeHintType;
+import com.google.zxing.DecodePhase;
 import com.google.zxing.NotFoundException;
 import com.google.zxing.ReaderException;
-import com.google.zxing.ResultPointCallback;
 import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.Cancellation;
 import com.google.zxing.common.DetectorResult;
 import com.google.zxing.qrcode.detector.Detector;
 import com.google.zxing.qrcode.detector.FinderPatternInfo;
@@ -45,10 +46,9 @@ public final class MultiDetector extends Detector {
   }
 
   public DetectorResult[] detectMulti(Map<DecodeHintType,?> hints) throws NotFoundException {
-    BitMatrix image = getImage();
-    ResultPointCallback resultPointCallback =
-        hints == null ? null : (ResultPointCallback) hints.get(DecodeHintType.NEED_RESULT_POINT_CALLBACK);
-    MultiFinderPatternFinder finder = new MultiFinderPatternFinder(image, resultPointCallback);
+    readHints(hints);
+    MultiFinderPatternFinder finder = new MultiFinderPatternFinder(getImage(), getResultPointCallback());
+    getDecodeTimer().begin(DecodePhase.DETECTION);
     FinderPatternInfo[] infos = finder.findMulti(hints);
 
     if (infos.length == 0) {
@@ -57,10 +57,11 @@ public final class MultiDetector extends Detector {
 
     List<DetectorResult> result = new ArrayList<>();
     for (FinderPatternInfo info : infos) {
+      Cancellation.check(hints);
       try {
         result.add(processFinderPatternInfo(info));
       } catch (ReaderException e) {
-        // ignore
+        getDecodeTimer().failed(e);
       }
     }
     if (result.isEmpty()) {
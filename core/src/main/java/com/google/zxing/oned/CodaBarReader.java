@@ -22,7 +22,6 @@ import com.google.zxing.NotFoundException;
 import com.google.zxing.Result;
 import com.google.zxing.ResultPoint;
 import com.google.zxing.ResultPointCallback;
-import com.google.zxing.common.BitArray;
 
 import java.util.Arrays;
 import java.util.Map;
@@ -78,7 +77,12 @@ public final class CodaBarReader extends OneDReader {
   }
 
   @Override
-  public Result decodeRow(int rowNumber, BitArray row, Map<DecodeHintType,?> hints)
+  protected OneDReader createReader() {
+    return new CodaBarReader();
+  }
+
+  @Override
+  public Result decodeRow(int rowNumber, RunLengthRow row, Map<DecodeHintType,?> hints)
       throws NotFoundException {
 
     ResultPointCallback resultPointCallback = hints == null ? null :
@@ -237,27 +241,19 @@ public final class CodaBarReader extends OneDReader {
    * uses our builtin "counters" member for storage.
    * @param row row to count from
    */
-  private void setCounters(BitArray row) throws NotFoundException {
+  private void setCounters(RunLengthRow row) throws NotFoundException {
     counterLength = 0;
-    // Start from the first white bit.
-    int i = row.getNextUnset(0);
-    int end = row.getSize();
-    if (i >= end) {
+    // Start from the first white run.
+    int run = row.getRunLength(0) > 0 ? 0 : 2;
+    int numRuns = row.getNumRuns();
+    if (run >= numRuns || row.getRunLength(run) == 0) {
       throw NotFoundException.getNotFoundInstance();
     }
-    boolean isWhite = true;
-    int count = 0;
-    while (i < end) {
-      if (row.get(i) ^ isWhite) { // that is, exactly one is true
-        count++;
-      } else {
-        counterAppend(count);
-        count = 1;
-        isWhite = !isWhite;
-      }
-      i++;
+    // The last run is empty if the row ends black
+    int lastRun = row.getRunLength(numRuns - 1) > 0 ? numRuns - 1 : numRuns - 2;
+    for (; run <= lastRun; run++) {
+      counterAppend(row.getRunLength(run));
     }
-    counterAppend(count);
   }
 
   private void counterAppend(int e) {
@@ -24,10 +24,8 @@ import com.google.zxing.NotFoundException;
 import com.google.zxing.Result;
 import com.google.zxing.ResultPoint;
 import com.google.zxing.ResultPointCallback;
-import com.google.zxing.common.BitArray;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 import java.util.Map;
 
 /**
@@ -147,8 +145,11 @@ public final class Code128Reader extends OneDReader {
       {2, 3, 3, 1, 1, 1, 2}
   };
 
+  private static final EdgeDistanceTable CODE_TABLE = new EdgeDistanceTable(CODE_PATTERNS, 6);
+
   private static final float MAX_AVG_VARIANCE = 0.25f;
   private static final float MAX_INDIVIDUAL_VARIANCE = 0.7f;
+  private static final float MAX_FAST_VARIANCE = Math.min(CODE_TABLE.getUniqueMatchVariance(), MAX_AVG_VARIANCE);
 
   private static final int CODE_SHIFT = 98;
 
@@ -167,54 +168,50 @@ public final class Code128Reader extends OneDReader {
   private static final int CODE_START_C = 105;
   private static final int CODE_STOP = 106;
 
-  private static int[] findStartPattern(BitArray row) throws NotFoundException {
-    int width = row.getSize();
-    int rowOffset = row.getNextSet(0);
+  private final RowConsensus consensus = new RowConsensus();
 
-    int counterPosition = 0;
+  private static int[] findStartPattern(RunLengthRow row) throws NotFoundException {
+    int width = row.getSize();
     int[] counters = new int[6];
-    int patternStart = rowOffset;
-    boolean isWhite = false;
     int patternLength = counters.length;
 
-    for (int i = rowOffset; i < width; i++) {
-      if (row.get(i) ^ isWhite) {
-        counters[counterPosition]++;
-      } else {
-        if (counterPosition == patternLength - 1) {
-          float bestVariance = MAX_AVG_VARIANCE;
-          int bestMatch = -1;
-          for (int startCode = CODE_START_A; startCode <= CODE_START_C; startCode++) {
-            float variance = patternMatchVariance(counters, CODE_PATTERNS[startCode],
-                MAX_INDIVIDUAL_VARIANCE);
-            if (variance < bestVariance) {
-              bestVariance = variance;
-              bestMatch = startCode;
-            }
-          }
-          // Look for whitespace before start pattern, >= 50% of width of start pattern
-          if (bestMatch >= 0 &&
-              row.isRange(Math.max(0, patternStart - (i - patternStart) / 2), patternStart, false)) {
-            return new int[]{patternStart, i, bestMatch};
-          }
-          patternStart += counters[0] + counters[1];
-          System.arraycopy(counters, 2, counters, 0, patternLength - 2);
-          counters[patternLength - 2] = 0;
-          counters[patternLength - 1] = 0;
-          counterPosition--;
-        } else {
-          counterPosition++;
+    // Try each bar in turn as the start of the pattern, while the pattern is followed by more of the row
+    for (int run = 1; run + patternLength < row.getNumRuns(); run += 2) {
+      int patternStart = row.getRunStart(run);
+      int patternEnd = row.getRunEnd(run + patternLength - 1);
+      if (patternEnd == width) {
+        break;
+      }
+      recordRuns(row, run, counters);
+      float bestVariance = MAX_AVG_VARIANCE;
+      int bestMatch = -1;
+      for (int startCode = CODE_START_A; startCode <= CODE_START_C; startCode++) {
+        float variance = patternMatchVariance(counters, CODE_PATTERNS[startCode],
+            MAX_INDIVIDUAL_VARIANCE);
+        if (variance < bestVariance) {
+          bestVariance = variance;
+          bestMatch = startCode;
         }
-        counters[counterPosition] = 1;
-        isWhite = !isWhite;
+      }
+      // Look for whitespace before start pattern, >= 50% of width of start pattern
+      if (bestMatch >= 0 &&
+          row.isRange(Math.max(0, patternStart - (patternEnd - patternStart) / 2), patternStart, false)) {
+        return new int[]{patternStart, patternEnd, bestMatch};
       }
     }
     throw NotFoundException.getNotFoundInstance();
   }
 
-  private static int decodeCode(BitArray row, int[] counters, int rowOffset)
+  private static int decodeCode(RunLengthRow row, int[] counters, int rowOffset)
       throws NotFoundException {
     recordPattern(row, rowOffset, counters);
+    // Usually the code can be looked up directly; it's only taken when it matches so well that
+    // no other pattern can match better, so that the full search would pick it too
+    int fastMatch = CODE_TABLE.lookup(counters);
+    if (fastMatch >= 0 &&
+        patternMatchVariance(counters, CODE_PATTERNS[fastMatch], MAX_INDIVIDUAL_VARIANCE) < MAX_FAST_VARIANCE) {
+      return fastMatch;
+    }
     float bestVariance = MAX_AVG_VARIANCE; // worst variance we'll accept
     int bestMatch = -1;
     for (int d = 0; d < CODE_PATTERNS.length; d++) {
@@ -234,7 +231,12 @@ public final class Code128Reader extends OneDReader {
   }
 
   @Override
-  public Result decodeRow(int rowNumber, BitArray row, Map<DecodeHintType,?> hints)
+  protected OneDReader createReader() {
+    return new Code128Reader();
+  }
+
+  @Override
+  public Result decodeRow(int rowNumber, RunLengthRow row, Map<DecodeHintType,?> hints)
       throws NotFoundException, FormatException, ChecksumException {
 
     ResultPointCallback resultPointCallback = hints == null ? null :
@@ -243,13 +245,137 @@ public final class Code128Reader extends OneDReader {
     boolean convertFNC1 = hints != null && hints.containsKey(DecodeHintType.ASSUME_GS1);
 
     int[] startPatternInfo = findStartPattern(row);
-    int startCode = startPatternInfo[2];
 
-    List<Byte> rawCodes = new ArrayList<>(20);
-    rawCodes.add((byte) startCode);
+    // Read all the codes, up to the stop code, and where each ends, before making sense of them
+    int[] codes = new int[20];
+    int[] codeEnds = new int[20];
+    codes[0] = startPatternInfo[2];
+    codeEnds[0] = startPatternInfo[1];
+    int numCodes = 1;
+
+    int lastStart = startPatternInfo[0];
+    int nextStart = startPatternInfo[1];
+    int[] counters = new int[6];
+    int code;
+
+    do {
+
+      // Decode another code from image
+      code = decodeCode(row, counters, nextStart);
+
+      // Take care of illegal start codes
+      switch (code) {
+        case CODE_START_A:
+        case CODE_START_B:
+        case CODE_START_C:
+          throw FormatException.getFormatInstance();
+      }
+
+      // Advance to where the next code will to start
+      lastStart = nextStart;
+      for (int counter : counters) {
+        nextStart += counter;
+      }
+
+      if (numCodes == codes.length) {
+        codes = Arrays.copyOf(codes, 2 * numCodes);
+        codeEnds = Arrays.copyOf(codeEnds, 2 * numCodes);
+      }
+      codes[numCodes] = code;
+      codeEnds[numCodes] = nextStart;
+      numCodes++;
+
+    } while (code != CODE_STOP);
+
+    if (numCodes < 3) {
+      // No check code; false positive
+      throw NotFoundException.getNotFoundInstance();
+    }
+    codes = Arrays.copyOf(codes, numCodes);
+
+    String result = decodeCodes(codes, codeEnds, convertFNC1, rowNumber, resultPointCallback);
+
+    int lastPatternSize = nextStart - lastStart;
+
+    // Check for ample whitespace following pattern, but, to do this we first need to remember that
+    // we fudged decoding CODE_STOP since it actually has 7 bars, not 6. There is a black bar left
+    // to read off. Would be slightly better to properly read. Here we just skip it:
+    nextStart = row.getNextUnset(nextStart);
+    if (!row.isRange(nextStart,
+                     Math.min(row.getSize(), nextStart + (nextStart - lastStart) / 2),
+                     false)) {
+      throw NotFoundException.getNotFoundInstance();
+    }
+
+    float left = (startPatternInfo[1] + startPatternInfo[0]) / 2.0f;
+    float right = lastStart + lastPatternSize / 2.0f;
+
+    if (!checkChecksum(codes)) {
+      if (hints == null || !hints.containsKey(DecodeHintType.VOTE_ACROSS_ROWS)) {
+        throw ChecksumException.getChecksumInstance();
+      }
+      int[] agreedCodes = consensus.add(codes, row.getSize(), left, right);
+      if (agreedCodes == null || !checkChecksum(agreedCodes)) {
+        throw ChecksumException.getChecksumInstance();
+      }
+      codes = agreedCodes;
+      result = decodeCodes(codes, codeEnds, convertFNC1, rowNumber, null);
+    }
+
+    byte[] rawBytes = new byte[numCodes];
+    for (int i = 0; i < numCodes; i++) {
+      rawBytes[i] = (byte) codes[i];
+    }
+
+    return new Result(
+        result,
+        rawBytes,
+        new ResultPoint[]{
+            new ResultPoint(left, rowNumber),
+            new ResultPoint(right, rowNumber)},
+        BarcodeFormat.CODE_128);
+
+  }
+
+  @Override
+  public void reset() {
+    consensus.clear();
+  }
+
+  /**
+   * @param codes codes read from a row, from the start code to the stop code
+   * @return true iff the code before the stop code is the check code for those before it
+   */
+  private static boolean checkChecksum(int[] codes) {
+    int checkIndex = codes.length - 2;
+    int checksumTotal = codes[0];
+    for (int i = 1; i < checkIndex; i++) {
+      checksumTotal += i * codes[i];
+    }
+    return checksumTotal % 103 == codes[checkIndex];
+  }
+
+  /**
+   * Makes sense of codes read from a row.
+   *
+   * @param codes codes from the start code to the stop code
+   * @param codeEnds where in the row each code ends, for the result point callback
+   * @param convertFNC1 true to convert FNC1 as GS1-128 does
+   * @param rowNumber number of the row
+   * @param resultPointCallback callback to tell about each character, or {@code null}
+   * @return text the codes encode, less any check character
+   * @throws FormatException if the codes start with something other than a start code
+   * @throws NotFoundException if they encode no text at all
+   */
+  private static String decodeCodes(int[] codes,
+                                    int[] codeEnds,
+                                    boolean convertFNC1,
+                                    int rowNumber,
+                                    ResultPointCallback resultPointCallback)
+      throws FormatException, NotFoundException {
 
     int codeSet;
-    switch (startCode) {
+    switch (codes[0]) {
       case CODE_START_A:
         codeSet = CODE_CODE_A;
         break;
@@ -268,56 +394,25 @@ public final class Code128Reader extends OneDReader {
 
     StringBuilder result = new StringBuilder(20);
 
-    int lastStart = startPatternInfo[0];
-    int nextStart = startPatternInfo[1];
-    int[] counters = new int[6];
-
-    int lastCode = 0;
-    int code = 0;
-    int checksumTotal = startCode;
-    int multiplier = 0;
     boolean lastCharacterWasPrintable = true;
     boolean upperMode = false;
     boolean shiftUpperMode = false;
+    int i = 0;
 
     while (!done) {
 
       boolean unshift = isNextShifted;
       isNextShifted = false;
 
-      // Save off last code
-      lastCode = code;
-
-      // Decode another code from image
-      code = decodeCode(row, counters, nextStart);
-
-      rawCodes.add((byte) code);
+      i++;
+      int code = codes[i];
+      int nextStart = codeEnds[i];
 
       // Remember whether the last code was printable or not (excluding CODE_STOP)
       if (code != CODE_STOP) {
         lastCharacterWasPrintable = true;
       }
 
-      // Add to checksum computation (if not CODE_STOP of course)
-      if (code != CODE_STOP) {
-        multiplier++;
-        checksumTotal += multiplier * code;
-      }
-
-      // Advance to where the next code will to start
-      lastStart = nextStart;
-      for (int counter : counters) {
-        nextStart += counter;
-      }
-
-      // Take care of illegal start codes
-      switch (code) {
-        case CODE_START_A:
-        case CODE_START_B:
-        case CODE_START_C:
-          throw FormatException.getFormatInstance();
-      }
-
       switch (codeSet) {
 
         case CODE_CODE_A:
@@ -488,25 +583,6 @@ public final class Code128Reader extends OneDReader {
 
     }
 
-    int lastPatternSize = nextStart - lastStart;
-
-    // Check for ample whitespace following pattern, but, to do this we first need to remember that
-    // we fudged decoding CODE_STOP since it actually has 7 bars, not 6. There is a black bar left
-    // to read off. Would be slightly better to properly read. Here we just skip it:
-    nextStart = row.getNextUnset(nextStart);
-    if (!row.isRange(nextStart,
-                     Math.min(row.getSize(), nextStart + (nextStart - lastStart) / 2),
-                     false)) {
-      throw NotFoundException.getNotFoundInstance();
-    }
-
-    // Pull out from sum the value of the penultimate check code
-    checksumTotal -= multiplier * lastCode;
-    // lastCode is the checksum then:
-    if (checksumTotal % 103 != lastCode) {
-      throw ChecksumException.getChecksumInstance();
-    }
-
     // Need to pull out the check digits from string
     int resultLength = result.length();
     if (resultLength == 0) {
@@ -524,25 +600,9 @@ public final class Code128Reader extends OneDReader {
       }
     }
 
-    float left = (startPatternInfo[1] + startPatternInfo[0]) / 2.0f;
-    float right = lastStart + lastPatternSize / 2.0f;
-
-    int rawCodesSize = rawCodes.size();
-    byte[] rawBytes = new byte[rawCodesSize];
-    for (int i = 0; i < rawCodesSize; i++) {
-      rawBytes[i] = rawCodes.get(i);
-    }
-
-    return new Result(
-        result.toString(),
-        rawBytes,
-        new ResultPoint[]{
-            new ResultPoint(left, rowNumber),
-            new ResultPoint(right, rowNumber)},
-        BarcodeFormat.CODE_128);
-
+    return result.toString();
   }
-  
+
   private static void append(String fragment,
                              StringBuilder result,
                              int col,
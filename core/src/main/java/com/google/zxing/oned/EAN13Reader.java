@@ -20,7 +20,6 @@ import com.google.zxing.BarcodeFormat;
 import com.google.zxing.NotFoundException;
 import com.google.zxing.ResultPoint;
 import com.google.zxing.ResultPointCallback;
-import com.google.zxing.common.BitArray;
 
 /**
  * <p>Implements decoding of the EAN-13 format.</p>
@@ -70,9 +69,14 @@ public final class EAN13Reader extends UPCEANReader {
     decodeMiddleCounters = new int[4];
   }
 
+  @Override
+  protected UPCEANReader createReader() {
+    return new EAN13Reader();
+  }
+
   @Override
   protected int decodeMiddle(int rowNumber,
-                             BitArray row,
+                             RunLengthRow row,
                              int[] startRange,
                              StringBuilder resultString,
                              ResultPointCallback resultPointCallback) throws NotFoundException {
@@ -87,7 +91,7 @@ public final class EAN13Reader extends UPCEANReader {
     int lgPatternFound = 0;
 
     for (int x = 0; x < 6 && rowOffset < end; x++) {
-      int bestMatch = decodeDigit(row, counters, rowOffset, L_AND_G_PATTERNS);
+      int bestMatch = decodeDigit(row, counters, rowOffset, L_AND_G_TABLE);
       char c = (char) ('0' + bestMatch % 10);
       if (resultPointCallback != null) {
         ResultPoint point = new ResultPoint(rowOffset, rowNumber);
@@ -108,7 +112,7 @@ public final class EAN13Reader extends UPCEANReader {
     rowOffset = middleRange[1];
 
     for (int x = 0; x < 6 && rowOffset < end; x++) {
-      int bestMatch = decodeDigit(row, counters, rowOffset, L_PATTERNS);
+      int bestMatch = decodeDigit(row, counters, rowOffset, L_TABLE);
       char c = (char) ('0' + bestMatch % 10);
       if (resultPointCallback != null) {
         ResultPoint point = new ResultPoint(rowOffset, rowNumber);
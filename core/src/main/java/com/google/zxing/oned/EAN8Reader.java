@@ -19,7 +19,6 @@ package com.google.zxing.oned;
 import com.google.zxing.BarcodeFormat;
 import com.google.zxing.NotFoundException;
 import com.google.zxing.ResultPointCallback;
-import com.google.zxing.common.BitArray;
 
 /**
  * <p>Implements decoding of the EAN-8 format.</p>
@@ -34,9 +33,14 @@ public final class EAN8Reader extends UPCEANReader {
     decodeMiddleCounters = new int[4];
   }
 
+  @Override
+  protected UPCEANReader createReader() {
+    return new EAN8Reader();
+  }
+
   @Override
   protected int decodeMiddle(int rowNumber,
-                             BitArray row,
+                             RunLengthRow row,
                              int[] startRange,
                              StringBuilder resultString,
                              ResultPointCallback resultPointCallback) throws NotFoundException {
@@ -49,7 +53,7 @@ public final class EAN8Reader extends UPCEANReader {
     int rowOffset = startRange[1];
 
     for (int x = 0; x < 4 && rowOffset < end; x++) {
-      int bestMatch = decodeDigit(row, counters, rowOffset, L_PATTERNS);
+      int bestMatch = decodeDigit(row, counters, rowOffset, L_TABLE);
       char c = (char) ('0' + bestMatch % 10);
       //if (resultPointCallback != null) {
       //  ResultPoint point = new ResultPoint(rowOffset, rowNumber);
@@ -65,7 +69,7 @@ public final class EAN8Reader extends UPCEANReader {
     rowOffset = middleRange[1];
 
     for (int x = 0; x < 4 && rowOffset < end; x++) {
-      int bestMatch = decodeDigit(row, counters, rowOffset, L_PATTERNS);
+      int bestMatch = decodeDigit(row, counters, rowOffset, L_TABLE);
       char c = (char) ('0' + bestMatch % 10);
       //if (resultPointCallback != null) {
       //  ResultPoint point = new ResultPoint(rowOffset, rowNumber);
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2016 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.oned;
+
+import java.util.Arrays;
+
+/**
+ * <p>Finds which of a set of patterns some counters of alternating bars and spaces match, by table
+ * lookup rather than by measuring how far they are from each pattern in turn.</p>
+ *
+ * <p>The counters are measured as edge-to-similar-edge distances: the width of each element plus
+ * the next, in modules. Unlike the widths of the elements themselves, these don't change when
+ * bars print or image wider or narrower than they should. Rounded to whole modules, they pick out
+ * the pattern. Where patterns have the same distances, as some UPC/EAN digits do, the one whose
+ * every other element adds up to the nearest width is taken, if it's clearly nearest.</p>
+ *
+ * <p>Counters with a distance that is not clearly near a whole number of modules are left to the
+ * caller to match the slow way, with {@link OneDReader#patternMatchVariance(int[], int[], float)},
+ * as are counters that match no pattern. Nor is a match here sure to be the best one; callers take
+ * it only if its variance is below {@link #getUniqueMatchVariance()}.</p>
+ */
+final class EdgeDistanceTable {
+
+  // How far a distance may be from a whole number of modules to be rounded to it with confidence
+  private static final float MAX_ROUNDING_ERROR = 0.3f;
+  // How much nearer in modules one pattern's alternate elements' width must be than another's
+  private static final float MIN_ALTERNATE_WIDTH_MARGIN = 0.5f;
+
+  private static final int NO_MATCH = -1;
+
+  private final int[][] patterns;
+  private final int numCounters;
+  private final float uniqueMatchVariance;
+  private final int numModules;
+  private final int minDistance;
+  private final int distanceRange;
+  // Total width of every other element of each pattern, starting with the first
+  private final int[] alternateWidths;
+  // Indices of the patterns with each combination of distances, or null
+  private final int[][] table;
+
+  /**
+   * @param patterns patterns to look up, as widths in modules of each element, all of the same
+   *  total width. Only their first numCounters elements are used.
+   * @param numCounters number of counters that will be looked up
+   */
+  EdgeDistanceTable(int[][] patterns, int numCounters) {
+    this.patterns = patterns;
+    this.numCounters = numCounters;
+    uniqueMatchVariance = OneDReader.getUniqueMatchVariance(patterns, numCounters);
+    numModules = sum(patterns[0], 0, numCounters, 1);
+    int minDistance = Integer.MAX_VALUE;
+    int maxDistance = 0;
+    alternateWidths = new int[patterns.length];
+    for (int p = 0; p < patterns.length; p++) {
+      int[] pattern = patterns[p];
+      if (sum(pattern, 0, numCounters, 1) != numModules) {
+        throw new IllegalArgumentException("Patterns must be of the same width");
+      }
+      for (int i = 0; i < numCounters - 2; i++) {
+        int distance = pattern[i] + pattern[i + 1];
+        minDistance = Math.min(minDistance, distance);
+        maxDistance = Math.max(maxDistance, distance);
+      }
+      alternateWidths[p] = sum(pattern, 0, numCounters, 2);
+    }
+    this.minDistance = minDistance;
+    distanceRange = maxDistance - minDistance + 1;
+
+    int size = 1;
+    for (int i = 0; i < numCounters - 2; i++) {
+      size *= distanceRange;
+    }
+    table = new int[size][];
+    for (int p = 0; p < patterns.length; p++) {
+      int[] pattern = patterns[p];
+      int key = 0;
+      for (int i = 0; i < numCounters - 2; i++) {
+        key = key * distanceRange + pattern[i] + pattern[i + 1] - minDistance;
+      }
+      int[] candidates = table[key];
+      if (candidates == null) {
+        table[key] = new int[] {p};
+      } else {
+        candidates = Arrays.copyOf(candidates, candidates.length + 1);
+        candidates[candidates.length - 1] = p;
+        table[key] = candidates;
+      }
+    }
+  }
+
+  int[][] getPatterns() {
+    return patterns;
+  }
+
+  /**
+   * @return variance below which a pattern is sure to be the best match among these patterns
+   * @see OneDReader#getUniqueMatchVariance(int[][], int)
+   */
+  float getUniqueMatchVariance() {
+    return uniqueMatchVariance;
+  }
+
+  /**
+   * @param counters observed widths of elements
+   * @return index of the pattern the counters match, or -1 if they can't be matched with
+   *  confidence this way
+   */
+  int lookup(int[] counters) {
+    int total = sum(counters, 0, numCounters, 1);
+    if (total < numModules) {
+      // Less than one pixel per module; leave it to the caller to reject
+      return NO_MATCH;
+    }
+    float modulesPerPixel = (float) numModules / total;
+    int key = 0;
+    for (int i = 0; i < numCounters - 2; i++) {
+      float modules = (counters[i] + counters[i + 1]) * modulesPerPixel;
+      int rounded = (int) (modules + 0.5f);
+      int distance = rounded - minDistance;
+      if (Math.abs(modules - rounded) > MAX_ROUNDING_ERROR || distance < 0 || distance >= distanceRange) {
+        return NO_MATCH;
+      }
+      key = key * distanceRange + distance;
+    }
+    int[] candidates = table[key];
+    if (candidates == null) {
+      return NO_MATCH;
+    }
+    if (candidates.length == 1) {
+      return candidates[0];
+    }
+    float alternateWidth = sum(counters, 0, numCounters, 2) * modulesPerPixel;
+    int bestMatch = NO_MATCH;
+    float bestError = Float.POSITIVE_INFINITY;
+    float nextBestError = Float.POSITIVE_INFINITY;
+    for (int candidate : candidates) {
+      float error = Math.abs(alternateWidth - alternateWidths[candidate]);
+      if (error < bestError) {
+        nextBestError = bestError;
+        bestError = error;
+        bestMatch = candidate;
+      } else if (error < nextBestError) {
+        nextBestError = error;
+      }
+    }
+    return bestError + MIN_ALTERNATE_WIDTH_MARGIN <= nextBestError ? bestMatch : NO_MATCH;
+  }
+
+  private static int sum(int[] values, int from, int to, int step) {
+    int total = 0;
+    for (int i = from; i < to; i += step) {
+      total += values[i];
+    }
+    return total;
+  }
+
+}
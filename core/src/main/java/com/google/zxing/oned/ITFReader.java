@@ -23,7 +23,6 @@ import com.google.zxing.NotFoundException;
 import com.google.zxing.Result;
 import com.google.zxing.ResultPoint;
 import com.google.zxing.ResultPointCallback;
-import com.google.zxing.common.BitArray;
 
 import java.util.Map;
 
@@ -82,8 +81,32 @@ public final class ITFReader extends OneDReader {
       {N, W, N, W, N}  // 9
   };
 
+  /**
+   * Digit for each set of two wide lines among five, indexed by a bit mask with a bit set for each
+   * wide line, the first line in the highest bit
+   */
+  private static final int[] DIGITS_BY_WIDE_LINES = new int[32];
+
+  private static final float MAX_FAST_VARIANCE =
+      Math.min(getUniqueMatchVariance(PATTERNS, PATTERNS[0].length), MAX_AVG_VARIANCE);
+
+  static {
+    for (int digit = 0; digit < PATTERNS.length; digit++) {
+      int wideLines = 0;
+      for (int width : PATTERNS[digit]) {
+        wideLines = (wideLines << 1) | (width == W ? 1 : 0);
+      }
+      DIGITS_BY_WIDE_LINES[wideLines] = digit;
+    }
+  }
+
   @Override
-  public Result decodeRow(int rowNumber, BitArray row, Map<DecodeHintType,?> hints)
+  protected OneDReader createReader() {
+    return new ITFReader();
+  }
+
+  @Override
+  public Result decodeRow(int rowNumber, RunLengthRow row, Map<DecodeHintType,?> hints)
       throws FormatException, NotFoundException {
 
     ResultPointCallback resultPointCallback = hints == null ? null :
@@ -142,7 +165,7 @@ public final class ITFReader extends OneDReader {
    * @throws NotFoundException if decoding could not complete successfully
    */
   private static void decodeMiddle(int rowNumber,
-                                   BitArray row,
+                                   RunLengthRow row,
                                    int payloadStart,
                                    int payloadEnd,
                                    StringBuilder resultString,
@@ -194,7 +217,7 @@ public final class ITFReader extends OneDReader {
    * @return Array, containing index of start of 'start block' and end of
    *         'start block'
    */
-  private int[] decodeStart(BitArray row) throws NotFoundException {
+  private int[] decodeStart(RunLengthRow row) throws NotFoundException {
     int endStart = skipWhiteSpace(row);
     int[] startPattern = findGuardPattern(row, endStart, START_PATTERN);
 
@@ -219,26 +242,23 @@ public final class ITFReader extends OneDReader {
    *
    * ref: http://www.barcode-1.net/i25code.html
    *
-   * @param row bit array representing the scanned barcode.
+   * @param row runs of the scanned barcode.
    * @param startPattern index into row of the start or end pattern.
    * @throws NotFoundException if the quiet zone cannot be found
    */
-  private void validateQuietZone(BitArray row, int startPattern) throws NotFoundException {
+  private void validateQuietZone(RunLengthRow row, int startPattern) throws NotFoundException {
 
     int quietCount = this.narrowLineWidth * 10;  // expect to find this many pixels of quiet zone
 
     // if there are not so many pixel at all let's try as many as possible
     quietCount = quietCount < startPattern ? quietCount : startPattern;
 
-    for (int i = startPattern - 1; quietCount > 0 && i >= 0; i--) {
-      if (row.get(i)) {
-        break;
+    if (quietCount > 0) {
+      int run = row.getRun(startPattern - 1);
+      if (RunLengthRow.isBlack(run) || startPattern - row.getRunStart(run) < quietCount) {
+        // Unable to find the necessary number of quiet zone pixels.
+        throw NotFoundException.getNotFoundInstance();
       }
-      quietCount--;
-    }
-    if (quietCount != 0) {
-      // Unable to find the necessary number of quiet zone pixels.
-      throw NotFoundException.getNotFoundInstance();
     }
   }
 
@@ -249,7 +269,7 @@ public final class ITFReader extends OneDReader {
    * @return index of the first black line.
    * @throws NotFoundException Throws exception if no black lines are found in the row
    */
-  private static int skipWhiteSpace(BitArray row) throws NotFoundException {
+  private static int skipWhiteSpace(RunLengthRow row) throws NotFoundException {
     int width = row.getSize();
     int endStart = row.getNextSet(0);
     if (endStart == width) {
@@ -266,71 +286,53 @@ public final class ITFReader extends OneDReader {
    * @return Array, containing index of start of 'end block' and end of 'end
    *         block'
    */
-  private int[] decodeEnd(BitArray row) throws NotFoundException {
+  private int[] decodeEnd(RunLengthRow row) throws NotFoundException {
 
     // For convenience, reverse the row and then
     // search from 'the start' for the end block
-    row.reverse();
-    try {
-      int endStart = skipWhiteSpace(row);
-      int[] endPattern = findGuardPattern(row, endStart, END_PATTERN_REVERSED);
-
-      // The start & end patterns must be pre/post fixed by a quiet zone. This
-      // zone must be at least 10 times the width of a narrow line.
-      // ref: http://www.barcode-1.net/i25code.html
-      validateQuietZone(row, endPattern[0]);
-
-      // Now recalculate the indices of where the 'endblock' starts & stops to
-      // accommodate
-      // the reversed nature of the search
-      int temp = endPattern[0];
-      endPattern[0] = row.getSize() - endPattern[1];
-      endPattern[1] = row.getSize() - temp;
-
-      return endPattern;
-    } finally {
-      // Put the row back the right way.
-      row.reverse();
-    }
+    RunLengthRow reversedRow = row.reverse();
+    int endStart = skipWhiteSpace(reversedRow);
+    int[] endPattern = findGuardPattern(reversedRow, endStart, END_PATTERN_REVERSED);
+
+    // The start & end patterns must be pre/post fixed by a quiet zone. This
+    // zone must be at least 10 times the width of a narrow line.
+    // ref: http://www.barcode-1.net/i25code.html
+    validateQuietZone(reversedRow, endPattern[0]);
+
+    // Now recalculate the indices of where the 'endblock' starts & stops to
+    // accommodate
+    // the reversed nature of the search
+    int temp = endPattern[0];
+    endPattern[0] = row.getSize() - endPattern[1];
+    endPattern[1] = row.getSize() - temp;
+
+    return endPattern;
   }
 
   /**
    * @param row       row of black/white values to search
-   * @param rowOffset position to start search
+   * @param rowOffset position to start search, at the start of a bar
    * @param pattern   pattern of counts of number of black and white pixels that are
    *                  being searched for as a pattern
    * @return start/end horizontal offset of guard pattern, as an array of two
    *         ints
    * @throws NotFoundException if pattern is not found
    */
-  private static int[] findGuardPattern(BitArray row,
+  private static int[] findGuardPattern(RunLengthRow row,
                                         int rowOffset,
                                         int[] pattern) throws NotFoundException {
     int patternLength = pattern.length;
     int[] counters = new int[patternLength];
     int width = row.getSize();
-    boolean isWhite = false;
-
-    int counterPosition = 0;
-    int patternStart = rowOffset;
-    for (int x = rowOffset; x < width; x++) {
-      if (row.get(x) ^ isWhite) {
-        counters[counterPosition]++;
-      } else {
-        if (counterPosition == patternLength - 1) {
-          if (patternMatchVariance(counters, pattern, MAX_INDIVIDUAL_VARIANCE) < MAX_AVG_VARIANCE) {
-            return new int[]{patternStart, x};
-          }
-          patternStart += counters[0] + counters[1];
-          System.arraycopy(counters, 2, counters, 0, patternLength - 2);
-          counters[patternLength - 2] = 0;
-          counters[patternLength - 1] = 0;
-          counterPosition--;
-        } else {
-          counterPosition++;
-        }
-        counters[counterPosition] = 1;
-        isWhite = !isWhite;
+
+    for (int run = row.getRun(rowOffset); run + patternLength < row.getNumRuns(); run += 2) {
+      int patternEnd = row.getRunEnd(run + patternLength - 1);
+      if (patternEnd == width) {
+        break;
+      }
+      recordRuns(row, run, counters);
+      if (patternMatchVariance(counters, pattern, MAX_INDIVIDUAL_VARIANCE) < MAX_AVG_VARIANCE) {
+        return new int[]{row.getRunStart(run), patternEnd};
       }
     }
     throw NotFoundException.getNotFoundInstance();
@@ -345,6 +347,13 @@ public final class ITFReader extends OneDReader {
    * @throws NotFoundException if digit cannot be decoded
    */
   private static int decodeDigit(int[] counters) throws NotFoundException {
+    // Usually the digit can be looked up directly; it's only taken when it matches so well that
+    // no other pattern can match better, so that the full search would pick it too
+    int fastMatch = lookupDigit(counters);
+    if (fastMatch >= 0 &&
+        patternMatchVariance(counters, PATTERNS[fastMatch], MAX_INDIVIDUAL_VARIANCE) < MAX_FAST_VARIANCE) {
+      return fastMatch;
+    }
     float bestVariance = MAX_AVG_VARIANCE; // worst variance we'll accept
     int bestMatch = -1;
     int max = PATTERNS.length;
@@ -363,4 +372,38 @@ public final class ITFReader extends OneDReader {
     }
   }
 
+  /**
+   * Looks up the digit given by which two of five lines are wide, if those two are clearly wider
+   * than the other three.
+   *
+   * @param counters widths of five lines of one digit
+   * @return the digit, or -1 if the wide lines aren't clear
+   */
+  private static int lookupDigit(int[] counters) {
+    int widest = 0;
+    for (int i = 1; i < counters.length; i++) {
+      if (counters[i] > counters[widest]) {
+        widest = i;
+      }
+    }
+    int nextWidest = widest == 0 ? 1 : 0;
+    for (int i = 0; i < counters.length; i++) {
+      if (i != widest && counters[i] > counters[nextWidest]) {
+        nextWidest = i;
+      }
+    }
+    int widestNarrow = 0;
+    for (int i = 0; i < counters.length; i++) {
+      if (i != widest && i != nextWidest) {
+        widestNarrow = Math.max(widestNarrow, counters[i]);
+      }
+    }
+    // Wide lines are 2 to 3 times as wide as narrow ones; insist on at least 1.5
+    if (2 * counters[nextWidest] < 3 * widestNarrow) {
+      return -1;
+    }
+    int last = counters.length - 1;
+    return DIGITS_BY_WIDE_LINES[(1 << (last - widest)) | (1 << (last - nextWidest))];
+  }
+
 }
@@ -22,7 +22,7 @@ import com.google.zxing.NotFoundException;
 import com.google.zxing.Reader;
 import com.google.zxing.ReaderException;
 import com.google.zxing.Result;
-import com.google.zxing.common.BitArray;
+import com.google.zxing.oned.rss.AbstractRSSReader;
 import com.google.zxing.oned.rss.RSS14Reader;
 import com.google.zxing.oned.rss.expanded.RSSExpandedReader;
 
@@ -37,6 +37,8 @@ import java.util.Map;
 public final class MultiFormatOneDReader extends OneDReader {
 
   private final OneDReader[] readers;
+  // Whether any reader combines what it finds in several rows, as RSS readers do
+  private final boolean combinesRows;
 
   public MultiFormatOneDReader(Map<DecodeHintType,?> hints) {
     @SuppressWarnings("unchecked")    
@@ -85,11 +87,42 @@ public final class MultiFormatOneDReader extends OneDReader {
       readers.add(new RSSExpandedReader());
     }
     this.readers = readers.toArray(new OneDReader[readers.size()]);
+    combinesRows = combinesRows(this.readers);
+  }
+
+  private MultiFormatOneDReader(OneDReader[] readers) {
+    this.readers = readers;
+    combinesRows = combinesRows(readers);
+  }
+
+  private static boolean combinesRows(OneDReader[] readers) {
+    for (OneDReader reader : readers) {
+      if (reader instanceof AbstractRSSReader) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // Rows can only be decoded in parallel if all the readers can, so this needs formats without RSS
+  @Override
+  protected OneDReader createReader() {
+    if (combinesRows) {
+      return null;
+    }
+    OneDReader[] newReaders = new OneDReader[readers.length];
+    for (int i = 0; i < readers.length; i++) {
+      newReaders[i] = readers[i].createReader();
+      if (newReaders[i] == null) {
+        return null;
+      }
+    }
+    return new MultiFormatOneDReader(newReaders);
   }
 
   @Override
   public Result decodeRow(int rowNumber,
-                          BitArray row,
+                          RunLengthRow row,
                           Map<DecodeHintType,?> hints) throws NotFoundException {
     for (OneDReader reader : readers) {
       try {
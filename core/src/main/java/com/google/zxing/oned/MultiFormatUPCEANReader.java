@@ -22,7 +22,6 @@ import com.google.zxing.NotFoundException;
 import com.google.zxing.Reader;
 import com.google.zxing.ReaderException;
 import com.google.zxing.Result;
-import com.google.zxing.common.BitArray;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -66,9 +65,25 @@ public final class MultiFormatUPCEANReader extends OneDReader {
     this.readers = readers.toArray(new UPCEANReader[readers.size()]);
   }
 
+  private MultiFormatUPCEANReader(UPCEANReader[] readers) {
+    this.readers = readers;
+  }
+
+  @Override
+  protected OneDReader createReader() {
+    UPCEANReader[] newReaders = new UPCEANReader[readers.length];
+    for (int i = 0; i < readers.length; i++) {
+      newReaders[i] = readers[i].createReader();
+      if (newReaders[i] == null) {
+        return null;
+      }
+    }
+    return new MultiFormatUPCEANReader(newReaders);
+  }
+
   @Override
   public Result decodeRow(int rowNumber,
-                          BitArray row,
+                          RunLengthRow row,
                           Map<DecodeHintType,?> hints) throws NotFoundException {
     // Compute this location once and reuse it on multiple implementations
     int[] startGuardPattern = UPCEANReader.findStartGuardPattern(row);
@@ -19,6 +19,8 @@ package com.google.zxing.oned;
 import com.google.zxing.BinaryBitmap;
 import com.google.zxing.ChecksumException;
 import com.google.zxing.DecodeHintType;
+import com.google.zxing.DecodeListener;
+import com.google.zxing.DecodePhase;
 import com.google.zxing.FormatException;
 import com.google.zxing.NotFoundException;
 import com.google.zxing.Reader;
@@ -27,10 +29,17 @@ import com.google.zxing.Result;
 import com.google.zxing.ResultMetadataType;
 import com.google.zxing.ResultPoint;
 import com.google.zxing.common.BitArray;
+import com.google.zxing.common.Cancellation;
+import com.google.zxing.common.DecodeTimer;
 
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Encapsulates functionality and implementation that is common to all families
@@ -41,6 +50,9 @@ import java.util.Map;
  */
 public abstract class OneDReader implements Reader {
 
+  // Rows, each tried both ways, that one task decodes when rows are decoded in parallel
+  private static final int ROWS_PER_TASK = 16;
+
   @Override
   public Result decode(BinaryBitmap image) throws NotFoundException, FormatException {
     return decode(image, null);
@@ -50,30 +62,22 @@ public abstract class OneDReader implements Reader {
   @Override
   public Result decode(BinaryBitmap image,
                        Map<DecodeHintType,?> hints) throws NotFoundException, FormatException {
+    ForkJoinPool pool = getForkJoinPool(hints);
+    if (pool != null) {
+      // Used by the first task, so that finding out whether rows can be decoded in parallel costs nothing
+      OneDReader rowReader = createReader();
+      if (rowReader != null) {
+        return decodeInParallel(image, hints, pool, rowReader);
+      }
+    }
+    boolean tryHarder = hints != null && hints.containsKey(DecodeHintType.TRY_HARDER);
     try {
       return doDecode(image, hints);
     } catch (NotFoundException nfe) {
-      boolean tryHarder = hints != null && hints.containsKey(DecodeHintType.TRY_HARDER);
       if (tryHarder && image.isRotateSupported()) {
         BinaryBitmap rotatedImage = image.rotateCounterClockwise();
         Result result = doDecode(rotatedImage, hints);
-        // Record that we found it rotated 90 degrees CCW / 270 degrees CW
-        Map<ResultMetadataType,?> metadata = result.getResultMetadata();
-        int orientation = 270;
-        if (metadata != null && metadata.containsKey(ResultMetadataType.ORIENTATION)) {
-          // But if we found it reversed in doDecode(), add in that result here:
-          orientation = (orientation +
-              (Integer) metadata.get(ResultMetadataType.ORIENTATION)) % 360;
-        }
-        result.putMetadata(ResultMetadataType.ORIENTATION, orientation);
-        // Update result points
-        ResultPoint[] points = result.getResultPoints();
-        if (points != null) {
-          int height = rotatedImage.getHeight();
-          for (int i = 0; i < points.length; i++) {
-            points[i] = new ResultPoint(height - points[i].getY() - 1, points[i].getX());
-          }
-        }
+        rotateBack(result, rotatedImage.getHeight());
         return result;
       } else {
         throw nfe;
@@ -86,6 +90,30 @@ public abstract class OneDReader implements Reader {
     // do nothing
   }
 
+  /**
+   * Creates a new reader of the same type and configuration as this one, but with pristine state,
+   * so that rows of an image can be decoded on several threads at once, each with its own reader.
+   * It may be called from any thread.
+   *
+   * @return new reader, or {@code null}, by default, if rows can't be decoded independently by
+   *  separate readers, as when a reader combines what it finds in several rows
+   */
+  protected OneDReader createReader() {
+    return null;
+  }
+
+  /**
+   * @return pool on which to decode rows in parallel, or {@code null} unless trying harder with
+   *  {@link DecodeHintType#FORK_JOIN_POOL}; readers voting across rows must see them all, so not then either
+   */
+  static ForkJoinPool getForkJoinPool(Map<DecodeHintType,?> hints) {
+    if (hints == null || !hints.containsKey(DecodeHintType.TRY_HARDER) ||
+        hints.containsKey(DecodeHintType.VOTE_ACROSS_ROWS)) {
+      return null;
+    }
+    return (ForkJoinPool) hints.get(DecodeHintType.FORK_JOIN_POOL);
+  }
+
   /**
    * We're going to examine rows from the middle outward, searching alternately above and below the
    * middle, and farther out each time. rowStep is the number of rows between each successive
@@ -106,9 +134,8 @@ public abstract class OneDReader implements Reader {
     int height = image.getHeight();
     BitArray row = new BitArray(width);
 
-    int middle = height >> 1;
     boolean tryHarder = hints != null && hints.containsKey(DecodeHintType.TRY_HARDER);
-    int rowStep = Math.max(1, height >> (tryHarder ? 8 : 5));
+    int rowStep = getRowStep(height, tryHarder);
     int maxLines;
     if (tryHarder) {
       maxLines = height; // Look at the whole image, not just the center
@@ -116,64 +143,178 @@ public abstract class OneDReader implements Reader {
       maxLines = 15; // 15 rows spaced 1/32 apart is roughly the middle half of the image
     }
 
+    // We will only ever draw result points *once* in the life of this method, for the first row
+    // tried the right way round, since we want to avoid drawing the wrong points after flipping the
+    // row, and, don't want to clutter with noise from every single row scan -- just the scans that
+    // start on the center line.
+    Map<DecodeHintType,?> laterHints = withoutResultPointCallback(hints);
+
     for (int x = 0; x < maxLines; x++) {
+      Cancellation.check(hints);
 
       // Scanning from the middle out. Determine which row we're looking at next:
-      int rowStepsAboveOrBelow = (x + 1) / 2;
-      boolean isAbove = (x & 0x01) == 0; // i.e. is x even?
-      int rowNumber = middle + rowStep * (isAbove ? rowStepsAboveOrBelow : -rowStepsAboveOrBelow);
-      if (rowNumber < 0 || rowNumber >= height) {
+      int rowNumber = getRowNumber(x, height, rowStep);
+      if (rowNumber < 0) {
         // Oops, if we run off the top or bottom, stop
         break;
       }
 
       // Estimate black point for this row and load it:
       try {
-        row = image.getBlackRow(rowNumber, row);
+        row = image.getBlackRow(rowNumber, row, DecodeTimer.getListener(hints));
       } catch (NotFoundException ignored) {
         continue;
       }
 
-      // While we have the image data in a BitArray, it's fairly cheap to reverse it in place to
-      // handle decoding upside down barcodes.
-      for (int attempt = 0; attempt < 2; attempt++) {
-        if (attempt == 1) { // trying again?
-          row.reverse(); // reverse the row and continue
-          // This means we will only ever draw result points *once* in the life of this method
-          // since we want to avoid drawing the wrong points after flipping the row, and,
-          // don't want to clutter with noise from every single row scan -- just the scans
-          // that start on the center line.
-          if (hints != null && hints.containsKey(DecodeHintType.NEED_RESULT_POINT_CALLBACK)) {
-            Map<DecodeHintType,Object> newHints = new EnumMap<>(DecodeHintType.class);
-            newHints.putAll(hints);
-            newHints.remove(DecodeHintType.NEED_RESULT_POINT_CALLBACK);
-            hints = newHints;
-          }
-        }
-        try {
-          // Look for a barcode
-          Result result = decodeRow(rowNumber, row, hints);
-          // We found our barcode
-          if (attempt == 1) {
-            // But it was upside down, so note that
-            result.putMetadata(ResultMetadataType.ORIENTATION, 180);
-            // And remember to flip the result points horizontally.
-            ResultPoint[] points = result.getResultPoints();
-            if (points != null) {
-              points[0] = new ResultPoint(width - points[0].getX() - 1, points[0].getY());
-              points[1] = new ResultPoint(width - points[1].getX() - 1, points[1].getY());
-            }
+      // Readers all work from the row's runs of black and white, so find those once. Reversing
+      // them, to handle decoding upside down barcodes, costs nothing.
+      Result result = decodeRowBothWays(rowNumber, new RunLengthRow(row), hints, laterHints);
+      if (result != null) {
+        return result;
+      }
+      hints = laterHints;
+    }
+
+    throw NotFoundException.getNotFoundInstance();
+  }
+
+  /**
+   * Decodes as {@link #doDecode(BinaryBitmap, Map)} does, the image and then the image rotated, but
+   * in tasks of {@link #ROWS_PER_TASK} rows at a time run on a pool, each with its own reader from
+   * {@link #createReader()}, starting with {@code rowReader}, its own binarizer and no result point callback. Results of tasks are taken in the
+   * order their rows would be tried serially, so the result is the same as that of a serial decode.
+   * Once a task has a result, tasks for rows after it stop. All tasks stop if the decode is
+   * {@link DecodeHintType#CANCELLED}, and then nothing is found.
+   */
+  private Result decodeInParallel(BinaryBitmap image,
+                                  Map<DecodeHintType,?> hints,
+                                  ForkJoinPool pool,
+                                  OneDReader rowReader) throws NotFoundException {
+    RowScan scan = new RowScan(rowReader, image, withoutResultPointCallback(hints));
+    List<RowTask> tasks = new ArrayList<>();
+    scan.addTasks(tasks, false);
+    if (image.isRotateSupported()) {
+      scan.addTasks(tasks, true);
+    }
+    try {
+      for (RowTask task : tasks) {
+        pool.execute(task);
+      }
+      for (RowTask task : tasks) {
+        Cancellation.check(hints);
+        Result result = task.join();
+        if (result != null) {
+          if (task.rotated) {
+            rotateBack(result, image.getWidth());
           }
           return result;
-        } catch (ReaderException re) {
-          // continue -- just couldn't decode this row
         }
       }
+    } finally {
+      scan.stopAll();
     }
-
     throw NotFoundException.getNotFoundInstance();
   }
 
+  private static int getRowStep(int height, boolean tryHarder) {
+    return Math.max(1, height >> (tryHarder ? 8 : 5));
+  }
+
+  /**
+   * @return number of the row to try x-th, from the middle out, or -1 if it's off the image
+   */
+  private static int getRowNumber(int x, int height, int rowStep) {
+    int rowStepsAboveOrBelow = (x + 1) / 2;
+    boolean isAbove = (x & 0x01) == 0; // i.e. is x even?
+    int rowNumber = (height >> 1) + rowStep * (isAbove ? rowStepsAboveOrBelow : -rowStepsAboveOrBelow);
+    return rowNumber < 0 || rowNumber >= height ? -1 : rowNumber;
+  }
+
+  /**
+   * Tries to decode a row, and failing that the row reversed, in case the barcode is upside down,
+   * and reports the time taken as {@link DecodePhase#ROW_DECODING}.
+   *
+   * @return result, or {@code null} if the row can't be decoded either way
+   */
+  private Result decodeRowBothWays(int rowNumber,
+                                   RunLengthRow runs,
+                                   Map<DecodeHintType,?> hints,
+                                   Map<DecodeHintType,?> reversedHints) {
+    DecodeListener listener = DecodeTimer.getListener(hints);
+    long start = DecodeTimer.start(listener);
+    Result result = decodeRowOrReversed(rowNumber, runs, hints, reversedHints);
+    if (result == null) {
+      DecodeTimer.finish(listener, null, DecodePhase.ROW_DECODING, start, NotFoundException.getNotFoundInstance());
+    } else {
+      DecodeTimer.finish(listener, result.getBarcodeFormat(), DecodePhase.ROW_DECODING, start, null);
+    }
+    return result;
+  }
+
+  private Result decodeRowOrReversed(int rowNumber,
+                                     RunLengthRow runs,
+                                     Map<DecodeHintType,?> hints,
+                                     Map<DecodeHintType,?> reversedHints) {
+    try {
+      // Look for a barcode
+      return decodeRow(rowNumber, runs, hints);
+    } catch (ReaderException re) {
+      // continue -- try the row reversed
+    }
+    Result result;
+    try {
+      result = decodeRow(rowNumber, runs.reverse(), reversedHints);
+    } catch (ReaderException re) {
+      return null; // just couldn't decode this row
+    }
+    // We found our barcode, but it was upside down, so note that
+    result.putMetadata(ResultMetadataType.ORIENTATION, 180);
+    // And remember to flip the result points horizontally.
+    ResultPoint[] points = result.getResultPoints();
+    if (points != null) {
+      int width = runs.getSize();
+      points[0] = new ResultPoint(width - points[0].getX() - 1, points[0].getY());
+      points[1] = new ResultPoint(width - points[1].getX() - 1, points[1].getY());
+    }
+    return result;
+  }
+
+  private static Map<DecodeHintType,?> withoutResultPointCallback(Map<DecodeHintType,?> hints) {
+    if (hints == null || !hints.containsKey(DecodeHintType.NEED_RESULT_POINT_CALLBACK)) {
+      return hints;
+    }
+    Map<DecodeHintType,Object> newHints = new EnumMap<>(DecodeHintType.class);
+    newHints.putAll(hints);
+    newHints.remove(DecodeHintType.NEED_RESULT_POINT_CALLBACK);
+    return newHints;
+  }
+
+  /**
+   * Records that a result was found in the image rotated 90 degrees counterclockwise, and maps its
+   * points back to the image.
+   *
+   * @param result result found in the rotated image
+   * @param rotatedHeight height of the rotated image
+   */
+  private static void rotateBack(Result result, int rotatedHeight) {
+    // Record that we found it rotated 90 degrees CCW / 270 degrees CW
+    Map<ResultMetadataType,?> metadata = result.getResultMetadata();
+    int orientation = 270;
+    if (metadata != null && metadata.containsKey(ResultMetadataType.ORIENTATION)) {
+      // But if we found it reversed in doDecode(), add in that result here:
+      orientation = (orientation +
+          (Integer) metadata.get(ResultMetadataType.ORIENTATION)) % 360;
+    }
+    result.putMetadata(ResultMetadataType.ORIENTATION, orientation);
+    // Update result points
+    ResultPoint[] points = result.getResultPoints();
+    if (points != null) {
+      for (int i = 0; i < points.length; i++) {
+        points[i] = new ResultPoint(rotatedHeight - points[i].getY() - 1, points[i].getX());
+      }
+    }
+  }
+
   /**
    * Records the size of successive runs of white and black pixels in a row, starting at a given point.
    * The values are recorded in the given array, and the number of runs recorded is equal to the size
@@ -187,54 +328,58 @@ public abstract class OneDReader implements Reader {
    * @throws NotFoundException if counters cannot be filled entirely from row before running out
    *  of pixels
    */
-  protected static void recordPattern(BitArray row,
+  protected static void recordPattern(RunLengthRow row,
                                       int start,
                                       int[] counters) throws NotFoundException {
-    int numCounters = counters.length;
-    Arrays.fill(counters, 0, numCounters, 0);
-    int end = row.getSize();
-    if (start >= end) {
+    if (start >= row.getSize()) {
       throw NotFoundException.getNotFoundInstance();
     }
-    boolean isWhite = !row.get(start);
-    int counterPosition = 0;
-    int i = start;
-    while (i < end) {
-      if (row.get(i) ^ isWhite) { // that is, exactly one is true
-        counters[counterPosition]++;
-      } else {
-        counterPosition++;
-        if (counterPosition == numCounters) {
-          break;
-        } else {
-          counters[counterPosition] = 1;
-          isWhite = !isWhite;
-        }
-      }
-      i++;
-    }
-    // If we read fully the last section of pixels and filled up our counters -- or filled
-    // the last counter but ran off the side of the image, OK. Otherwise, a problem.
-    if (!(counterPosition == numCounters || (counterPosition == numCounters - 1 && i == end))) {
+    int run = row.getRun(start);
+    recordRuns(row, run, counters);
+    counters[0] = row.getRunEnd(run) - start;
+  }
+
+  /**
+   * Records the size of the runs of white and black pixels that come just before the run containing
+   * a given point, in order.
+   *
+   * @param row row to count from
+   * @param start offset into row of a pixel in the run following the runs to record
+   * @param counters array into which to record counts
+   * @throws NotFoundException if there aren't enough runs before start, or if the first is at the
+   *  edge of the row
+   */
+  protected static void recordPatternInReverse(RunLengthRow row, int start, int[] counters)
+      throws NotFoundException {
+    int firstRun = row.getRun(start) - counters.length;
+    // The run before the first one must be there too, so that the first is known to be complete
+    if (firstRun < 1 || row.getRunStart(firstRun) == 0) {
       throw NotFoundException.getNotFoundInstance();
     }
+    recordRuns(row, firstRun, counters);
   }
 
-  protected static void recordPatternInReverse(BitArray row, int start, int[] counters)
-      throws NotFoundException {
-    // This could be more efficient I guess
-    int numTransitionsLeft = counters.length;
-    boolean last = row.get(start);
-    while (start > 0 && numTransitionsLeft >= 0) {
-      if (row.get(--start) != last) {
-        numTransitionsLeft--;
-        last = !last;
-      }
+  /**
+   * Records the size of successive runs in a row, starting with a given run. The last run counted
+   * may run off the end of the row.
+   *
+   * @param row row to count from
+   * @param run number of first run to record
+   * @param counters array into which to record counts
+   * @throws NotFoundException if the row runs out before counters is filled
+   */
+  protected static void recordRuns(RunLengthRow row, int run, int[] counters) throws NotFoundException {
+    int numCounters = counters.length;
+    if (run + numCounters > row.getNumRuns()) {
+      throw NotFoundException.getNotFoundInstance();
+    }
+    for (int i = 0; i < numCounters; i++) {
+      counters[i] = row.getRunLength(run + i);
     }
-    if (numTransitionsLeft >= 0) {
+    // Only the row's last run may be empty
+    if (counters[numCounters - 1] == 0) {
       throw NotFoundException.getNotFoundInstance();
     }
-    recordPattern(row, start + 1, counters);
   }
 
   /**
@@ -279,6 +424,39 @@ public abstract class OneDReader implements Reader {
     return totalVariance / total;
   }
 
+  /**
+   * <p>Finds how well counters must match one of a set of patterns for that pattern to be the best
+   * match among them, without trying the others.</p>
+   *
+   * <p>The variance {@link #patternMatchVariance(int[], int[], float)} reports for patterns of the
+   * same width is the distance between the counters, scaled to that width, and the pattern: the
+   * sum of the differences of their elements, divided by the width. So by the triangle inequality,
+   * the variances from any two patterns add up to at least the distance between them. Where the
+   * closest two patterns are 2D apart, counters less than D from one are further than D from
+   * every other.</p>
+   *
+   * @param patterns patterns, all of the same total width over their first numCounters elements
+   * @param numCounters number of elements of each pattern which are matched
+   * @return variance below which a pattern is the only best match
+   */
+  static float getUniqueMatchVariance(int[][] patterns, int numCounters) {
+    int patternLength = 0;
+    for (int i = 0; i < numCounters; i++) {
+      patternLength += patterns[0][i];
+    }
+    int minDistance = Integer.MAX_VALUE;
+    for (int p = 0; p < patterns.length; p++) {
+      for (int q = p + 1; q < patterns.length; q++) {
+        int distance = 0;
+        for (int i = 0; i < numCounters; i++) {
+          distance += Math.abs(patterns[p][i] - patterns[q][i]);
+        }
+        minDistance = Math.min(minDistance, distance);
+      }
+    }
+    return (float) minDistance / (2 * patternLength);
+  }
+
   /**
    * <p>Attempts to decode a one-dimensional barcode format given a single row of
    * an image.</p>
@@ -291,7 +469,143 @@ public abstract class OneDReader implements Reader {
    * @throws ChecksumException if a potential barcode is found but does not pass its checksum
    * @throws FormatException if a potential barcode is found but format is invalid
    */
-  public abstract Result decodeRow(int rowNumber, BitArray row, Map<DecodeHintType,?> hints)
+  public Result decodeRow(int rowNumber, BitArray row, Map<DecodeHintType,?> hints)
+      throws NotFoundException, ChecksumException, FormatException {
+    return decodeRow(rowNumber, new RunLengthRow(row), hints);
+  }
+
+  /**
+   * <p>Attempts to decode a one-dimensional barcode format given the runs of black and white in a
+   * single row of an image.</p>
+   *
+   * @param rowNumber row number from top of the row
+   * @param row the runs of black and white pixels in the row
+   * @param hints decode hints
+   * @return {@link Result} containing encoded string and start/end of barcode
+   * @throws NotFoundException if no potential barcode is found
+   * @throws ChecksumException if a potential barcode is found but does not pass its checksum
+   * @throws FormatException if a potential barcode is found but format is invalid
+   */
+  public abstract Result decodeRow(int rowNumber, RunLengthRow row, Map<DecodeHintType,?> hints)
       throws NotFoundException, ChecksumException, FormatException;
 
+
+  /**
+   * What tasks decoding the rows of one image in parallel share: the image, and which tasks should
+   * still run.
+   */
+  private static final class RowScan {
+
+    private final OneDReader prototype;
+    // Not yet taken by any task
+    private final AtomicReference<OneDReader> unusedReader;
+    private final BinaryBitmap image;
+    private final Map<DecodeHintType,?> hints;
+    // Tasks after this one needn't run, as it, or one before it, has a result
+    private final AtomicInteger lastTaskNeeded;
+    private BinaryBitmap rotatedImage;
+
+    RowScan(OneDReader prototype, BinaryBitmap image, Map<DecodeHintType,?> hints) {
+      this.prototype = prototype;
+      unusedReader = new AtomicReference<>(prototype);
+      this.image = image;
+      this.hints = hints;
+      lastTaskNeeded = new AtomicInteger(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Adds tasks decoding all the rows of the image, or of the image rotated, in serial order.
+     */
+    void addTasks(List<RowTask> tasks, boolean rotated) {
+      int height = rotated ? image.getWidth() : image.getHeight();
+      int rowStep = getRowStep(height, true);
+      int numRows = 0;
+      while (numRows < height && getRowNumber(numRows, height, rowStep) >= 0) {
+        numRows++;
+      }
+      for (int firstRow = 0; firstRow < numRows; firstRow += ROWS_PER_TASK) {
+        int endRow = Math.min(firstRow + ROWS_PER_TASK, numRows);
+        tasks.add(new RowTask(this, tasks.size(), rotated, firstRow, endRow));
+      }
+    }
+
+    // Rotated only when first needed, as it may not be
+    synchronized BinaryBitmap getRotatedImage() {
+      if (rotatedImage == null) {
+        rotatedImage = image.rotateCounterClockwise();
+      }
+      return rotatedImage;
+    }
+
+    OneDReader newReader() {
+      OneDReader reader = unusedReader.getAndSet(null);
+      return reader == null ? prototype.createReader() : reader;
+    }
+
+    boolean isNeeded(int task) {
+      return task <= lastTaskNeeded.get() && !Cancellation.isCancelled(hints);
+    }
+
+    void found(int task) {
+      int last;
+      do {
+        last = lastTaskNeeded.get();
+      } while (task < last && !lastTaskNeeded.compareAndSet(last, task));
+    }
+
+    void stopAll() {
+      lastTaskNeeded.set(-1);
+    }
+
+  }
+
+  /**
+   * Decodes a range of the rows of an image, in serial order, with a reader of its own, until one
+   * decodes.
+   */
+  private static final class RowTask extends RecursiveTask<Result> {
+
+    private final RowScan scan;
+    private final int index;
+    private final boolean rotated;
+    private final int firstRow;
+    private final int endRow;
+
+    RowTask(RowScan scan, int index, boolean rotated, int firstRow, int endRow) {
+      this.scan = scan;
+      this.index = index;
+      this.rotated = rotated;
+      this.firstRow = firstRow;
+      this.endRow = endRow;
+    }
+
+    @Override
+    protected Result compute() {
+      if (!scan.isNeeded(index)) {
+        return null;
+      }
+      // Binarizers aren't thread-safe, and tasks sharing one would mostly wait for each other
+      BinaryBitmap image = (rotated ? scan.getRotatedImage() : scan.image).copyWithOwnBinarizer();
+      int height = image.getHeight();
+      int rowStep = getRowStep(height, true);
+      OneDReader reader = scan.newReader();
+      BitArray row = new BitArray(image.getWidth());
+      for (int x = firstRow; x < endRow && scan.isNeeded(index); x++) {
+        int rowNumber = getRowNumber(x, height, rowStep);
+        try {
+          row = image.getBlackRow(rowNumber, row, DecodeTimer.getListener(scan.hints));
+        } catch (NotFoundException ignored) {
+          continue;
+        }
+        Result result = reader.decodeRowBothWays(rowNumber, new RunLengthRow(row), scan.hints, scan.hints);
+        if (result != null) {
+          scan.found(index);
+          return result;
+        }
+      }
+      return null;
+    }
+
+  }
+
 }
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2016 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.oned;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>Keeps what a reader read from rows that didn't decode on their own, because their checksum
+ * failed, and votes on each symbol across the readings of the same barcode. Where each row of a
+ * damaged barcode misreads a different symbol, what most rows agree on may pass the checksum,
+ * after only a few rows, where otherwise every row of the image would be tried and fail.</p>
+ *
+ * <p>Readings are of the same barcode if they have the same number of symbols, from about the same
+ * place in rows of the same size. A symbol is agreed on when more than half of those readings, and
+ * at least two, have it. Like the rows {@link com.google.zxing.oned.rss.expanded.RSSExpandedReader}
+ * keeps, readings stay until {@link #clear()}, so they may come from several images of one barcode,
+ * as from a camera, but only the last 16 are kept.</p>
+ */
+final class RowConsensus {
+
+  private static final int MAX_READINGS = 16;
+  // Fewest readings that must agree on a symbol
+  private static final int MIN_VOTES = 2;
+  // How far, as a fraction of their width, readings of the same barcode may start or end apart
+  private static final float MAX_OFFSET = 0.1f;
+
+  private final List<Reading> readings;
+
+  RowConsensus() {
+    readings = new ArrayList<>(MAX_READINGS);
+  }
+
+  /**
+   * Adds the reading of a row, and votes on each symbol of the barcode it's a reading of.
+   *
+   * @param symbols symbols read from the row, in order
+   * @param rowSize size of the row in pixels
+   * @param left where the barcode starts in the row
+   * @param right where the barcode ends in the row
+   * @return symbols agreed on by the readings of the barcode, or {@code null} if they don't agree on
+   *  all of them
+   */
+  int[] add(int[] symbols, int rowSize, float left, float right) {
+    if (readings.size() == MAX_READINGS) {
+      readings.remove(0);
+    }
+    Reading reading = new Reading(symbols.clone(), rowSize, left, right);
+    readings.add(reading);
+
+    List<Reading> sameBarcode = new ArrayList<>();
+    for (Reading other : readings) {
+      if (reading.isOfSameBarcodeAs(other)) {
+        sameBarcode.add(other);
+      }
+    }
+    int numReadings = sameBarcode.size();
+    if (numReadings < MIN_VOTES) {
+      return null;
+    }
+
+    int[] consensus = new int[symbols.length];
+    for (int i = 0; i < symbols.length; i++) {
+      int bestSymbol = -1;
+      int bestVotes = 0;
+      for (Reading candidate : sameBarcode) {
+        int symbol = candidate.symbols[i];
+        int votes = 0;
+        for (Reading other : sameBarcode) {
+          if (other.symbols[i] == symbol) {
+            votes++;
+          }
+        }
+        if (votes > bestVotes) {
+          bestSymbol = symbol;
+          bestVotes = votes;
+        }
+      }
+      if (bestVotes < MIN_VOTES || 2 * bestVotes <= numReadings) {
+        return null;
+      }
+      consensus[i] = bestSymbol;
+    }
+    return consensus;
+  }
+
+  /**
+   * Forgets all readings.
+   */
+  void clear() {
+    readings.clear();
+  }
+
+  private static final class Reading {
+
+    private final int[] symbols;
+    private final int rowSize;
+    private final float left;
+    private final float right;
+
+    Reading(int[] symbols, int rowSize, float left, float right) {
+      this.symbols = symbols;
+      this.rowSize = rowSize;
+      this.left = left;
+      this.right = right;
+    }
+
+    boolean isOfSameBarcodeAs(Reading other) {
+      float maxOffset = MAX_OFFSET * (right - left);
+      return symbols.length == other.symbols.length &&
+          rowSize == other.rowSize &&
+          Math.abs(left - other.left) <= maxOffset &&
+          Math.abs(right - other.right) <= maxOffset;
+    }
+
+  }
+
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2016 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.oned;
+
+import com.google.zxing.common.BitArray;
+
+import java.util.Arrays;
+
+/**
+ * <p>A row of black and white pixels held as the lengths of its alternating runs of white and black,
+ * which is all one-dimensional readers look at. It's worked out once per row and shared by all the
+ * readers that try the row, which then step over bars and spaces rather than pixels.</p>
+ *
+ * <p>Runs are numbered from 0 and even-numbered runs are white, odd-numbered ones black. So that this
+ * holds however the row starts and ends, the first and last runs are always white, and are empty
+ * where the row starts or ends with black. Positions within the row are still given in pixels.</p>
+ *
+ * <p>{@link #reverse()} costs nothing: the reversed row shares the runs and numbers them from the
+ * other end.</p>
+ */
+public final class RunLengthRow {
+
+  private final int size;
+  // Pixel at which each run starts, in the row as given, followed by the row's size
+  private final int[] edges;
+  private final int numRuns;
+  private final boolean reversed;
+
+  /**
+   * @param row row of pixels, black where set
+   */
+  public RunLengthRow(BitArray row) {
+    size = row.getSize();
+    int[] edges = new int[32];
+    int numEdges = 1; // The first, white, run starts at 0, and is empty if the row starts black
+    int x = 0;
+    while (x < size) {
+      if (numEdges + 1 >= edges.length) {
+        // Room for this edge, and for the one that may end the row
+        edges = Arrays.copyOf(edges, 2 * edges.length);
+      }
+      x = (numEdges & 0x01) == 0 ? row.getNextUnset(x) : row.getNextSet(x);
+      edges[numEdges++] = x;
+    }
+    if ((numEdges & 0x01) == 1) {
+      // Row ended black; add an empty white run
+      edges[numEdges++] = size;
+    }
+    this.edges = edges;
+    this.numRuns = numEdges - 1;
+    this.reversed = false;
+  }
+
+  private RunLengthRow(RunLengthRow row) {
+    this.size = row.size;
+    this.edges = row.edges;
+    this.numRuns = row.numRuns;
+    this.reversed = !row.reversed;
+  }
+
+  /**
+   * @return size of the row in pixels
+   */
+  public int getSize() {
+    return size;
+  }
+
+  /**
+   * @return number of runs, which is always odd
+   */
+  public int getNumRuns() {
+    return numRuns;
+  }
+
+  /**
+   * @param run run number
+   * @return true iff run is of black pixels, that is, its number is odd
+   */
+  public static boolean isBlack(int run) {
+    return (run & 0x01) != 0;
+  }
+
+  /**
+   * @param run run number
+   * @return pixel at which the run starts
+   */
+  public int getRunStart(int run) {
+    return reversed ? size - edges[numRuns - run] : edges[run];
+  }
+
+  /**
+   * @param run run number
+   * @return pixel after the run's last pixel
+   */
+  public int getRunEnd(int run) {
+    return reversed ? size - edges[numRuns - 1 - run] : edges[run + 1];
+  }
+
+  /**
+   * @param run run number
+   * @return length of the run in pixels
+   */
+  public int getRunLength(int run) {
+    int i = reversed ? numRuns - 1 - run : run;
+    return edges[i + 1] - edges[i];
+  }
+
+  /**
+   * @param x pixel, from 0 to one less than the row's size
+   * @return number of the run the pixel is in; never that of an empty run
+   */
+  public int getRun(int x) {
+    if (reversed) {
+      return numRuns - 1 - findRun(size - 1 - x);
+    }
+    return findRun(x);
+  }
+
+  // Finds the last run starting at or before x, which is the non-empty run that contains it
+  private int findRun(int x) {
+    int low = 0;
+    int high = numRuns - 1;
+    while (low < high) {
+      int mid = (low + high + 1) >>> 1;
+      if (edges[mid] <= x) {
+        low = mid;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * @param x pixel
+   * @return true iff the pixel is black
+   */
+  public boolean get(int x) {
+    return isBlack(getRun(x));
+  }
+
+  /**
+   * @param from first pixel to check
+   * @return first black pixel at or after from, or the row's size if there is none
+   * @see BitArray#getNextSet(int)
+   */
+  public int getNextSet(int from) {
+    if (from >= size) {
+      return size;
+    }
+    int run = getRun(from);
+    return isBlack(run) ? from : getRunEnd(run);
+  }
+
+  /**
+   * @param from first pixel to check
+   * @return first white pixel at or after from, or the row's size if there is none
+   * @see BitArray#getNextUnset(int)
+   */
+  public int getNextUnset(int from) {
+    if (from >= size) {
+      return size;
+    }
+    int run = getRun(from);
+    return isBlack(run) ? getRunEnd(run) : from;
+  }
+
+  /**
+   * @param start start of range, inclusive
+   * @param end end of range, exclusive
+   * @param value true for black, false for white
+   * @return true iff all pixels in the range are of the given color
+   * @see BitArray#isRange(int, int, boolean)
+   */
+  public boolean isRange(int start, int end, boolean value) {
+    if (end < start || start < 0 || end > size) {
+      throw new IllegalArgumentException();
+    }
+    if (end == start) {
+      return true; // empty range matches
+    }
+    int run = getRun(start);
+    return isBlack(run) == value && getRunEnd(run) >= end;
+  }
+
+  /**
+   * @return this row reversed, sharing its runs
+   */
+  public RunLengthRow reverse() {
+    return new RunLengthRow(this);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder result = new StringBuilder(size);
+    for (int run = 0; run < numRuns; run++) {
+      char c = isBlack(run) ? 'X' : '.';
+      for (int i = getRunLength(run); i > 0; i--) {
+        result.append(c);
+      }
+    }
+    return result.toString();
+  }
+
+}
@@ -24,7 +24,6 @@ import com.google.zxing.FormatException;
 import com.google.zxing.NotFoundException;
 import com.google.zxing.Result;
 import com.google.zxing.ResultPointCallback;
-import com.google.zxing.common.BitArray;
 
 import java.util.Map;
 
@@ -38,9 +37,14 @@ public final class UPCAReader extends UPCEANReader {
 
   private final UPCEANReader ean13Reader = new EAN13Reader();
 
+  @Override
+  protected UPCEANReader createReader() {
+    return new UPCAReader();
+  }
+
   @Override
   public Result decodeRow(int rowNumber,
-                          BitArray row,
+                          RunLengthRow row,
                           int[] startGuardRange,
                           Map<DecodeHintType,?> hints)
       throws NotFoundException, FormatException, ChecksumException {
@@ -48,7 +52,7 @@ public final class UPCAReader extends UPCEANReader {
   }
 
   @Override
-  public Result decodeRow(int rowNumber, BitArray row, Map<DecodeHintType,?> hints)
+  public Result decodeRow(int rowNumber, RunLengthRow row, Map<DecodeHintType,?> hints)
       throws NotFoundException, FormatException, ChecksumException {
     return maybeReturnResult(ean13Reader.decodeRow(rowNumber, row, hints));
   }
@@ -64,6 +68,11 @@ public final class UPCAReader extends UPCEANReader {
     return maybeReturnResult(ean13Reader.decode(image, hints));
   }
 
+  @Override
+  public void reset() {
+    ean13Reader.reset();
+  }
+
   @Override
   BarcodeFormat getBarcodeFormat() {
     return BarcodeFormat.UPC_A;
@@ -71,7 +80,7 @@ public final class UPCAReader extends UPCEANReader {
 
   @Override
   protected int decodeMiddle(int rowNumber,
-                             BitArray row,
+                             RunLengthRow row,
                              int[] startRange,
                              StringBuilder resultString,
                              ResultPointCallback resultPointCallback)
@@ -26,9 +26,7 @@ import com.google.zxing.Result;
 import com.google.zxing.ResultMetadataType;
 import com.google.zxing.ResultPoint;
 import com.google.zxing.ResultPointCallback;
-import com.google.zxing.common.BitArray;
 
-import java.util.Arrays;
 import java.util.Map;
 
 /**
@@ -94,23 +92,33 @@ public abstract class UPCEANReader extends OneDReader {
     }
   }
 
+  /**
+   * Looks up digits among {@link #L_PATTERNS}.
+   */
+  static final EdgeDistanceTable L_TABLE = new EdgeDistanceTable(L_PATTERNS, 4);
+  /**
+   * Looks up digits among {@link #L_AND_G_PATTERNS}.
+   */
+  static final EdgeDistanceTable L_AND_G_TABLE = new EdgeDistanceTable(L_AND_G_PATTERNS, 4);
+
   private final StringBuilder decodeRowStringBuffer;
   private final UPCEANExtensionSupport extensionReader;
   private final EANManufacturerOrgSupport eanManSupport;
+  private final RowConsensus consensus;
 
   protected UPCEANReader() {
     decodeRowStringBuffer = new StringBuilder(20);
     extensionReader = new UPCEANExtensionSupport();
     eanManSupport = new EANManufacturerOrgSupport();
+    consensus = new RowConsensus();
   }
 
-  static int[] findStartGuardPattern(BitArray row) throws NotFoundException {
+  static int[] findStartGuardPattern(RunLengthRow row) throws NotFoundException {
     boolean foundStart = false;
     int[] startRange = null;
     int nextStart = 0;
     int[] counters = new int[START_END_PATTERN.length];
     while (!foundStart) {
-      Arrays.fill(counters, 0, START_END_PATTERN.length, 0);
       startRange = findGuardPattern(row, nextStart, false, START_END_PATTERN, counters);
       int start = startRange[0];
       nextStart = startRange[1];
@@ -125,14 +133,20 @@ public abstract class UPCEANReader extends OneDReader {
     return startRange;
   }
 
+  // Narrowed, so that MultiFormatUPCEANReader can copy the UPC/EAN readers it combines
   @Override
-  public Result decodeRow(int rowNumber, BitArray row, Map<DecodeHintType,?> hints)
+  protected UPCEANReader createReader() {
+    return null;
+  }
+
+  @Override
+  public Result decodeRow(int rowNumber, RunLengthRow row, Map<DecodeHintType,?> hints)
       throws NotFoundException, ChecksumException, FormatException {
     return decodeRow(rowNumber, row, findStartGuardPattern(row), hints);
   }
 
   /**
-   * <p>Like {@link #decodeRow(int, BitArray, Map)}, but
+   * <p>Like {@link #decodeRow(int, RunLengthRow, Map)}, but
    * allows caller to inform method about where the UPC/EAN start pattern is
    * found. This allows this to be computed once and reused across many implementations.</p>
    *
@@ -146,7 +160,7 @@ public abstract class UPCEANReader extends OneDReader {
    * @throws FormatException if a potential barcode is found but format is invalid
    */
   public Result decodeRow(int rowNumber,
-                          BitArray row,
+                          RunLengthRow row,
                           int[] startGuardRange,
                           Map<DecodeHintType,?> hints)
       throws NotFoundException, ChecksumException, FormatException {
@@ -192,12 +206,16 @@ public abstract class UPCEANReader extends OneDReader {
     if (resultString.length() < 8) {
       throw FormatException.getFormatInstance();
     }
-    if (!checkChecksum(resultString)) {
-      throw ChecksumException.getChecksumInstance();
-    }
 
     float left = (startGuardRange[1] + startGuardRange[0]) / 2.0f;
     float right = (endRange[1] + endRange[0]) / 2.0f;
+
+    if (!checkChecksum(resultString)) {
+      if (hints == null || !hints.containsKey(DecodeHintType.VOTE_ACROSS_ROWS)) {
+        throw ChecksumException.getChecksumInstance();
+      }
+      resultString = voteAcrossRows(resultString, row.getSize(), left, right);
+    }
     BarcodeFormat format = getBarcodeFormat();
     Result decodeResult = new Result(resultString,
         null, // no natural byte representation for these barcodes
@@ -243,6 +261,39 @@ public abstract class UPCEANReader extends OneDReader {
     return decodeResult;
   }
 
+  @Override
+  public void reset() {
+    consensus.clear();
+  }
+
+  /**
+   * Adds digits read from a row, which don't pass the checksum, to those read from other rows of the
+   * barcode, and returns the digits most rows agree on, if those do.
+   *
+   * @throws ChecksumException if the rows don't agree on digits that pass the checksum
+   */
+  private String voteAcrossRows(String digits, int rowSize, float left, float right)
+      throws ChecksumException, FormatException {
+    int length = digits.length();
+    int[] symbols = new int[length];
+    for (int i = 0; i < length; i++) {
+      symbols[i] = digits.charAt(i) - '0';
+    }
+    int[] agreedSymbols = consensus.add(symbols, rowSize, left, right);
+    if (agreedSymbols == null) {
+      throw ChecksumException.getChecksumInstance();
+    }
+    StringBuilder agreedDigits = new StringBuilder(length);
+    for (int symbol : agreedSymbols) {
+      agreedDigits.append((char) ('0' + symbol));
+    }
+    String result = agreedDigits.toString();
+    if (!checkChecksum(result)) {
+      throw ChecksumException.getChecksumInstance();
+    }
+    return result;
+  }
+
   /**
    * @param s string of digits to check
    * @return {@link #checkStandardUPCEANChecksum(CharSequence)}
@@ -285,11 +336,11 @@ public abstract class UPCEANReader extends OneDReader {
     return sum % 10 == 0;
   }
 
-  int[] decodeEnd(BitArray row, int endStart) throws NotFoundException {
+  int[] decodeEnd(RunLengthRow row, int endStart) throws NotFoundException {
     return findGuardPattern(row, endStart, false, START_END_PATTERN);
   }
 
-  static int[] findGuardPattern(BitArray row,
+  static int[] findGuardPattern(RunLengthRow row,
                                 int rowOffset,
                                 boolean whiteFirst,
                                 int[] pattern) throws NotFoundException {
@@ -307,35 +358,28 @@ public abstract class UPCEANReader extends OneDReader {
    * @return start/end horizontal offset of guard pattern, as an array of two ints
    * @throws NotFoundException if pattern is not found
    */
-  private static int[] findGuardPattern(BitArray row,
+  private static int[] findGuardPattern(RunLengthRow row,
                                         int rowOffset,
                                         boolean whiteFirst,
                                         int[] pattern,
                                         int[] counters) throws NotFoundException {
     int width = row.getSize();
     rowOffset = whiteFirst ? row.getNextUnset(rowOffset) : row.getNextSet(rowOffset);
-    int counterPosition = 0;
-    int patternStart = rowOffset;
+    if (rowOffset == width) {
+      throw NotFoundException.getNotFoundInstance();
+    }
     int patternLength = pattern.length;
-    boolean isWhite = whiteFirst;
-    for (int x = rowOffset; x < width; x++) {
-      if (row.get(x) ^ isWhite) {
-        counters[counterPosition]++;
-      } else {
-        if (counterPosition == patternLength - 1) {
-          if (patternMatchVariance(counters, pattern, MAX_INDIVIDUAL_VARIANCE) < MAX_AVG_VARIANCE) {
-            return new int[]{patternStart, x};
-          }
-          patternStart += counters[0] + counters[1];
-          System.arraycopy(counters, 2, counters, 0, patternLength - 2);
-          counters[patternLength - 2] = 0;
-          counters[patternLength - 1] = 0;
-          counterPosition--;
-        } else {
-          counterPosition++;
-        }
-        counters[counterPosition] = 1;
-        isWhite = !isWhite;
+    for (int run = row.getRun(rowOffset); run + patternLength < row.getNumRuns(); run += 2) {
+      int patternEnd = row.getRunEnd(run + patternLength - 1);
+      if (patternEnd == width) {
+        break;
+      }
+      // The first pattern may start part way through a run
+      int patternStart = Math.max(row.getRunStart(run), rowOffset);
+      recordRuns(row, run, counters);
+      counters[0] = row.getRunEnd(run) - patternStart;
+      if (patternMatchVariance(counters, pattern, MAX_INDIVIDUAL_VARIANCE) < MAX_AVG_VARIANCE) {
+        return new int[]{patternStart, patternEnd};
       }
     }
     throw NotFoundException.getNotFoundInstance();
@@ -347,15 +391,24 @@ public abstract class UPCEANReader extends OneDReader {
    * @param row row of black/white values to decode
    * @param counters the counts of runs of observed black/white/black/... values
    * @param rowOffset horizontal offset to start decoding from
-   * @param patterns the set of patterns to use to decode -- sometimes different encodings
+   * @param table table of the set of patterns to use to decode -- sometimes different encodings
    * for the digits 0-9 are used, and this indicates the encodings for 0 to 9 that should
    * be used
    * @return horizontal offset of first pixel beyond the decoded digit
    * @throws NotFoundException if digit cannot be decoded
    */
-  static int decodeDigit(BitArray row, int[] counters, int rowOffset, int[][] patterns)
+  static int decodeDigit(RunLengthRow row, int[] counters, int rowOffset, EdgeDistanceTable table)
       throws NotFoundException {
     recordPattern(row, rowOffset, counters);
+    int[][] patterns = table.getPatterns();
+    // Usually the digit can be looked up directly; it's only taken when it matches so well that
+    // no other pattern can match better, so that the full search would pick it too
+    int fastMatch = table.lookup(counters);
+    if (fastMatch >= 0 &&
+        patternMatchVariance(counters, patterns[fastMatch], MAX_INDIVIDUAL_VARIANCE) <
+        Math.min(table.getUniqueMatchVariance(), MAX_AVG_VARIANCE)) {
+      return fastMatch;
+    }
     float bestVariance = MAX_AVG_VARIANCE; // worst variance we'll accept
     int bestMatch = -1;
     int max = patterns.length;
@@ -394,7 +447,7 @@ public abstract class UPCEANReader extends OneDReader {
    * @throws NotFoundException if decoding could not complete successfully
    */
   protected abstract int decodeMiddle(int rowNumber,
-                                      BitArray row,
+                                      RunLengthRow row,
                                       int[] startRange,
                                       StringBuilder resultString,
                                       ResultPointCallback resultPointCallback) throws NotFoundException;
@@ -20,7 +20,6 @@ import com.google.zxing.BarcodeFormat;
 import com.google.zxing.FormatException;
 import com.google.zxing.NotFoundException;
 import com.google.zxing.ResultPointCallback;
-import com.google.zxing.common.BitArray;
 
 /**
  * <p>Implements decoding of the UPC-E format.</p>
@@ -78,9 +77,14 @@ public final class UPCEReader extends UPCEANReader {
     decodeMiddleCounters = new int[4];
   }
 
+  @Override
+  protected UPCEANReader createReader() {
+    return new UPCEReader();
+  }
+
   @Override
   protected int decodeMiddle(int rowNumber,
-                             BitArray row,
+                             RunLengthRow row,
                              int[] startRange,
                              StringBuilder resultString,
                              ResultPointCallback resultPointCallback)
@@ -96,7 +100,7 @@ public final class UPCEReader extends UPCEANReader {
     int lgPatternFound = 0;
 
     for (int x = 0; x < 6 && rowOffset < end; x++) {
-      int bestMatch = decodeDigit(row, counters, rowOffset, L_AND_G_PATTERNS);
+      int bestMatch = decodeDigit(row, counters, rowOffset, L_AND_G_TABLE);
       char c = (char) ('0' + bestMatch % 10);
       //if (resultPointCallback != null) {
       //  ResultPoint point = new ResultPoint(rowOffset, rowNumber);
@@ -117,7 +121,7 @@ public final class UPCEReader extends UPCEANReader {
   }
 
   @Override
-  protected int[] decodeEnd(BitArray row, int endStart) throws NotFoundException {
+  protected int[] decodeEnd(RunLengthRow row, int endStart) throws NotFoundException {
     return findGuardPattern(row, endStart, true, MIDDLE_END_PATTERN);
   }
 
@@ -22,8 +22,8 @@ import com.google.zxing.NotFoundException;
 import com.google.zxing.Result;
 import com.google.zxing.ResultPoint;
 import com.google.zxing.ResultPointCallback;
-import com.google.zxing.common.BitArray;
 import com.google.zxing.common.detector.MathUtils;
+import com.google.zxing.oned.RunLengthRow;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -64,14 +64,12 @@ public final class RSS14Reader extends AbstractRSSReader {
 
   @Override
   public Result decodeRow(int rowNumber,
-                          BitArray row,
+                          RunLengthRow row,
                           Map<DecodeHintType,?> hints) throws NotFoundException {
     Pair leftPair = decodePair(row, false, rowNumber, hints);
     addOrTally(possibleLeftPairs, leftPair);
-    row.reverse();
-    Pair rightPair = decodePair(row, true, rowNumber, hints);
+    Pair rightPair = decodePair(row.reverse(), true, rowNumber, hints);
     addOrTally(possibleRightPairs, rightPair);
-    row.reverse();
     for (Pair left : possibleLeftPairs) {
       if (left.getCount() > 1) {
         for (Pair right : possibleRightPairs) {
@@ -157,9 +155,9 @@ public final class RSS14Reader extends AbstractRSSReader {
     return checkValue == targetCheckValue;
   }
 
-  private Pair decodePair(BitArray row, boolean right, int rowNumber, Map<DecodeHintType,?> hints) {
+  private Pair decodePair(RunLengthRow row, boolean right, int rowNumber, Map<DecodeHintType,?> hints) {
     try {
-      int[] startEnd = findFinderPattern(row, 0, right);
+      int[] startEnd = findFinderPattern(row, right);
       FinderPattern pattern = parseFoundFinderPattern(row, rowNumber, right, startEnd);
 
       ResultPointCallback resultPointCallback = hints == null ? null :
@@ -184,7 +182,7 @@ public final class RSS14Reader extends AbstractRSSReader {
     }
   }
 
-  private DataCharacter decodeDataCharacter(BitArray row, FinderPattern pattern, boolean outsideChar)
+  private DataCharacter decodeDataCharacter(RunLengthRow row, FinderPattern pattern, boolean outsideChar)
       throws NotFoundException {
 
     int[] counters = getDataCharacterCounters();
@@ -281,63 +279,34 @@ public final class RSS14Reader extends AbstractRSSReader {
 
   }
 
-  private int[] findFinderPattern(BitArray row, int rowOffset, boolean rightFinderPattern)
+  private int[] findFinderPattern(RunLengthRow row, boolean rightFinderPattern)
       throws NotFoundException {
 
     int[] counters = getDecodeFinderCounters();
-    counters[0] = 0;
-    counters[1] = 0;
-    counters[2] = 0;
-    counters[3] = 0;
-
     int width = row.getSize();
-    boolean isWhite = false;
-    while (rowOffset < width) {
-      isWhite = !row.get(rowOffset);
-      if (rightFinderPattern == isWhite) {
-        // Will encounter white first when searching for right finder pattern
+    // Will encounter white first when searching for right finder pattern
+    int firstRun = rightFinderPattern ? (row.getRunLength(0) > 0 ? 0 : 2) : 1;
+
+    for (int run = firstRun; run + counters.length < row.getNumRuns(); run += 2) {
+      int patternEnd = row.getRunEnd(run + counters.length - 1);
+      if (patternEnd == width) {
         break;
       }
-      rowOffset++;
-    }
-
-    int counterPosition = 0;
-    int patternStart = rowOffset;
-    for (int x = rowOffset; x < width; x++) {
-      if (row.get(x) ^ isWhite) {
-        counters[counterPosition]++;
-      } else {
-        if (counterPosition == 3) {
-          if (isFinderPattern(counters)) {
-            return new int[]{patternStart, x};
-          }
-          patternStart += counters[0] + counters[1];
-          counters[0] = counters[2];
-          counters[1] = counters[3];
-          counters[2] = 0;
-          counters[3] = 0;
-          counterPosition--;
-        } else {
-          counterPosition++;
-        }
-        counters[counterPosition] = 1;
-        isWhite = !isWhite;
+      recordRuns(row, run, counters);
+      if (isFinderPattern(counters)) {
+        return new int[]{row.getRunStart(run), patternEnd};
       }
     }
     throw NotFoundException.getNotFoundInstance();
 
   }
 
-  private FinderPattern parseFoundFinderPattern(BitArray row, int rowNumber, boolean right, int[] startEnd)
+  private FinderPattern parseFoundFinderPattern(RunLengthRow row, int rowNumber, boolean right, int[] startEnd)
       throws NotFoundException {
     // Actually we found elements 2-5
-    boolean firstIsBlack = row.get(startEnd[0]);
-    int firstElementStart = startEnd[0] - 1;
+    int run = row.getRun(startEnd[0]);
     // Locate element 1
-    while (firstElementStart >= 0 && firstIsBlack ^ row.get(firstElementStart)) {
-      firstElementStart--;
-    }
-    firstElementStart++;
+    int firstElementStart = run == 0 ? 0 : row.getRunStart(run - 1);
     int firstCounter = startEnd[0] - firstElementStart;
     // Make 'counters' hold 1-4
     int[] counters = getDecodeFinderCounters();
@@ -34,6 +34,7 @@ import com.google.zxing.Result;
 import com.google.zxing.ResultPoint;
 import com.google.zxing.common.BitArray;
 import com.google.zxing.common.detector.MathUtils;
+import com.google.zxing.oned.RunLengthRow;
 import com.google.zxing.oned.rss.AbstractRSSReader;
 import com.google.zxing.oned.rss.DataCharacter;
 import com.google.zxing.oned.rss.FinderPattern;
@@ -41,10 +42,13 @@ import com.google.zxing.oned.rss.RSSUtils;
 import com.google.zxing.oned.rss.expanded.decoders.AbstractExpandedDecoder;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Collections;
+import java.util.Set;
 
 /**
  * @author Pablo Orduña, University of Deusto (pablo.orduna@deusto.es)
@@ -113,6 +117,15 @@ public final class RSSExpandedReader extends AbstractRSSReader {
 
   private static final int MAX_PAIRS = 11;
 
+  private static final int SEQUENCE_KEY_BASE = 7;
+  // Every valid sequence of finder patterns, complete or a prefix, as from getSequenceKey()
+  private static final Set<Integer> FINDER_PATTERN_SEQUENCE_PREFIXES = buildSequencePrefixes();
+
+  private static final int MAX_ROWS = 25;
+  // Most rows that are tried, one after another, in looking for a whole symbol among the stored rows
+  // Not private for testing
+  static final int MAX_ROW_CHECKS = 2048;
+
   private final List<ExpandedPair> pairs = new ArrayList<>(MAX_PAIRS);
   private final List<ExpandedRow> rows = new ArrayList<>();
   private final int [] startEnd = new int[2];
@@ -120,7 +133,7 @@ public final class RSSExpandedReader extends AbstractRSSReader {
 
   @Override
   public Result decodeRow(int rowNumber,
-                          BitArray row,
+                          RunLengthRow row,
                           Map<DecodeHintType,?> hints) throws NotFoundException, FormatException {
     // Rows can start with even pattern in case in prev rows there where odd number of patters.
     // So lets try twice
@@ -144,7 +157,7 @@ public final class RSSExpandedReader extends AbstractRSSReader {
   }
 
   // Not private for testing
-  List<ExpandedPair> decodeRow2pairs(int rowNumber, BitArray row) throws NotFoundException {
+  List<ExpandedPair> decodeRow2pairs(int rowNumber, RunLengthRow row) throws NotFoundException {
     try {
       while (true) {
         ExpandedPair nextPair = retrieveNextPair(row, this.pairs, rowNumber);
@@ -180,11 +193,11 @@ public final class RSSExpandedReader extends AbstractRSSReader {
     throw NotFoundException.getNotFoundInstance();
   }
 
-  private List<ExpandedPair> checkRows(boolean reverse) {
+  // Not private for testing
+  List<ExpandedPair> checkRows(boolean reverse) {
     // Limit number of rows we are checking
-    // We use recursive algorithm with pure complexity and don't want it to take forever
     // Stacked barcode can have up to 11 rows, so 25 seems reasonable enough
-    if (this.rows.size() > 25) {
+    if (this.rows.size() > MAX_ROWS) {
       this.rows.clear();  // We will never have a chance to get result, so clear it
       return null;
     }
@@ -194,75 +207,41 @@ public final class RSSExpandedReader extends AbstractRSSReader {
       Collections.reverse(this.rows);
     }
 
-    List<ExpandedPair> ps = null;
-    try {
-      ps = checkRows(new ArrayList<ExpandedRow>(), 0);
-    } catch (NotFoundException e) {
-      // OK
-    }
+    List<ExpandedRow> sequence = new RowSequenceSearch(this.rows).search();
 
     if (reverse) {
       Collections.reverse(this.rows);
     }
 
-    return ps;
-  }
-
-  // Try to construct a valid rows sequence
-  // Recursion is used to implement backtracking
-  private List<ExpandedPair> checkRows(List<ExpandedRow> collectedRows, int currentRow) throws NotFoundException {
-    for (int i = currentRow; i < rows.size(); i++) {
-      ExpandedRow row = rows.get(i);
-      this.pairs.clear();
-      for (ExpandedRow collectedRow : collectedRows) {
-        this.pairs.addAll(collectedRow.getPairs());
-      }
+    if (sequence == null) {
+      return null;
+    }
+    for (ExpandedRow row : sequence) {
       this.pairs.addAll(row.getPairs());
-
-      if (!isValidSequence(this.pairs)) {
-        continue;
-      }
-
-      if (checkChecksum()) {
-        return this.pairs;
-      }
-
-      List<ExpandedRow> rs = new ArrayList<>();
-      rs.addAll(collectedRows);
-      rs.add(row);
-      try {
-        // Recursion: try to add more rows
-        return checkRows(rs, i + 1);
-      } catch (NotFoundException e) {
-        // We failed, try the next candidate
-      }
     }
+    return this.pairs;
+  }
 
-    throw NotFoundException.getNotFoundInstance();
+  // Sequence of finder patterns as one number, its values as the digits, from 1, in base 7,
+  // so that sequences of any length are distinct and one can be followed by another arithmetically
+  private static int getSequenceKey(List<ExpandedPair> pairs) {
+    int key = 0;
+    for (ExpandedPair pair : pairs) {
+      key = key * SEQUENCE_KEY_BASE + pair.getFinderPattern().getValue() + 1;
+    }
+    return key;
   }
 
-  // Whether the pairs form a valid find pattern seqience,
-  // either complete or a prefix
-  private static boolean isValidSequence(List<ExpandedPair> pairs) {
+  private static Set<Integer> buildSequencePrefixes() {
+    Set<Integer> prefixes = new HashSet<>();
     for (int[] sequence : FINDER_PATTERN_SEQUENCES) {
-      if (pairs.size() > sequence.length) {
-        continue;
-      }
-
-      boolean stop = true;
-      for (int j = 0; j < pairs.size(); j++) {
-        if (pairs.get(j).getFinderPattern().getValue() != sequence[j]) {
-          stop = false;
-          break;
-        }
-      }
-
-      if (stop) {
-        return true;
+      int key = 0;
+      for (int value : sequence) {
+        key = key * SEQUENCE_KEY_BASE + value + 1;
+        prefixes.add(key);
       }
     }
-
-    return false;
+    return prefixes;
   }
 
   private void storeRow(int rowNumber, boolean wasReversed) {
@@ -403,7 +382,7 @@ public final class RSSExpandedReader extends AbstractRSSReader {
     return checkCharacterValue == checkCharacter.getValue();
   }
 
-  private static int getNextSecondBar(BitArray row, int initialPos) {
+  private static int getNextSecondBar(RunLengthRow row, int initialPos) {
     int currentPos;
     if (row.get(initialPos)) {
       currentPos = row.getNextUnset(initialPos);
@@ -416,7 +395,7 @@ public final class RSSExpandedReader extends AbstractRSSReader {
   }
 
   // not private for testing
-  ExpandedPair retrieveNextPair(BitArray row, List<ExpandedPair> previousPairs, int rowNumber)
+  ExpandedPair retrieveNextPair(RunLengthRow row, List<ExpandedPair> previousPairs, int rowNumber)
       throws NotFoundException {
     boolean isOddPattern  = previousPairs.size() % 2 == 0;
     if (startFromEven) {
@@ -455,14 +434,9 @@ public final class RSSExpandedReader extends AbstractRSSReader {
     return new ExpandedPair(leftChar, rightChar, pattern, true);
   }
 
-  private void findNextPair(BitArray row, List<ExpandedPair> previousPairs, int forcedOffset)
+  private void findNextPair(RunLengthRow row, List<ExpandedPair> previousPairs, int forcedOffset)
       throws NotFoundException {
     int[] counters = this.getDecodeFinderCounters();
-    counters[0] = 0;
-    counters[1] = 0;
-    counters[2] = 0;
-    counters[3] = 0;
-
     int width = row.getSize();
 
     int rowOffset;
@@ -479,47 +453,27 @@ public final class RSSExpandedReader extends AbstractRSSReader {
       searchingEvenPair = !searchingEvenPair;
     }
 
-    boolean isWhite = false;
-    while (rowOffset < width) {
-      isWhite = !row.get(rowOffset);
-      if (!isWhite) {
+    rowOffset = row.getNextSet(rowOffset);
+    if (rowOffset == width) {
+      throw NotFoundException.getNotFoundInstance();
+    }
+    for (int run = row.getRun(rowOffset); run + counters.length < row.getNumRuns(); run += 2) {
+      int patternEnd = row.getRunEnd(run + counters.length - 1);
+      if (patternEnd == width) {
         break;
       }
-      rowOffset++;
-    }
-
-    int counterPosition = 0;
-    int patternStart = rowOffset;
-    for (int x = rowOffset; x < width; x++) {
-      if (row.get(x) ^ isWhite) {
-        counters[counterPosition]++;
-      } else {
-        if (counterPosition == 3) {
-          if (searchingEvenPair) {
-            reverseCounters(counters);
-          }
-
-          if (isFinderPattern(counters)) {
-            this.startEnd[0] = patternStart;
-            this.startEnd[1] = x;
-            return;
-          }
-
-          if (searchingEvenPair) {
-            reverseCounters(counters);
-          }
+      // The first pattern may start part way through a run
+      int patternStart = Math.max(row.getRunStart(run), rowOffset);
+      recordRuns(row, run, counters);
+      counters[0] = row.getRunEnd(run) - patternStart;
+      if (searchingEvenPair) {
+        reverseCounters(counters);
+      }
 
-          patternStart += counters[0] + counters[1];
-          counters[0] = counters[2];
-          counters[1] = counters[3];
-          counters[2] = 0;
-          counters[3] = 0;
-          counterPosition--;
-        } else {
-          counterPosition++;
-        }
-        counters[counterPosition] = 1;
-        isWhite = !isWhite;
+      if (isFinderPattern(counters)) {
+        this.startEnd[0] = patternStart;
+        this.startEnd[1] = patternEnd;
+        return;
       }
     }
     throw NotFoundException.getNotFoundInstance();
@@ -534,7 +488,7 @@ public final class RSSExpandedReader extends AbstractRSSReader {
     }
   }
 
-  private FinderPattern parseFoundFinderPattern(BitArray row, int rowNumber, boolean oddPattern) {
+  private FinderPattern parseFoundFinderPattern(RunLengthRow row, int rowNumber, boolean oddPattern) {
     // Actually we found elements 2-5.
     int firstCounter;
     int start;
@@ -543,13 +497,15 @@ public final class RSSExpandedReader extends AbstractRSSReader {
     if (oddPattern) {
       // If pattern number is odd, we need to locate element 1 *before* the current block.
 
-      int firstElementStart = this.startEnd[0] - 1;
+      int firstElementStart = this.startEnd[0];
       // Locate element 1
-      while (firstElementStart >= 0 && !row.get(firstElementStart)) {
-        firstElementStart--;
+      if (firstElementStart > 0) {
+        int run = row.getRun(firstElementStart - 1);
+        if (!RunLengthRow.isBlack(run)) {
+          firstElementStart = row.getRunStart(run);
+        }
       }
 
-      firstElementStart++;
       firstCounter = this.startEnd[0] - firstElementStart;
       start = firstElementStart;
       end = this.startEnd[1];
@@ -577,7 +533,7 @@ public final class RSSExpandedReader extends AbstractRSSReader {
     return new FinderPattern(value, new int[] {start, end}, start, end, rowNumber);
   }
 
-  DataCharacter decodeDataCharacter(BitArray row,
+  DataCharacter decodeDataCharacter(RunLengthRow row,
                                     FinderPattern pattern,
                                     boolean isOddPattern,
                                     boolean leftChar) throws NotFoundException {
@@ -776,4 +732,136 @@ public final class RSSExpandedReader extends AbstractRSSReader {
       decrement(this.getEvenCounts(), this.getEvenRoundingErrors());
     }
   }
+
+  /**
+   * Looks among stored rows, in order, for ones that make up a whole symbol one after another: their
+   * finder patterns have to run in one of the valid sequences, and their characters have to add up
+   * to the check character. Each row is looked at by the sequence of its finder patterns and what
+   * it adds to the checksum, so a row that can't follow the ones before it is passed over at once,
+   * and a point reached before with the same sequence and checksum, that led nowhere, isn't searched
+   * again. After trying a fixed number of rows it gives up, so that the search doesn't take
+   * exponentially longer as rows are stored.
+   */
+  // Not private for testing
+  static final class RowSequenceSearch {
+
+    private final List<ExpandedRow> rows;
+    private final int[] sequenceKeys;
+    private final int[] sequenceLengths;
+    private final int[] checksums;
+    private final int[] sizes;
+    private final List<ExpandedRow> collectedRows;
+    // Points, as from getDeadEnd(), from which no sequence of rows was found
+    private final Collection<Long> deadEnds;
+    private int rowChecks;
+
+    RowSequenceSearch(List<ExpandedRow> rows) {
+      this.rows = rows;
+      int numRows = rows.size();
+      sequenceKeys = new int[numRows];
+      sequenceLengths = new int[numRows];
+      checksums = new int[numRows];
+      sizes = new int[numRows];
+      for (int i = 0; i < numRows; i++) {
+        List<ExpandedPair> rowPairs = rows.get(i).getPairs();
+        sequenceLengths[i] = rowPairs.size();
+        if (rowPairs.size() <= MAX_PAIRS) {
+          sequenceKeys[i] = getSequenceKey(rowPairs);
+        }
+        for (ExpandedPair pair : rowPairs) {
+          checksums[i] += pair.getLeftChar().getChecksumPortion();
+          sizes[i]++;
+          DataCharacter rightChar = pair.getRightChar();
+          if (rightChar != null) {
+            checksums[i] += rightChar.getChecksumPortion();
+            sizes[i]++;
+          }
+        }
+      }
+      collectedRows = new ArrayList<>();
+      deadEnds = new HashSet<>();
+    }
+
+    /**
+     * @return rows making up a symbol, in order, or {@code null} if none were found
+     */
+    List<ExpandedRow> search() {
+      return search(0, 0, 0, 0, 0, 0) ? collectedRows : null;
+    }
+
+    /**
+     * @return rows tried so far, at most {@link #MAX_ROW_CHECKS}
+     */
+    int getRowChecks() {
+      return rowChecks;
+    }
+
+    // Try to extend the collected rows to a valid sequence with rows from currentRow on,
+    // backtracking where that fails
+    private boolean search(int sequenceKey,
+                           int sequenceLength,
+                           int checkCharacterValue,
+                           int checksum,
+                           int size,
+                           int currentRow) {
+      for (int i = currentRow; i < rows.size(); i++) {
+        int nextSequenceLength = sequenceLength + sequenceLengths[i];
+        if (nextSequenceLength > MAX_PAIRS) {
+          continue;
+        }
+        int nextSequenceKey = sequenceKey;
+        for (int j = 0; j < sequenceLengths[i]; j++) {
+          nextSequenceKey *= SEQUENCE_KEY_BASE;
+        }
+        nextSequenceKey += sequenceKeys[i];
+        if (!FINDER_PATTERN_SEQUENCE_PREFIXES.contains(nextSequenceKey)) {
+          continue;
+        }
+        if (rowChecks == MAX_ROW_CHECKS) {
+          return false;
+        }
+        rowChecks++;
+
+        int nextCheckCharacterValue = checkCharacterValue;
+        int nextChecksum = checksum + checksums[i];
+        if (collectedRows.isEmpty()) {
+          // The left character of the first pair is the check character itself
+          ExpandedPair firstPair = rows.get(i).getPairs().get(0);
+          if (firstPair.getRightChar() == null) {
+            continue;
+          }
+          nextCheckCharacterValue = firstPair.getLeftChar().getValue();
+          nextChecksum -= firstPair.getLeftChar().getChecksumPortion();
+        }
+        nextChecksum %= 211;
+        int nextSize = size + sizes[i];
+
+        collectedRows.add(rows.get(i));
+        if (211 * (nextSize - 4) + nextChecksum == nextCheckCharacterValue) {
+          return true;
+        }
+        long deadEnd = getDeadEnd(nextSequenceKey, nextCheckCharacterValue, nextChecksum, nextSize, i + 1);
+        if (!deadEnds.contains(deadEnd)) {
+          // Recursion: try to add more rows
+          if (search(nextSequenceKey, nextSequenceLength, nextCheckCharacterValue, nextChecksum, nextSize, i + 1)) {
+            return true;
+          }
+          deadEnds.add(deadEnd);
+        }
+        collectedRows.remove(collectedRows.size() - 1);
+      }
+      return false;
+    }
+
+    // All that decides whether rows from currentRow on complete a sequence, as one number
+    private static long getDeadEnd(int sequenceKey, int checkCharacterValue, int checksum, int size, int currentRow) {
+      long deadEnd = sequenceKey;
+      deadEnd = (deadEnd << 14) | checkCharacterValue;
+      deadEnd = (deadEnd << 8) | checksum;
+      deadEnd = (deadEnd << 5) | size;
+      return (deadEnd << 5) | currentRow;
+    }
+
+  }
+
 }
@@ -23,9 +23,11 @@ import com.google.zxing.DecodeHintType;
 import com.google.zxing.FormatException;
 import com.google.zxing.NotFoundException;
 import com.google.zxing.Reader;
+import com.google.zxing.ReaderException;
 import com.google.zxing.Result;
 import com.google.zxing.ResultMetadataType;
 import com.google.zxing.ResultPoint;
+import com.google.zxing.common.DecodeTimer;
 import com.google.zxing.common.DecoderResult;
 import com.google.zxing.multi.MultipleBarcodeReader;
 import com.google.zxing.pdf417.decoder.PDF417ScanningDecoder;
@@ -81,19 +83,31 @@ public final class PDF417Reader implements Reader, MultipleBarcodeReader {
 
   private static Result[] decode(BinaryBitmap image, Map<DecodeHintType, ?> hints, boolean multiple) 
       throws NotFoundException, FormatException, ChecksumException {
+    DecodeTimer timer = DecodeTimer.forFormat(hints, BarcodeFormat.PDF_417);
+    hints = timer.addTo(hints);
     List<Result> results = new ArrayList<>();
-    PDF417DetectorResult detectorResult = Detector.detect(image, hints, multiple);
-    for (ResultPoint[] points : detectorResult.getPoints()) {
-      DecoderResult decoderResult = PDF417ScanningDecoder.decode(detectorResult.getBits(), points[4], points[5],
-          points[6], points[7], getMinCodewordWidth(points), getMaxCodewordWidth(points));
-      Result result = new Result(decoderResult.getText(), decoderResult.getRawBytes(), points, BarcodeFormat.PDF_417);
-      result.putMetadata(ResultMetadataType.ERROR_CORRECTION_LEVEL, decoderResult.getECLevel());
-      PDF417ResultMetadata pdf417ResultMetadata = (PDF417ResultMetadata) decoderResult.getOther();
-      if (pdf417ResultMetadata != null) {
-        result.putMetadata(ResultMetadataType.PDF417_EXTRA_METADATA, pdf417ResultMetadata);
+    try {
+      PDF417DetectorResult detectorResult = Detector.detect(image, hints, multiple);
+      if (detectorResult.getPoints().isEmpty()) {
+        timer.failed(NotFoundException.getNotFoundInstance());
+      }
+      for (ResultPoint[] points : detectorResult.getPoints()) {
+        DecoderResult decoderResult = PDF417ScanningDecoder.decode(detectorResult.getBits(), points[4], points[5],
+            points[6], points[7], getMinCodewordWidth(points), getMaxCodewordWidth(points), hints);
+        Result result =
+            new Result(decoderResult.getText(), decoderResult.getRawBytes(), points, BarcodeFormat.PDF_417);
+        result.putMetadata(ResultMetadataType.ERROR_CORRECTION_LEVEL, decoderResult.getECLevel());
+        PDF417ResultMetadata pdf417ResultMetadata = (PDF417ResultMetadata) decoderResult.getOther();
+        if (pdf417ResultMetadata != null) {
+          result.putMetadata(ResultMetadataType.PDF417_EXTRA_METADATA, pdf417ResultMetadata);
+        }
+        results.add(result);
       }
-      results.add(result);
+    } catch (ReaderException re) {
+      timer.failed(re);
+      throw re;
     }
+    timer.succeeded();
     return results.toArray(new Result[results.size()]);
   }
 
@@ -16,11 +16,16 @@
 
 package com.google.zxing.pdf417.decoder;
 
+import com.google.zxing.BarcodeFormat;
 import com.google.zxing.ChecksumException;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.DecodePhase;
 import com.google.zxing.FormatException;
 import com.google.zxing.NotFoundException;
 import com.google.zxing.ResultPoint;
 import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.Cancellation;
+import com.google.zxing.common.DecodeTimer;
 import com.google.zxing.common.DecoderResult;
 import com.google.zxing.common.detector.MathUtils;
 import com.google.zxing.pdf417.PDF417Common;
@@ -30,6 +35,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Formatter;
 import java.util.List;
+import java.util.Map;
 
 /**
  * @author Guenther Grau
@@ -56,6 +62,52 @@ public final class PDF417ScanningDecoder {
                                      ResultPoint imageBottomRight,
                                      int minCodewordWidth,
                                      int maxCodewordWidth) throws NotFoundException, FormatException, ChecksumException {
+    return decode(image, imageTopLeft, imageBottomLeft, imageTopRight, imageBottomRight, minCodewordWidth,
+        maxCodewordWidth, null);
+  }
+
+  /**
+   * As {@link #decode(BitMatrix, ResultPoint, ResultPoint, ResultPoint, ResultPoint, int, int)}, but reports
+   * sampling, error correction and bitstream parsing to the {@link DecodeTimer} in the hints.
+   *
+   * @param image bit matrix the barcode was detected in
+   * @param imageTopLeft top left corner of the barcode, or {@code null}
+   * @param imageBottomLeft bottom left corner of the barcode, or {@code null}
+   * @param imageTopRight top right corner of the barcode, or {@code null}
+   * @param imageBottomRight bottom right corner of the barcode, or {@code null}
+   * @param minCodewordWidth minimum expected width of a codeword, in pixels
+   * @param maxCodewordWidth maximum expected width of a codeword, in pixels
+   * @param hints decode hints, or {@code null}
+   * @return text and bytes encoded within the barcode
+   * @throws NotFoundException if codewords can't be read from the barcode
+   * @throws FormatException if the barcode can't be decoded
+   * @throws ChecksumException if error correction fails
+   */
+  public static DecoderResult decode(BitMatrix image,
+                                     ResultPoint imageTopLeft,
+                                     ResultPoint imageBottomLeft,
+                                     ResultPoint imageTopRight,
+                                     ResultPoint imageBottomRight,
+                                     int minCodewordWidth,
+                                     int maxCodewordWidth,
+                                     Map<DecodeHintType,?> hints)
+      throws NotFoundException, FormatException, ChecksumException {
+    Cancellation.check(hints);
+    DecodeTimer timer = DecodeTimer.get(hints);
+    timer.begin(DecodePhase.SAMPLING);
+    DetectionResult detectionResult = readCodewords(image, imageTopLeft, imageBottomLeft, imageTopRight,
+        imageBottomRight, minCodewordWidth, maxCodewordWidth);
+    Cancellation.check(hints);
+    return createDecoderResult(detectionResult, timer);
+  }
+
+  private static DetectionResult readCodewords(BitMatrix image,
+                                               ResultPoint imageTopLeft,
+                                               ResultPoint imageBottomLeft,
+                                               ResultPoint imageTopRight,
+                                               ResultPoint imageBottomRight,
+                                               int minCodewordWidth,
+                                               int maxCodewordWidth) throws NotFoundException {
     BoundingBox boundingBox = new BoundingBox(image, imageTopLeft, imageBottomLeft, imageTopRight, imageBottomRight);
     DetectionResultRowIndicatorColumn leftRowIndicatorColumn = null;
     DetectionResultRowIndicatorColumn rightRowIndicatorColumn = null;
@@ -121,7 +173,7 @@ public final class PDF417ScanningDecoder {
         }
       }
     }
-    return createDecoderResult(detectionResult);
+    return detectionResult;
   }
 
   private static DetectionResult merge(DetectionResultRowIndicatorColumn leftRowIndicatorColumn,
@@ -248,8 +300,8 @@ public final class PDF417ScanningDecoder {
     }
   }
 
-  private static DecoderResult createDecoderResult(DetectionResult detectionResult) throws FormatException,
-      ChecksumException, NotFoundException {
+  private static DecoderResult createDecoderResult(DetectionResult detectionResult, DecodeTimer timer)
+      throws FormatException, ChecksumException, NotFoundException {
     BarcodeValue[][] barcodeMatrix = createBarcodeMatrix(detectionResult);
     adjustCodewordCount(detectionResult, barcodeMatrix);
     Collection<Integer> erasures = new ArrayList<>();
@@ -275,7 +327,8 @@ public final class PDF417ScanningDecoder {
       ambiguousIndexValues[i] = ambiguousIndexValuesList.get(i);
     }
     return createDecoderResultFromAmbiguousValues(detectionResult.getBarcodeECLevel(), codewords,
-        PDF417Common.toIntArray(erasures), PDF417Common.toIntArray(ambiguousIndexesList), ambiguousIndexValues);
+        PDF417Common.toIntArray(erasures), PDF417Common.toIntArray(ambiguousIndexesList), ambiguousIndexValues,
+        timer);
   }
 
   /**
@@ -295,7 +348,8 @@ public final class PDF417ScanningDecoder {
                                                                       int[] codewords,
                                                                       int[] erasureArray,
                                                                       int[] ambiguousIndexes,
-                                                                      int[][] ambiguousIndexValues)
+                                                                      int[][] ambiguousIndexValues,
+                                                                      DecodeTimer timer)
       throws FormatException, ChecksumException {
     int[] ambiguousIndexCount = new int[ambiguousIndexes.length];
 
@@ -305,9 +359,9 @@ public final class PDF417ScanningDecoder {
         codewords[ambiguousIndexes[i]] = ambiguousIndexValues[i][ambiguousIndexCount[i]];
       }
       try {
-        return decodeCodewords(codewords, ecLevel, erasureArray);
-      } catch (ChecksumException ignored) {
-        //
+        return decodeCodewords(codewords, ecLevel, erasureArray, timer);
+      } catch (ChecksumException ce) {
+        timer.failed(ce);
       }
       if (ambiguousIndexCount.length == 0) {
         throw ChecksumException.getChecksumInstance();
@@ -519,17 +573,22 @@ public final class PDF417ScanningDecoder {
         codewordSize <= maxCodewordWidth + CODEWORD_SKEW_SIZE;
   }
 
-  private static DecoderResult decodeCodewords(int[] codewords, int ecLevel, int[] erasures) throws FormatException,
-      ChecksumException {
+  private static DecoderResult decodeCodewords(int[] codewords,
+                                               int ecLevel,
+                                               int[] erasures,
+                                               DecodeTimer timer) throws FormatException, ChecksumException {
     if (codewords.length == 0) {
       throw FormatException.getFormatInstance();
     }
 
     int numECCodewords = 1 << (ecLevel + 1);
+    timer.begin(DecodePhase.ERROR_CORRECTION);
     int correctedErrorsCount = correctErrors(codewords, erasures, numECCodewords);
-    verifyCodewordCount(codewords, numECCodewords);
+    timer.errorsCorrected(BarcodeFormat.PDF_417, correctedErrorsCount);
 
     // Decode the codewords
+    timer.begin(DecodePhase.BITSTREAM_PARSING);
+    verifyCodewordCount(codewords, numECCodewords);
     DecoderResult decoderResult = DecodedBitStreamParser.decode(codewords, String.valueOf(ecLevel));
     decoderResult.setErrorsCorrected(correctedErrorsCount);
     decoderResult.setErasures(erasures.length);
@@ -18,9 +18,12 @@ package com.google.zxing.pdf417.detector;
 
 import com.google.zxing.BinaryBitmap;
 import com.google.zxing.DecodeHintType;
+import com.google.zxing.DecodePhase;
 import com.google.zxing.NotFoundException;
 import com.google.zxing.ResultPoint;
 import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.Cancellation;
+import com.google.zxing.common.DecodeTimer;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -76,10 +79,12 @@ public final class Detector {
     // different binarizers
     //boolean tryHarder = hints != null && hints.containsKey(DecodeHintType.TRY_HARDER);
 
-    BitMatrix bitMatrix = image.getBlackMatrix();
+    BitMatrix bitMatrix = image.getBlackMatrix(DecodeTimer.getListener(hints));
 
+    DecodeTimer.get(hints).begin(DecodePhase.DETECTION);
     List<ResultPoint[]> barcodeCoordinates = detect(multiple, bitMatrix);
     if (barcodeCoordinates.isEmpty()) {
+      Cancellation.check(hints);
       bitMatrix = bitMatrix.clone();
       bitMatrix.rotate180();
       barcodeCoordinates = detect(multiple, bitMatrix);
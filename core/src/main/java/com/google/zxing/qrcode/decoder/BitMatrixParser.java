@@ -24,7 +24,7 @@ import com.google.zxing.common.BitMatrix;
  */
 final class BitMatrixParser {
 
-  private final BitMatrix bitMatrix;
+  private BitMatrix bitMatrix;
   private Version parsedVersion;
   private FormatInformation parsedFormatInfo;
   private boolean mirror;
@@ -161,6 +161,26 @@ final class BitMatrixParser {
     int dimension = bitMatrix.getHeight();
     dataMask.unmaskBitMatrix(bitMatrix, dimension);
 
+    return readCodewords(bitMatrix, version, false);
+  }
+
+  /**
+   * <p>Reads which codewords have modules in doubt, after {@link #readCodewords()} has read them.</p>
+   *
+   * @param uncertainBits modules, set, whose color is in doubt, not mirrored even if the code is
+   * @return for each codeword of {@link #readCodewords()}, the bits whose modules are in doubt
+   * @throws FormatException if the exact number of bytes expected is not read
+   */
+  byte[] readUncertainCodewords(BitMatrix uncertainBits) throws FormatException {
+    if (uncertainBits.getWidth() != bitMatrix.getWidth() || uncertainBits.getHeight() != bitMatrix.getHeight()) {
+      throw FormatException.getFormatInstance();
+    }
+    return readCodewords(uncertainBits, readVersion(), mirror);
+  }
+
+  private static byte[] readCodewords(BitMatrix matrix, Version version, boolean transpose)
+      throws FormatException {
+    int dimension = matrix.getHeight();
     BitMatrix functionPattern = version.buildFunctionPattern();
 
     boolean readingUp = true;
@@ -184,7 +204,7 @@ final class BitMatrixParser {
             // Read a bit
             bitsRead++;
             currentByte <<= 1;
-            if (bitMatrix.get(j - col, i)) {
+            if (transpose ? matrix.get(i, j - col) : matrix.get(j - col, i)) {
               currentByte |= 1;
             }
             // If we've made a whole byte, save it off
@@ -232,14 +252,7 @@ final class BitMatrixParser {
 
   /** Mirror the bit matrix in order to attempt a second reading. */
   void mirror() {
-    for (int x = 0; x < bitMatrix.getWidth(); x++) {
-      for (int y = x + 1; y < bitMatrix.getHeight(); y++) {
-        if (bitMatrix.get(x, y) != bitMatrix.get(y, x)) {
-          bitMatrix.flip(y, x);
-          bitMatrix.flip(x, y);          
-        }
-      }
-    }
+    bitMatrix = bitMatrix.transpose();
   }
 
 }
@@ -118,6 +118,11 @@ enum DataMask {
 
   // End of enum constants.
 
+  // Dimension of a version 40 code
+  private static final int MAX_DIMENSION = 177;
+
+  private volatile BitMatrix maskMatrix;
+
 
   /**
    * <p>Implementations of this method reverse the data masking process applied to a QR Code and
@@ -127,13 +132,38 @@ enum DataMask {
    * @param dimension dimension of QR Code, represented by bits, being unmasked
    */
   final void unmaskBitMatrix(BitMatrix bits, int dimension) {
-    for (int i = 0; i < dimension; i++) {
-      for (int j = 0; j < dimension; j++) {
-        if (isMasked(i, j)) {
-          bits.flip(j, i);
+    if (dimension > MAX_DIMENSION) {
+      for (int i = 0; i < dimension; i++) {
+        for (int j = 0; j < dimension; j++) {
+          if (isMasked(i, j)) {
+            bits.flip(j, i);
+          }
+        }
+      }
+      return;
+    }
+    bits.xorRegion(getMaskMatrix(), 0, 0, dimension, dimension, 0, 0);
+  }
+
+  /**
+   * @return the mask over the largest QR Code, built the first time it's needed, so that codes can be
+   *  unmasked a word at a time
+   */
+  private BitMatrix getMaskMatrix() {
+    BitMatrix maskMatrix = this.maskMatrix;
+    if (maskMatrix == null) {
+      // Built at most a few times if threads race here, which is harmless
+      maskMatrix = new BitMatrix(MAX_DIMENSION);
+      for (int i = 0; i < MAX_DIMENSION; i++) {
+        for (int j = 0; j < MAX_DIMENSION; j++) {
+          if (isMasked(i, j)) {
+            maskMatrix.set(j, i);
+          }
         }
       }
+      this.maskMatrix = maskMatrix;
     }
+    return maskMatrix;
   }
 
   abstract boolean isMasked(int i, int j);
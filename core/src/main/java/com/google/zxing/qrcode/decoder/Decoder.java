@@ -16,14 +16,18 @@
 
 package com.google.zxing.qrcode.decoder;
 
+import com.google.zxing.BarcodeFormat;
 import com.google.zxing.ChecksumException;
 import com.google.zxing.DecodeHintType;
+import com.google.zxing.DecodePhase;
 import com.google.zxing.FormatException;
 import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.DecodeTimer;
 import com.google.zxing.common.DecoderResult;
 import com.google.zxing.common.reedsolomon.GenericGF;
 import com.google.zxing.common.reedsolomon.ReedSolomonDecoder;
 import com.google.zxing.common.reedsolomon.ReedSolomonException;
+import com.google.zxing.common.reedsolomon.ReedSolomonWorkspace;
 
 import java.util.Map;
 
@@ -38,7 +42,7 @@ public final class Decoder {
   private final ReedSolomonDecoder rsDecoder;
 
   public Decoder() {
-    rsDecoder = new ReedSolomonDecoder(GenericGF.QR_CODE_FIELD_256);
+    rsDecoder = new ReedSolomonDecoder(GenericGF.QR_CODE_FIELD_256, new ReedSolomonWorkspace());
   }
 
   public DecoderResult decode(boolean[][] image) throws ChecksumException, FormatException {
@@ -84,18 +88,35 @@ public final class Decoder {
    */
   public DecoderResult decode(BitMatrix bits, Map<DecodeHintType,?> hints)
       throws FormatException, ChecksumException {
+    return decode(bits, null, hints);
+  }
+
+  /**
+   * <p>Decodes a QR Code represented as a {@link BitMatrix}. A 1 or "true" is taken to mean a black module.
+   * Codewords with any module in doubt are treated as erasures by error correction.</p>
+   *
+   * @param bits booleans representing white/black QR Code modules
+   * @param uncertainBits modules, set, whose color in {@code bits} is in doubt, or {@code null}
+   * @param hints decoding hints that should be used to influence decoding
+   * @return text and bytes encoded within the QR Code
+   * @throws FormatException if the QR Code cannot be decoded
+   * @throws ChecksumException if error correction fails
+   */
+  public DecoderResult decode(BitMatrix bits, BitMatrix uncertainBits, Map<DecodeHintType,?> hints)
+      throws FormatException, ChecksumException {
 
     // Construct a parser and read version, error-correction level
     BitMatrixParser parser = new BitMatrixParser(bits);
     FormatException fe = null;
     ChecksumException ce = null;
     try {
-      return decode(parser, hints);
+      return decode(parser, uncertainBits, hints);
     } catch (FormatException e) {
       fe = e;
     } catch (ChecksumException e) {
       ce = e;
     }
+    DecodeTimer.get(hints).failed(fe != null ? fe : ce);
 
     try {
 
@@ -120,7 +141,7 @@ public final class Decoder {
       // Prepare for a mirrored reading.
       parser.mirror();
 
-      DecoderResult result = decode(parser, hints);
+      DecoderResult result = decode(parser, uncertainBits, hints);
 
       // Success! Notify the caller that the code was mirrored.
       result.setOther(new QRCodeDecoderMetaData(true));
@@ -140,7 +161,7 @@ public final class Decoder {
     }
   }
 
-  private DecoderResult decode(BitMatrixParser parser, Map<DecodeHintType,?> hints)
+  private DecoderResult decode(BitMatrixParser parser, BitMatrix uncertainBits, Map<DecodeHintType,?> hints)
       throws FormatException, ChecksumException {
     Version version = parser.readVersion();
     ErrorCorrectionLevel ecLevel = parser.readFormatInformation().getErrorCorrectionLevel();
@@ -149,6 +170,9 @@ public final class Decoder {
     byte[] codewords = parser.readCodewords();
     // Separate into data blocks
     DataBlock[] dataBlocks = DataBlock.getDataBlocks(codewords, version, ecLevel);
+    // Separating which bits are in doubt the same way puts them in the same places
+    DataBlock[] uncertainBlocks = uncertainBits == null ? null :
+        DataBlock.getDataBlocks(parser.readUncertainCodewords(uncertainBits), version, ecLevel);
 
     // Count total number of data bytes
     int totalBytes = 0;
@@ -158,17 +182,24 @@ public final class Decoder {
     byte[] resultBytes = new byte[totalBytes];
     int resultOffset = 0;
 
+    DecodeTimer timer = DecodeTimer.get(hints);
+    timer.begin(DecodePhase.ERROR_CORRECTION);
+    int numErrors = 0;
     // Error-correct and copy data blocks together into a stream of bytes
-    for (DataBlock dataBlock : dataBlocks) {
+    for (int j = 0; j < dataBlocks.length; j++) {
+      DataBlock dataBlock = dataBlocks[j];
       byte[] codewordBytes = dataBlock.getCodewords();
       int numDataCodewords = dataBlock.getNumDataCodewords();
-      correctErrors(codewordBytes, numDataCodewords);
+      byte[] uncertainBytes = uncertainBlocks == null ? null : uncertainBlocks[j].getCodewords();
+      numErrors += correctErrors(codewordBytes, uncertainBytes, numDataCodewords);
       for (int i = 0; i < numDataCodewords; i++) {
         resultBytes[resultOffset++] = codewordBytes[i];
       }
     }
+    timer.errorsCorrected(BarcodeFormat.QR_CODE, numErrors);
 
     // Decode the contents of that stream of bytes
+    timer.begin(DecodePhase.BITSTREAM_PARSING);
     return DecodedBitStreamParser.decode(resultBytes, version, ecLevel, hints);
   }
 
@@ -177,18 +208,27 @@ public final class Decoder {
    * correct the errors in-place using Reed-Solomon error correction.</p>
    *
    * @param codewordBytes data and error correction codewords
+   * @param uncertainBytes bits of each codeword that are in doubt, making it an erasure, or {@code null}
    * @param numDataCodewords number of codewords that are data bytes
+   * @return number of codewords corrected
    * @throws ChecksumException if error correction fails
    */
-  private void correctErrors(byte[] codewordBytes, int numDataCodewords) throws ChecksumException {
+  private int correctErrors(byte[] codewordBytes, byte[] uncertainBytes, int numDataCodewords)
+      throws ChecksumException {
     int numCodewords = codewordBytes.length;
+    int numECCodewords = numCodewords - numDataCodewords;
     // First read into an array of ints
     int[] codewordsInts = new int[numCodewords];
+    boolean[] inDoubt = uncertainBytes == null ? null : new boolean[numCodewords];
     for (int i = 0; i < numCodewords; i++) {
       codewordsInts[i] = codewordBytes[i] & 0xFF;
+      if (inDoubt != null) {
+        inDoubt[i] = uncertainBytes[i] != 0;
+      }
     }
+    int numErrors;
     try {
-      rsDecoder.decode(codewordsInts, codewordBytes.length - numDataCodewords);
+      numErrors = rsDecoder.decodeWithECCountInDoubt(codewordsInts, numECCodewords, inDoubt);
     } catch (ReedSolomonException ignored) {
       throw ChecksumException.getChecksumInstance();
     }
@@ -197,6 +237,7 @@ public final class Decoder {
     for (int i = 0; i < numDataCodewords; i++) {
       codewordBytes[i] = (byte) codewordsInts[i];
     }
+    return numErrors;
   }
 
 }
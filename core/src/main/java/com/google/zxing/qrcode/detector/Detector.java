@@ -17,11 +17,14 @@
 package com.google.zxing.qrcode.detector;
 
 import com.google.zxing.DecodeHintType;
+import com.google.zxing.DecodePhase;
 import com.google.zxing.FormatException;
 import com.google.zxing.NotFoundException;
 import com.google.zxing.ResultPoint;
 import com.google.zxing.ResultPointCallback;
 import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.Cancellation;
+import com.google.zxing.common.DecodeTimer;
 import com.google.zxing.common.DetectorResult;
 import com.google.zxing.common.GridSampler;
 import com.google.zxing.common.PerspectiveTransform;
@@ -40,6 +43,8 @@ public class Detector {
 
   private final BitMatrix image;
   private ResultPointCallback resultPointCallback;
+  private DecodeTimer decodeTimer;
+  private GridSampler gridSampler;
 
   public Detector(BitMatrix image) {
     this.image = image;
@@ -53,6 +58,24 @@ public class Detector {
     return resultPointCallback;
   }
 
+  protected final DecodeTimer getDecodeTimer() {
+    return decodeTimer;
+  }
+
+  /**
+   * Takes the result point callback, decode timer and grid sampler to use from hints, as
+   * {@link #detect(Map)} does before finding finder patterns.
+   *
+   * @param hints optional hints to detector
+   */
+  protected final void readHints(Map<DecodeHintType,?> hints) {
+    resultPointCallback = hints == null ? null :
+        (ResultPointCallback) hints.get(DecodeHintType.NEED_RESULT_POINT_CALLBACK);
+
+    decodeTimer = DecodeTimer.get(hints);
+    gridSampler = GridSampler.getInstance(hints);
+  }
+
   /**
    * <p>Detects a QR Code in an image.</p>
    *
@@ -74,11 +97,12 @@ public class Detector {
    */
   public final DetectorResult detect(Map<DecodeHintType,?> hints) throws NotFoundException, FormatException {
 
-    resultPointCallback = hints == null ? null :
-        (ResultPointCallback) hints.get(DecodeHintType.NEED_RESULT_POINT_CALLBACK);
+    readHints(hints);
 
     FinderPatternFinder finder = new FinderPatternFinder(image, resultPointCallback);
+    decodeTimer.begin(DecodePhase.DETECTION);
     FinderPatternInfo info = finder.find(hints);
+    Cancellation.check(hints);
 
     return processFinderPatternInfo(info);
   }
@@ -130,7 +154,9 @@ public class Detector {
     PerspectiveTransform transform =
         createTransform(topLeft, topRight, bottomLeft, alignmentPattern, dimension);
 
-    BitMatrix bits = sampleGrid(image, transform, dimension);
+    decodeTimer.begin(DecodePhase.SAMPLING);
+    BitMatrix uncertainBits = getGridSampler().reportsUncertainModules() ? new BitMatrix(dimension) : null;
+    BitMatrix bits = sampleGrid(image, transform, dimension, uncertainBits);
 
     ResultPoint[] points;
     if (alignmentPattern == null) {
@@ -138,7 +164,10 @@ public class Detector {
     } else {
       points = new ResultPoint[]{bottomLeft, topLeft, topRight, alignmentPattern};
     }
-    return new DetectorResult(bits, points);
+    if (uncertainBits != null && uncertainBits.getTopLeftOnBit() == null) {
+      uncertainBits = null;
+    }
+    return new DetectorResult(bits, points, uncertainBits);
   }
 
   private static PerspectiveTransform createTransform(ResultPoint topLeft,
@@ -183,12 +212,16 @@ public class Detector {
         bottomLeft.getY());
   }
 
-  private static BitMatrix sampleGrid(BitMatrix image,
-                                      PerspectiveTransform transform,
-                                      int dimension) throws NotFoundException {
+  private BitMatrix sampleGrid(BitMatrix image,
+                               PerspectiveTransform transform,
+                               int dimension,
+                               BitMatrix uncertainBits) throws NotFoundException {
+
+    return getGridSampler().sampleGrid(image, dimension, dimension, transform, uncertainBits);
+  }
 
-    GridSampler sampler = GridSampler.getInstance();
-    return sampler.sampleGrid(image, dimension, dimension, transform);
+  private GridSampler getGridSampler() {
+    return gridSampler == null ? GridSampler.getInstance() : gridSampler;
   }
 
   /**
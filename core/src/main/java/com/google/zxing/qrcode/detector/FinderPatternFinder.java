@@ -20,7 +20,9 @@ import com.google.zxing.DecodeHintType;
 import com.google.zxing.NotFoundException;
 import com.google.zxing.ResultPoint;
 import com.google.zxing.ResultPointCallback;
+import com.google.zxing.common.BitArray;
 import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.Cancellation;
 
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -28,6 +30,8 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * <p>This class attempts to find finder patterns in a QR Code. Finder patterns are the square
@@ -35,6 +39,13 @@ import java.util.Map;
  *
  * <p>This class is thread-safe but not reentrant. Each thread must allocate its own object.
  *
+ * <p>Given a {@link ForkJoinPool} with {@link DecodeHintType#FORK_JOIN_POOL}, the rows of a large
+ * image are searched in parallel, in bands. They are the rows a serial search scans: every few
+ * rows until a center turns up, then every other row from there on, a window of rows at a time.
+ * The centers found are taken in row order, skipping rows and stopping where a serial search
+ * would, so the result is deterministic, and nearly always the same as that of a serial search.
+ * Rows of the last window beyond where the search stops are scanned in vain.
+ *
  * @author Sean Owen
  */
 public class FinderPatternFinder {
@@ -42,6 +53,8 @@ public class FinderPatternFinder {
   private static final int CENTER_QUORUM = 2;
   protected static final int MIN_SKIP = 3; // 1 pixel/module times 3 modules/center
   protected static final int MAX_MODULES = 57; // support up to version 10 for mobile clients
+  // Fewest scanned rows worth searching as a band in parallel
+  private static final int MIN_PARALLEL_BAND_ROWS = 32;
 
   private final BitMatrix image;
   private final List<FinderPattern> possibleCenters;
@@ -89,81 +102,91 @@ public class FinderPatternFinder {
     if (iSkip < MIN_SKIP || tryHarder) {
       iSkip = MIN_SKIP;
     }
+    // Codes of higher versions than that are looked for again, more closely, around partial hits
+    int coarseSkip = iSkip;
+    int refineSkip = Math.max(MIN_SKIP, (3 * maxI) / (4 * getMaxModules(hints)));
+    List<Integer> partialHitRows = refineSkip < coarseSkip ? new ArrayList<Integer>() : null;
+
+    ForkJoinPool pool = hints == null ? null : (ForkJoinPool) hints.get(DecodeHintType.FORK_JOIN_POOL);
+    if (pool != null && maxI / iSkip >= 2 * MIN_PARALLEL_BAND_ROWS) {
+      boolean done = findPossibleCentersInBands(iSkip, pureBarcode, coarseSkip, partialHitRows, pool, hints);
+      if (!done && partialHitRows != null && possibleCenters.size() < 3) {
+        refinePartialHits(partialHitRows, coarseSkip, refineSkip, pureBarcode);
+      }
+      FinderPattern[] patternInfo = selectBestPatterns();
+      ResultPoint.orderBestPatterns(patternInfo);
+      return new FinderPatternInfo(patternInfo);
+    }
 
     boolean done = false;
     int[] stateCount = new int[5];
+    BitArray row = new BitArray(maxJ);
     for (int i = iSkip - 1; i < maxI && !done; i += iSkip) {
-      // Get a row of black/white values
-      stateCount[0] = 0;
-      stateCount[1] = 0;
-      stateCount[2] = 0;
-      stateCount[3] = 0;
-      stateCount[4] = 0;
+      Cancellation.check(hints);
+      // Get a row of black/white values, and go through it a run of like-colored pixels at a time
+      row = image.getRow(i, row);
+      clearCounts(stateCount);
       int currentState = 0;
-      for (int j = 0; j < maxJ; j++) {
-        if (image.get(j, i)) {
-          // Black pixel
+      boolean black = row.get(0);
+      int j = 0;
+      while (j < maxJ) {
+        int runEnd = black ? row.getNextUnset(j) : row.getNextSet(j);
+        int runLength = runEnd - j;
+        if (black) {
           if ((currentState & 1) == 1) { // Counting white pixels
             currentState++;
           }
-          stateCount[currentState]++;
-        } else { // White pixel
-          if ((currentState & 1) == 0) { // Counting black pixels
-            if (currentState == 4) { // A winner?
-              if (foundPatternCross(stateCount)) { // Yes
-                boolean confirmed = handlePossibleCenter(stateCount, i, j, pureBarcode);
-                if (confirmed) {
-                  // Start examining every other line. Checking each line turned out to be too
-                  // expensive and didn't improve performance.
-                  iSkip = 2;
-                  if (hasSkipped) {
-                    done = haveMultiplyConfirmedCenters();
-                  } else {
-                    int rowSkip = findRowSkip();
-                    if (rowSkip > stateCount[2]) {
-                      // Skip rows between row of lower confirmed center
-                      // and top of presumed third confirmed center
-                      // but back up a bit to get a full chance of detecting
-                      // it, entire width of center of finder pattern
-
-                      // Skip by rowSkip, but back off by stateCount[2] (size of last center
-                      // of pattern we saw) to be conservative, and also back off by iSkip which
-                      // is about to be re-added
-                      i += rowSkip - stateCount[2] - iSkip;
-                      j = maxJ - 1;
-                    }
-                  }
-                } else {
-                  stateCount[0] = stateCount[2];
-                  stateCount[1] = stateCount[3];
-                  stateCount[2] = stateCount[4];
-                  stateCount[3] = 1;
-                  stateCount[4] = 0;
-                  currentState = 3;
-                  continue;
-                }
-                // Clear state to start looking again
-                currentState = 0;
-                stateCount[0] = 0;
-                stateCount[1] = 0;
-                stateCount[2] = 0;
-                stateCount[3] = 0;
-                stateCount[4] = 0;
-              } else { // No, shift counts back by two
-                stateCount[0] = stateCount[2];
-                stateCount[1] = stateCount[3];
-                stateCount[2] = stateCount[4];
-                stateCount[3] = 1;
-                stateCount[4] = 0;
-                currentState = 3;
+          stateCount[currentState] += runLength;
+        } else if ((currentState & 1) == 1) { // Counting white pixels
+          stateCount[currentState] += runLength;
+        } else if (currentState != 4) {
+          stateCount[++currentState] += runLength;
+        } else if (foundPatternCross(stateCount)) { // A winner?
+          boolean confirmed = handlePossibleCenter(stateCount, i, j, pureBarcode);
+          if (confirmed) {
+            // Start examining every other line. Checking each line turned out to be too
+            // expensive and didn't improve performance.
+            iSkip = 2;
+            if (hasSkipped) {
+              done = haveMultiplyConfirmedCenters();
+            } else {
+              int rowSkip = findRowSkip();
+              if (rowSkip > stateCount[2]) {
+                // Skip rows between row of lower confirmed center
+                // and top of presumed third confirmed center
+                // but back up a bit to get a full chance of detecting
+                // it, entire width of center of finder pattern
+
+                // Skip by rowSkip, but back off by stateCount[2] (size of last center
+                // of pattern we saw) to be conservative, and also back off by iSkip which
+                // is about to be re-added
+                i += rowSkip - stateCount[2] - iSkip;
+                runEnd = maxJ;
               }
+            }
+            // Clear state to start looking again, from the white pixel after this one
+            clearCounts(stateCount);
+            if (runLength > 1) {
+              stateCount[1] = runLength - 1;
+              currentState = 1;
             } else {
-              stateCount[++currentState]++;
+              currentState = 0;
             }
-          } else { // Counting white pixels
-            stateCount[currentState]++;
+          } else {
+            if (partialHitRows != null && stateCount[2] < coarseSkip) {
+              addPartialHit(partialHitRows, i);
+            }
+            shiftCounts2(stateCount);
+            stateCount[3] = runLength;
+            currentState = 3;
           }
+        } else { // No, shift counts back by two
+          shiftCounts2(stateCount);
+          stateCount[3] = runLength;
+          currentState = 3;
         }
+        j = runEnd;
+        black = !black;
       }
       if (foundPatternCross(stateCount)) {
         boolean confirmed = handlePossibleCenter(stateCount, i, maxJ, pureBarcode);
@@ -173,16 +196,256 @@ public class FinderPatternFinder {
             // Found a third one
             done = haveMultiplyConfirmedCenters();
           }
+        } else if (partialHitRows != null && stateCount[2] < coarseSkip) {
+          addPartialHit(partialHitRows, i);
         }
       }
     }
 
+    if (!done && partialHitRows != null && possibleCenters.size() < 3) {
+      refinePartialHits(partialHitRows, coarseSkip, refineSkip, pureBarcode);
+    }
+
     FinderPattern[] patternInfo = selectBestPatterns();
     ResultPoint.orderBestPatterns(patternInfo);
 
     return new FinderPatternInfo(patternInfo);
   }
 
+  /**
+   * Finds possible centers as the serial search in {@link #find(Map)} does, but scans rows in
+   * parallel bands: first every {@code iSkip} rows, then, from the first row where a center turns
+   * up, every other row, a window of rows at a time. The centers found in each window are taken in
+   * row order, skipping rows and stopping where the serial search would, so that the result is
+   * much the same, and no more than a window's worth of rows is scanned in vain.
+   *
+   * @return true if enough centers were confirmed to stop early
+   * @throws NotFoundException if the decode is {@link DecodeHintType#CANCELLED}
+   */
+  private boolean findPossibleCentersInBands(int iSkip,
+                                             boolean pureBarcode,
+                                             int coarseSkip,
+                                             List<Integer> partialHitRows,
+                                             ForkJoinPool pool,
+                                             Map<DecodeHintType,?> hints) throws NotFoundException {
+    int maxI = image.getHeight();
+    int partialHitMaxSize = partialHitRows == null ? 0 : coarseSkip;
+    Band coarse = scanBands(iSkip - 1, maxI, iSkip, pureBarcode, partialHitMaxSize, pool);
+    int row = coarse.centerRows.isEmpty() ? maxI : coarse.centerRows.get(0);
+    if (partialHitRows != null) {
+      for (int hitRow : coarse.partialHitRows) {
+        if (hitRow < row) {
+          addPartialHit(partialHitRows, hitRow);
+        }
+      }
+    }
+
+    int windowSize = 4 * MIN_PARALLEL_BAND_ROWS * pool.getParallelism();
+    boolean done = false;
+    while (row < maxI && !done) {
+      Cancellation.check(hints);
+      int endRow = Math.min(row + windowSize, maxI);
+      Band dense = scanBands(row, endRow, 2, pureBarcode, partialHitMaxSize, pool);
+      // Last row of this window whose centers and partial hits count
+      int lastRow = endRow - 1;
+      int nextRow = endRow;
+      for (int c = 0; c < dense.centers.size(); c++) {
+        int centerRow = dense.centerRows.get(c);
+        if (centerRow > lastRow) {
+          break;
+        }
+        addPossibleCenter(dense.centers.get(c));
+        if (hasSkipped) {
+          done = haveMultiplyConfirmedCenters();
+          // The rest of this row is still scanned, but no more
+          lastRow = done ? centerRow : endRow - 1;
+        } else {
+          int rowSkip = findRowSkip();
+          int centerSize = dense.centerSizes.get(c);
+          if (rowSkip > centerSize) {
+            // The rest of this row is skipped, and the rows after it
+            lastRow = centerRow;
+            nextRow = centerRow + rowSkip - centerSize;
+            while (c + 1 < dense.centers.size() && dense.centerRows.get(c + 1) == centerRow) {
+              c++;
+            }
+          }
+        }
+      }
+      if (partialHitRows != null) {
+        for (int hitRow : dense.partialHitRows) {
+          if (hitRow <= lastRow) {
+            addPartialHit(partialHitRows, hitRow);
+          }
+        }
+      }
+      row = nextRow;
+    }
+    return done;
+  }
+
+  /**
+   * @param hints decode hints, from which {@link DecodeHintType#QR_CODE_MAX_VERSION} is read if present
+   * @return number of modules across the largest QR Code to look for: that of the hinted version, or
+   *  {@link #MAX_MODULES} if that is more
+   */
+  protected static int getMaxModules(Map<DecodeHintType,?> hints) {
+    if (hints == null || !hints.containsKey(DecodeHintType.QR_CODE_MAX_VERSION)) {
+      return MAX_MODULES;
+    }
+    int maxVersion = ((Number) hints.get(DecodeHintType.QR_CODE_MAX_VERSION)).intValue();
+    return Math.max(MAX_MODULES, 17 + 4 * Math.min(maxVersion, 40));
+  }
+
+  private static void addPartialHit(List<Integer> partialHitRows, int i) {
+    int size = partialHitRows.size();
+    if (size == 0 || partialHitRows.get(size - 1) != i) {
+      partialHitRows.add(i);
+    }
+  }
+
+  /**
+   * Looks again for finder patterns around rows where a first pass, scanning every
+   * {@code coarseSkip} rows, saw a 1:1:3:1:1 pattern that didn't check out but whose center was
+   * narrower than that. Such a pass can skip right over the center of a finder pattern of that
+   * size, so the rows in between are scanned, every {@code refineSkip} rows, and the centers found
+   * added to the possible centers.
+   */
+  private void refinePartialHits(List<Integer> partialHitRows, int coarseSkip, int refineSkip,
+                                 boolean pureBarcode) {
+    int maxI = image.getHeight();
+    Band found = new Band();
+    int nextRow = 0;
+    for (int hitRow : partialHitRows) {
+      int firstRow = Math.max(hitRow - coarseSkip + refineSkip, nextRow);
+      int endRow = Math.min(hitRow + coarseSkip, maxI);
+      if (firstRow < endRow) {
+        scanRows(firstRow, endRow, refineSkip, pureBarcode, 0, found);
+        nextRow = firstRow + ((endRow - 1 - firstRow) / refineSkip + 1) * refineSkip;
+      }
+    }
+    for (FinderPattern center : found.centers) {
+      addPossibleCenter(center);
+    }
+  }
+
+  /**
+   * Searches rows {@code iSkip - 1}, {@code 2 * iSkip - 1}, ... of the image for finder patterns,
+   * all of them, and adds what's found to the possible centers, in order of position.
+   *
+   * @param iSkip stride between scanned rows
+   * @param pureBarcode true if in "pure barcode" mode
+   * @param pool pool on which to search bands of rows in parallel, or {@code null} to search serially
+   */
+  protected final void findPossibleCenters(int iSkip, boolean pureBarcode, ForkJoinPool pool) {
+    Band found = scanBands(iSkip - 1, image.getHeight(), iSkip, pureBarcode, 0, pool);
+    for (FinderPattern center : found.centers) {
+      addPossibleCenter(center);
+    }
+  }
+
+  /**
+   * Scans rows as {@link #scanRows(int, int, int, boolean, int, Band)} does, in parallel bands if
+   * given a pool and there are enough rows.
+   */
+  private Band scanBands(int firstRow, int endRow, int iSkip, boolean pureBarcode, int partialHitMaxSize,
+                         ForkJoinPool pool) {
+    if (pool == null || (endRow - firstRow) / iSkip < 2 * MIN_PARALLEL_BAND_ROWS) {
+      Band found = new Band();
+      scanRows(firstRow, endRow, iSkip, pureBarcode, partialHitMaxSize, found);
+      return found;
+    }
+    return pool.invoke(new BandTask(image, firstRow, endRow, iSkip, pureBarcode, partialHitMaxSize));
+  }
+
+  /**
+   * Scans rows {@code firstRow}, {@code firstRow + iSkip}, ... up to, but not including,
+   * {@code endRow}, and adds each finder pattern center found to {@code found} as it is found.
+   * Centers are not combined with each other or with the possible centers. Rows where a pattern
+   * with a center narrower than {@code partialHitMaxSize} didn't check out are noted too.
+   */
+  private void scanRows(int firstRow, int endRow, int iSkip, boolean pureBarcode, int partialHitMaxSize,
+                        Band found) {
+    int maxJ = image.getWidth();
+    int[] stateCount = new int[5];
+    BitArray row = new BitArray(maxJ);
+    for (int i = firstRow; i < endRow; i += iSkip) {
+      // Get a row of black/white values, and go through it a run of like-colored pixels at a time
+      row = image.getRow(i, row);
+      clearCounts(stateCount);
+      int currentState = 0;
+      boolean black = row.get(0);
+      int j = 0;
+      while (j < maxJ) {
+        int runEnd = black ? row.getNextUnset(j) : row.getNextSet(j);
+        int runLength = runEnd - j;
+        if (black) {
+          if ((currentState & 1) == 1) { // Counting white pixels
+            currentState++;
+          }
+          stateCount[currentState] += runLength;
+        } else if ((currentState & 1) == 1) { // Counting white pixels
+          stateCount[currentState] += runLength;
+        } else if (currentState != 4) {
+          stateCount[++currentState] += runLength;
+        } else {
+          // A winner?
+          boolean cross = foundPatternCross(stateCount);
+          FinderPattern center = cross ? crossCheck(stateCount, i, j, pureBarcode) : null;
+          if (center != null) {
+            found.addCenter(center, i, stateCount[2]);
+            // Clear state to start looking again, from the white pixel after this one
+            clearCounts(stateCount);
+            if (runLength > 1) {
+              stateCount[1] = runLength - 1;
+              currentState = 1;
+            } else {
+              currentState = 0;
+            }
+          } else { // No, shift counts back by two
+            if (cross && stateCount[2] < partialHitMaxSize) {
+              addPartialHit(found.partialHitRows, i);
+            }
+            shiftCounts2(stateCount);
+            stateCount[3] = runLength;
+            currentState = 3;
+          }
+        }
+        j = runEnd;
+        black = !black;
+      }
+      if (foundPatternCross(stateCount)) {
+        FinderPattern center = crossCheck(stateCount, i, maxJ, pureBarcode);
+        if (center != null) {
+          found.addCenter(center, i, stateCount[2]);
+        } else if (stateCount[2] < partialHitMaxSize) {
+          addPartialHit(found.partialHitRows, i);
+        }
+      }
+    }
+  }
+
+  /**
+   * Zeroes counts of black/white/black/white/black pixels, to start looking for a pattern again.
+   */
+  protected static void clearCounts(int[] counts) {
+    for (int x = 0; x < counts.length; x++) {
+      counts[x] = 0;
+    }
+  }
+
+  /**
+   * Shifts counts of black/white/black/white/black pixels back by two, dropping the first
+   * black and white counts, to continue looking for a pattern from the black that followed.
+   */
+  protected static void shiftCounts2(int[] stateCount) {
+    stateCount[0] = stateCount[2];
+    stateCount[1] = stateCount[3];
+    stateCount[2] = stateCount[4];
+    stateCount[3] = 0;
+    stateCount[4] = 0;
+  }
+
   /**
    * Given a count of black/white/black/white/black pixels just seen and an end position,
    * figures the location of the center of this run.
@@ -220,11 +483,7 @@ public class FinderPatternFinder {
   }
 
   private int[] getCrossCheckStateCount() {
-    crossCheckStateCount[0] = 0;
-    crossCheckStateCount[1] = 0;
-    crossCheckStateCount[2] = 0;
-    crossCheckStateCount[3] = 0;
-    crossCheckStateCount[4] = 0;
+    clearCounts(crossCheckStateCount);
     return crossCheckStateCount;
   }
 
@@ -485,6 +744,21 @@ public class FinderPatternFinder {
    * @return true if a finder pattern candidate was found this time
    */
   protected final boolean handlePossibleCenter(int[] stateCount, int i, int j, boolean pureBarcode) {
+    FinderPattern center = crossCheck(stateCount, i, j, pureBarcode);
+    if (center == null) {
+      return false;
+    }
+    addPossibleCenter(center);
+    return true;
+  }
+
+  /**
+   * Cross checks a possible finder pattern found by a horizontal scan, as in
+   * {@link #handlePossibleCenter(int[], int, int, boolean)}, without recording it.
+   *
+   * @return the finder pattern, seen once, or {@code null} if it doesn't check out
+   */
+  private FinderPattern crossCheck(int[] stateCount, int i, int j, boolean pureBarcode) {
     int stateCountTotal = stateCount[0] + stateCount[1] + stateCount[2] + stateCount[3] +
         stateCount[4];
     float centerJ = centerFromEnd(stateCount, j);
@@ -495,27 +769,32 @@ public class FinderPatternFinder {
       if (!Float.isNaN(centerJ) &&
           (!pureBarcode || crossCheckDiagonal((int) centerI, (int) centerJ, stateCount[2], stateCountTotal))) {
         float estimatedModuleSize = stateCountTotal / 7.0f;
-        boolean found = false;
-        for (int index = 0; index < possibleCenters.size(); index++) {
-          FinderPattern center = possibleCenters.get(index);
-          // Look for about the same center and module size:
-          if (center.aboutEquals(estimatedModuleSize, centerI, centerJ)) {
-            possibleCenters.set(index, center.combineEstimate(centerI, centerJ, estimatedModuleSize));
-            found = true;
-            break;
-          }
-        }
-        if (!found) {
-          FinderPattern point = new FinderPattern(centerJ, centerI, estimatedModuleSize);
-          possibleCenters.add(point);
-          if (resultPointCallback != null) {
-            resultPointCallback.foundPossibleResultPoint(point);
-          }
-        }
-        return true;
+        return new FinderPattern(centerJ, centerI, estimatedModuleSize);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Combines a newly found finder pattern with a possible center at about the same place, with
+   * about the same module size, if any, or else adds it as a new possible center.
+   */
+  private void addPossibleCenter(FinderPattern found) {
+    float centerI = found.getY();
+    float centerJ = found.getX();
+    float estimatedModuleSize = found.getEstimatedModuleSize();
+    for (int index = 0; index < possibleCenters.size(); index++) {
+      FinderPattern center = possibleCenters.get(index);
+      // Look for about the same center and module size:
+      if (center.aboutEquals(estimatedModuleSize, centerI, centerJ)) {
+        possibleCenters.set(index, center.combineEstimate(centerI, centerJ, estimatedModuleSize));
+        return;
       }
     }
-    return false;
+    possibleCenters.add(found);
+    if (resultPointCallback != null) {
+      resultPointCallback.foundPossibleResultPoint(found);
+    }
   }
 
   /**
@@ -677,4 +956,72 @@ public class FinderPatternFinder {
     }
   }
 
+  /**
+   * Finder pattern centers found in a band of rows, with the row each was found on and the width
+   * of its center there, and rows with partial hits, all in row order.
+   */
+  private static final class Band {
+
+    final List<FinderPattern> centers = new ArrayList<>();
+    final List<Integer> centerRows = new ArrayList<>();
+    final List<Integer> centerSizes = new ArrayList<>();
+    final List<Integer> partialHitRows = new ArrayList<>();
+
+    void addCenter(FinderPattern center, int row, int size) {
+      centers.add(center);
+      centerRows.add(row);
+      centerSizes.add(size);
+    }
+
+    void addAll(Band other) {
+      centers.addAll(other.centers);
+      centerRows.addAll(other.centerRows);
+      centerSizes.addAll(other.centerSizes);
+      partialHitRows.addAll(other.partialHitRows);
+    }
+
+  }
+
+  /**
+   * Scans a band of rows for finder patterns, splitting it in two to scan in parallel while it is
+   * large enough. Each band is scanned by its own {@link FinderPatternFinder}, as finders aren't
+   * reentrant.
+   */
+  private static final class BandTask extends RecursiveTask<Band> {
+
+    private final BitMatrix image;
+    private final int firstRow;
+    private final int endRow;
+    private final int iSkip;
+    private final boolean pureBarcode;
+    private final int partialHitMaxSize;
+
+    BandTask(BitMatrix image, int firstRow, int endRow, int iSkip, boolean pureBarcode, int partialHitMaxSize) {
+      this.image = image;
+      this.firstRow = firstRow;
+      this.endRow = endRow;
+      this.iSkip = iSkip;
+      this.pureBarcode = pureBarcode;
+      this.partialHitMaxSize = partialHitMaxSize;
+    }
+
+    @Override
+    protected Band compute() {
+      int numRows = (endRow - firstRow + iSkip - 1) / iSkip;
+      if (numRows >= 2 * MIN_PARALLEL_BAND_ROWS) {
+        int middleRow = firstRow + numRows / 2 * iSkip;
+        BandTask top = new BandTask(image, firstRow, middleRow, iSkip, pureBarcode, partialHitMaxSize);
+        top.fork();
+        Band bottom = new BandTask(image, middleRow, endRow, iSkip, pureBarcode, partialHitMaxSize).compute();
+        Band found = top.join();
+        found.addAll(bottom);
+        return found;
+      }
+      Band found = new Band();
+      new FinderPatternFinder(image).scanRows(firstRow, endRow, iSkip, pureBarcode, partialHitMaxSize, found);
+      return found;
+    }
+
+  }
+
 }
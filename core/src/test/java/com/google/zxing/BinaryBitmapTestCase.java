@@ -0,0 +1,149 @@
+/*
+ * Copyright 2016 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing;
+
+import com.google.zxing.common.BitArray;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.HybridBinarizer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Tests {@link BinaryBitmap}, in particular memoized rows and sharing across threads.
+ */
+public final class BinaryBitmapTestCase extends Assert {
+
+  private static final int WIDTH = 123;
+  private static final int HEIGHT = 77;
+
+  private static LuminanceSource buildSource() {
+    Random random = new Random(0xBADC0DE);
+    int[] pixels = new int[WIDTH * HEIGHT];
+    for (int y = 0; y < HEIGHT; y++) {
+      for (int x = 0; x < WIDTH; x++) {
+        // Bars of varying width, plus some noise
+        int value = ((x / (1 + y % 5)) & 0x01) == 0 ? 0x20 : 0xE0;
+        value += random.nextInt(16);
+        pixels[y * WIDTH + x] = 0xFF000000 | (value << 16) | (value << 8) | value;
+      }
+    }
+    return new RGBLuminanceSource(WIDTH, HEIGHT, pixels);
+  }
+
+  @Test
+  public void testMemoizedRowsMatch() throws NotFoundException {
+    LuminanceSource source = buildSource();
+    BinaryBitmap plain = new BinaryBitmap(new HybridBinarizer(source));
+    BinaryBitmap memoized = new BinaryBitmap(new HybridBinarizer(source), true);
+    for (int pass = 0; pass < 2; pass++) {
+      for (int y = 0; y < HEIGHT; y++) {
+        assertEquals(plain.getBlackRow(y, null), memoized.getBlackRow(y, null));
+        assertEquals(plain.getBlackRow(y, null), memoized.getBlackRow(y, new BitArray(WIDTH)));
+      }
+    }
+  }
+
+  @Test
+  public void testMemoizedRowIsCopied() throws NotFoundException {
+    BinaryBitmap memoized = new BinaryBitmap(new HybridBinarizer(buildSource()), true);
+    BitArray row = memoized.getBlackRow(10, null);
+    BitArray expected = row.clone();
+    row.reverse();
+    row.setRange(0, 10);
+    assertEquals(expected, memoized.getBlackRow(10, null));
+    // A larger, dirty array is cleared beyond the row
+    BitArray larger = new BitArray(WIDTH + 100);
+    larger.setRange(0, WIDTH + 100);
+    BitArray copied = memoized.getBlackRow(10, larger);
+    assertSame(larger, copied);
+    for (int x = 0; x < WIDTH; x++) {
+      assertEquals(expected.get(x), copied.get(x));
+    }
+    assertFalse(copied.get(WIDTH));
+    assertFalse(copied.get(WIDTH + 99));
+  }
+
+  @Test
+  public void testCopyWithOwnBinarizer() throws NotFoundException {
+    LuminanceSource source = buildSource();
+    BinaryBitmap plain = new BinaryBitmap(new HybridBinarizer(source));
+    for (boolean memoizeRows : new boolean[] {false, true}) {
+      BinaryBitmap original = new BinaryBitmap(new HybridBinarizer(source), memoizeRows);
+      BinaryBitmap copy = original.copyWithOwnBinarizer();
+      for (int y = 0; y < HEIGHT; y++) {
+        assertEquals(plain.getBlackRow(y, null), copy.getBlackRow(y, null));
+        assertEquals(plain.getBlackRow(y, null), original.getBlackRow(y, null));
+      }
+      assertEquals(plain.getBlackMatrix(), copy.getBlackMatrix());
+    }
+  }
+
+  @Test
+  public void testSharedAcrossThreads() throws Exception {
+    LuminanceSource source = buildSource();
+    final BinaryBitmap expected = new BinaryBitmap(new HybridBinarizer(source));
+    final BitMatrix expectedMatrix = expected.getBlackMatrix();
+    for (boolean memoizeRows : new boolean[] {false, true}) {
+      final BinaryBitmap shared = new BinaryBitmap(new HybridBinarizer(source), memoizeRows);
+      ExecutorService executor = Executors.newFixedThreadPool(4);
+      try {
+        List<Future<BitMatrix>> matrices = new ArrayList<>();
+        List<Future<Void>> rowChecks = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+          matrices.add(executor.submit(new Callable<BitMatrix>() {
+            @Override
+            public BitMatrix call() throws NotFoundException {
+              return shared.getBlackMatrix();
+            }
+          }));
+          final int offset = i;
+          rowChecks.add(executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws NotFoundException {
+              BitArray row = null;
+              for (int y = 0; y < HEIGHT; y++) {
+                int rowNumber = (y + offset * 7) % HEIGHT;
+                row = shared.getBlackRow(rowNumber, row);
+                assertEquals(expected.getBlackRow(rowNumber, null), row);
+              }
+              return null;
+            }
+          }));
+        }
+        BitMatrix first = matrices.get(0).get();
+        assertEquals(expectedMatrix, first);
+        for (Future<BitMatrix> matrix : matrices) {
+          assertSame(first, matrix.get());
+        }
+        for (Future<Void> rowCheck : rowChecks) {
+          rowCheck.get();
+        }
+      } finally {
+        executor.shutdownNow();
+      }
+    }
+  }
+
+}
@@ -0,0 +1,352 @@
+/*
+ * Copyright 2016 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing;
+
+import com.google.zxing.aztec.AztecReader;
+import com.google.zxing.common.AbstractBlackBoxTestCase;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.GlobalHistogramBinarizer;
+import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.datamatrix.DataMatrixReader;
+import com.google.zxing.pdf417.PDF417Reader;
+import com.google.zxing.qrcode.QRCodeReader;
+import com.google.zxing.qrcode.QRCodeWriter;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.imageio.ImageIO;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Tests {@link MultiFormatReader}, in particular that parallel decoding agrees with sequential decoding,
+ * and that phases of decoding are reported to a {@link DecodeListener}.
+ */
+public final class MultiFormatReaderTestCase extends Assert {
+
+  private static final String[] TEST_DIRS = {
+      "src/test/resources/blackbox/qrcode-2",
+      "src/test/resources/blackbox/datamatrix-1",
+      "src/test/resources/blackbox/pdf417-1",
+      "src/test/resources/blackbox/ean13-1",
+      "src/test/resources/blackbox/falsepositives",
+  };
+
+  @Test
+  public void testParallelMatchesSequential() throws IOException {
+    doTestParallelMatchesSequential(false);
+  }
+
+  @Test
+  public void testParallelMatchesSequentialTryHarder() throws IOException {
+    doTestParallelMatchesSequential(true);
+  }
+
+  @Test(timeout = 10000)
+  public void testCancelledReadersNotAwaited() throws WriterException, NotFoundException, InterruptedException {
+    Map<DecodeHintType,Object> hints = new EnumMap<>(DecodeHintType.class);
+    // The 1D reader goes after the QR Code reader when trying harder
+    hints.put(DecodeHintType.POSSIBLE_FORMATS, EnumSet.of(BarcodeFormat.QR_CODE, BarcodeFormat.CODE_128));
+    hints.put(DecodeHintType.TRY_HARDER, Boolean.TRUE);
+    LuminanceSource source = toLuminanceSource(
+        new QRCodeWriter().encode("cancelled", BarcodeFormat.QR_CODE, 200, 200));
+    BlockingLuminanceSource blocking = new BlockingLuminanceSource(source);
+
+    final CountDownLatch oneDStarted = blocking.rowRead;
+    ExecutorService executor = new ThreadPoolExecutor(2, 2, 0L, TimeUnit.MILLISECONDS,
+                                                      new LinkedBlockingQueue<Runnable>()) {
+      private Runnable first;
+      @Override
+      public void execute(Runnable command) {
+        if (first == null) {
+          first = command;
+        }
+        super.execute(command);
+      }
+      @Override
+      protected void beforeExecute(Thread t, Runnable r) {
+        if (r == first) {
+          // Hold back the QR Code reader until the 1D reader is stuck reading rows
+          try {
+            oneDStarted.await();
+          } catch (InterruptedException ie) {
+            t.interrupt();
+          }
+        }
+      }
+    };
+    MultiFormatReader reader = new MultiFormatReader();
+    reader.setHints(hints);
+    reader.setExecutor(executor);
+    try {
+      assertEquals("cancelled", reader.decodeWithState(new BinaryBitmap(new HybridBinarizer(blocking))).getText());
+      // The 1D reader, cancelled but still running on the first image, doesn't hold up what's next
+      reader.reset();
+      assertEquals("cancelled", reader.decodeWithState(new BinaryBitmap(new HybridBinarizer(source))).getText());
+    } finally {
+      blocking.release.countDown();
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testCancelled() throws IOException, ReaderException {
+    doTestCancelled("src/test/resources/blackbox/qrcode-1/1.png", new QRCodeReader());
+    doTestCancelled("src/test/resources/blackbox/datamatrix-1/0123456789.png", new DataMatrixReader());
+    doTestCancelled("src/test/resources/blackbox/aztec-1/7.png", new AztecReader());
+    doTestCancelled("src/test/resources/blackbox/pdf417-1/01.png", new PDF417Reader());
+  }
+
+  @Test
+  public void testDecodeListener() throws IOException, NotFoundException {
+    Set<DecodePhase> allMatrixPhases = EnumSet.complementOf(EnumSet.of(DecodePhase.ROW_DECODING));
+    doTestDecodeListener("src/test/resources/blackbox/qrcode-1/1.png", BarcodeFormat.QR_CODE, false,
+                         allMatrixPhases);
+    doTestDecodeListener("src/test/resources/blackbox/datamatrix-1/0123456789.png", BarcodeFormat.DATA_MATRIX,
+                         false, allMatrixPhases);
+    doTestDecodeListener("src/test/resources/blackbox/aztec-1/7.png", BarcodeFormat.AZTEC, false,
+                         allMatrixPhases);
+    doTestDecodeListener("src/test/resources/blackbox/pdf417-1/01.png", BarcodeFormat.PDF_417, false,
+                         allMatrixPhases);
+    // MaxiCode is only read from pure images, where detection and sampling aren't separable
+    doTestDecodeListener("src/test/resources/blackbox/maxicode-1/MODE2.png", BarcodeFormat.MAXICODE, true,
+                         EnumSet.complementOf(EnumSet.of(DecodePhase.SAMPLING, DecodePhase.ROW_DECODING)));
+    doTestDecodeListener("src/test/resources/blackbox/ean13-1/1.png", BarcodeFormat.EAN_13, false,
+                         EnumSet.of(DecodePhase.BINARIZATION, DecodePhase.ROW_DECODING));
+  }
+
+  @Test
+  public void testDecodeListenerDoesNotBinarizeMatrixFor1D() throws IOException, NotFoundException {
+    RecordingDecodeListener listener = new RecordingDecodeListener();
+    Map<DecodeHintType,Object> hints = new EnumMap<>(DecodeHintType.class);
+    hints.put(DecodeHintType.POSSIBLE_FORMATS, Collections.singleton(BarcodeFormat.EAN_13));
+    hints.put(DecodeHintType.DECODE_LISTENER, listener);
+    Path path = AbstractBlackBoxTestCase.buildTestBase("src/test/resources/blackbox/ean13-1/1.png");
+    LuminanceSource source = new BufferedImageLuminanceSource(ImageIO.read(path.toFile()));
+    Binarizer rowsOnly = new GlobalHistogramBinarizer(source) {
+      @Override
+      public BitMatrix getBlackMatrix() {
+        throw new AssertionError("1D decoding shouldn't binarize the whole image");
+      }
+    };
+    Result result = new MultiFormatReader().decode(new BinaryBitmap(rowsOnly), hints);
+    assertEquals(BarcodeFormat.EAN_13, result.getBarcodeFormat());
+    // One report for each row binarized, as it's decoded
+    assertEquals(DecodePhase.BINARIZATION, listener.phases.get(0));
+    assertEquals(DecodePhase.ROW_DECODING, listener.phases.get(1));
+    assertEquals(listener.phases.size() / 2, Collections.frequency(listener.phases, DecodePhase.BINARIZATION));
+  }
+
+  private static void doTestCancelled(String file, Reader reader) throws IOException, ReaderException {
+    Path path = AbstractBlackBoxTestCase.buildTestBase(file);
+    BinaryBitmap image = new BinaryBitmap(new HybridBinarizer(
+        new BufferedImageLuminanceSource(ImageIO.read(path.toFile()))));
+    AtomicBoolean cancelled = new AtomicBoolean();
+    Map<DecodeHintType,Object> hints = new EnumMap<>(DecodeHintType.class);
+    hints.put(DecodeHintType.CANCELLED, cancelled);
+    assertNotNull(reader.decode(image, hints));
+    cancelled.set(true);
+    try {
+      reader.decode(image, hints);
+      fail("Should have stopped when cancelled");
+    } catch (NotFoundException nfe) {
+      // good
+    }
+  }
+
+  private static void doTestDecodeListener(String file,
+                                           BarcodeFormat format,
+                                           boolean pure,
+                                           Set<DecodePhase> expectedPhases) throws IOException, NotFoundException {
+    RecordingDecodeListener listener = new RecordingDecodeListener();
+    Map<DecodeHintType,Object> hints = new EnumMap<>(DecodeHintType.class);
+    hints.put(DecodeHintType.POSSIBLE_FORMATS, Collections.singleton(format));
+    hints.put(DecodeHintType.DECODE_LISTENER, listener);
+    if (pure) {
+      hints.put(DecodeHintType.PURE_BARCODE, Boolean.TRUE);
+    }
+    Path path = AbstractBlackBoxTestCase.buildTestBase(file);
+    LuminanceSource source = new BufferedImageLuminanceSource(ImageIO.read(path.toFile()));
+    Result result = new MultiFormatReader().decode(new BinaryBitmap(new HybridBinarizer(source)), hints);
+    assertEquals(format, result.getBarcodeFormat());
+
+    Set<DecodePhase> succeeded = EnumSet.noneOf(DecodePhase.class);
+    for (int i = 0; i < listener.phases.size(); i++) {
+      DecodePhase phase = listener.phases.get(i);
+      ReaderException failure = listener.failures.get(i);
+      // Binarization isn't specific to a format, nor is a row in which nothing was found
+      boolean anyFormat = phase == DecodePhase.BINARIZATION || (phase == DecodePhase.ROW_DECODING && failure != null);
+      assertEquals(anyFormat ? null : format, listener.formats.get(i));
+      assertTrue(listener.nanos.get(i) >= 0);
+      if (failure == null) {
+        succeeded.add(phase);
+      }
+    }
+    assertEquals(expectedPhases, succeeded);
+    assertEquals(DecodePhase.BINARIZATION, listener.phases.get(0));
+    if (expectedPhases.contains(DecodePhase.ROW_DECODING)) {
+      assertEquals(DecodePhase.ROW_DECODING, listener.phases.get(listener.phases.size() - 1));
+      assertTrue(listener.errorCounts.isEmpty());
+    } else {
+      // The matrix is binarized once, when first needed
+      assertEquals(1, Collections.frequency(listener.phases, DecodePhase.BINARIZATION));
+      assertEquals(DecodePhase.BITSTREAM_PARSING, listener.phases.get(listener.phases.size() - 1));
+      assertEquals(1, listener.errorCounts.size());
+      assertTrue(listener.errorCounts.get(0) >= 0);
+    }
+  }
+
+  private static void doTestParallelMatchesSequential(boolean tryHarder) throws IOException {
+    Map<DecodeHintType,Object> hints = new EnumMap<>(DecodeHintType.class);
+    if (tryHarder) {
+      hints.put(DecodeHintType.TRY_HARDER, Boolean.TRUE);
+    }
+    MultiFormatReader sequential = new MultiFormatReader();
+    sequential.setHints(hints);
+    MultiFormatReader parallel = new MultiFormatReader();
+    parallel.setHints(hints);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    parallel.setExecutor(executor);
+    try {
+      for (String dir : TEST_DIRS) {
+        Path testBase = AbstractBlackBoxTestCase.buildTestBase(dir);
+        int count = 0;
+        try (DirectoryStream<Path> paths = Files.newDirectoryStream(testBase, "*.{jpg,png,gif}")) {
+          for (Path path : paths) {
+            if (count++ == 4) {
+              break;
+            }
+            LuminanceSource source = new BufferedImageLuminanceSource(ImageIO.read(path.toFile()));
+            Result expected = decode(sequential, source);
+            Result actual = decode(parallel, source);
+            if (expected == null) {
+              assertNull(path.toString(), actual);
+            } else {
+              assertNotNull(path.toString(), actual);
+              assertEquals(path.toString(), expected.getBarcodeFormat(), actual.getBarcodeFormat());
+              assertEquals(path.toString(), expected.getText(), actual.getText());
+            }
+          }
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static Result decode(MultiFormatReader reader, LuminanceSource source) {
+    try {
+      return reader.decodeWithState(new BinaryBitmap(new HybridBinarizer(source)));
+    } catch (NotFoundException nfe) {
+      return null;
+    } finally {
+      reader.reset();
+    }
+  }
+
+  private static LuminanceSource toLuminanceSource(BitMatrix matrix) {
+    int width = matrix.getWidth();
+    int height = matrix.getHeight();
+    int[] pixels = new int[width * height];
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        pixels[y * width + x] = matrix.get(x, y) ? 0xFF000000 : 0xFFFFFFFF;
+      }
+    }
+    return new RGBLuminanceSource(width, height, pixels);
+  }
+
+  /**
+   * Keeps readers which read single rows, as 1D readers do, from getting any further until
+   * released, even if interrupted.
+   */
+  private static final class BlockingLuminanceSource extends LuminanceSource {
+
+    private final LuminanceSource delegate;
+    private final CountDownLatch rowRead = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    BlockingLuminanceSource(LuminanceSource delegate) {
+      super(delegate.getWidth(), delegate.getHeight());
+      this.delegate = delegate;
+    }
+
+    @Override
+    public byte[] getRow(int y, byte[] row) {
+      rowRead.countDown();
+      boolean interrupted = false;
+      while (true) {
+        try {
+          release.await();
+          break;
+        } catch (InterruptedException ie) {
+          interrupted = true;
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+      return delegate.getRow(y, row);
+    }
+
+    @Override
+    public byte[] getMatrix() {
+      return delegate.getMatrix();
+    }
+
+  }
+
+  private static final class RecordingDecodeListener implements DecodeListener {
+
+    private final List<BarcodeFormat> formats = new ArrayList<>();
+    private final List<DecodePhase> phases = new ArrayList<>();
+    private final List<Long> nanos = new ArrayList<>();
+    private final List<ReaderException> failures = new ArrayList<>();
+    private final List<Integer> errorCounts = new ArrayList<>();
+
+    @Override
+    public void phaseFinished(BarcodeFormat format, DecodePhase phase, long nanos, ReaderException failure) {
+      formats.add(format);
+      phases.add(phase);
+      this.nanos.add(nanos);
+      failures.add(failure);
+    }
+
+    @Override
+    public void errorsCorrected(BarcodeFormat format, int numErrors) {
+      errorCounts.add(numErrors);
+    }
+
+  }
+
+}
@@ -18,11 +18,15 @@ package com.google.zxing.aztec.decoder;
 import com.google.zxing.FormatException;
 import com.google.zxing.ResultPoint;
 import com.google.zxing.aztec.AztecDetectorResult;
+import com.google.zxing.aztec.encoder.AztecCode;
+import com.google.zxing.aztec.encoder.Encoder;
 import com.google.zxing.common.BitMatrix;
 import com.google.zxing.common.DecoderResult;
 import org.junit.Test;
 import org.junit.Assert;
 
+import java.nio.charset.StandardCharsets;
+
 public final class DecoderTest extends Assert {
 
   private static final ResultPoint[] NO_POINTS = new ResultPoint[0];
@@ -135,6 +139,31 @@ public final class DecoderTest extends Assert {
     new Decoder().decode(r);
   }
 
+  @Test
+  public void testDecodeUncertainModules() throws FormatException {
+    String text = "http://www.example.com/erasures";
+    AztecCode aztec = Encoder.encode(text.getBytes(StandardCharsets.ISO_8859_1));
+    BitMatrix matrix = aztec.getMatrix();
+    // Flip the top rows of modules, in the outer layers, beyond what can be corrected as errors
+    BitMatrix uncertainMatrix = new BitMatrix(matrix.getWidth(), matrix.getHeight());
+    for (int y = 0; y < 6; y++) {
+      for (int x = 0; x < matrix.getWidth(); x++) {
+        matrix.flip(x, y);
+        uncertainMatrix.set(x, y);
+      }
+    }
+    try {
+      new Decoder().decode(new AztecDetectorResult(matrix, NO_POINTS, aztec.isCompact(), aztec.getCodeWords(),
+                                                   aztec.getLayers()));
+      fail("Should have too many errors");
+    } catch (FormatException fe) {
+      // good
+    }
+    AztecDetectorResult r = new AztecDetectorResult(matrix, NO_POINTS, uncertainMatrix, aztec.isCompact(),
+                                                    aztec.getCodeWords(), aztec.getLayers());
+    assertEquals(text, new Decoder().decode(r).getText());
+  }
+
   @Test
   public void testRawBytes() {
     boolean[] bool0 = {};
@@ -168,12 +168,12 @@ public final class BitArrayTestCase extends Assert {
 
   @Test
   public void testGetArray() {
-    BitArray array = new BitArray(64);
+    BitArray array = new BitArray(128);
     array.set(0);
-    array.set(63);
-    int[] ints = array.getBitArray();
-    assertEquals(1, ints[0]);
-    assertEquals(Integer.MIN_VALUE, ints[1]);
+    array.set(127);
+    long[] longs = array.getBitArray();
+    assertEquals(1L, longs[0]);
+    assertEquals(Long.MIN_VALUE, longs[1]);
   }
 
   @Test
@@ -200,13 +200,13 @@ public final class BitArrayTestCase extends Assert {
 
   @Test
   public void reverseAlgorithmTest() {
-    int[] oldBits = {128, 256, 512, 6453324, 50934953};
-    for (int size = 1; size < 160; size++) {
-      int[] newBitsOriginal = reverseOriginal(oldBits.clone(), size);
+    long[] oldBits = {128L, 256L, 512L, 6453324L, 50934953L, 0x123456789ABCDEF0L};
+    for (int size = 1; size < 384; size++) {
+      long[] newBitsOriginal = reverseOriginal(oldBits.clone(), size);
       BitArray newBitArray = new BitArray(oldBits.clone(), size);
       newBitArray.reverse();
-      int[] newBitsNew = newBitArray.getBitArray();
-      assertTrue(arraysAreEqual(newBitsOriginal, newBitsNew, size / 32 + 1));
+      long[] newBitsNew = newBitArray.getBitArray();
+      assertTrue(arraysAreEqual(newBitsOriginal, newBitsNew, (size + 63) / 64));
     }
   }
 
@@ -232,21 +232,21 @@ public final class BitArrayTestCase extends Assert {
     assertEquals(a.hashCode(), b.hashCode());
   }
 
-  private static int[] reverseOriginal(int[] oldBits, int size) {
-    int[] newBits = new int[oldBits.length];
+  private static long[] reverseOriginal(long[] oldBits, int size) {
+    long[] newBits = new long[oldBits.length];
     for (int i = 0; i < size; i++) {
       if (bitSet(oldBits, size - i - 1)) {
-        newBits[i / 32] |= 1 << (i & 0x1F);
+        newBits[i / 64] |= 1L << (i & 0x3F);
       }
     }
     return newBits;
   }
 
-  private static boolean bitSet(int[] bits, int i) {
-    return (bits[i / 32] & (1 << (i & 0x1F))) != 0;
+  private static boolean bitSet(long[] bits, int i) {
+    return (bits[i / 64] & (1L << (i & 0x3F))) != 0;
   }
 
-  private static boolean arraysAreEqual(int[] left, int[] right, int size) {
+  private static boolean arraysAreEqual(long[] left, long[] right, int size) {
     for (int i = 0; i < size; i++) {
       if (left[i] != right[i]) {
         return false;
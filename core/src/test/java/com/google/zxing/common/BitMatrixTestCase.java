@@ -19,6 +19,8 @@ package com.google.zxing.common;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Random;
+
 /**
  * @author Sean Owen
  * @author dswitkin@google.com (Daniel Switkin)
@@ -56,6 +58,24 @@ public final class BitMatrixTestCase extends Assert {
     }
   }
 
+  @Test
+  public void testOrBits() {
+    BitMatrix matrix = new BitMatrix(70, 3);
+    matrix.set(5, 1);
+    matrix.orBits(0, 1, 0x0F, 4);
+    // Only the low numBits are used
+    matrix.orBits(10, 1, 0xFF, 3);
+    // Spans two ints
+    matrix.orBits(28, 1, 0x1FF, 9);
+    matrix.orBits(32, 2, 0xFFFFFFFF, 32);
+    matrix.orBits(38, 0, 0xFFFFFFFF, 32);
+    for (int x = 0; x < 70; x++) {
+      assertEquals(x >= 38, matrix.get(x, 0));
+      assertEquals(x < 4 || x == 5 || (x >= 10 && x < 13) || (x >= 28 && x < 37), matrix.get(x, 1));
+      assertEquals(x >= 32 && x < 64, matrix.get(x, 2));
+    }
+  }
+
   @Test
   public void testEnclosing() {
     BitMatrix matrix = new BitMatrix(5);
@@ -264,6 +284,172 @@ public final class BitMatrixTestCase extends Assert {
     }
   }
 
+  @Test
+  public void testTranspose() {
+    Random random = new Random(0xCAFE);
+    for (int[] size : new int[][] {{1, 1}, {33, 7}, {64, 64}, {70, 100}, {177, 177}}) {
+      BitMatrix matrix = randomMatrix(random, size[0], size[1]);
+      BitMatrix transposed = matrix.transpose();
+      assertEquals(size[1], transposed.getWidth());
+      assertEquals(size[0], transposed.getHeight());
+      for (int y = 0; y < matrix.getHeight(); y++) {
+        for (int x = 0; x < matrix.getWidth(); x++) {
+          assertEquals(matrix.get(x, y), transposed.get(y, x));
+        }
+      }
+      assertEquals(matrix, transposed.transpose());
+    }
+  }
+
+  @Test
+  public void testRotate90() {
+    Random random = new Random(0xCAFE);
+    BitMatrix matrix = randomMatrix(random, 45, 38);
+    BitMatrix rotated = matrix.rotate90();
+    assertEquals(38, rotated.getWidth());
+    assertEquals(45, rotated.getHeight());
+    for (int y = 0; y < matrix.getHeight(); y++) {
+      for (int x = 0; x < matrix.getWidth(); x++) {
+        assertEquals(matrix.get(x, y), rotated.get(y, matrix.getWidth() - 1 - x));
+      }
+    }
+    BitMatrix rotated180 = matrix.clone();
+    rotated180.rotate180();
+    assertEquals(rotated180, rotated.rotate90());
+  }
+
+  @Test
+  public void testRegionOperations() {
+    Random random = new Random(0xCAFE);
+    for (int trial = 0; trial < 200; trial++) {
+      BitMatrix source = randomMatrix(random, 1 + random.nextInt(100), 1 + random.nextInt(10));
+      BitMatrix matrix = randomMatrix(random, 1 + random.nextInt(100), 1 + random.nextInt(10));
+      int width = 1 + random.nextInt(Math.min(source.getWidth(), matrix.getWidth()));
+      int height = 1 + random.nextInt(Math.min(source.getHeight(), matrix.getHeight()));
+      int sourceLeft = random.nextInt(source.getWidth() - width + 1);
+      int sourceTop = random.nextInt(source.getHeight() - height + 1);
+      int left = random.nextInt(matrix.getWidth() - width + 1);
+      int top = random.nextInt(matrix.getHeight() - height + 1);
+      for (int operation = 0; operation < 4; operation++) {
+        BitMatrix actual = matrix.clone();
+        switch (operation) {
+          case 0:
+            actual.copyRegion(source, sourceLeft, sourceTop, width, height, left, top);
+            break;
+          case 1:
+            actual.orRegion(source, sourceLeft, sourceTop, width, height, left, top);
+            break;
+          case 2:
+            actual.andRegion(source, sourceLeft, sourceTop, width, height, left, top);
+            break;
+          default:
+            actual.xorRegion(source, sourceLeft, sourceTop, width, height, left, top);
+            break;
+        }
+        for (int y = 0; y < matrix.getHeight(); y++) {
+          for (int x = 0; x < matrix.getWidth(); x++) {
+            boolean expected = matrix.get(x, y);
+            if (x >= left && x < left + width && y >= top && y < top + height) {
+              boolean sourceBit = source.get(x - left + sourceLeft, y - top + sourceTop);
+              switch (operation) {
+                case 0:
+                  expected = sourceBit;
+                  break;
+                case 1:
+                  expected |= sourceBit;
+                  break;
+                case 2:
+                  expected &= sourceBit;
+                  break;
+                default:
+                  expected ^= sourceBit;
+                  break;
+              }
+            }
+            assertEquals(expected, actual.get(x, y));
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testCopyOverlappingRegion() {
+    Random random = new Random(0xCAFE);
+    BitMatrix matrix = randomMatrix(random, 80, 20);
+    BitMatrix expected = matrix.clone();
+    expected.copyRegion(matrix.clone(), 3, 2, 60, 15, 13, 4);
+    matrix.copyRegion(matrix, 3, 2, 60, 15, 13, 4);
+    assertEquals(expected, matrix);
+
+    BitMatrix region = matrix.getRegion(13, 4, 60, 15);
+    assertEquals(60, region.getWidth());
+    assertEquals(15, region.getHeight());
+    for (int y = 0; y < 15; y++) {
+      for (int x = 0; x < 60; x++) {
+        assertEquals(matrix.get(x + 13, y + 4), region.get(x, y));
+      }
+    }
+  }
+
+  @Test
+  public void testCardinality() {
+    Random random = new Random(0xCAFE);
+    BitMatrix matrix = randomMatrix(random, 100, 10);
+    for (int trial = 0; trial < 100; trial++) {
+      int left = random.nextInt(100);
+      int top = random.nextInt(10);
+      int width = 1 + random.nextInt(100 - left);
+      int height = 1 + random.nextInt(10 - top);
+      int expected = 0;
+      for (int y = top; y < top + height; y++) {
+        for (int x = left; x < left + width; x++) {
+          if (matrix.get(x, y)) {
+            expected++;
+          }
+        }
+      }
+      assertEquals(expected, matrix.getRegionCardinality(left, top, width, height));
+    }
+    int expected = 0;
+    for (int x = 0; x < 100; x++) {
+      if (matrix.get(x, 3)) {
+        expected++;
+      }
+    }
+    assertEquals(expected, matrix.getRowCardinality(3));
+  }
+
+  @Test
+  public void testGetNextSetUnset() {
+    BitMatrix matrix = new BitMatrix(70, 2);
+    matrix.setRegion(5, 1, 60, 1);
+    matrix.set(40, 0);
+    assertEquals(40, matrix.getNextSet(0, 0));
+    assertEquals(40, matrix.getNextSet(40, 0));
+    assertEquals(70, matrix.getNextSet(41, 0));
+    assertEquals(0, matrix.getNextUnset(0, 0));
+    assertEquals(41, matrix.getNextUnset(40, 0));
+    assertEquals(5, matrix.getNextSet(0, 1));
+    assertEquals(65, matrix.getNextUnset(5, 1));
+    assertEquals(70, matrix.getNextSet(65, 1));
+    assertEquals(70, matrix.getNextUnset(70, 1));
+    matrix.setRegion(0, 1, 70, 1);
+    assertEquals(70, matrix.getNextUnset(0, 1));
+  }
+
+  private static BitMatrix randomMatrix(Random random, int width, int height) {
+    BitMatrix matrix = new BitMatrix(width, height);
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        if (random.nextBoolean()) {
+          matrix.set(x, y);
+        }
+      }
+    }
+    return matrix;
+  }
+
   public static String matrixToString(BitMatrix result) {
     assertEquals(1, result.getHeight());
     StringBuilder builder = new StringBuilder(result.getWidth());
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2016 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.common;
+
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.RGBLuminanceSource;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Tests {@link HybridBinarizer}.
+ */
+public final class HybridBinarizerTestCase extends Assert {
+
+  static LuminanceSource buildSource(int width, int height, long seed) {
+    Random random = new Random(seed);
+    int[] pixels = new int[width * height];
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        // Blocky pattern over a horizontal gradient, plus noise and some flat areas
+        int value;
+        if (((x / 13 + y / 11) % 7) == 0) {
+          value = 0xC0;
+        } else {
+          value = (((x / 3) ^ (y / 5)) & 0x01) == 0 ? 0x10 : 0x90;
+          value += x * 0x50 / width + random.nextInt(24);
+        }
+        pixels[y * width + x] = 0xFF000000 | (value << 16) | (value << 8) | value;
+      }
+    }
+    return new RGBLuminanceSource(width, height, pixels);
+  }
+
+  @Test
+  public void testWorkspaceMatchesFreshBuffers() throws NotFoundException {
+    BinarizerWorkspace workspace = new BinarizerWorkspace();
+    BitMatrix previous = null;
+    for (int seed = 0; seed < 4; seed++) {
+      LuminanceSource source = buildSource(203, 117, seed);
+      BitMatrix expected = new HybridBinarizer(source).getBlackMatrix();
+      BitMatrix actual = new HybridBinarizer(source, workspace).getBlackMatrix();
+      assertEquals(expected, actual);
+      if (previous != null) {
+        // Same size, so the same matrix is recycled
+        assertSame(previous, actual);
+      }
+      previous = actual;
+    }
+    // A different size gets a new matrix
+    LuminanceSource source = buildSource(64, 300, 5);
+    BitMatrix actual = new HybridBinarizer(source, workspace).getBlackMatrix();
+    assertNotSame(previous, actual);
+    assertEquals(new HybridBinarizer(source).getBlackMatrix(), actual);
+  }
+
+  @Test
+  public void testParallelMatchesSerial() throws NotFoundException {
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      // Heights giving a range of band splits, including a partial last block row
+      for (int height : new int[] {300, 517, 1029}) {
+        LuminanceSource source = buildSource(611, height, height);
+        BitMatrix expected = new HybridBinarizer(source).getBlackMatrix();
+        assertEquals(expected, new HybridBinarizer(source, null, pool).getBlackMatrix());
+        assertEquals(expected, new HybridBinarizer(source, new BinarizerWorkspace(), pool).getBlackMatrix());
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2016 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.common;
+
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.NotFoundException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Tests {@link IntegralImageBinarizer}.
+ */
+public final class IntegralImageBinarizerTestCase extends Assert {
+
+  @Test
+  public void testMatchesDirectWindowAverage() {
+    LuminanceSource source = HybridBinarizerTestCase.buildSource(203, 117, 1);
+    for (int windowSize : new int[] {1, 3, 9, 41, 501}) {
+      BitMatrix expected = directThreshold(source, windowSize);
+      assertEquals(expected, new IntegralImageBinarizer(source, windowSize).getBlackMatrix());
+    }
+    // Default window on this image is 40, rounded up to 41
+    assertEquals(directThreshold(source, 41), new IntegralImageBinarizer(source).getBlackMatrix());
+  }
+
+  @Test
+  public void testEvenWindowSizeRoundedUp() {
+    LuminanceSource source = HybridBinarizerTestCase.buildSource(203, 117, 1);
+    for (int windowSize : new int[] {2, 10, 40, 500}) {
+      BitMatrix expected = directThreshold(source, windowSize + 1);
+      assertEquals(expected, new IntegralImageBinarizer(source, windowSize).getBlackMatrix());
+    }
+  }
+
+  @Test
+  public void testWindowSizeHint() throws NotFoundException {
+    LuminanceSource source = HybridBinarizerTestCase.buildSource(150, 90, 2);
+    Map<DecodeHintType,Object> hints = new EnumMap<>(DecodeHintType.class);
+    hints.put(DecodeHintType.BINARIZER_WINDOW_SIZE, 15);
+    IntegralImageBinarizer binarizer = new IntegralImageBinarizer(source, hints);
+    assertEquals(directThreshold(source, 15), binarizer.getBlackMatrix());
+    // The window size carries over to new binarizers
+    LuminanceSource other = HybridBinarizerTestCase.buildSource(90, 150, 3);
+    assertEquals(directThreshold(other, 15), binarizer.createBinarizer(other).getBlackMatrix());
+    // Without the hint, the default applies
+    assertEquals(new IntegralImageBinarizer(source).getBlackMatrix(),
+                 new IntegralImageBinarizer(source, new EnumMap<DecodeHintType,Object>(DecodeHintType.class))
+                     .getBlackMatrix());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeWindowSize() {
+    new IntegralImageBinarizer(HybridBinarizerTestCase.buildSource(10, 10, 0), -1);
+  }
+
+  // Thresholds each pixel against the average of the window, of an odd size, centered on it
+  private static BitMatrix directThreshold(LuminanceSource source, int windowSize) {
+    assertEquals(1, windowSize % 2);
+    int width = source.getWidth();
+    int height = source.getHeight();
+    byte[] luminances = source.getMatrix();
+    int radius = (windowSize - 1) / 2;
+    BitMatrix result = new BitMatrix(width, height);
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        long sum = 0;
+        int count = 0;
+        for (int yy = Math.max(0, y - radius); yy <= Math.min(height - 1, y + radius); yy++) {
+          for (int xx = Math.max(0, x - radius); xx <= Math.min(width - 1, x + radius); xx++) {
+            sum += luminances[yy * width + xx] & 0xFF;
+            count++;
+          }
+        }
+        int pixel = luminances[y * width + x] & 0xFF;
+        if (pixel * 100.0 <= sum * 85.0 / count) {
+          result.set(x, y);
+        }
+      }
+    }
+    return result;
+  }
+
+}
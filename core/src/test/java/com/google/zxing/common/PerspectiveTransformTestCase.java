@@ -51,6 +51,23 @@ public final class PerspectiveTransformTestCase extends Assert {
     assertPointEquals(328.09116f, 334.16385f, 50.0f, 50.0f, pt);
   }
 
+  @Test
+  public void testTransformRow() {
+    PerspectiveTransform pt = PerspectiveTransform.quadrilateralToQuadrilateral(
+        3.5f, 3.5f, 141.5f, 3.5f, 137.5f, 137.5f, 3.5f, 141.5f,
+        103.0f, 110.0f, 800.0f, 120.0f, 790.0f, 870.0f, 150.0f, 880.0f);
+    for (float y = 0.5f; y < 145.0f; y += 8.0f) {
+      float[] row = new float[2 * 145];
+      pt.transformRow(row, 0.5f, y);
+      for (int x = 0; x < 145; x++) {
+        float[] point = {x + 0.5f, y};
+        pt.transformPoints(point);
+        assertEquals(point[0], row[2 * x], 1.0E-3f);
+        assertEquals(point[1], row[2 * x + 1], 1.0E-3f);
+      }
+    }
+  }
+
   private static void assertPointEquals(float expectedX,
                                         float expectedY,
                                         float sourceX,
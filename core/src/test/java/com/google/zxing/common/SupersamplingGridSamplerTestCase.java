@@ -0,0 +1,180 @@
+/*
+ * Copyright 2016 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.common;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.RGBLuminanceSource;
+import com.google.zxing.ReaderException;
+import com.google.zxing.Result;
+import com.google.zxing.WriterException;
+import com.google.zxing.qrcode.QRCodeReader;
+import com.google.zxing.qrcode.QRCodeWriter;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Tests {@link SupersamplingGridSampler}, including decoding with it chosen by hint.
+ */
+public final class SupersamplingGridSamplerTestCase extends Assert {
+
+  private static final int DIMENSION = 21;
+  private static final int MODULE_SIZE = 6;
+  private static final int OFFSET = 10;
+
+  @Test
+  public void testStrayPixels() throws NotFoundException {
+    BitMatrix grid = randomGrid(new Random(0xCAFE));
+    BitMatrix image = render(grid);
+    // A pixel of the wrong color at the center of every module
+    for (int y = 0; y < DIMENSION; y++) {
+      for (int x = 0; x < DIMENSION; x++) {
+        image.flip(centerPixel(x), centerPixel(y));
+      }
+    }
+
+    BitMatrix inverted = grid.clone();
+    BitMatrix all = new BitMatrix(DIMENSION);
+    all.setRegion(0, 0, DIMENSION, DIMENSION);
+    inverted.xor(all);
+    assertEquals(inverted, new DefaultGridSampler().sampleGrid(image, DIMENSION, DIMENSION, transform()));
+
+    BitMatrix uncertainBits = new BitMatrix(DIMENSION);
+    BitMatrix sampled =
+        new SupersamplingGridSampler().sampleGrid(image, DIMENSION, DIMENSION, transform(), uncertainBits);
+    assertEquals(grid, sampled);
+    assertNull(uncertainBits.getTopLeftOnBit());
+    // Detectors only ask for modules in doubt from samplers that report them
+    assertFalse(new DefaultGridSampler().reportsUncertainModules());
+    assertTrue(new SupersamplingGridSampler().reportsUncertainModules());
+    assertEquals(grid, new SupersamplingGridSampler().sampleGrid(image, DIMENSION, DIMENSION, transform(), null));
+  }
+
+  @Test
+  public void testUncertainModules() throws NotFoundException {
+    BitMatrix grid = new BitMatrix(DIMENSION);
+    BitMatrix image = render(grid);
+    // Module (5,7) half black
+    image.setRegion(OFFSET + 5 * MODULE_SIZE, OFFSET + 7 * MODULE_SIZE, MODULE_SIZE / 2, MODULE_SIZE);
+    // Module (12,3) black but for one corner
+    image.setRegion(OFFSET + 12 * MODULE_SIZE, OFFSET + 3 * MODULE_SIZE, MODULE_SIZE, MODULE_SIZE);
+    for (int y = 0; y < MODULE_SIZE / 2; y++) {
+      for (int x = 0; x < MODULE_SIZE / 2; x++) {
+        image.unset(OFFSET + 12 * MODULE_SIZE + x, OFFSET + 3 * MODULE_SIZE + y);
+      }
+    }
+
+    BitMatrix uncertainBits = new BitMatrix(DIMENSION);
+    BitMatrix sampled =
+        new SupersamplingGridSampler().sampleGrid(image, DIMENSION, DIMENSION, transform(), uncertainBits);
+    assertTrue(sampled.get(12, 3));
+    assertEquals(1, sampled.getRegionCardinality(0, 0, DIMENSION, DIMENSION));
+    assertTrue(uncertainBits.get(5, 7));
+    assertFalse(uncertainBits.get(12, 3));
+    assertEquals(1, uncertainBits.getRegionCardinality(0, 0, DIMENSION, DIMENSION));
+  }
+
+  @Test
+  public void testDecodeWithHint() throws WriterException, ReaderException {
+    // A version 1 code
+    BitMatrix code = new QRCodeWriter().encode("zxing", BarcodeFormat.QR_CODE, 29 * MODULE_SIZE, 29 * MODULE_SIZE);
+    // Specks of the wrong color, 2x2 pixels, at the center of a quarter of the modules outside the
+    // finder patterns
+    BitMatrix speck = new BitMatrix(2);
+    speck.setRegion(0, 0, 2, 2);
+    Random random = new Random(0xCAFE);
+    int margin = 4 * MODULE_SIZE;
+    for (int y = 0; y < DIMENSION; y++) {
+      for (int x = 0; x < DIMENSION; x++) {
+        boolean inFinderPattern = (x < 8 || x >= DIMENSION - 8) && y < 8 || x < 8 && y >= DIMENSION - 8;
+        if (!inFinderPattern && random.nextInt(4) == 0) {
+          int left = margin + x * MODULE_SIZE + MODULE_SIZE / 2 - 1;
+          int top = margin + y * MODULE_SIZE + MODULE_SIZE / 2 - 1;
+          code.xorRegion(speck, 0, 0, 2, 2, left, top);
+        }
+      }
+    }
+    BinaryBitmap image = new BinaryBitmap(new HybridBinarizer(toLuminanceSource(code)));
+
+    try {
+      new QRCodeReader().decode(image);
+      fail("Should not decode with one sample per module");
+    } catch (ReaderException re) {
+      // good
+    }
+
+    Map<DecodeHintType,Object> hints = new EnumMap<>(DecodeHintType.class);
+    hints.put(DecodeHintType.GRID_SAMPLER, new SupersamplingGridSampler());
+    Result result = new QRCodeReader().decode(image, hints);
+    assertEquals("zxing", result.getText());
+  }
+
+  private static BitMatrix randomGrid(Random random) {
+    BitMatrix grid = new BitMatrix(DIMENSION);
+    for (int y = 0; y < DIMENSION; y++) {
+      for (int x = 0; x < DIMENSION; x++) {
+        if (random.nextBoolean()) {
+          grid.set(x, y);
+        }
+      }
+    }
+    return grid;
+  }
+
+  private static BitMatrix render(BitMatrix grid) {
+    BitMatrix image = new BitMatrix(2 * OFFSET + DIMENSION * MODULE_SIZE);
+    for (int y = 0; y < DIMENSION; y++) {
+      for (int x = 0; x < DIMENSION; x++) {
+        if (grid.get(x, y)) {
+          image.setRegion(OFFSET + x * MODULE_SIZE, OFFSET + y * MODULE_SIZE, MODULE_SIZE, MODULE_SIZE);
+        }
+      }
+    }
+    return image;
+  }
+
+  private static int centerPixel(int module) {
+    return OFFSET + module * MODULE_SIZE + MODULE_SIZE / 2;
+  }
+
+  private static PerspectiveTransform transform() {
+    float end = OFFSET + DIMENSION * MODULE_SIZE;
+    return PerspectiveTransform.quadrilateralToQuadrilateral(
+        0.0f, 0.0f, DIMENSION, 0.0f, DIMENSION, DIMENSION, 0.0f, DIMENSION,
+        OFFSET, OFFSET, end, OFFSET, end, end, OFFSET, end);
+  }
+
+  private static LuminanceSource toLuminanceSource(BitMatrix matrix) {
+    int width = matrix.getWidth();
+    int height = matrix.getHeight();
+    int[] pixels = new int[width * height];
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        pixels[y * width + x] = matrix.get(x, y) ? 0xFF000000 : 0xFFFFFFFF;
+      }
+    }
+    return new RGBLuminanceSource(width, height, pixels);
+  }
+
+}
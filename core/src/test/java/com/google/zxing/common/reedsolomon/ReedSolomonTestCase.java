@@ -22,6 +22,7 @@ import org.junit.Test;
 import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * @author Rustam Abdullaev
@@ -393,6 +394,209 @@ public final class ReedSolomonTestCase extends Assert {
     testEncodeDecodeRandom(GenericGF.AZTEC_DATA_12, 3072, 1023);
   }
 
+  @Test
+  public void testMultiply() {
+    // Fields that may keep a multiplication table and one that never does, against shift-and-add multiplication
+    checkMultiply(GenericGF.QR_CODE_FIELD_256, 0x011D, 1);
+    checkMultiply(GenericGF.DATA_MATRIX_FIELD_256, 0x012D, 1);
+    checkMultiply(GenericGF.AZTEC_DATA_6, 0x43, 1);
+    checkMultiply(GenericGF.AZTEC_DATA_10, 0x409, 7);
+  }
+
+  @Test
+  public void testMultiplicationTableBuiltOnFirstUse() {
+    GenericGF field = new GenericGF(0x011D, 256, 0);
+    // Through exp/log until the table is asked for, then through it
+    checkMultiply(field, 0x011D, 3);
+    byte[] table = field.getMultiplicationTable();
+    assertNotNull(table);
+    assertSame(table, field.getMultiplicationTable());
+    checkMultiply(field, 0x011D, 3);
+    assertNull(GenericGF.AZTEC_DATA_10.getMultiplicationTable());
+  }
+
+  private static void checkMultiply(GenericGF field, int primitive, int step) {
+    int size = field.getSize();
+    for (int a = 0; a < size; a += step) {
+      for (int b = 0; b < size; b++) {
+        int product = 0;
+        int shifted = a;
+        for (int bits = b; bits != 0; bits >>= 1) {
+          if ((bits & 1) != 0) {
+            product ^= shifted;
+          }
+          shifted <<= 1;
+          if (shifted >= size) {
+            shifted ^= primitive;
+          }
+        }
+        assertEquals(field + ": " + a + " * " + b, product, field.multiply(a, b));
+      }
+    }
+  }
+
+  @Test
+  public void testSharedWorkspace() throws ReedSolomonException {
+    // One workspace, reused across fields and growing and shrinking numbers of EC codewords
+    ReedSolomonWorkspace workspace = new ReedSolomonWorkspace();
+    Random random = getPseudoRandom();
+    GenericGF[] fields = {
+        GenericGF.QR_CODE_FIELD_256, GenericGF.AZTEC_PARAM, GenericGF.DATA_MATRIX_FIELD_256,
+        GenericGF.AZTEC_DATA_12, GenericGF.MAXICODE_FIELD_64,
+    };
+    int[] ecSizes = {68, 5, 18, 200, 10};
+    for (int f = 0; f < fields.length; f++) {
+      GenericGF field = fields[f];
+      int ecSize = ecSizes[f];
+      int dataSize = Math.min(field.getSize() - 1 - ecSize, 2 * ecSize);
+      int[] expected = new int[dataSize + ecSize];
+      for (int k = 0; k < dataSize; k++) {
+        expected[k] = random.nextInt(field.getSize());
+      }
+      new ReedSolomonEncoder(field).encode(expected, ecSize);
+      ReedSolomonDecoder decoder = new ReedSolomonDecoder(field, workspace);
+      for (int numErrors = 0; numErrors <= ecSize / 2; numErrors++) {
+        int[] message = expected.clone();
+        corrupt(message, numErrors, random, field.getSize());
+        assertEquals(numErrors, decoder.decodeWithECCount(message, ecSize));
+        assertArrayEquals(expected, message);
+      }
+    }
+  }
+
+  @Test
+  public void testSharedAcrossThreads() throws InterruptedException {
+    // Without a workspace of its own, one decoder may be used by several threads at once
+    final ReedSolomonDecoder decoder = new ReedSolomonDecoder(GenericGF.QR_CODE_FIELD_256);
+    final AtomicReference<Throwable> failure = new AtomicReference<>();
+    Thread[] threads = new Thread[4];
+    for (int t = 0; t < threads.length; t++) {
+      final int ecSize = 10 + 8 * t;
+      final Random random = new Random(0xDEADBEEFL + t);
+      threads[t] = new Thread() {
+        @Override
+        public void run() {
+          try {
+            int[] expected = new int[3 * ecSize];
+            for (int i = 0; i < 200; i++) {
+              for (int k = 0; k < expected.length - ecSize; k++) {
+                expected[k] = random.nextInt(256);
+              }
+              new ReedSolomonEncoder(GenericGF.QR_CODE_FIELD_256).encode(expected, ecSize);
+              int[] message = expected.clone();
+              corrupt(message, ecSize / 2, random, 256);
+              decoder.decode(message, ecSize);
+              assertArrayEquals(expected, message);
+            }
+          } catch (Throwable e) {
+            failure.compareAndSet(null, e);
+          }
+        }
+      };
+      threads[t].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertNull(String.valueOf(failure.get()), failure.get());
+  }
+
+  @Test
+  public void testErasures() throws ReedSolomonException {
+    Random random = getPseudoRandom();
+    GenericGF[] fields = {GenericGF.QR_CODE_FIELD_256, GenericGF.DATA_MATRIX_FIELD_256, GenericGF.AZTEC_DATA_10};
+    int ecSize = 16;
+    for (GenericGF field : fields) {
+      ReedSolomonDecoder decoder = new ReedSolomonDecoder(field);
+      int[] expected = new int[40 + ecSize];
+      for (int k = 0; k < 40; k++) {
+        expected[k] = random.nextInt(field.getSize());
+      }
+      new ReedSolomonEncoder(field).encode(expected, ecSize);
+      for (int numErasures = 0; numErasures <= ecSize; numErasures++) {
+        for (int numErrors = 0; 2 * numErrors + numErasures <= ecSize; numErrors++) {
+          // Distinct positions: the first numErasures are erased, the rest are errors
+          int[] positions = new int[numErasures + numErrors];
+          BitSet used = new BitSet();
+          for (int i = 0; i < positions.length; i++) {
+            int position;
+            do {
+              position = random.nextInt(expected.length);
+            } while (used.get(position));
+            used.set(position);
+            positions[i] = position;
+          }
+          int[] message = expected.clone();
+          int numChanged = 0;
+          for (int i = 0; i < positions.length; i++) {
+            // Leave some erased codewords right
+            if (i >= numErasures || random.nextBoolean()) {
+              message[positions[i]] ^= 1 + random.nextInt(field.getSize() - 1);
+              numChanged++;
+            }
+          }
+          int[] erasures = Arrays.copyOf(positions, numErasures);
+          assertEquals(numChanged, decoder.decodeWithECCount(message, ecSize, erasures));
+          assertArrayEquals(field + ": " + numErasures + " erasures, " + numErrors + " errors", expected, message);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testErasuresExtendCapacity() throws ReedSolomonException {
+    GenericGF field = GenericGF.QR_CODE_FIELD_256;
+    int[] expected = new int[20];
+    for (int k = 0; k < 10; k++) {
+      expected[k] = k + 1;
+    }
+    new ReedSolomonEncoder(field).encode(expected, 10);
+    int[] message = expected.clone();
+    int[] erasures = {0, 2, 4, 6, 8, 10, 12, 14};
+    for (int position : erasures) {
+      message[position] = 0xFF;
+    }
+    ReedSolomonDecoder decoder = new ReedSolomonDecoder(field);
+    int[] withoutErasures = message.clone();
+    try {
+      decoder.decode(withoutErasures, 10);
+      assertFalse(Arrays.equals(expected, withoutErasures));
+    } catch (ReedSolomonException rse) {
+      // good
+    }
+    decoder.decode(message, 10, erasures);
+    assertArrayEquals(expected, message);
+  }
+
+  @Test
+  public void testRightCodewordsInDoubt() throws ReedSolomonException {
+    GenericGF field = GenericGF.QR_CODE_FIELD_256;
+    int[] expected = new int[20];
+    for (int k = 0; k < 10; k++) {
+      expected[k] = k + 1;
+    }
+    new ReedSolomonEncoder(field).encode(expected, 10);
+    // Four errors, correctable alone, but not along with four more codewords erased
+    int[] message = expected.clone();
+    for (int position : new int[] {1, 5, 11, 17}) {
+      message[position] ^= 0x5A;
+    }
+    boolean[] inDoubt = new boolean[message.length];
+    for (int position : new int[] {0, 4, 8, 12}) {
+      inDoubt[position] = true;
+    }
+    ReedSolomonDecoder decoder = new ReedSolomonDecoder(field);
+    int[] withErasures = message.clone();
+    try {
+      decoder.decode(withErasures, 10, ReedSolomonDecoder.getErasures(inDoubt, 10));
+      assertFalse(Arrays.equals(expected, withErasures));
+    } catch (ReedSolomonException rse) {
+      // good
+    }
+    assertEquals(4, decoder.decodeWithECCountInDoubt(message, 10, inDoubt));
+    assertArrayEquals(expected, message);
+  }
+
   public static void corrupt(int[] received, int howMany, Random random, int max) {
     BitSet corrupted = new BitSet(received.length);
     for (int j = 0; j < howMany; j++) {
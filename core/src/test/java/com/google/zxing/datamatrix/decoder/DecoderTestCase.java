@@ -0,0 +1,53 @@
+/*
+ * Copyright 2016 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.datamatrix.decoder;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.ChecksumException;
+import com.google.zxing.FormatException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.datamatrix.DataMatrixWriter;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests {@link Decoder}, in particular decoding with modules in doubt.
+ */
+public final class DecoderTestCase extends Assert {
+
+  @Test
+  public void testUncertainModules() throws FormatException, ChecksumException {
+    String text = "http://www.example.com/erasures";
+    BitMatrix bits = new DataMatrixWriter().encode(text, BarcodeFormat.DATA_MATRIX, 0, 0);
+    // Flip a square of modules inside the finder pattern, beyond what can be corrected as errors
+    BitMatrix uncertainBits = new BitMatrix(bits.getWidth(), bits.getHeight());
+    for (int y = 2; y < 11; y++) {
+      for (int x = 2; x < 11; x++) {
+        bits.flip(x, y);
+        uncertainBits.set(x, y);
+      }
+    }
+    try {
+      new Decoder().decode(bits);
+      fail("Should have too many errors");
+    } catch (ChecksumException ce) {
+      // good
+    }
+    assertEquals(text, new Decoder().decode(bits, uncertainBits, null).getText());
+  }
+
+}
@@ -19,13 +19,16 @@ package com.google.zxing.multi.qrcode;
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.nio.file.Path;
+import java.util.EnumMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 import com.google.zxing.BarcodeFormat;
 import com.google.zxing.BinaryBitmap;
 import com.google.zxing.BufferedImageLuminanceSource;
+import com.google.zxing.DecodeHintType;
 import com.google.zxing.LuminanceSource;
 import com.google.zxing.Result;
 import com.google.zxing.ResultMetadataType;
@@ -39,6 +42,22 @@ public final class MultiQRCodeTestCase extends Assert {
 
   @Test
   public void testMultiQRCodes() throws Exception {
+    doTestMultiQRCodes(null);
+  }
+
+  @Test
+  public void testMultiQRCodesInParallel() throws Exception {
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      Map<DecodeHintType,Object> hints = new EnumMap<>(DecodeHintType.class);
+      hints.put(DecodeHintType.FORK_JOIN_POOL, pool);
+      doTestMultiQRCodes(hints);
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  private static void doTestMultiQRCodes(Map<DecodeHintType,?> hints) throws Exception {
     // Very basic test for now
     Path testBase = AbstractBlackBoxTestCase.buildTestBase("src/test/resources/blackbox/multi-qrcode-1");
 
@@ -48,7 +67,7 @@ public final class MultiQRCodeTestCase extends Assert {
     BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(source));
 
     MultipleBarcodeReader reader = new QRCodeMultiReader();
-    Result[] results = reader.decodeMultiple(bitmap);
+    Result[] results = reader.decodeMultiple(bitmap, hints);
     assertNotNull(results);
     assertEquals(4, results.length);
 
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2016 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.oned;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+/**
+ * Tests {@link EdgeDistanceTable}.
+ */
+public final class EdgeDistanceTableTestCase extends Assert {
+
+  @Test
+  public void testLooksUpEachPattern() {
+    assertLooksUpEachPattern(Code128Reader.CODE_PATTERNS, 6);
+    assertLooksUpEachPattern(UPCEANReader.L_PATTERNS, 4);
+    assertLooksUpEachPattern(UPCEANReader.L_AND_G_PATTERNS, 4);
+  }
+
+  @Test
+  public void testInkSpread() {
+    EdgeDistanceTable table = new EdgeDistanceTable(Code128Reader.CODE_PATTERNS, 6);
+    for (int p = 0; p < Code128Reader.CODE_PATTERNS.length; p++) {
+      int[] pattern = Code128Reader.CODE_PATTERNS[p];
+      int[] counters = new int[6];
+      for (int spread = -1; spread <= 1; spread++) {
+        // 4 pixels per module, with bars a pixel wider or narrower, and spaces the opposite
+        for (int i = 0; i < counters.length; i++) {
+          counters[i] = 4 * pattern[i] + ((i & 0x01) == 0 ? spread : -spread);
+        }
+        assertEquals(p, table.lookup(counters));
+      }
+    }
+  }
+
+  @Test
+  public void testNoConfidentMatch() {
+    EdgeDistanceTable table = new EdgeDistanceTable(UPCEANReader.L_AND_G_PATTERNS, 4);
+    // First distance halfway between whole numbers of modules
+    assertEquals(-1, table.lookup(new int[] {5, 4, 2, 3}));
+    // Less than a pixel per module
+    assertEquals(-1, table.lookup(new int[] {1, 1, 1, 1}));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testPatternsOfDifferentWidths() {
+    new EdgeDistanceTable(new int[][] {{1, 1, 1, 1}, {2, 1, 1, 1}}, 4);
+  }
+
+  @Test
+  public void testUniqueMatchVariance() {
+    EdgeDistanceTable table = new EdgeDistanceTable(UPCEANReader.L_AND_G_PATTERNS, 4);
+    assertEquals(2.0f / (2 * 7), table.getUniqueMatchVariance(), 0.0001f);
+    assertUniqueMatchVariance(UPCEANReader.L_AND_G_PATTERNS, 4, 20);
+    assertUniqueMatchVariance(Code128Reader.CODE_PATTERNS, 6, 7);
+  }
+
+  /**
+   * Checks, for all counters up to a width, that a pattern which matches them with less than the
+   * unique match variance matches better than every other pattern.
+   */
+  private static void assertUniqueMatchVariance(int[][] patterns, int numCounters, int maxWidth) {
+    float uniqueMatchVariance = new EdgeDistanceTable(patterns, numCounters).getUniqueMatchVariance();
+    int[] counters = new int[numCounters];
+    Arrays.fill(counters, 1);
+    counters[0] = 0;
+    float[] variances = new float[patterns.length];
+    int numUnique = 0;
+    while (nextCounters(counters, maxWidth)) {
+      int best = -1;
+      for (int p = 0; p < patterns.length; p++) {
+        variances[p] = OneDReader.patternMatchVariance(counters, patterns[p], Float.POSITIVE_INFINITY);
+        if (variances[p] < uniqueMatchVariance) {
+          assertEquals(-1, best);
+          best = p;
+        }
+      }
+      if (best >= 0) {
+        numUnique++;
+        for (int p = 0; p < patterns.length; p++) {
+          assertTrue(p == best || variances[p] > variances[best]);
+        }
+      }
+    }
+    assertTrue(numUnique > 0);
+  }
+
+  private static boolean nextCounters(int[] counters, int maxWidth) {
+    for (int i = 0; i < counters.length; i++) {
+      if (counters[i] < maxWidth) {
+        counters[i]++;
+        return true;
+      }
+      counters[i] = 1;
+    }
+    return false;
+  }
+
+  private static void assertLooksUpEachPattern(int[][] patterns, int numCounters) {
+    EdgeDistanceTable table = new EdgeDistanceTable(patterns, numCounters);
+    int[] counters = new int[numCounters];
+    for (int p = 0; p < patterns.length; p++) {
+      for (int scale = 1; scale <= 5; scale++) {
+        for (int i = 0; i < numCounters; i++) {
+          counters[i] = scale * patterns[p][i];
+        }
+        assertEquals(p, table.lookup(counters));
+      }
+    }
+  }
+
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2016 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.oned;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.BufferedImageLuminanceSource;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.FormatException;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.ReaderException;
+import com.google.zxing.Result;
+import com.google.zxing.ResultMetadataType;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.GlobalHistogramBinarizer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Tests {@link OneDReader}, in particular decoding rows in parallel.
+ */
+public final class OneDReaderTestCase extends Assert {
+
+  private static final int WIDTH = 400;
+  private static final int HEIGHT = 600;
+
+  @Test
+  public void testParallelSameAsSerial() throws WriterException, ReaderException {
+    BitMatrix code = new Code128Writer().encode("parallel rows", BarcodeFormat.CODE_128, 300, 30);
+    // Well away from the middle of the image, so that many rows are tried first
+    assertParallelSameAsSerial(draw(code, 50, 520, false, false), null);
+    assertParallelSameAsSerial(draw(code, 50, 20, true, false), 180);
+    // Across the image, so that it's only found rotated
+    assertParallelSameAsSerial(draw(code, 360, 250, false, true), 270);
+  }
+
+  @Test
+  public void testRSSAndOtherFormatSameInParallel() throws IOException, WriterException, ReaderException {
+    // An RSS-14 barcode across the middle of the image, and a Code 128 barcode at its top edge
+    BufferedImage rss = ImageIO.read(new File("src/test/resources/blackbox/rss14-1/1.png"));
+    BufferedImage image = new BufferedImage(700, 700, BufferedImage.TYPE_BYTE_GRAY);
+    for (int y = 0; y < image.getHeight(); y++) {
+      for (int x = 0; x < image.getWidth(); x++) {
+        image.setRGB(x, y, 0xFFFFFFFF);
+      }
+    }
+    image.getGraphics().drawImage(rss, (image.getWidth() - rss.getWidth()) / 2,
+        (image.getHeight() - rss.getHeight()) / 2, null);
+    BitMatrix code = new Code128Writer().encode("parallel rows", BarcodeFormat.CODE_128, 300, 30);
+    for (int y = 0; y < code.getHeight(); y++) {
+      for (int x = 0; x < code.getWidth(); x++) {
+        if (code.get(x, y)) {
+          image.setRGB(200 + x, 10 + y, 0xFF000000);
+        }
+      }
+    }
+    BinaryBitmap bitmap = new BinaryBitmap(new GlobalHistogramBinarizer(new BufferedImageLuminanceSource(image)));
+
+    Map<DecodeHintType,Object> hints = new EnumMap<>(DecodeHintType.class);
+    hints.put(DecodeHintType.TRY_HARDER, Boolean.TRUE);
+    Result serial = new MultiFormatOneDReader(hints).decode(bitmap, hints);
+    assertEquals(BarcodeFormat.RSS_14, serial.getBarcodeFormat());
+    assertEquals("04412345678909", serial.getText());
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      hints.put(DecodeHintType.FORK_JOIN_POOL, pool);
+      Result parallel = new MultiFormatOneDReader(hints).decode(bitmap, hints);
+      assertEquals(serial.getBarcodeFormat(), parallel.getBarcodeFormat());
+      assertEquals(serial.getText(), parallel.getText());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void testCancelled() throws WriterException, ReaderException {
+    BitMatrix code = new Code128Writer().encode("parallel rows", BarcodeFormat.CODE_128, 300, 30);
+    BinaryBitmap image = draw(code, 50, 520, false, false);
+    Map<DecodeHintType,Object> hints = hintsFor(BarcodeFormat.CODE_128);
+    hints.put(DecodeHintType.TRY_HARDER, Boolean.TRUE);
+    AtomicBoolean cancelled = new AtomicBoolean();
+    hints.put(DecodeHintType.CANCELLED, cancelled);
+    assertEquals("parallel rows", new MultiFormatOneDReader(hints).decode(image, hints).getText());
+    cancelled.set(true);
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      assertCancelled(image, hints);
+      hints.put(DecodeHintType.FORK_JOIN_POOL, pool);
+      assertCancelled(image, hints);
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  private static void assertCancelled(BinaryBitmap image, Map<DecodeHintType,?> hints) throws FormatException {
+    try {
+      new MultiFormatOneDReader(hints).decode(image, hints);
+      fail("Should have stopped when cancelled");
+    } catch (NotFoundException nfe) {
+      // good
+    }
+  }
+
+  @Test
+  public void testReadersThatCombineRows() {
+    OneDReader reader = new MultiFormatOneDReader(hintsFor(BarcodeFormat.CODE_128, BarcodeFormat.EAN_13));
+    assertNotNull(reader.createReader());
+    // RSS readers put together what they find in several rows, so they can't be copied
+    assertNull(new MultiFormatOneDReader(null).createReader());
+    assertNull(new MultiFormatOneDReader(hintsFor(BarcodeFormat.CODE_128, BarcodeFormat.RSS_14)).createReader());
+    for (OneDReader each : new OneDReader[] {new CodaBarReader(), new Code39Reader(), new Code93Reader(),
+        new Code128Reader(), new EAN8Reader(), new EAN13Reader(), new ITFReader(), new UPCAReader(),
+        new UPCEReader()}) {
+      assertNotNull(each.createReader());
+    }
+  }
+
+  private static void assertParallelSameAsSerial(BinaryBitmap image, Integer orientation) throws ReaderException {
+    Map<DecodeHintType,Object> hints = hintsFor(BarcodeFormat.CODE_128, BarcodeFormat.EAN_13);
+    hints.put(DecodeHintType.TRY_HARDER, Boolean.TRUE);
+    Result serial = new MultiFormatOneDReader(hints).decode(image, hints);
+    assertEquals("parallel rows", serial.getText());
+    assertEquals(orientation, getOrientation(serial));
+
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      hints.put(DecodeHintType.FORK_JOIN_POOL, pool);
+      // The same every time
+      for (int i = 0; i < 3; i++) {
+        Result parallel = new MultiFormatOneDReader(hints).decode(image, hints);
+        assertEquals(serial.getText(), parallel.getText());
+        assertEquals(orientation, getOrientation(parallel));
+        assertArrayEquals(serial.getResultPoints(), parallel.getResultPoints());
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  private static Object getOrientation(Result result) {
+    Map<ResultMetadataType,Object> metadata = result.getResultMetadata();
+    return metadata == null ? null : metadata.get(ResultMetadataType.ORIENTATION);
+  }
+
+  private static Map<DecodeHintType,Object> hintsFor(BarcodeFormat... formats) {
+    Map<DecodeHintType,Object> hints = new EnumMap<>(DecodeHintType.class);
+    hints.put(DecodeHintType.POSSIBLE_FORMATS, EnumSet.copyOf(Arrays.asList(formats)));
+    return hints;
+  }
+
+  private static BinaryBitmap draw(BitMatrix code, int left, int top, boolean upsideDown, boolean vertical) {
+    BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_BYTE_GRAY);
+    for (int y = 0; y < HEIGHT; y++) {
+      for (int x = 0; x < WIDTH; x++) {
+        image.setRGB(x, y, 0xFFFFFFFF);
+      }
+    }
+    for (int y = 0; y < code.getHeight(); y++) {
+      for (int x = 0; x < code.getWidth(); x++) {
+        int codeX = upsideDown ? code.getWidth() - 1 - x : x;
+        if (code.get(codeX, y)) {
+          if (vertical) {
+            image.setRGB(left + y, top + x, 0xFF000000);
+          } else {
+            image.setRGB(left + x, top + y, 0xFF000000);
+          }
+        }
+      }
+    }
+    return new BinaryBitmap(new GlobalHistogramBinarizer(new BufferedImageLuminanceSource(image)));
+  }
+
+}
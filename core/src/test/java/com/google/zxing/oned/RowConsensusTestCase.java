@@ -0,0 +1,129 @@
+/*
+ * Copyright 2016 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.oned;
+
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.RGBLuminanceSource;
+import com.google.zxing.ReaderException;
+import com.google.zxing.common.GlobalHistogramBinarizer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Tests {@link RowConsensus}, and readers voting across rows with it.
+ */
+public final class RowConsensusTestCase extends Assert {
+
+  private static final int MODULE_SIZE = 3;
+  private static final int QUIET_ZONE = 15;
+  private static final int HEIGHT = 96;
+  // Rows of the barcode, from 24 to 72, are in three bands, each misreading a different symbol
+  private static final int BAND_TOP = 24;
+  private static final int BAND_HEIGHT = 16;
+
+  @Test
+  public void testMajority() {
+    RowConsensus consensus = new RowConsensus();
+    assertNull(consensus.add(new int[] {1, 2, 3}, 100, 10.0f, 90.0f));
+    // One reading each way for the last symbol
+    assertNull(consensus.add(new int[] {1, 2, 4}, 100, 10.0f, 90.0f));
+    assertArrayEquals(new int[] {1, 2, 3}, consensus.add(new int[] {1, 5, 3}, 100, 11.0f, 89.0f));
+  }
+
+  @Test
+  public void testDifferentBarcodes() {
+    RowConsensus consensus = new RowConsensus();
+    assertNull(consensus.add(new int[] {1, 2, 3}, 100, 10.0f, 90.0f));
+    // Not the same length, place or size of row
+    assertNull(consensus.add(new int[] {1, 2, 3, 4}, 100, 10.0f, 90.0f));
+    assertNull(consensus.add(new int[] {1, 2, 3}, 100, 30.0f, 90.0f));
+    assertNull(consensus.add(new int[] {1, 2, 3}, 200, 10.0f, 90.0f));
+    assertArrayEquals(new int[] {1, 2, 3}, consensus.add(new int[] {1, 2, 3}, 100, 10.0f, 90.0f));
+    consensus.clear();
+    assertNull(consensus.add(new int[] {1, 2, 3}, 100, 10.0f, 90.0f));
+  }
+
+  @Test
+  public void testEAN13() throws ReaderException {
+    boolean[] code = new EAN13Writer().encode("5901234123457");
+    boolean[][] bands = new boolean[3][];
+    for (int band = 0; band < bands.length; band++) {
+      // A different digit in the right half of each band, as a different L pattern
+      int digit = 7 + 2 * band;
+      bands[band] = code.clone();
+      writePattern(bands[band], 3 + 6 * 7 + 5 + (digit - 7) * 7, UPCEANReader.L_PATTERNS[band]);
+    }
+    assertVotesAcrossRows(new EAN13Reader(), render(bands), "5901234123457");
+  }
+
+  @Test
+  public void testCode128() throws ReaderException {
+    boolean[] code = new Code128Writer().encode("ZXING128");
+    boolean[][] bands = new boolean[3][];
+    for (int band = 0; band < bands.length; band++) {
+      // A different character in each band, read as '?'
+      bands[band] = code.clone();
+      writePattern(bands[band], (2 + 3 * band) * 11, Code128Reader.CODE_PATTERNS['?' - ' ']);
+    }
+    assertVotesAcrossRows(new Code128Reader(), render(bands), "ZXING128");
+  }
+
+  private static void assertVotesAcrossRows(OneDReader reader, BinaryBitmap image, String expected)
+      throws ReaderException {
+    try {
+      reader.decode(image);
+      fail("No one row should decode");
+    } catch (NotFoundException nfe) {
+      // good
+    }
+    Map<DecodeHintType,Object> hints = new EnumMap<>(DecodeHintType.class);
+    hints.put(DecodeHintType.VOTE_ACROSS_ROWS, Boolean.TRUE);
+    assertEquals(expected, reader.decode(image, hints).getText());
+  }
+
+  private static void writePattern(boolean[] modules, int start, int[] pattern) {
+    boolean black = true;
+    int x = start;
+    for (int width : pattern) {
+      for (int i = 0; i < width; i++) {
+        modules[x++] = black;
+      }
+      black = !black;
+    }
+  }
+
+  private static BinaryBitmap render(boolean[][] bands) {
+    int width = 2 * QUIET_ZONE + bands[0].length * MODULE_SIZE;
+    int[] pixels = new int[width * HEIGHT];
+    for (int y = 0; y < HEIGHT; y++) {
+      int band = (y - BAND_TOP) / BAND_HEIGHT;
+      for (int x = 0; x < width; x++) {
+        int module = (x - QUIET_ZONE) / MODULE_SIZE;
+        boolean black = y >= BAND_TOP && band < bands.length &&
+            x >= QUIET_ZONE && module < bands[band].length && bands[band][module];
+        pixels[y * width + x] = black ? 0xFF000000 : 0xFFFFFFFF;
+      }
+    }
+    return new BinaryBitmap(new GlobalHistogramBinarizer(new RGBLuminanceSource(width, HEIGHT, pixels)));
+  }
+
+}
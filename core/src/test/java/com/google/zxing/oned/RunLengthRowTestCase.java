@@ -0,0 +1,199 @@
+/*
+ * Copyright 2016 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.oned;
+
+import com.google.zxing.NotFoundException;
+import com.google.zxing.common.BitArray;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Tests {@link RunLengthRow}, and recording patterns from it, against the same done pixel by pixel
+ * on a {@link BitArray}.
+ */
+public final class RunLengthRowTestCase extends Assert {
+
+  @Test
+  public void testRuns() {
+    RunLengthRow row = new RunLengthRow(toBitArray("XX..XXX.X"));
+    assertEquals(9, row.getSize());
+    // Empty white run, 2 black, 2 white, 3 black, 1 white, 1 black, empty white run
+    assertEquals(7, row.getNumRuns());
+    int[] starts = {0, 0, 2, 4, 7, 8, 9};
+    int[] lengths = {0, 2, 2, 3, 1, 1, 0};
+    for (int run = 0; run < row.getNumRuns(); run++) {
+      assertEquals(starts[run], row.getRunStart(run));
+      assertEquals(lengths[run], row.getRunLength(run));
+      assertEquals(starts[run] + lengths[run], row.getRunEnd(run));
+    }
+    assertEquals("XX..XXX.X", row.toString());
+
+    RunLengthRow reversed = row.reverse();
+    assertEquals(7, reversed.getNumRuns());
+    assertEquals(0, reversed.getRunLength(0));
+    assertEquals(1, reversed.getRunLength(1));
+    assertEquals(0, reversed.getRunStart(1));
+    assertEquals(3, reversed.getRunLength(3));
+    assertEquals(2, reversed.getRunStart(3));
+    assertEquals("X.XXX..XX", reversed.toString());
+    assertEquals(row.toString(), reversed.reverse().toString());
+
+    RunLengthRow white = new RunLengthRow(new BitArray(5));
+    assertEquals(1, white.getNumRuns());
+    assertEquals(5, white.getRunLength(0));
+    assertEquals(5, white.getNextSet(0));
+  }
+
+  @Test
+  public void testAgainstBitArray() {
+    Random random = new Random(0xDEADBEEF);
+    for (int i = 0; i < 200; i++) {
+      BitArray bits = randomRow(random, 1 + random.nextInt(300));
+      RunLengthRow row = new RunLengthRow(bits);
+      assertSameRow(bits, row);
+      assertEquals(1, row.getNumRuns() & 0x01);
+      BitArray reversedBits = bits.clone();
+      reversedBits.reverse();
+      assertSameRow(reversedBits, row.reverse());
+    }
+  }
+
+  @Test
+  public void testRecordPattern() {
+    Random random = new Random(0xDEADBEEF);
+    for (int i = 0; i < 200; i++) {
+      BitArray bits = randomRow(random, 1 + random.nextInt(100));
+      BitArray reversedBits = bits.clone();
+      reversedBits.reverse();
+      RunLengthRow row = new RunLengthRow(bits);
+      assertSamePatterns(bits, row);
+      assertSamePatterns(reversedBits, row.reverse());
+    }
+  }
+
+  private static void assertSameRow(BitArray bits, RunLengthRow row) {
+    int size = bits.getSize();
+    assertEquals(size, row.getSize());
+    assertEquals(bits.toString().replace(" ", ""), row.toString());
+    for (int x = 0; x < size; x++) {
+      int run = row.getRun(x);
+      assertTrue(row.getRunStart(run) <= x && x < row.getRunEnd(run));
+      assertEquals(bits.get(x), row.get(x));
+      assertEquals(bits.getNextSet(x), row.getNextSet(x));
+      assertEquals(bits.getNextUnset(x), row.getNextUnset(x));
+      for (int end = x; end <= size && end <= x + 20; end++) {
+        assertEquals(bits.isRange(x, end, true), row.isRange(x, end, true));
+        assertEquals(bits.isRange(x, end, false), row.isRange(x, end, false));
+      }
+    }
+  }
+
+  private static void assertSamePatterns(BitArray bits, RunLengthRow row) {
+    for (int numCounters = 1; numCounters <= 8; numCounters++) {
+      int[] expected = new int[numCounters];
+      int[] actual = new int[numCounters];
+      for (int start = 0; start <= bits.getSize(); start++) {
+        boolean found = recordPattern(bits, start, expected);
+        try {
+          OneDReader.recordPattern(row, start, actual);
+          assertTrue(found);
+          assertArrayEquals(expected, actual);
+        } catch (NotFoundException nfe) {
+          assertFalse(found);
+        }
+        if (start < bits.getSize()) {
+          found = recordPatternInReverse(bits, start, expected);
+          try {
+            OneDReader.recordPatternInReverse(row, start, actual);
+            assertTrue(found);
+            assertArrayEquals(expected, actual);
+          } catch (NotFoundException nfe) {
+            assertFalse(found);
+          }
+        }
+      }
+    }
+  }
+
+  // Records runs pixel by pixel, as OneDReader did from a BitArray
+  private static boolean recordPattern(BitArray row, int start, int[] counters) {
+    int numCounters = counters.length;
+    Arrays.fill(counters, 0);
+    int end = row.getSize();
+    if (start >= end) {
+      return false;
+    }
+    boolean isWhite = !row.get(start);
+    int counterPosition = 0;
+    int i = start;
+    while (i < end) {
+      if (row.get(i) ^ isWhite) {
+        counters[counterPosition]++;
+      } else {
+        counterPosition++;
+        if (counterPosition == numCounters) {
+          break;
+        }
+        counters[counterPosition] = 1;
+        isWhite = !isWhite;
+      }
+      i++;
+    }
+    return counterPosition == numCounters || (counterPosition == numCounters - 1 && i == end);
+  }
+
+  private static boolean recordPatternInReverse(BitArray row, int start, int[] counters) {
+    int numTransitionsLeft = counters.length;
+    boolean last = row.get(start);
+    while (start > 0 && numTransitionsLeft >= 0) {
+      if (row.get(--start) != last) {
+        numTransitionsLeft--;
+        last = !last;
+      }
+    }
+    return numTransitionsLeft < 0 && recordPattern(row, start + 1, counters);
+  }
+
+  private static BitArray randomRow(Random random, int size) {
+    BitArray row = new BitArray(size);
+    int x = 0;
+    boolean black = random.nextBoolean();
+    while (x < size) {
+      int end = Math.min(size, x + 1 + random.nextInt(6));
+      if (black) {
+        row.setRange(x, end);
+      }
+      black = !black;
+      x = end;
+    }
+    return row;
+  }
+
+  private static BitArray toBitArray(CharSequence pixels) {
+    BitArray row = new BitArray(pixels.length());
+    for (int x = 0; x < pixels.length(); x++) {
+      if (pixels.charAt(x) == 'X') {
+        row.set(x);
+      }
+    }
+    return row;
+  }
+
+}
@@ -40,6 +40,7 @@ import com.google.zxing.ReaderException;
 import com.google.zxing.common.AbstractBlackBoxTestCase;
 import com.google.zxing.common.BitArray;
 import com.google.zxing.common.GlobalHistogramBinarizer;
+import com.google.zxing.oned.RunLengthRow;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -180,7 +181,7 @@ public final class RSSExpandedImage2binaryTestCase extends Assert {
     BufferedImage image = ImageIO.read(path.toFile());
     BinaryBitmap binaryMap = new BinaryBitmap(new GlobalHistogramBinarizer(new BufferedImageLuminanceSource(image)));
     int rowNumber = binaryMap.getHeight() / 2;
-    BitArray row = binaryMap.getBlackRow(rowNumber, null);
+    RunLengthRow row = new RunLengthRow(binaryMap.getBlackRow(rowNumber, null));
 
     List<ExpandedPair> pairs;
     try {
@@ -38,8 +38,8 @@ import com.google.zxing.BinaryBitmap;
 import com.google.zxing.BufferedImageLuminanceSource;
 import com.google.zxing.NotFoundException;
 import com.google.zxing.common.AbstractBlackBoxTestCase;
-import com.google.zxing.common.BitArray;
 import com.google.zxing.common.GlobalHistogramBinarizer;
+import com.google.zxing.oned.RunLengthRow;
 import com.google.zxing.oned.rss.DataCharacter;
 import com.google.zxing.oned.rss.FinderPattern;
 
@@ -57,7 +57,7 @@ public final class RSSExpandedInternalTestCase extends Assert {
     BufferedImage image = readImage("2.png");
     BinaryBitmap binaryMap = new BinaryBitmap(new GlobalHistogramBinarizer(new BufferedImageLuminanceSource(image)));
     int rowNumber = binaryMap.getHeight() / 2;
-    BitArray row = binaryMap.getBlackRow(rowNumber, null);
+    RunLengthRow row = new RunLengthRow(binaryMap.getBlackRow(rowNumber, null));
     List<ExpandedPair> previousPairs = new ArrayList<>();
 
     RSSExpandedReader rssExpandedReader = new RSSExpandedReader();
@@ -93,7 +93,7 @@ public final class RSSExpandedInternalTestCase extends Assert {
     BufferedImage image = readImage("3.png");
     BinaryBitmap binaryMap = new BinaryBitmap(new GlobalHistogramBinarizer(new BufferedImageLuminanceSource(image)));
     int rowNumber = binaryMap.getHeight() / 2;
-    BitArray row = binaryMap.getBlackRow(rowNumber, null);
+    RunLengthRow row = new RunLengthRow(binaryMap.getBlackRow(rowNumber, null));
     List<ExpandedPair> previousPairs = new ArrayList<>();
 
     RSSExpandedReader rssExpandedReader = new RSSExpandedReader();
@@ -114,7 +114,7 @@ public final class RSSExpandedInternalTestCase extends Assert {
   public void testDecodeCheckCharacter() throws Exception {
     BufferedImage image = readImage("3.png");
     BinaryBitmap binaryMap = new BinaryBitmap(new GlobalHistogramBinarizer(new BufferedImageLuminanceSource(image)));
-    BitArray row = binaryMap.getBlackRow(binaryMap.getHeight() / 2, null);
+    RunLengthRow row = new RunLengthRow(binaryMap.getBlackRow(binaryMap.getHeight() / 2, null));
 
     int[] startEnd = {145, 243};//image pixels where the A1 pattern starts (at 124) and ends (at 214)
     int value = 0;// A
@@ -130,7 +130,7 @@ public final class RSSExpandedInternalTestCase extends Assert {
   public void testDecodeDataCharacter() throws Exception {
     BufferedImage image = readImage("3.png");
     BinaryBitmap binaryMap = new BinaryBitmap(new GlobalHistogramBinarizer(new BufferedImageLuminanceSource(image)));
-    BitArray row = binaryMap.getBlackRow(binaryMap.getHeight() / 2, null);
+    RunLengthRow row = new RunLengthRow(binaryMap.getBlackRow(binaryMap.getHeight() / 2, null));
 
     int[] startEnd = {145, 243};//image pixels where the A1 pattern starts (at 124) and ends (at 214)
     int value = 0; // A
@@ -26,19 +26,27 @@
 
 package com.google.zxing.oned.rss.expanded;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 
 import com.google.zxing.oned.OneDReader;
+import com.google.zxing.oned.RunLengthRow;
+import com.google.zxing.oned.rss.DataCharacter;
+import com.google.zxing.oned.rss.FinderPattern;
 import org.junit.Assert;
 import org.junit.Test;
 
 import com.google.zxing.BinaryBitmap;
 import com.google.zxing.NotFoundException;
 import com.google.zxing.Result;
-import com.google.zxing.common.BitArray;
 
 public final class RSSExpandedStackedInternalTestCase extends Assert {
 
+  // A, A, B, B, C, D, D, E, E, F, F: the longest sequence of finder patterns, one per row
+  private static final int[] FINDER_PATTERN_SEQUENCE = {0, 0, 1, 1, 2, 3, 3, 4, 4, 5, 5};
+
   @Test
   public void testDecodingRowByRow() throws Exception {
     RSSExpandedReader rssExpandedReader = new RSSExpandedReader();
@@ -46,7 +54,7 @@ public final class RSSExpandedStackedInternalTestCase extends Assert {
     BinaryBitmap binaryMap = TestCaseUtil.getBinaryBitmap("src/test/resources/blackbox/rssexpandedstacked-2/1000.png");
 
     int firstRowNumber = binaryMap.getHeight() / 3;
-    BitArray firstRow = binaryMap.getBlackRow(firstRowNumber, null);
+    RunLengthRow firstRow = new RunLengthRow(binaryMap.getBlackRow(firstRowNumber, null));
     try {
       rssExpandedReader.decodeRow2pairs(firstRowNumber, firstRow);
       fail(NotFoundException.class.getName() + " expected");
@@ -63,8 +71,8 @@ public final class RSSExpandedStackedInternalTestCase extends Assert {
     firstExpandedRow.getPairs().get(1).getFinderPattern().getStartEnd()[1] = 0;
 
     int secondRowNumber = 2 * binaryMap.getHeight() / 3;
-    BitArray secondRow = binaryMap.getBlackRow(secondRowNumber, null);
-    secondRow.reverse();
+    RunLengthRow secondRow = new RunLengthRow(binaryMap.getBlackRow(secondRowNumber, null));
+    secondRow = secondRow.reverse();
 
     List<ExpandedPair> totalPairs = rssExpandedReader.decodeRow2pairs(secondRowNumber, secondRow);
 
@@ -82,5 +90,75 @@ public final class RSSExpandedStackedInternalTestCase extends Assert {
     assertEquals("(01)98898765432106(3202)012345(15)991231", result.getText());
   }
 
+  @Test
+  public void testCheckRowsAmongManyReadings() {
+    // Two readings of each row, of which only the second ones together match the check character:
+    // 22 characters, each adding 1 to the checksum except the check character itself. No other
+    // character can be taken for the check character.
+    RSSExpandedReader rssExpandedReader = new RSSExpandedReader();
+    List<ExpandedPair> expected = addReadings(rssExpandedReader, 211 * (22 - 4) + 21);
+    assertEquals(expected, rssExpandedReader.checkRows(false));
+    Collections.reverse(rssExpandedReader.getRows());
+    assertEquals(expected, rssExpandedReader.checkRows(true));
+
+    // Nothing matches this check character
+    rssExpandedReader = new RSSExpandedReader();
+    addReadings(rssExpandedReader, 211 * (22 - 4) + 22);
+    assertNull(rssExpandedReader.checkRows(false));
+  }
+
+  @Test
+  public void testCheckRowsGivesUp() {
+    // Before each reading of a row after the first, one that lacks its right character and adds all
+    // sorts of amounts to the checksum, so that the search rarely reaches the same point twice. Only
+    // the readings with both characters add up to 22 characters and match the check character, but
+    // the search tries every mix of readings before them, too many, and gives up.
+    RSSExpandedReader rssExpandedReader = new RSSExpandedReader();
+    List<ExpandedRow> rows = rssExpandedReader.getRows();
+    int rowNumber = 0;
+    for (int i = 0; i < FINDER_PATTERN_SEQUENCE.length; i++) {
+      FinderPattern finderPattern = new FinderPattern(FINDER_PATTERN_SEQUENCE[i], new int[2], 0, 0, rowNumber);
+      if (i > 0) {
+        ExpandedPair partial = new ExpandedPair(new DataCharacter(4095, (1 + 97 * i) % 211), null, finderPattern, true);
+        rows.add(new ExpandedRow(Collections.singletonList(partial), rowNumber++, false));
+      }
+      DataCharacter leftChar = i == 0 ? new DataCharacter(211 * (22 - 4) + 21, 0) : new DataCharacter(4095, 1);
+      ExpandedPair pair = new ExpandedPair(leftChar, new DataCharacter(4095, 1), finderPattern, false);
+      rows.add(new ExpandedRow(Collections.singletonList(pair), rowNumber++, false));
+    }
+    assertNull(rssExpandedReader.checkRows(false));
+    RSSExpandedReader.RowSequenceSearch search = new RSSExpandedReader.RowSequenceSearch(rows);
+    assertNull(search.search());
+    assertEquals(RSSExpandedReader.MAX_ROW_CHECKS, search.getRowChecks());
+
+    // Without the partial readings it's found
+    for (Iterator<ExpandedRow> iterator = rows.iterator(); iterator.hasNext();) {
+      if (iterator.next().getPairs().get(0).getRightChar() == null) {
+        iterator.remove();
+      }
+    }
+    assertNotNull(rssExpandedReader.checkRows(false));
+  }
+
+  private static List<ExpandedPair> addReadings(RSSExpandedReader rssExpandedReader, int checkCharacterValue) {
+    List<ExpandedPair> expected = new ArrayList<>();
+    int rowNumber = 0;
+    for (int i = 0; i < FINDER_PATTERN_SEQUENCE.length; i++) {
+      for (int checksumPortion = 0; checksumPortion <= 1; checksumPortion++) {
+        DataCharacter leftChar = i == 0 ?
+            new DataCharacter(checkCharacterValue, 0) : new DataCharacter(4095, checksumPortion);
+        ExpandedPair pair = new ExpandedPair(leftChar,
+                                             new DataCharacter(4095, checksumPortion),
+                                             new FinderPattern(FINDER_PATTERN_SEQUENCE[i], new int[2], 0, 0, rowNumber),
+                                             i == FINDER_PATTERN_SEQUENCE.length - 1);
+        rssExpandedReader.getRows().add(new ExpandedRow(Collections.singletonList(pair), rowNumber, false));
+        rowNumber++;
+        if (checksumPortion == 1) {
+          expected.add(pair);
+        }
+      }
+    }
+    return expected;
+  }
 
 }
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2016 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.qrcode.decoder;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.ChecksumException;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.FormatException;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Tests {@link Decoder}, in particular decoding with modules in doubt.
+ */
+public final class DecoderTestCase extends Assert {
+
+  private static final String TEXT = "http://www.example.com/erasures";
+
+  @Test
+  public void testUncertainModules() throws WriterException, FormatException, ChecksumException {
+    BitMatrix bits = encode();
+    BitMatrix uncertainBits = damage(bits);
+    try {
+      new Decoder().decode(bits.clone(), null);
+      fail("Should have too many errors");
+    } catch (ChecksumException ce) {
+      // good
+    }
+    assertEquals(TEXT, new Decoder().decode(bits, uncertainBits, null).getText());
+  }
+
+  @Test
+  public void testUncertainModulesMirrored() throws WriterException, FormatException, ChecksumException {
+    BitMatrix bits = transpose(encode());
+    // Modules in doubt are given as they appear, not as they would be once mirrored back
+    BitMatrix uncertainBits = damage(bits);
+    try {
+      new Decoder().decode(bits.clone(), transpose(uncertainBits), null);
+      fail("Should have erased the wrong codewords");
+    } catch (ChecksumException ce) {
+      // good
+    }
+    assertEquals(TEXT, new Decoder().decode(bits, uncertainBits, null).getText());
+  }
+
+  private static BitMatrix encode() throws WriterException {
+    Map<EncodeHintType,Object> hints = new EnumMap<>(EncodeHintType.class);
+    hints.put(EncodeHintType.MARGIN, 0);
+    hints.put(EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.L);
+    return new QRCodeWriter().encode(TEXT, BarcodeFormat.QR_CODE, 0, 0, hints);
+  }
+
+  /**
+   * Flips a wide, short block of modules near the bottom right, beyond what can be corrected as
+   * errors. It isn't square, so that it doesn't look the same transposed.
+   *
+   * @return the modules flipped
+   */
+  private static BitMatrix damage(BitMatrix bits) {
+    int dimension = bits.getWidth();
+    BitMatrix uncertainBits = new BitMatrix(dimension);
+    for (int y = dimension - 5; y < dimension - 1; y++) {
+      for (int x = dimension - 11; x < dimension - 1; x++) {
+        bits.flip(x, y);
+        uncertainBits.set(x, y);
+      }
+    }
+    return uncertainBits;
+  }
+
+  private static BitMatrix transpose(BitMatrix bits) {
+    BitMatrix result = new BitMatrix(bits.getHeight(), bits.getWidth());
+    for (int y = 0; y < bits.getHeight(); y++) {
+      for (int x = 0; x < bits.getWidth(); x++) {
+        if (bits.get(x, y)) {
+          result.set(y, x);
+        }
+      }
+    }
+    return result;
+  }
+
+}
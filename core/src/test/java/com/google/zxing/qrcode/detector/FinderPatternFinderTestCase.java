@@ -0,0 +1,126 @@
+/*
+ * Copyright 2016 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.qrcode.detector;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Tests {@link FinderPatternFinder}, in particular searching in parallel and for dense codes.
+ */
+public final class FinderPatternFinderTestCase extends Assert {
+
+  @Test
+  public void testParallelSearch() throws WriterException, NotFoundException {
+    // A large image with a small code away from the top, as in a high-resolution camera frame
+    BitMatrix code = new QRCodeWriter().encode("http://github.com/zxing/zxing", BarcodeFormat.QR_CODE, 300, 300);
+    BitMatrix image = new BitMatrix(1500, 2000);
+    for (int y = 0; y < code.getHeight(); y++) {
+      for (int x = 0; x < code.getWidth(); x++) {
+        if (code.get(x, y)) {
+          image.set(x + 900, y + 1200);
+        }
+      }
+    }
+
+    FinderPatternInfo serial = new FinderPatternFinder(image).find(null);
+
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      Map<DecodeHintType,Object> hints = new EnumMap<>(DecodeHintType.class);
+      hints.put(DecodeHintType.FORK_JOIN_POOL, pool);
+      FinderPatternInfo parallel = new FinderPatternFinder(image).find(hints);
+      assertSamePlace(serial.getTopLeft(), parallel.getTopLeft());
+      assertSamePlace(serial.getTopRight(), parallel.getTopRight());
+      assertSamePlace(serial.getBottomLeft(), parallel.getBottomLeft());
+      // And the same every time
+      for (int i = 0; i < 3; i++) {
+        FinderPatternInfo again = new FinderPatternFinder(image).find(hints);
+        assertEquals(parallel.getTopLeft(), again.getTopLeft());
+        assertEquals(parallel.getTopRight(), again.getTopRight());
+        assertEquals(parallel.getBottomLeft(), again.getBottomLeft());
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void testMaxVersionHint() throws WriterException, NotFoundException {
+    // A version 25 code, a bit over a quarter as tall as the image, placed so that the rows
+    // searched by default all miss the centers of its finder patterns
+    Map<EncodeHintType,Object> encodeHints = new EnumMap<>(EncodeHintType.class);
+    encodeHints.put(EncodeHintType.QR_VERSION, 25);
+    encodeHints.put(EncodeHintType.MARGIN, 0);
+    BitMatrix code = new QRCodeWriter().encode("dense", BarcodeFormat.QR_CODE, 585, 585, encodeHints);
+    BitMatrix image = new BitMatrix(1200, 2000);
+    for (int y = 0; y < code.getHeight(); y++) {
+      for (int x = 0; x < code.getWidth(); x++) {
+        if (code.get(x, y)) {
+          image.set(x + 600, y + 1008);
+        }
+      }
+    }
+
+    try {
+      new FinderPatternFinder(image).find(null);
+      fail("Should not find dense code without hint");
+    } catch (NotFoundException nfe) {
+      // good
+    }
+
+    Map<DecodeHintType,Object> hints = new EnumMap<>(DecodeHintType.class);
+    hints.put(DecodeHintType.TRY_HARDER, Boolean.TRUE);
+    FinderPatternInfo expected = new FinderPatternFinder(image).find(hints);
+    hints.clear();
+    hints.put(DecodeHintType.QR_CODE_MAX_VERSION, 25);
+    FinderPatternInfo actual = new FinderPatternFinder(image).find(hints);
+    assertSamePlace(expected.getTopLeft(), actual.getTopLeft());
+    assertSamePlace(expected.getTopRight(), actual.getTopRight());
+    assertSamePlace(expected.getBottomLeft(), actual.getBottomLeft());
+
+    // Partial hits are looked at again just the same when searching in parallel
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      hints.put(DecodeHintType.FORK_JOIN_POOL, pool);
+      FinderPatternInfo parallel = new FinderPatternFinder(image).find(hints);
+      assertSamePlace(actual.getTopLeft(), parallel.getTopLeft());
+      assertSamePlace(actual.getTopRight(), parallel.getTopRight());
+      assertSamePlace(actual.getBottomLeft(), parallel.getBottomLeft());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  private static void assertSamePlace(FinderPattern expected, FinderPattern actual) {
+    assertEquals(expected.getX(), actual.getX(), 1.0f);
+    assertEquals(expected.getY(), actual.getY(), 1.0f);
+    assertEquals(expected.getEstimatedModuleSize(), actual.getEstimatedModuleSize(), 0.5f);
+  }
+
+}